@@ -0,0 +1,149 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.interceptor.AdaptiveRateLimiter;
+import com.contentful.java.cma.interceptor.ConditionalCacheInterceptor;
+import com.contentful.java.cma.interceptor.RetryInterceptor;
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Sends synchronous calls to an in-process server, to find the cost the sdk adds to a request.
+ * <p>
+ * {@code okHttpBaseline} reads the same response with a bare OkHttp client, the difference to
+ * {@code fetchOne} is spent in the interceptors, retrofit, rx and parsing. The {@code chain}
+ * parameter adds the optional retry, rate limit and cache interceptors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallOverheadBenchmark {
+  private static final int UNLIMITED_REQUESTS_PER_SECOND = 1_000_000;
+
+  @Param({"default", "full"})
+  public String chain;
+
+  private MockWebServer server;
+  private CMAClient client;
+  private OkHttpClient baseline;
+  private Request baselineRequest;
+
+  @Setup
+  public void setup() throws IOException {
+    final String entry = EntryDeserializationBenchmark.readResource("entry_fetch_one_response.json");
+    final String page = EntryDeserializationBenchmark.readResource("entry_fetch_all_response.json");
+
+    server = newServer();
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        final String path = request.getPath();
+        final boolean one = path != null && path.contains("/entries/");
+        return new MockResponse()
+            .setHeader("Content-Type", "application/vnd.contentful.management.v1+json")
+            .setBody(one ? entry : page);
+      }
+    });
+    server.start();
+
+    final CMAClient.Builder builder = new CMAClient.Builder()
+        .setAccessToken("token")
+        .setCoreEndpoint(server.url("/").toString());
+    if ("full".equals(chain)) {
+      builder
+          .setRetryInterceptor(new RetryInterceptor.Builder().build())
+          .setRateLimiter(new AdaptiveRateLimiter(UNLIMITED_REQUESTS_PER_SECOND))
+          .setResponseCache(new ConditionalCacheInterceptor.Builder().build());
+    }
+    client = builder.build();
+
+    baseline = new OkHttpClient();
+    baselineRequest = new Request.Builder()
+        .url(server.url("/spaces/spaceid/environments/master/entries/entryid"))
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  /**
+   * Create a server answering without delay: otherwise responses written in more than one
+   * segment wait for the delayed acknowledgement of the client, which dominates every call.
+   */
+  static MockWebServer newServer() {
+    final MockWebServer server = new MockWebServer();
+    server.setServerSocketFactory(new ServerSocketFactory() {
+      @Override public ServerSocket createServerSocket() throws IOException {
+        return new ServerSocket() {
+          @Override public Socket accept() throws IOException {
+            final Socket socket = super.accept();
+            socket.setTcpNoDelay(true);
+            return socket;
+          }
+        };
+      }
+
+      @Override public ServerSocket createServerSocket(int port) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public ServerSocket createServerSocket(int port, int backlog) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public ServerSocket createServerSocket(int port, int backlog, InetAddress address) {
+        throw new UnsupportedOperationException();
+      }
+    });
+    return server;
+  }
+
+  @Benchmark
+  public String okHttpBaseline() throws IOException {
+    try (Response response = baseline.newCall(baselineRequest).execute()) {
+      return response.body().string();
+    }
+  }
+
+  @Benchmark
+  public CMAEntry fetchOne() {
+    return client.entries().fetchOne("spaceid", "master", "entryid");
+  }
+
+  @Benchmark
+  public CMAArray<CMAEntry> fetchAll() {
+    return client.entries().fetchAll("spaceid", "master");
+  }
+}
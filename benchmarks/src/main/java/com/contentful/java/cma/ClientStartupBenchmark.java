@@ -0,0 +1,85 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMASpace;
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup of a client: building it, and building it followed by its first request.
+ * <p>
+ * Every measurement runs once in a fresh jvm, so class loading and the creation of the http
+ * clients, retrofit services and modules are part of the result, as on a cold start of an
+ * application. The request is answered by a local server, so the network does not add noise.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class ClientStartupBenchmark {
+  private static final String FIXTURE = "space_fetch_one_response.json";
+  private static final int HTTP_OK = 200;
+
+  private HttpServer server;
+  private String endpoint;
+
+  @Setup
+  public void setup() throws IOException {
+    final byte[] body = EntryDeserializationBenchmark.readResource(FIXTURE)
+        .getBytes(StandardCharsets.UTF_8);
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(HTTP_OK, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+
+    endpoint = "http://" + server.getAddress().getHostString() + ":"
+        + server.getAddress().getPort() + "/";
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Benchmark
+  public CMAClient build() {
+    return newClient();
+  }
+
+  @Benchmark
+  public CMASpace timeToFirstRequest() {
+    return newClient().spaces().fetchOne("spaceid");
+  }
+
+  private CMAClient newClient() {
+    return new CMAClient.Builder()
+        .setAccessToken("token")
+        .setCoreEndpoint(endpoint)
+        .build();
+  }
+}
@@ -0,0 +1,121 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAEntry;
+import com.contentful.java.cma.model.rich.RichTextFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading entry collections with the streaming entry adapter against the former
+ * tree based deserializer.
+ * <p>
+ * Run with {@code -prof gc} to see the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}), the {@code entries} counter reports entries read per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntryDeserializationBenchmark {
+  private static final Type ENTRY_ARRAY = new TypeToken<CMAArray<CMAEntry>>() {
+  }.getType();
+
+  @Param({"rich_text_get_all.json", "entry_fetch_all_from_environment.json"})
+  public String fixture;
+
+  private String json;
+  private Gson streaming;
+  private Gson legacy;
+
+  /**
+   * Counts the entries read, so throughput can be compared per entry and not only per page.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+    public long entries;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      entries = 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    json = readResource(fixture);
+    streaming = CMAClient.createGson();
+    legacy = new GsonBuilder()
+        .registerTypeAdapter(CMAEntry.class, legacyEntryDeserializer())
+        .create();
+  }
+
+  @Benchmark
+  public CMAArray<CMAEntry> streamingAdapter(Counters counters) {
+    final CMAArray<CMAEntry> page = streaming.fromJson(json, ENTRY_ARRAY);
+    counters.entries += page.getItems().size();
+    return page;
+  }
+
+  @Benchmark
+  public CMAArray<CMAEntry> legacyDeserializer(Counters counters) {
+    final CMAArray<CMAEntry> page = legacy.fromJson(json, ENTRY_ARRAY);
+    counters.entries += page.getItems().size();
+    return page;
+  }
+
+  /**
+   * The deserializer used before entries got streamed: a json tree per entry, handed to a fresh
+   * gson instance, followed by a second pass resolving rich text.
+   */
+  private static JsonDeserializer<CMAEntry> legacyEntryDeserializer() {
+    return (element, type, context) -> {
+      final CMAEntry entry = new Gson().fromJson(element, CMAEntry.class);
+      RichTextFactory.resolveRichTextField(entry);
+      return entry;
+    };
+  }
+
+  static String readResource(String name) throws IOException {
+    try (InputStream stream =
+             EntryDeserializationBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+      if (stream == null) {
+        throw new IOException("Resource not found: " + name);
+      }
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = stream.read(buffer)) >= 0) {
+        out.write(buffer, 0, read);
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAEntry;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes entries, including their rich text fields, as they are sent by create and update.
+ * <p>
+ * One operation serializes every entry of a page, run with {@code -prof gc} to see the allocated
+ * bytes per page ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntrySerializationBenchmark {
+  private static final Type ENTRY_ARRAY = new TypeToken<CMAArray<CMAEntry>>() {
+  }.getType();
+
+  @Param({"rich_text_get_all.json", "entry_fetch_all_from_environment.json"})
+  public String fixture;
+
+  private Gson gson;
+  private List<CMAEntry> entries;
+
+  @Setup
+  public void setup() throws IOException {
+    gson = CMAClient.createGson();
+    final CMAArray<CMAEntry> page = gson.fromJson(
+        EntryDeserializationBenchmark.readResource(fixture),
+        ENTRY_ARRAY);
+    entries = page.getItems();
+  }
+
+  @Benchmark
+  public void serializePage(Blackhole blackhole) {
+    for (CMAEntry entry : entries) {
+      blackhole.consume(gson.toJson(entry, CMAEntry.class));
+    }
+  }
+
+  @Benchmark
+  public CMAEntry roundTrip() {
+    final CMAEntry entry = entries.get(0);
+    return gson.fromJson(gson.toJson(entry, CMAEntry.class), CMAEntry.class);
+  }
+}
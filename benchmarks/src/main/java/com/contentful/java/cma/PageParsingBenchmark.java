@@ -0,0 +1,90 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAAsset;
+import com.contentful.java.cma.model.CMAContentType;
+import com.contentful.java.cma.model.CMAEntry;
+import com.contentful.java.cma.model.CMAEnvironment;
+import com.contentful.java.cma.model.CMALocale;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the pages returned by {@code fetchAll} of the most used modules.
+ * <p>
+ * The pages are read from bytes through a reader, as the gson converter of retrofit does, so
+ * decoding is part of the measurement. Between them, the fixtures cover the system adapter, the
+ * entry adapter, the field adapter of content types and plain reflective models.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageParsingBenchmark {
+  private static final Map<String, Type> TYPES = new HashMap<>();
+
+  static {
+    TYPES.put("asset_fetch_all_response.json", new TypeToken<CMAArray<CMAAsset>>() {
+    }.getType());
+    TYPES.put("content_type_fetch_all_response.json", new TypeToken<CMAArray<CMAContentType>>() {
+    }.getType());
+    TYPES.put("entry_fetch_all_response.json", new TypeToken<CMAArray<CMAEntry>>() {
+    }.getType());
+    TYPES.put("environments_get_all.json", new TypeToken<CMAArray<CMAEnvironment>>() {
+    }.getType());
+    TYPES.put("locales_get_all.json", new TypeToken<CMAArray<CMALocale>>() {
+    }.getType());
+  }
+
+  @Param({
+      "asset_fetch_all_response.json",
+      "content_type_fetch_all_response.json",
+      "entry_fetch_all_response.json",
+      "environments_get_all.json",
+      "locales_get_all.json"
+  })
+  public String fixture;
+
+  private Gson gson;
+  private Type type;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() throws IOException {
+    gson = CMAClient.createGson();
+    type = TYPES.get(fixture);
+    bytes = EntryDeserializationBenchmark.readResource(fixture).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Object parsePage() throws IOException {
+    try (Reader reader = new InputStreamReader(
+        new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+      return gson.fromJson(reader, type);
+    }
+  }
+}
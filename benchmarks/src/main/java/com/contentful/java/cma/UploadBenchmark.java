@@ -0,0 +1,105 @@
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAUpload;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Uploads files of different sizes to an in-process server.
+ * <p>
+ * Files are streamed from disk, so {@code gc.alloc.rate.norm} should not grow with the file size.
+ * The {@code bytes} counter reports the upload throughput in bytes per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UploadBenchmark {
+  private static final long SEED = 42;
+
+  @Param({"65536", "1048576", "8388608"})
+  public int size;
+
+  private MockWebServer server;
+  private CMAClient client;
+  private Path file;
+
+  /**
+   * Counts the bytes uploaded, so throughput can be compared per byte and not only per file.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    final byte[] content = new byte[size];
+    new Random(SEED).nextBytes(content);
+    file = Files.createTempFile("cma-upload-benchmark", ".bin");
+    Files.write(file, content);
+
+    final String response = EntryDeserializationBenchmark.readResource("upload_post_response.json");
+
+    server = CallOverheadBenchmark.newServer();
+    // only the headers of uploads are recorded, the bodies are discarded.
+    server.setBodyLimit(0);
+    server.setDispatcher(new Dispatcher() {
+      @Override public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse().setBody(response);
+      }
+    });
+    server.start();
+
+    client = new CMAClient.Builder()
+        .setAccessToken("token")
+        .setCoreEndpoint(server.url("/").toString())
+        .setUploadEndpoint(server.url("/").toString())
+        .build();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    server.shutdown();
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public CMAUpload uploadFile(Counters counters) throws IOException {
+    final CMAUpload upload = client.uploads().create("spaceid", "master", file);
+    counters.bytes += size;
+    return upload;
+  }
+}
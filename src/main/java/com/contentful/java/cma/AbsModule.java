@@ -25,6 +25,7 @@ import com.contentful.java.cma.model.CMAResource;
 import java.util.concurrent.Executor;
 
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 import retrofit2.Retrofit;
 
@@ -37,6 +38,9 @@ abstract class AbsModule<T> {
   final String spaceId;
   final String environmentId;
   final Boolean environmentIdConfigured;
+  private final Retrofit retrofit;
+  Scheduler asyncScheduler = Schedulers.io();
+  private volatile T rxService;
 
   AbsModule(
       Retrofit retrofit,
@@ -44,6 +48,7 @@ abstract class AbsModule<T> {
       String spaceId,
       String environmentId,
       boolean environmentIdConfigured) {
+    this.retrofit = retrofit;
     this.service = createService(retrofit);
     this.callbackExecutor = callbackExecutor;
     this.spaceId = spaceId;
@@ -53,6 +58,24 @@ abstract class AbsModule<T> {
 
   protected abstract T createService(Retrofit retrofit);
 
+  /**
+   * @return a service whose calls do not block on subscription, created on first use.
+   * @see ReactiveCalls#async(Retrofit)
+   */
+  T rxService() {
+    T result = rxService;
+    if (result == null) {
+      synchronized (this) {
+        result = rxService;
+        if (result == null) {
+          result = createService(ReactiveCalls.async(retrofit));
+          rxService = result;
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Asserts that the given {@code object} with name {@code param} is not null, throws
    * {@link IllegalArgumentException} otherwise.
@@ -105,14 +128,14 @@ abstract class AbsModule<T> {
   }
 
   /**
-   * Creates an Observable with the given {@code func} function and subscribes to it
-   * with a set of pre-defined actions. The provided {@code callback} will be passed to these
-   * actions in order to populate the events.
+   * Creates an Observable with the given {@code func} function, running on the async executor,
+   * and subscribes to it with a set of pre-defined actions. The provided {@code callback} will be
+   * passed to these actions in order to populate the events.
    */
   <R> CMACallback<R> defer(DefFunc<R> func, CMACallback<R> callback) {
     assertNotNull(callback, "callback");
     Observable.defer(func)
-        .subscribeOn(Schedulers.io())
+        .subscribeOn(asyncScheduler)
         .subscribe(
             new ActionSuccess<R>(callbackExecutor, callback),
             new ActionError(callbackExecutor, callback));
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAAsset;
+import com.contentful.java.cma.model.CMAAssetFile;
+import com.contentful.java.cma.model.CMALink;
+import com.contentful.java.cma.model.CMAUpload;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Turns local files into processed, and optionally published, assets.
+ * <p>
+ * Every item runs through these stages: upload all its files, create the asset linking to the
+ * uploads, process the files of all locales, poll until every file has a url and publish. Many
+ * items are ingested at once, up to the configured concurrency. Waiting for processing does not
+ * block a thread: the polls are timers on a shared scheduler, backing off exponentially.
+ * <pre>{@code
+ * AssetIngest ingest = new AssetIngest.Builder().setConcurrency(8).build(client);
+ * ingest.ingest(spaceId, environmentId, items)
+ *     .blockingForEach(result -> System.out.println(result));
+ * }</pre>
+ * Combine with {@link CMAClient.Builder#setRateLimiter} to stay within the rate limits.
+ */
+public class AssetIngest {
+  private final ModuleUploads uploads;
+  private final ModuleAssets assets;
+  private final int concurrency;
+  private final boolean publish;
+  private final HelperSupport.Backoff pollInterval;
+  private final long processingTimeoutMillis;
+  private final Scheduler scheduler;
+
+  AssetIngest(Builder builder, CMAClient client) {
+    this.uploads = client.uploads();
+    this.assets = client.assets();
+    this.concurrency = builder.concurrency;
+    this.publish = builder.publish;
+    this.pollInterval = builder.pollInterval;
+    this.processingTimeoutMillis = builder.processingTimeoutMillis;
+    this.scheduler = builder.scheduler;
+  }
+
+  /**
+   * Ingest all items into the configured space and environment.
+   *
+   * @param items the assets to be created, with their files.
+   * @return a flowable of the result of every item, in order of completion.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @throws IllegalArgumentException if items is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public Flowable<BatchResult<CMAAsset>> ingest(Iterable<Item> items) {
+    return ingest(assets.spaceId, assets.environmentId, items);
+  }
+
+  /**
+   * Ingest all items.
+   * <p>
+   * Nothing is sent before the returned flowable is subscribed to. Items are taken from the
+   * iterable only when a slot is free, and a failing item does not end the ingest: it is reported
+   * as a failed {@link BatchResult}, carrying a {@link java.util.concurrent.TimeoutException} if
+   * processing took too long.
+   *
+   * @param spaceId       the space to create the assets in.
+   * @param environmentId the environment to create the assets in.
+   * @param items         the assets to be created, with their files.
+   * @return a flowable of the result of every item, in order of completion.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   * @throws IllegalArgumentException if items is null.
+   */
+  public Flowable<BatchResult<CMAAsset>> ingest(
+      final String spaceId,
+      final String environmentId,
+      final Iterable<Item> items) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+    assertNotNull(items, "items");
+
+    return HelperSupport.indexed(items)
+        .flatMapSingle(indexed -> ingest(spaceId, environmentId, indexed.item)
+            .map(asset -> BatchResult.success(indexed.index, indexed.item.asset, asset))
+            .onErrorReturn(throwable ->
+                BatchResult.failure(indexed.index, indexed.item.asset, throwable)),
+            false, concurrency);
+  }
+
+  private Single<CMAAsset> ingest(
+      final String spaceId,
+      final String environmentId,
+      final Item item) {
+    final Set<String> locales = item.files.keySet();
+
+    final Single<CMAAsset> processed = upload(spaceId, environmentId, item)
+        .andThen(Single.defer(() -> assets.rx().create(spaceId, environmentId, item.asset)))
+        .flatMap(created -> Flowable.fromIterable(locales)
+            .flatMapSingle(locale -> assets.rx().process(created, locale))
+            .ignoreElements()
+            .andThen(poll(created, locales, 0))
+            .timeout(processingTimeoutMillis, TimeUnit.MILLISECONDS, scheduler));
+
+    return publish ? processed.flatMap(asset -> assets.rx().publish(asset)) : processed;
+  }
+
+  /**
+   * Upload the files one after the other, linking every upload into the asset.
+   */
+  private Completable upload(
+      final String spaceId,
+      final String environmentId,
+      final Item item) {
+    return Flowable.fromIterable(item.files.entrySet())
+        .concatMapCompletable(file -> Single
+            .fromCallable(() -> uploads.create(spaceId, environmentId, file.getValue()))
+            .subscribeOn(uploads.asyncScheduler)
+            .doOnSuccess(upload -> link(item.asset, file.getKey(), upload))
+            .ignoreElement());
+  }
+
+  private Single<CMAAsset> poll(final CMAAsset created, final Set<String> locales, int attempt) {
+    final int nextAttempt = attempt + 1;
+    return Single.timer(pollDelay(attempt), TimeUnit.MILLISECONDS, scheduler)
+        .flatMap(tick -> assets.rx().fetchOne(
+            created.getSpaceId(),
+            created.getEnvironmentId(),
+            created.getId()))
+        .flatMap(asset -> isProcessed(asset, locales)
+            ? Single.just(asset)
+            : poll(created, locales, nextAttempt));
+  }
+
+  long pollDelay(int attempt) {
+    return pollInterval.delay(attempt);
+  }
+
+  static boolean isProcessed(CMAAsset asset, Set<String> locales) {
+    for (final String locale : locales) {
+      final CMAAssetFile file = asset.getFields().getFile(locale);
+      if (file == null || file.getUrl() == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void link(CMAAsset asset, String locale, CMAUpload upload) {
+    asset.getFields().getFile(locale).setUploadFrom(new CMALink(upload));
+  }
+
+  /**
+   * One asset to be ingested, together with a file per locale.
+   */
+  public static class Item {
+    private final CMAAsset asset;
+    private final Map<String, Path> files = new LinkedHashMap<>();
+
+    /**
+     * @param asset the asset to be created, its title and description are kept.
+     * @throws IllegalArgumentException if asset is null.
+     */
+    public Item(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      this.asset = asset;
+    }
+
+    /**
+     * Add the file of one locale.
+     *
+     * @param locale      the locale of the file.
+     * @param file        the file to be uploaded, its name is used as the file name of the asset.
+     * @param contentType the mime type of the file.
+     * @return this item for chaining.
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public Item addFile(String locale, Path file, String contentType) {
+      assertNotNull(locale, "locale");
+      assertNotNull(file, "file");
+      assertNotNull(contentType, "contentType");
+
+      asset.getFields().setFile(locale, new CMAAssetFile()
+          .setFileName(String.valueOf(file.getFileName()))
+          .setContentType(contentType));
+      files.put(locale, file);
+      return this;
+    }
+
+    /**
+     * @return the asset to be created.
+     */
+    public CMAAsset getAsset() {
+      return asset;
+    }
+
+    /**
+     * @return the files to be uploaded, by locale.
+     */
+    public Map<String, Path> getFiles() {
+      return Collections.unmodifiableMap(files);
+    }
+  }
+
+  /**
+   * Configures an {@link AssetIngest}.
+   * <p>
+   * The concurrency counts items being ingested. Polls for the processing state start after
+   * 500ms and back off up to 8s.
+   */
+  public static class Builder extends HelperSupport.PollingBuilder<Builder> {
+    private static final long DEFAULT_INITIAL_POLL_MILLIS = 500;
+    private static final long DEFAULT_MAX_POLL_MILLIS = 8_000;
+    private static final long DEFAULT_PROCESSING_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    boolean publish = true;
+    long processingTimeoutMillis = DEFAULT_PROCESSING_TIMEOUT_MILLIS;
+
+    public Builder() {
+      super(new HelperSupport.Backoff(
+          DEFAULT_INITIAL_POLL_MILLIS,
+          DEFAULT_MAX_POLL_MILLIS,
+          TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @param publish whether processed assets are published. Defaults to true.
+     * @return this builder for chaining.
+     */
+    public Builder setPublish(boolean publish) {
+      this.publish = publish;
+      return this;
+    }
+
+    /**
+     * @param timeout how long processing of one asset may take. Defaults to five minutes.
+     * @param unit    the unit of timeout.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if timeout is shorter than a millisecond.
+     */
+    public Builder setProcessingTimeout(long timeout, TimeUnit unit) {
+      this.processingTimeoutMillis = HelperSupport.timeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new ingest using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public AssetIngest build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new AssetIngest(this, client);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Runs one operation for many items, with a bounded number of requests in flight.
+ * <p>
+ * Items are taken from the iterable only when a slot gets free, so lazily produced items are
+ * never all held in memory. A failing item does not end the batch, it is reported as a failed
+ * {@link BatchResult}.
+ */
+class BatchExecutor {
+  static final int DEFAULT_CONCURRENCY = 4;
+
+  private BatchExecutor() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * One request of a batch.
+   *
+   * @param <T> the type of resource processed.
+   */
+  interface Operation<T> {
+    T apply(T item);
+  }
+
+  /**
+   * Apply the operation to all items.
+   *
+   * @param items       the items to be processed, in order.
+   * @param concurrency the maximum number of requests in flight.
+   * @param scheduler   the scheduler sending the requests, the async one of the module.
+   * @param operation   the blocking request to be sent per item.
+   * @param <T>         the type of resource processed.
+   * @return a flowable of all results, in order of completion.
+   * @throws IllegalArgumentException if items or operation is null.
+   * @throws IllegalArgumentException if concurrency is not positive.
+   */
+  static <T> Flowable<BatchResult<T>> execute(
+      final Iterable<T> items,
+      final int concurrency,
+      final Scheduler scheduler,
+      final Operation<T> operation) {
+    if (items == null) {
+      throw new IllegalArgumentException("items may not be null.");
+    }
+    if (operation == null) {
+      throw new IllegalArgumentException("operation may not be null.");
+    }
+    assertConcurrency(concurrency);
+
+    return HelperSupport.indexed(items)
+        .flatMap(indexed -> run(indexed, scheduler, operation), concurrency);
+  }
+
+  static void assertConcurrency(int concurrency) {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("concurrency needs to be positive.");
+    }
+  }
+
+  private static <T> Flowable<BatchResult<T>> run(
+      final HelperSupport.Indexed<T> indexed,
+      final Scheduler scheduler,
+      final Operation<T> operation) {
+    return Flowable
+        .fromCallable(() -> BatchResult.success(
+            indexed.index,
+            indexed.item,
+            operation.apply(indexed.item)))
+        .onErrorReturn(throwable -> BatchResult.failure(indexed.index, indexed.item, throwable))
+        .subscribeOn(scheduler);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+/**
+ * Outcome of one item of a batch operation.
+ * <p>
+ * Either {@link #getResult()} or {@link #getError()} is set, depending on whether the request
+ * for this item succeeded.
+ *
+ * @param <T> the type of resource processed.
+ */
+public class BatchResult<T> {
+  private final int index;
+  private final T item;
+  private final T result;
+  private final Throwable error;
+
+  BatchResult(int index, T item, T result, Throwable error) {
+    this.index = index;
+    this.item = item;
+    this.result = result;
+    this.error = error;
+  }
+
+  static <T> BatchResult<T> success(int index, T item, T result) {
+    return new BatchResult<>(index, item, result, null);
+  }
+
+  static <T> BatchResult<T> failure(int index, T item, Throwable error) {
+    return new BatchResult<>(index, item, null, error);
+  }
+
+  /**
+   * @return the position of the item in the given items, results arrive in completion order.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return the item given to the batch.
+   */
+  public T getItem() {
+    return item;
+  }
+
+  /**
+   * @return the resource returned by Contentful, null if the request failed.
+   */
+  public T getResult() {
+    return result;
+  }
+
+  /**
+   * @return the reason this item failed, null if it succeeded.
+   */
+  public Throwable getError() {
+    return error;
+  }
+
+  /**
+   * @return true if the request for this item succeeded.
+   */
+  public boolean isSuccessful() {
+    return error == null;
+  }
+
+  /**
+   * @return a human readable string, representing the object.
+   */
+  @Override public String toString() {
+    return "BatchResult { "
+        + "index = " + getIndex() + ", "
+        + (isSuccessful() ? "result = " + getResult() : "error = " + getError()) + " "
+        + "}";
+  }
+}
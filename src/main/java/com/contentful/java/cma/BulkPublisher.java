@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMABulkAction;
+import com.contentful.java.cma.model.CMABulkActionException;
+import com.contentful.java.cma.model.CMABulkStatus;
+import com.contentful.java.cma.model.CMAEntities;
+import com.contentful.java.cma.model.CMAError;
+import com.contentful.java.cma.model.CMALink;
+import com.contentful.java.cma.model.CMAPayload;
+import com.contentful.java.cma.model.CMAResource;
+import com.contentful.java.cma.model.CMAType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+import static com.contentful.java.cma.ReactiveCalls.single;
+
+/**
+ * Publishes, unpublishes or validates any number of entries and assets through bulk actions.
+ * <p>
+ * The resources are split into chunks of at most {@link Builder#setChunkSize(int)} items, one bulk
+ * action per chunk, with a bounded number of actions in flight. Every action is polled until its
+ * {@link CMABulkStatus} is final, using timers with exponential backoff on one shared scheduler,
+ * so no thread waits for an action. Every resource is reported as a {@link BatchResult}: failed
+ * ones carry a {@link CMABulkActionException} with the error reported for that resource. Null
+ * resources and ones without an id fail with an {@link IllegalArgumentException}, without being
+ * sent.
+ * <pre>{@code
+ * BulkPublisher publisher = new BulkPublisher.Builder().build(client);
+ * publisher.publish(spaceId, environmentId, entries)
+ *     .filter(result -> !result.isSuccessful())
+ *     .blockingForEach(result -> System.err.println(result));
+ * }</pre>
+ */
+public class BulkPublisher {
+  /**
+   * Maximum number of items of one bulk action accepted by Contentful.
+   */
+  public static final int MAX_CHUNK_SIZE = 200;
+
+  private final ModuleBulkActions bulkActions;
+  private final int chunkSize;
+  private final int concurrency;
+  private final HelperSupport.Backoff pollInterval;
+  private final long timeoutMillis;
+  private final Scheduler scheduler;
+
+  /**
+   * Sends the bulk action of one chunk.
+   */
+  private interface Submit {
+    Flowable<CMABulkAction> apply(String spaceId, String environmentId, CMAPayload payload);
+  }
+
+  BulkPublisher(Builder builder, CMAClient client) {
+    this.bulkActions = client.bulkActions();
+    this.chunkSize = builder.chunkSize;
+    this.concurrency = builder.concurrency;
+    this.pollInterval = builder.pollInterval;
+    this.timeoutMillis = builder.timeoutMillis;
+    this.scheduler = builder.scheduler;
+  }
+
+  /**
+   * Publish all given entries and assets.
+   *
+   * @param spaceId       the space of the resources.
+   * @param environmentId the environment of the resources.
+   * @param resources     entries, assets or links to them, each with id and version.
+   * @param <T>           the type of resources.
+   * @return a flowable of the result of every resource, in order of completion.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public <T extends CMAResource> Flowable<BatchResult<T>> publish(
+      String spaceId,
+      String environmentId,
+      Iterable<T> resources) {
+    return run(spaceId, environmentId, resources, bulkActions.rxService()::publish);
+  }
+
+  /**
+   * Unpublish all given entries and assets.
+   *
+   * @param spaceId       the space of the resources.
+   * @param environmentId the environment of the resources.
+   * @param resources     entries, assets or links to them, each with an id.
+   * @param <T>           the type of resources.
+   * @return a flowable of the result of every resource, in order of completion.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public <T extends CMAResource> Flowable<BatchResult<T>> unpublish(
+      String spaceId,
+      String environmentId,
+      Iterable<T> resources) {
+    return run(spaceId, environmentId, resources, bulkActions.rxService()::unpublish);
+  }
+
+  /**
+   * Validate all given entries and assets, without publishing them.
+   *
+   * @param spaceId       the space of the resources.
+   * @param environmentId the environment of the resources.
+   * @param resources     entries, assets or links to them, each with an id.
+   * @param <T>           the type of resources.
+   * @return a flowable of the result of every resource, in order of completion.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public <T extends CMAResource> Flowable<BatchResult<T>> validate(
+      String spaceId,
+      String environmentId,
+      Iterable<T> resources) {
+    return run(spaceId, environmentId, resources, bulkActions.rxService()::validate);
+  }
+
+  private <T extends CMAResource> Flowable<BatchResult<T>> run(
+      final String spaceId,
+      final String environmentId,
+      final Iterable<T> resources,
+      final Submit submit) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+    assertNotNull(resources, "resources");
+
+    return indexed(resources)
+        .buffer(chunkSize)
+        .flatMap(chunk -> runChunk(spaceId, environmentId, chunk, submit), concurrency);
+  }
+
+  /*
+   * Unlike Flowable.fromIterable, null resources are emitted as well, so they are reported as
+   * failures instead of failing all others.
+   */
+  private static <T> Flowable<HelperSupport.Indexed<T>> indexed(final Iterable<T> resources) {
+    return Flowable.defer(() -> {
+      final Iterator<T> iterator = resources.iterator();
+      return Flowable.<HelperSupport.Indexed<T>, Integer>generate(() -> 0, (index, emitter) -> {
+        if (iterator.hasNext()) {
+          emitter.onNext(new HelperSupport.Indexed<>(index, iterator.next()));
+        } else {
+          emitter.onComplete();
+        }
+        return index + 1;
+      });
+    });
+  }
+
+  /*
+   * Resources without an id cannot be linked. They fail on their own, without a request.
+   */
+  private <T extends CMAResource> Flowable<BatchResult<T>> runChunk(
+      final String spaceId,
+      final String environmentId,
+      final List<HelperSupport.Indexed<T>> chunk,
+      final Submit submit) {
+    final List<HelperSupport.Indexed<T>> accepted = new ArrayList<>(chunk.size());
+    final List<BatchResult<T>> rejected = new ArrayList<>();
+    final List<CMAResource> links = new ArrayList<>(chunk.size());
+    for (final HelperSupport.Indexed<T> indexed : chunk) {
+      try {
+        links.add(toLink(indexed.item));
+        accepted.add(indexed);
+      } catch (IllegalArgumentException e) {
+        rejected.add(BatchResult.failure(indexed.index, indexed.item, e));
+      }
+    }
+    if (accepted.isEmpty()) {
+      return Flowable.fromIterable(rejected);
+    }
+    final CMAPayload payload = new CMAPayload().setEntities(new CMAEntities().setItems(links));
+
+    return Flowable.fromIterable(rejected).concatWith(
+        single(submit.apply(spaceId, environmentId, payload))
+            .flatMap(action -> await(spaceId, environmentId, action, 0))
+            .timeout(timeoutMillis, TimeUnit.MILLISECONDS, scheduler)
+            .map(action -> results(accepted, action))
+            .onErrorReturn(throwable -> failures(accepted, throwable))
+            .flattenAsFlowable(results -> results));
+  }
+
+  private Single<CMABulkAction> await(
+      final String spaceId,
+      final String environmentId,
+      final CMABulkAction action,
+      int attempt) {
+    if (isFinal(action)) {
+      return Single.just(action);
+    }
+
+    final int nextAttempt = attempt + 1;
+    return Single.timer(pollDelay(attempt), TimeUnit.MILLISECONDS, scheduler)
+        .flatMap(tick -> single(bulkActions.rxService()
+            .fetch(spaceId, environmentId, action.getId())))
+        .flatMap(polled -> await(spaceId, environmentId, polled, nextAttempt));
+  }
+
+  long pollDelay(int attempt) {
+    return pollInterval.delay(attempt);
+  }
+
+  static boolean isFinal(CMABulkAction action) {
+    final CMABulkStatus status = action.getSystem().getBulkActionStatus();
+    return status == CMABulkStatus.SUCCEEDED || status == CMABulkStatus.FAILED;
+  }
+
+  /**
+   * Map the outcome of an action to its resources, using the errors reported per entity where
+   * available and the error of the action otherwise.
+   */
+  static <T extends CMAResource> List<BatchResult<T>> results(
+      List<HelperSupport.Indexed<T>> chunk,
+      CMABulkAction action) {
+    final List<BatchResult<T>> results = new ArrayList<>(chunk.size());
+    if (action.getSystem().getBulkActionStatus() == CMABulkStatus.SUCCEEDED) {
+      for (final HelperSupport.Indexed<T> indexed : chunk) {
+        results.add(BatchResult.success(indexed.index, indexed.item, indexed.item));
+      }
+      return results;
+    }
+
+    final Map<String, CMAError> errorsById = new HashMap<>();
+    final CMAError error = action.getError();
+    if (error != null && error.getDetails() != null && error.getDetails().getErrors() != null) {
+      for (final CMAError.EntityError entityError : error.getDetails().getErrors()) {
+        if (entityError.getEntity() != null) {
+          errorsById.put(entityError.getEntity().getId(), entityError.getError());
+        }
+      }
+    }
+
+    for (final HelperSupport.Indexed<T> indexed : chunk) {
+      final CMAError resourceError = errorsById.get(indexed.item.getId());
+      final CMABulkActionException exception =
+          new CMABulkActionException(action, resourceError == null ? error : resourceError);
+      results.add(BatchResult.failure(indexed.index, indexed.item, exception));
+    }
+    return results;
+  }
+
+  private static <T> List<BatchResult<T>> failures(
+      List<HelperSupport.Indexed<T>> chunk,
+      Throwable error) {
+    final List<BatchResult<T>> results = new ArrayList<>(chunk.size());
+    for (final HelperSupport.Indexed<T> indexed : chunk) {
+      results.add(BatchResult.failure(indexed.index, indexed.item, error));
+    }
+    return results;
+  }
+
+  /**
+   * @return a link to the given resource, keeping its version.
+   */
+  static CMAResource toLink(CMAResource resource) {
+    assertNotNull(resource, "resource");
+    if (resource.getId() == null) {
+      throw new IllegalArgumentException("resource.setId() was not called.");
+    }
+    if (resource.getSystem().getType() == CMAType.Link) {
+      return resource;
+    }
+
+    return new CMALink(resource.getSystem().getType())
+        .setId(resource.getId())
+        .setVersion(resource.getVersion());
+  }
+
+  /**
+   * Configures a {@link BulkPublisher}.
+   * <p>
+   * The concurrency counts bulk actions, including the ones being polled. Polls start after 500ms
+   * and back off up to 8s.
+   */
+  public static class Builder extends HelperSupport.PollingBuilder<Builder> {
+    private static final long DEFAULT_INITIAL_POLL_MILLIS = 500;
+    private static final long DEFAULT_MAX_POLL_MILLIS = 8_000;
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    int chunkSize = MAX_CHUNK_SIZE;
+    long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    public Builder() {
+      super(new HelperSupport.Backoff(
+          DEFAULT_INITIAL_POLL_MILLIS,
+          DEFAULT_MAX_POLL_MILLIS,
+          TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @param chunkSize the number of resources per bulk action. Defaults to
+     *                  {@link #MAX_CHUNK_SIZE}.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if chunkSize is not between 1 and {@link #MAX_CHUNK_SIZE}.
+     */
+    public Builder setChunkSize(int chunkSize) {
+      if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+        throw new IllegalArgumentException(
+            "chunkSize needs to be between 1 and " + MAX_CHUNK_SIZE + ".");
+      }
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    /**
+     * @param timeout how long one bulk action may take until it is reported as failed. Defaults
+     *                to ten minutes.
+     * @param unit    the unit of timeout.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if timeout is shorter than a millisecond.
+     */
+    public Builder setTimeout(long timeout, TimeUnit unit) {
+      this.timeoutMillis = HelperSupport.timeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new publisher using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public BulkPublisher build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new BulkPublisher(this, client);
+    }
+  }
+}
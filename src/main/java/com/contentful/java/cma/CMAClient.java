@@ -18,14 +18,17 @@ package com.contentful.java.cma;
 
 //BEGIN TO LONG CODE LINES
 
-import com.contentful.java.cma.gson.CMASystemDeserializer;
+import com.contentful.java.cma.gson.CMASystemTypeAdapterFactory;
 import com.contentful.java.cma.gson.EntrySerializer;
+import com.contentful.java.cma.gson.EntryTypeAdapterFactory;
 import com.contentful.java.cma.gson.FieldTypeAdapter;
 import com.contentful.java.cma.gson.LocaleSerializer;
 import com.contentful.java.cma.gson.MetadataSerializer;
 import com.contentful.java.cma.gson.SnapshotDeserializer;
 import com.contentful.java.cma.gson.WebHookBodyDeserializer;
+import com.contentful.java.cma.interceptor.AdaptiveRateLimiter;
 import com.contentful.java.cma.interceptor.AuthorizationHeaderInterceptor;
+import com.contentful.java.cma.interceptor.ConditionalCacheInterceptor;
 import com.contentful.java.cma.interceptor.ContentTypeInterceptor;
 import com.contentful.java.cma.interceptor.ContentfulUserAgentHeaderInterceptor;
 import com.contentful.java.cma.interceptor.ContentfulUserAgentHeaderInterceptor.Section;
@@ -33,22 +36,29 @@ import com.contentful.java.cma.interceptor.ContentfulUserAgentHeaderInterceptor.
 import com.contentful.java.cma.interceptor.ContentfulUserAgentHeaderInterceptor.Section.Version;
 import com.contentful.java.cma.interceptor.ErrorInterceptor;
 import com.contentful.java.cma.interceptor.LogInterceptor;
+import com.contentful.java.cma.interceptor.MetricsInterceptor;
+import com.contentful.java.cma.interceptor.MetricsListener;
 import com.contentful.java.cma.interceptor.RateLimitInterceptor;
 import com.contentful.java.cma.interceptor.RateLimitsListener;
+import com.contentful.java.cma.interceptor.RetryInterceptor;
 import com.contentful.java.cma.interceptor.UserAgentHeaderInterceptor;
 import com.contentful.java.cma.model.CMAEntry;
 import com.contentful.java.cma.model.CMAField;
 import com.contentful.java.cma.model.CMALocale;
 import com.contentful.java.cma.model.CMAMetadata;
 import com.contentful.java.cma.model.CMASnapshot;
-import com.contentful.java.cma.model.CMASystem;
 import com.contentful.java.cma.model.CMAWebhookTransformation;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
 import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
@@ -73,34 +83,36 @@ public class CMAClient {
   private static Gson gson;
 
   // Modules
-  private final ModuleApiKeys moduleApiKeys;
-  private final ModuleAssets moduleAssets;
-
-  private final ModuleBulkActions moduleBulkActions;
-  private final ModuleContentTypes moduleContentTypes;
-  private final ModuleEditorInterfaces moduleEditorInterfaces;
-  private final ModuleEntries moduleEntries;
-  private final ModuleEnvironments moduleEnvironments;
-  private final ModuleLocales moduleLocales;
-  private final ModuleOrganizations moduleOrganizations;
-  private final ModuleOrganizationUsage moduleOrganizationUsage;
-  private final ModuleSpaceUsage moduleSpaceUsage;
-  private final ModulePersonalAccessTokens modulePersonalAccessTokens;
-  private final ModulePreviewApiKeys modulePreviewApiKeys;
-  private final ModuleRoles moduleRoles;
-  private final ModuleSpaceMemberships moduleSpaceMemberships;
-  private final ModuleSpaces moduleSpaces;
-  private final ModuleTags moduleTags;
-  private final ModuleUiExtensions moduleUiExtensions;
-  private final ModuleUploads moduleUploads;
-  private final ModuleUsers moduleUsers;
-  private final ModuleWebhooks moduleWebhooks;
-  private final ModuleScheduledActions moduleScheduledActions;
-
-  private final ModuleTaxonomy moduleTaxonomy;
+  private final LazyModule<ModuleApiKeys> moduleApiKeys;
+  private final LazyModule<ModuleAssets> moduleAssets;
+
+  private final LazyModule<ModuleBulkActions> moduleBulkActions;
+  private final LazyModule<ModuleContentTypes> moduleContentTypes;
+  private final LazyModule<ModuleEditorInterfaces> moduleEditorInterfaces;
+  private final LazyModule<ModuleEntries> moduleEntries;
+  private final LazyModule<ModuleEnvironments> moduleEnvironments;
+  private final LazyModule<ModuleLocales> moduleLocales;
+  private final LazyModule<ModuleOrganizations> moduleOrganizations;
+  private final LazyModule<ModuleOrganizationUsage> moduleOrganizationUsage;
+  private final LazyModule<ModuleSpaceUsage> moduleSpaceUsage;
+  private final LazyModule<ModulePersonalAccessTokens> modulePersonalAccessTokens;
+  private final LazyModule<ModulePreviewApiKeys> modulePreviewApiKeys;
+  private final LazyModule<ModuleRoles> moduleRoles;
+  private final LazyModule<ModuleSpaceMemberships> moduleSpaceMemberships;
+  private final LazyModule<ModuleSpaces> moduleSpaces;
+  private final LazyModule<ModuleTags> moduleTags;
+  private final LazyModule<ModuleUiExtensions> moduleUiExtensions;
+  private final LazyModule<ModuleUploads> moduleUploads;
+  private final LazyModule<ModuleUsers> moduleUsers;
+  private final LazyModule<ModuleWebhooks> moduleWebhooks;
+  private final LazyModule<ModuleScheduledActions> moduleScheduledActions;
+
+  private final LazyModule<ModuleTaxonomy> moduleTaxonomy;
 
   // Executors
   Executor callbackExecutor;
+  Executor asyncExecutor;
+  Scheduler asyncScheduler;
 
   final boolean logSensitiveData;
 
@@ -127,66 +139,72 @@ public class CMAClient {
     );
 
     setCallbackExecutor(cmaBuilder);
+    setAsyncExecutor(cmaBuilder);
     Retrofit retrofit = retrofitBuilder.build();
 
-    // copy settings for upload, and change endpoint and call factory
-    retrofitBuilder.baseUrl(Constants.ENDPOINT_UPLOAD);
-    retrofitBuilder = setEndpoint(retrofitBuilder, cmaBuilder.uploadEndpoint);
-    retrofitBuilder.callFactory(
-        cmaBuilder.uploadCallFactory == null
-            ? cmaBuilder.defaultUploadCallFactoryBuilder().build()
-            : cmaBuilder.uploadCallFactory
-    );
-    Retrofit uploadRetrofit = retrofitBuilder.build();
+    // the upload call factory is built with its module, only once an upload is sent.
+    final Retrofit.Builder uploadRetrofitBuilder =
+        setEndpoint(retrofit.newBuilder().baseUrl(Constants.ENDPOINT_UPLOAD),
+            cmaBuilder.uploadEndpoint);
+    final Call.Factory customUploadCallFactory = cmaBuilder.uploadCallFactory;
+    final OkHttpClient.Builder uploadCallFactoryBuilder = customUploadCallFactory == null
+        ? cmaBuilder.defaultUploadCallFactoryBuilder()
+        : null;
 
     // Modules
     final String spaceId = cmaBuilder.spaceId;
     final String environmentId = cmaBuilder.environmentId;
     final boolean configured = cmaBuilder.environmentIdConfigured;
 
-    this.moduleApiKeys = new ModuleApiKeys(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleAssets = new ModuleAssets(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleBulkActions = new ModuleBulkActions(retrofit, callbackExecutor,
-        spaceId, environmentId, configured);
-    this.moduleContentTypes = new ModuleContentTypes(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleEditorInterfaces = new ModuleEditorInterfaces(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleEntries = new ModuleEntries(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleEnvironments = new ModuleEnvironments(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleLocales = new ModuleLocales(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleOrganizations = new ModuleOrganizations(retrofit, callbackExecutor, configured);
-    this.moduleOrganizationUsage = new ModuleOrganizationUsage(retrofit, callbackExecutor,
-            spaceId, environmentId, configured);
-    this.moduleSpaceUsage = new ModuleSpaceUsage(retrofit, callbackExecutor,
-            spaceId, environmentId, configured);
-    this.modulePersonalAccessTokens = new ModulePersonalAccessTokens(retrofit, callbackExecutor,
-        configured);
-    this.modulePreviewApiKeys = new ModulePreviewApiKeys(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleRoles = new ModuleRoles(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleSpaceMemberships = new ModuleSpaceMemberships(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleSpaces = new ModuleSpaces(retrofit, callbackExecutor, configured);
-    this.moduleTags = new ModuleTags(retrofit, callbackExecutor,
-            spaceId, environmentId, configured);
-    this.moduleUiExtensions = new ModuleUiExtensions(retrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleUploads = new ModuleUploads(uploadRetrofit, callbackExecutor, spaceId,
-        environmentId, configured);
-    this.moduleUsers = new ModuleUsers(retrofit, callbackExecutor, configured);
-    this.moduleWebhooks = new ModuleWebhooks(retrofit, callbackExecutor, spaceId, environmentId,
-        configured);
-    this.moduleScheduledActions = new ModuleScheduledActions(retrofit, callbackExecutor,
-        spaceId, environmentId, configured);
-    this.moduleTaxonomy = new ModuleTaxonomy(retrofit,
-            callbackExecutor, spaceId, environmentId, configured);
+    this.moduleApiKeys = lazy(() -> new ModuleApiKeys(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleAssets = lazy(() -> new ModuleAssets(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleBulkActions = lazy(() -> new ModuleBulkActions(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleContentTypes = lazy(() -> new ModuleContentTypes(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleEditorInterfaces = lazy(() -> new ModuleEditorInterfaces(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleEntries = lazy(() -> new ModuleEntries(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleEnvironments = lazy(() -> new ModuleEnvironments(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleLocales = lazy(() -> new ModuleLocales(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleOrganizations = lazy(() -> new ModuleOrganizations(
+        retrofit, callbackExecutor, configured));
+    this.moduleOrganizationUsage = lazy(() -> new ModuleOrganizationUsage(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleSpaceUsage = lazy(() -> new ModuleSpaceUsage(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.modulePersonalAccessTokens = lazy(() -> new ModulePersonalAccessTokens(
+        retrofit, callbackExecutor, configured));
+    this.modulePreviewApiKeys = lazy(() -> new ModulePreviewApiKeys(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleRoles = lazy(() -> new ModuleRoles(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleSpaceMemberships = lazy(() -> new ModuleSpaceMemberships(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleSpaces = lazy(() -> new ModuleSpaces(retrofit, callbackExecutor, configured));
+    this.moduleTags = lazy(() -> new ModuleTags(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleUiExtensions = lazy(() -> new ModuleUiExtensions(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleUploads = lazy(() -> new ModuleUploads(
+        uploadRetrofitBuilder
+            .callFactory(customUploadCallFactory == null
+                ? uploadCallFactoryBuilder.build()
+                : customUploadCallFactory)
+            .build(),
+        callbackExecutor, spaceId, environmentId, configured));
+    this.moduleUsers = lazy(() -> new ModuleUsers(retrofit, callbackExecutor, configured));
+    this.moduleWebhooks = lazy(() -> new ModuleWebhooks(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleScheduledActions = lazy(() -> new ModuleScheduledActions(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
+    this.moduleTaxonomy = lazy(() -> new ModuleTaxonomy(
+        retrofit, callbackExecutor, spaceId, environmentId, configured));
 
   }
 
@@ -202,7 +220,9 @@ public class CMAClient {
           .registerTypeAdapter(CMAWebhookTransformation.class, new WebHookBodyDeserializer())
           .registerTypeAdapter(CMALocale.class, new LocaleSerializer())
           .registerTypeAdapter(CMAMetadata.class, new MetadataSerializer())
-          .registerTypeAdapter(CMASystem.class, new CMASystemDeserializer())
+          .registerTypeAdapterFactory(new CMASystemTypeAdapterFactory())
+          // registered after EntrySerializer, so it reads entries and delegates writing to it.
+          .registerTypeAdapterFactory(new EntryTypeAdapterFactory())
           .create();
     }
 
@@ -220,6 +240,34 @@ public class CMAClient {
     }
   }
 
+  /**
+   * Sets the executor running blocking calls of asynchronous methods.
+   */
+  private void setAsyncExecutor(Builder clientBuilder) {
+    if (clientBuilder.asyncExecutor == null) {
+      asyncScheduler = Schedulers.io();
+      asyncExecutor = command -> asyncScheduler.scheduleDirect(command);
+    } else {
+      asyncExecutor = clientBuilder.asyncExecutor;
+      asyncScheduler = Schedulers.from(asyncExecutor);
+    }
+  }
+
+  /**
+   * Lets the given module run its asynchronous methods on the async executor.
+   */
+  private <M extends AbsModule<?>> M configure(M module) {
+    module.asyncScheduler = asyncScheduler;
+    return module;
+  }
+
+  /**
+   * Defers creating a module until it is used for the first time.
+   */
+  private <M extends AbsModule<?>> LazyModule<M> lazy(Supplier<M> factory) {
+    return new LazyModule<>(() -> configure(factory.get()));
+  }
+
   /**
    * Configures CMA core endpoint.
    */
@@ -234,158 +282,184 @@ public class CMAClient {
    * @return the api keys module.
    */
   public ModuleApiKeys apiKeys() {
-    return moduleApiKeys;
+    return moduleApiKeys.get();
   }
 
   /**
    * @return the preview api keys module.
    */
   public ModulePreviewApiKeys previewApiKeys() {
-    return modulePreviewApiKeys;
+    return modulePreviewApiKeys.get();
   }
 
   /**
    * @return the Assets module.
    */
   public ModuleAssets assets() {
-    return moduleAssets;
+    return moduleAssets.get();
   }
 
   /**
    * @return the Content Types module.
    */
   public ModuleContentTypes contentTypes() {
-    return moduleContentTypes;
+    return moduleContentTypes.get();
   }
 
   /**
    * @return the Editor Interface module.
    */
   public ModuleEditorInterfaces editorInterfaces() {
-    return moduleEditorInterfaces;
+    return moduleEditorInterfaces.get();
   }
 
   /**
    * @return the Entries module.
    */
   public ModuleEntries entries() {
-    return moduleEntries;
+    return moduleEntries.get();
   }
 
   /**
    * @return the Environments module.
    */
   public ModuleEnvironments environments() {
-    return moduleEnvironments;
+    return moduleEnvironments.get();
   }
 
   /**
    * @return the Organizations module.
    */
   public ModuleOrganizations organizations() {
-    return moduleOrganizations;
+    return moduleOrganizations.get();
   }
 
   /**
    * @return the Personal Access Token module.
    */
   public ModulePersonalAccessTokens personalAccessTokens() {
-    return modulePersonalAccessTokens;
+    return modulePersonalAccessTokens.get();
   }
 
   /**
    * @return the Roles module.
    */
   public ModuleRoles roles() {
-    return moduleRoles;
+    return moduleRoles.get();
   }
 
   /**
    * @return the Spaces module.
    */
   public ModuleSpaces spaces() {
-    return moduleSpaces;
+    return moduleSpaces.get();
   }
 
   /**
    * @return the Webhooks module.
    */
   public ModuleWebhooks webhooks() {
-    return moduleWebhooks;
+    return moduleWebhooks.get();
   }
 
   /**
    * @return the Users module.
    */
   public ModuleUsers users() {
-    return moduleUsers;
+    return moduleUsers.get();
   }
 
   /**
    * @return the organization usage module.
    */
   public ModuleOrganizationUsage organizationUsage() {
-    return moduleOrganizationUsage;
+    return moduleOrganizationUsage.get();
   }
 
   /**
    * @return the space usage module.
    */
   public ModuleSpaceUsage spaceUsage() {
-    return moduleSpaceUsage;
+    return moduleSpaceUsage.get();
   }
 
   /**
    * @return the Users module.
    */
   public ModuleUiExtensions uiExtensions() {
-    return moduleUiExtensions;
+    return moduleUiExtensions.get();
   }
 
   /**
    * @return the SpaceMembership module.
    */
   public ModuleSpaceMemberships spaceMemberships() {
-    return moduleSpaceMemberships;
+    return moduleSpaceMemberships.get();
   }
 
   /**
    * @return the Upload module.
    */
   public ModuleUploads uploads() {
-    return moduleUploads;
+    return moduleUploads.get();
   }
 
   /**
    * @return the Locales module.
    */
   public ModuleLocales locales() {
-    return moduleLocales;
+    return moduleLocales.get();
   }
 
   /**
    * @return the Tags module.
    */
   public ModuleTags tags() {
-    return moduleTags;
+    return moduleTags.get();
   }
 
   /**
    * @return the Bulk Actions module.
    */
   public ModuleBulkActions bulkActions() {
-    return moduleBulkActions;
+    return moduleBulkActions.get();
   }
 
   /**
    * @return the Scheduled Actions module.
    */
   public ModuleScheduledActions scheduledActions() {
-    return moduleScheduledActions;
+    return moduleScheduledActions.get();
   }
 
   public ModuleTaxonomy taxonomy() {
-    return moduleTaxonomy;
+    return moduleTaxonomy.get();
+  }
+
+  /**
+   * Run any blocking call of this client on the async executor.
+   * <p>
+   * This covers every method of every module, and allows calls to be combined:
+   * <pre>{@code
+   * client.future(c -> c.entries().fetchOne("entryId"))
+   *     .thenApply(entry -> entry.setField("title", "en-US", "updated"))
+   *     .thenCompose(entry -> client.future(c -> c.entries().update(entry)));
+   * }</pre>
+   * Failures, like a {@link com.contentful.java.cma.model.CMAHttpException}, complete the future
+   * exceptionally.
+   *
+   * @param call the blocking call to be run.
+   * @param <R>  the result of the call.
+   * @return a future completed with the result of the call.
+   * @throws IllegalArgumentException if call is null.
+   * @see Builder#setAsyncExecutor(Executor)
+   */
+  public <R> CompletableFuture<R> future(final Function<? super CMAClient, ? extends R> call) {
+    if (call == null) {
+      throw new IllegalArgumentException("call may not be null.");
+    }
+
+    return CompletableFuture.supplyAsync(() -> call.apply(this), asyncExecutor);
   }
 
 
@@ -406,7 +480,13 @@ public class CMAClient {
     private boolean environmentIdConfigured = false;
     private String spaceId;
     private Executor callbackExecutor;
+    private Executor asyncExecutor;
     private RateLimitsListener rateLimitListener;
+    private AdaptiveRateLimiter rateLimiter;
+    private RetryInterceptor retryInterceptor;
+    private ConditionalCacheInterceptor responseCache;
+    private HttpTransport transport;
+    private MetricsListener metricsListener;
 
     boolean logSensitiveData = false;
 
@@ -536,6 +616,28 @@ public class CMAClient {
       return this;
     }
 
+    /**
+     * Sets the executor running the blocking calls of {@link CMAClient#future(Function)} and of
+     * all {@code async()} modules.
+     * <p>
+     * Every call occupies one thread of this executor while it waits for the response. On JDK 21
+     * and later a {@code Executors.newVirtualThreadPerTaskExecutor()} allows a large number of
+     * concurrent calls without a large pool of platform threads. The executor is not shut down by
+     * the client.
+     *
+     * @param executor Executor to run blocking calls on. Defaults to the io scheduler of RxJava.
+     * @return this {@code Builder} instance
+     * @see #setCallbackExecutor(Executor)
+     */
+    public Builder setAsyncExecutor(Executor executor) {
+      if (executor == null) {
+        throw new IllegalArgumentException("Cannot call setAsyncExecutor() with null.");
+      }
+
+      this.asyncExecutor = executor;
+      return this;
+    }
+
     /**
      * Sets the logger to be used for logging all network requests or all application requests.
      *
@@ -603,6 +705,112 @@ public class CMAClient {
       return this;
     }
 
+    /**
+     * Pace all requests of this client to the rate limits reported by Contentful.
+     * <p>
+     * The limiter is used by the core and the upload call factory, so all modules and threads
+     * using this client share it. Reuse the same limiter for other clients using the same access
+     * token.
+     * <p>
+     * If a custom call factory is set, the limiter has to be added to it manually.
+     *
+     * @param limiter the limiter to wait on before every request.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if limiter is null.
+     * @see AdaptiveRateLimiter
+     */
+    public Builder setRateLimiter(AdaptiveRateLimiter limiter) {
+      if (limiter == null) {
+        throw new IllegalArgumentException("Cannot call setRateLimiter() with null.");
+      }
+
+      this.rateLimiter = limiter;
+      return this;
+    }
+
+    /**
+     * Retry requests failing temporarily, instead of throwing a {@link CMAHttpException} right
+     * away.
+     * <p>
+     * The interceptor is used by the core and the upload call factory. If a custom call factory is
+     * set, it has to be added to it manually.
+     *
+     * @param interceptor the interceptor deciding which requests to retry.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if interceptor is null.
+     * @see RetryInterceptor
+     */
+    public Builder setRetryInterceptor(RetryInterceptor interceptor) {
+      if (interceptor == null) {
+        throw new IllegalArgumentException("Cannot call setRetryInterceptor() with null.");
+      }
+
+      this.retryInterceptor = interceptor;
+      return this;
+    }
+
+    /**
+     * Revalidate repeated reads with their {@code ETag}, instead of transferring unchanged
+     * responses again.
+     * <p>
+     * The cache is only used by the core call factory. If a custom call factory is set, it has to
+     * be added to it manually, after the {@link ErrorInterceptor}.
+     *
+     * @param cache the cache holding the responses to be revalidated.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if cache is null.
+     * @see ConditionalCacheInterceptor
+     */
+    public Builder setResponseCache(ConditionalCacheInterceptor cache) {
+      if (cache == null) {
+        throw new IllegalArgumentException("Cannot call setResponseCache() with null.");
+      }
+
+      this.responseCache = cache;
+      return this;
+    }
+
+    /**
+     * Share connections and threads with other clients using the same transport.
+     * <p>
+     * The transport is used by the core and the upload call factory, all interceptors stay
+     * specific to this client. If a custom call factory is set, the transport is not used for it.
+     *
+     * @param transport the transport to be shared.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if transport is null.
+     * @see HttpTransport
+     */
+    public Builder setTransport(HttpTransport transport) {
+      if (transport == null) {
+        throw new IllegalArgumentException("Cannot call setTransport() with null.");
+      }
+
+      this.transport = transport;
+      return this;
+    }
+
+    /**
+     * Report latency, bytes, status, retries and rate limits of every call to a listener.
+     * <p>
+     * The metrics are collected by the core and the upload call factory. Without a listener, no
+     * metrics are collected at all. If a custom call factory is set, a {@link MetricsInterceptor}
+     * has to be added to it manually.
+     *
+     * @param listener the listener to be informed about every finished call.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if listener is null.
+     * @see com.contentful.java.cma.interceptor.MetricsRecorder
+     */
+    public Builder setMetricsListener(MetricsListener listener) {
+      if (listener == null) {
+        throw new IllegalArgumentException("Cannot call setMetricsListener() with null.");
+      }
+
+      this.metricsListener = listener;
+      return this;
+    }
+
     /**
      * @return a {@link CMAClient} out of this {@link Builder}.
      */
@@ -614,7 +822,13 @@ public class CMAClient {
      * @return default core call factory builder, used by the sdk.
      */
     public OkHttpClient.Builder defaultCoreCallFactoryBuilder() {
-      final OkHttpClient.Builder okBuilder = new OkHttpClient.Builder()
+      final MetricsInterceptor metrics = createMetricsInterceptor();
+      final OkHttpClient.Builder okBuilder = newOkHttpBuilder();
+      if (metrics != null) {
+        okBuilder.addInterceptor(metrics);
+      }
+
+      okBuilder
           .addInterceptor(new AuthorizationHeaderInterceptor(accessToken))
           .addInterceptor(new UserAgentHeaderInterceptor(getUserAgent()))
           .addInterceptor(new ContentfulUserAgentHeaderInterceptor(
@@ -623,6 +837,17 @@ public class CMAClient {
           .addInterceptor(new ContentTypeInterceptor(DEFAULT_CONTENT_TYPE))
           .addInterceptor(new ErrorInterceptor(logSensitiveData));
 
+      // a 304 has to be replayed before the error interceptor sees it.
+      if (responseCache != null) {
+        okBuilder.addInterceptor(responseCache);
+      }
+
+      addRetriesAndRateLimits(okBuilder);
+
+      if (metrics != null) {
+        okBuilder.addInterceptor(metrics.attemptInterceptor());
+      }
+
       if (rateLimitListener != null) {
         okBuilder
             .addInterceptor(
@@ -637,7 +862,13 @@ public class CMAClient {
      * @return default update api call factory builder, used by the sdk.
      */
     public OkHttpClient.Builder defaultUploadCallFactoryBuilder() {
-      final OkHttpClient.Builder okBuilder = new OkHttpClient.Builder()
+      final MetricsInterceptor metrics = createMetricsInterceptor();
+      final OkHttpClient.Builder okBuilder = newOkHttpBuilder();
+      if (metrics != null) {
+        okBuilder.addInterceptor(metrics);
+      }
+
+      okBuilder
           .addInterceptor(new AuthorizationHeaderInterceptor(accessToken))
           .addInterceptor(new UserAgentHeaderInterceptor(getUserAgent()))
           .addInterceptor(new ContentfulUserAgentHeaderInterceptor(
@@ -646,9 +877,34 @@ public class CMAClient {
           .addInterceptor(new ContentTypeInterceptor(OCTET_STREAM_CONTENT_TYPE))
           .addInterceptor(new ErrorInterceptor(logSensitiveData));
 
+      addRetriesAndRateLimits(okBuilder);
+
+      if (metrics != null) {
+        okBuilder.addInterceptor(metrics.attemptInterceptor());
+      }
+
       return setLogger(okBuilder);
     }
 
+    private MetricsInterceptor createMetricsInterceptor() {
+      return metricsListener == null ? null : new MetricsInterceptor(metricsListener);
+    }
+
+    private OkHttpClient.Builder newOkHttpBuilder() {
+      return transport == null ? new OkHttpClient.Builder() : transport.newCallFactoryBuilder();
+    }
+
+    // retries have to pass the rate limiter again, both see responses before they become errors.
+    private void addRetriesAndRateLimits(OkHttpClient.Builder okBuilder) {
+      if (retryInterceptor != null) {
+        okBuilder.addInterceptor(retryInterceptor);
+      }
+
+      if (rateLimiter != null) {
+        okBuilder.addInterceptor(rateLimiter);
+      }
+    }
+
     private String getUserAgent() {
       return String.format(
           "contentful-management.java/%s",
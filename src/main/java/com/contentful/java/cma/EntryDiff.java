@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAEntry;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+/**
+ * Finds the changes between two versions of an entry, as a {@link JsonPatch}.
+ * <p>
+ * Fields and locales are compared one by one, and changed values are compared down to their
+ * nested objects and arrays, like the nodes of rich text. For every changed subtree the smaller
+ * of two patches is used: the operations on its children, or one replacing the whole subtree.
+ * Editing one paragraph of a long rich text document is therefore sent as a single operation on
+ * that paragraph.
+ * <p>
+ * Both entries are serialized like they are sent to Contentful, so linked entries and assets are
+ * compared as links, and so are the targets of rich text nodes.
+ * <p>
+ * Only fields are compared, changes of {@code sys} or {@code metadata} are ignored.
+ */
+public final class EntryDiff {
+  private static final String FIELDS = "fields";
+
+  private EntryDiff() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Find the operations turning the fields of one entry into the fields of another.
+   *
+   * @param from the entry as it is stored, usually as fetched.
+   * @param to   the entry as it should be stored.
+   * @return a patch changing the fields of {@code from} into the fields of {@code to}, empty if
+   * they are equal.
+   * @throws IllegalArgumentException if from or to is null.
+   * @throws IllegalArgumentException if a field links to a resource without an id.
+   */
+  public static JsonPatch diff(CMAEntry from, CMAEntry to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("from and to may not be null.");
+    }
+
+    final Gson gson = CMAClient.createGson();
+    final JsonPatch patch = new JsonPatch();
+    final JsonObject fromFields = fields(gson, from);
+    final JsonObject toFields = fields(gson, to);
+
+    for (Map.Entry<String, JsonElement> field : fromFields.entrySet()) {
+      if (!toFields.has(field.getKey())) {
+        patch.remove(JsonPatch.pointer(FIELDS, field.getKey()));
+      }
+    }
+
+    for (Map.Entry<String, JsonElement> field : toFields.entrySet()) {
+      final String fieldPath = JsonPatch.pointer(FIELDS, field.getKey());
+      final JsonElement fromLocales = fromFields.get(field.getKey());
+      if (fromLocales == null) {
+        // values cannot be added to a field missing on the entry, it is added with all locales.
+        patch.add(fieldPath, field.getValue());
+        continue;
+      }
+
+      diffObjects(gson, fieldPath, fromLocales.getAsJsonObject(),
+          field.getValue().getAsJsonObject(), patch);
+    }
+
+    return patch;
+  }
+
+  /*
+   * The patch of the children is only used if it is smaller than replacing the value as a whole.
+   */
+  private static JsonPatch smallest(Gson gson, String path, JsonElement from, JsonElement to) {
+    final JsonPatch patch = new JsonPatch();
+    if (from.equals(to)) {
+      return patch;
+    }
+
+    final JsonPatch replacement = new JsonPatch().replace(path, to);
+    if (from.isJsonObject() && to.isJsonObject()) {
+      diffObjects(gson, path, from.getAsJsonObject(), to.getAsJsonObject(), patch);
+    } else if (from.isJsonArray() && to.isJsonArray()) {
+      diffArrays(gson, path, from.getAsJsonArray(), to.getAsJsonArray(), patch);
+    } else {
+      return replacement;
+    }
+
+    if (patch.isEmpty() || patch.size() > 1
+        && size(gson, patch) >= size(gson, replacement)) {
+      return replacement;
+    }
+    return patch;
+  }
+
+  private static void diffObjects(
+      Gson gson,
+      String path,
+      JsonObject from,
+      JsonObject to,
+      JsonPatch patch) {
+    for (Map.Entry<String, JsonElement> member : from.entrySet()) {
+      if (!to.has(member.getKey())) {
+        patch.remove(path + "/" + JsonPatch.escape(member.getKey()));
+      }
+    }
+
+    for (Map.Entry<String, JsonElement> member : to.entrySet()) {
+      final String memberPath = path + "/" + JsonPatch.escape(member.getKey());
+      if (!from.has(member.getKey())) {
+        patch.add(memberPath, member.getValue());
+      } else {
+        patch.addAll(smallest(gson, memberPath, from.get(member.getKey()), member.getValue()));
+      }
+    }
+  }
+
+  /*
+   * Common elements at the start and the end are kept. In between, elements are compared by
+   * index if the count did not change, otherwise inserted or removed if the other side has none
+   * left. Anything else clears the patch, so the whole array gets replaced.
+   */
+  private static void diffArrays(
+      Gson gson,
+      String path,
+      JsonArray from,
+      JsonArray to,
+      JsonPatch patch) {
+    int prefix = 0;
+    final int shorter = Math.min(from.size(), to.size());
+    while (prefix < shorter && from.get(prefix).equals(to.get(prefix))) {
+      prefix++;
+    }
+
+    int suffix = 0;
+    while (suffix < shorter - prefix
+        && from.get(from.size() - 1 - suffix).equals(to.get(to.size() - 1 - suffix))) {
+      suffix++;
+    }
+
+    final int removed = from.size() - prefix - suffix;
+    final int inserted = to.size() - prefix - suffix;
+
+    if (removed == inserted) {
+      for (int i = prefix; i < prefix + removed; i++) {
+        patch.addAll(smallest(gson, path + "/" + i, from.get(i), to.get(i)));
+      }
+    } else if (removed == 0) {
+      for (int i = prefix; i < prefix + inserted; i++) {
+        patch.add(path + "/" + i, to.get(i));
+      }
+    } else if (inserted == 0) {
+      for (int i = 0; i < removed; i++) {
+        patch.remove(path + "/" + prefix);
+      }
+    }
+  }
+
+  /*
+   * Fields are written by the entry serializer, turning resources into links and dropping empty
+   * values, exactly as in the body of an update.
+   */
+  private static JsonObject fields(Gson gson, CMAEntry entry) {
+    if (entry.getFields() == null) {
+      return new JsonObject();
+    }
+    return gson.toJsonTree(entry, CMAEntry.class).getAsJsonObject().getAsJsonObject(FIELDS);
+  }
+
+  private static int size(Gson gson, JsonPatch patch) {
+    return gson.toJson(patch.getOperations()).length();
+  }
+}
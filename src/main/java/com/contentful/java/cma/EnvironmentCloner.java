@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAEnvironment;
+import com.contentful.java.cma.model.CMAEnvironmentException;
+import com.contentful.java.cma.model.CMAEnvironmentStatus;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+import static com.contentful.java.cma.ReactiveCalls.single;
+
+/**
+ * Clones environments and waits until they are ready to be used.
+ * <p>
+ * A cloned environment is created with the status {@link CMAEnvironmentStatus#Queued} and copies
+ * the content of its source in the background. This polls every new environment until it reports
+ * {@link CMAEnvironmentStatus#Ready}, using timers with exponential backoff on one shared
+ * scheduler, so no thread waits for an environment. Many environments are cloned at once, up to
+ * the configured concurrency.
+ * <pre>{@code
+ * EnvironmentCloner cloner = new EnvironmentCloner.Builder().build(client);
+ * CMAEnvironment ready = cloner
+ *     .cloneAndAwait(spaceId, "master", new CMAEnvironment().setId("pr-42").setName("pr-42"))
+ *     .blockingGet();
+ * }</pre>
+ * Combine with {@link CMAClient.Builder#setRateLimiter} to stay within the rate limits.
+ */
+public class EnvironmentCloner {
+  private final ModuleEnvironments environments;
+  private final int concurrency;
+  private final HelperSupport.Backoff pollInterval;
+  private final long timeoutMillis;
+  private final Scheduler scheduler;
+
+  EnvironmentCloner(Builder builder, CMAClient client) {
+    this.environments = client.environments();
+    this.concurrency = builder.concurrency;
+    this.pollInterval = builder.pollInterval;
+    this.timeoutMillis = builder.timeoutMillis;
+    this.scheduler = builder.scheduler;
+  }
+
+  /**
+   * Clone an environment and wait until the clone is ready.
+   * <p>
+   * Nothing is sent before the returned single is subscribed to. The single fails with a
+   * {@link CMAEnvironmentException} if the clone reports {@link CMAEnvironmentStatus#Failed}, and
+   * with a {@link java.util.concurrent.TimeoutException} if it is not ready in time. In both cases
+   * the environment is kept, to be inspected or deleted by the caller.
+   *
+   * @param spaceId             the space of both environments.
+   * @param sourceEnvironmentId the environment to copy the content from.
+   * @param newEnvironment      the environment to be created, with its name and optionally its
+   *                            id.
+   * @return a single emitting the ready environment.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public Single<CMAEnvironment> cloneAndAwait(
+      final String spaceId,
+      final String sourceEnvironmentId,
+      final CMAEnvironment newEnvironment) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(sourceEnvironmentId, "sourceEnvironmentId");
+    assertNotNull(newEnvironment, "newEnvironment");
+
+    return Single.defer(() -> clone(spaceId, sourceEnvironmentId, newEnvironment))
+        .flatMap(created -> poll(spaceId, created, 0))
+        .timeout(timeoutMillis, TimeUnit.MILLISECONDS, scheduler);
+  }
+
+  /**
+   * Clone one environment for every given environment, for example one per pull request.
+   * <p>
+   * Environments are taken from the iterable only when a slot is free, and a failing clone does
+   * not end the others: it is reported as a failed {@link BatchResult}.
+   *
+   * @param spaceId             the space of all environments.
+   * @param sourceEnvironmentId the environment to copy the content from.
+   * @param newEnvironments     the environments to be created.
+   * @return a flowable of the result of every environment, in order of readiness.
+   * @throws IllegalArgumentException if any argument is null.
+   * @see #cloneAndAwait(String, String, CMAEnvironment)
+   */
+  public Flowable<BatchResult<CMAEnvironment>> cloneAll(
+      final String spaceId,
+      final String sourceEnvironmentId,
+      final Iterable<CMAEnvironment> newEnvironments) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(sourceEnvironmentId, "sourceEnvironmentId");
+    assertNotNull(newEnvironments, "newEnvironments");
+
+    return HelperSupport.indexed(newEnvironments)
+        .flatMapSingle(indexed -> cloneAndAwait(spaceId, sourceEnvironmentId, indexed.item)
+            .map(ready -> BatchResult.success(indexed.index, indexed.item, ready))
+            .onErrorReturn(throwable ->
+                BatchResult.failure(indexed.index, indexed.item, throwable)),
+            false, concurrency);
+  }
+
+  /**
+   * Wait until an environment, which is being created or cloned, is ready.
+   *
+   * @param environment the environment, with its space id and id.
+   * @return a single emitting the ready environment.
+   * @throws IllegalArgumentException if environment is null.
+   * @throws IllegalArgumentException if environment's space id is null.
+   * @throws IllegalArgumentException if environment's id is null.
+   */
+  public Single<CMAEnvironment> await(CMAEnvironment environment) {
+    assertNotNull(environment, "environment");
+    assertNotNull(environment.getSpaceId(), "environment.spaceId");
+    assertNotNull(environment.getId(), "environment.id");
+
+    return poll(environment.getSpaceId(), environment, 0)
+        .timeout(timeoutMillis, TimeUnit.MILLISECONDS, scheduler);
+  }
+
+  /*
+   * Only the name is sent: the id is part of the url and the system properties are ignored.
+   */
+  private Single<CMAEnvironment> clone(
+      String spaceId,
+      String sourceEnvironmentId,
+      CMAEnvironment newEnvironment) {
+    final CMAEnvironment body = new CMAEnvironment()
+        .setName(newEnvironment.getName())
+        .setSystem(null);
+    final String environmentId = newEnvironment.getId();
+
+    return single(environmentId == null
+        ? environments.rxService().clone(spaceId, sourceEnvironmentId, body)
+        : environments.rxService().clone(spaceId, sourceEnvironmentId, environmentId, body));
+  }
+
+  private Single<CMAEnvironment> poll(
+      final String spaceId,
+      final CMAEnvironment environment,
+      int attempt) {
+    final CMAEnvironmentStatus status = environment.getStatus();
+    if (status == CMAEnvironmentStatus.Ready) {
+      return Single.just(environment);
+    }
+    if (status == CMAEnvironmentStatus.Failed) {
+      return Single.error(new CMAEnvironmentException(environment));
+    }
+
+    final int nextAttempt = attempt + 1;
+    return Single.timer(pollDelay(attempt), TimeUnit.MILLISECONDS, scheduler)
+        .flatMap(tick -> single(environments.rxService().fetchOne(spaceId, environment.getId())))
+        .flatMap(polled -> poll(spaceId, polled, nextAttempt));
+  }
+
+  long pollDelay(int attempt) {
+    return pollInterval.delay(attempt);
+  }
+
+  /**
+   * Configures an {@link EnvironmentCloner}.
+   * <p>
+   * The concurrency counts environments being cloned, including the ones being polled. Polls
+   * start after 1s and back off up to 15s.
+   */
+  public static class Builder extends HelperSupport.PollingBuilder<Builder> {
+    private static final long DEFAULT_INITIAL_POLL_MILLIS = 1_000;
+    private static final long DEFAULT_MAX_POLL_MILLIS = 15_000;
+    private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    public Builder() {
+      super(new HelperSupport.Backoff(
+          DEFAULT_INITIAL_POLL_MILLIS,
+          DEFAULT_MAX_POLL_MILLIS,
+          TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @param timeout how long cloning one environment may take, until it is ready. Defaults to
+     *                thirty minutes.
+     * @param unit    the unit of timeout.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if timeout is shorter than a millisecond.
+     */
+    public Builder setTimeout(long timeout, TimeUnit unit) {
+      this.timeoutMillis = HelperSupport.timeoutMillis(timeout, unit);
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new cloner using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public EnvironmentCloner build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new EnvironmentCloner(this, client);
+    }
+  }
+}
@@ -0,0 +1,580 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAResource;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Writes all resources of an environment into one file of newline delimited JSON.
+ * <p>
+ * Every line holds one resource, together with the name of its {@link Section}:
+ * <pre>{@code
+ * {"section":"entries","item":{"fields":{...},"sys":{...}}}
+ * }</pre>
+ * Sections are written in the order of {@link Section}, so locales and content types come before
+ * the entries using them. Pages are requested by keyset: every page starts at the newest
+ * {@code sys.createdAt} of the previous one, so resources deleted during an export do not shift
+ * the following pages. The next page is requested while the current one is written, so memory
+ * stays bounded by two pages no matter how large the environment is.
+ * <p>
+ * After every page the position in the export is stored in a checkpoint file. If an export is
+ * interrupted, calling {@link #export(String, String, Path, Path)} again with the same files and
+ * the same configuration continues after the last complete page. The output is cut back to the
+ * size recorded in the checkpoint, so no resource is written twice. Compressed exports consist of
+ * one gzip member per page, which any gzip reader reads as one stream.
+ * <pre>{@code
+ * EnvironmentExporter exporter = new EnvironmentExporter.Builder()
+ *     .setCompressed(true)
+ *     .build(client);
+ * exporter.export(spaceId, "master",
+ *     Paths.get("master.ndjson.gz"),
+ *     Paths.get("master.checkpoint"));
+ * }</pre>
+ */
+public class EnvironmentExporter {
+  /**
+   * Largest page size accepted by Contentful.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  static final String PARAMETER_LIMIT = "limit";
+  static final String PARAMETER_ORDER = "order";
+  static final String PARAMETER_CREATED_AFTER = "sys.createdAt[gte]";
+
+  /*
+   * Resources created during an export are sorted after the ones existing already, so the keyset
+   * of the checkpoint stays valid.
+   */
+  static final String ORDER = "sys.createdAt,sys.id";
+
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final String NAME_SECTION = "section";
+  private static final String NAME_ITEM = "item";
+
+  /**
+   * The kinds of resources exported, in the order they are written.
+   */
+  public enum Section {
+    /**
+     * All locales, in one page.
+     */
+    LOCALES("locales", false),
+    /**
+     * All content types.
+     */
+    CONTENT_TYPES("contentTypes", true),
+    /**
+     * All editor interfaces, in one page.
+     */
+    EDITOR_INTERFACES("editorInterfaces", false),
+    /**
+     * All tags.
+     */
+    TAGS("tags", true),
+    /**
+     * All entries.
+     */
+    ENTRIES("entries", true),
+    /**
+     * All assets.
+     */
+    ASSETS("assets", true);
+
+    private final String key;
+    private final boolean paged;
+
+    Section(String key, boolean paged) {
+      this.key = key;
+      this.paged = paged;
+    }
+
+    /**
+     * @return the name of this section in the exported lines.
+     */
+    public String getKey() {
+      return key;
+    }
+  }
+
+  /**
+   * Loads one page of a section.
+   */
+  private interface Loader {
+    CMAArray<? extends CMAResource> load(Map<String, String> query);
+  }
+
+  private final CMAClient client;
+  private final Gson gson;
+  private final Set<Section> sections;
+  private final int pageSize;
+  private final boolean compressed;
+  private final Scheduler scheduler;
+
+  EnvironmentExporter(Builder builder, CMAClient client) {
+    this.client = client;
+    this.scheduler = client.entries().asyncScheduler;
+    this.gson = CMAClient.createGson();
+    this.sections = builder.sections;
+    this.pageSize = builder.pageSize;
+    this.compressed = builder.compressed;
+  }
+
+  /**
+   * Export all configured sections of an environment, continuing a previous export if a
+   * checkpoint exists.
+   * <p>
+   * Without a checkpoint an existing output file is overwritten. The checkpoint is deleted once
+   * the export completed.
+   *
+   * @param spaceId       the space of the environment.
+   * @param environmentId the environment to be exported.
+   * @param output        the file to write the resources to.
+   * @param checkpoint    the file to store the progress in.
+   * @return the number of resources written by this call.
+   * @throws IllegalArgumentException if any argument is null.
+   * @throws IllegalStateException    if the checkpoint belongs to a different environment, was
+   *                                  written with other sections or compression, or is ahead of
+   *                                  the output.
+   * @throws IOException              if the output or checkpoint could not be written.
+   */
+  public long export(String spaceId, String environmentId, Path output, Path checkpoint)
+      throws IOException {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+    assertNotNull(output, "output");
+    assertNotNull(checkpoint, "checkpoint");
+
+    Checkpoint position = readCheckpoint(checkpoint);
+    if (position == null) {
+      position = checkpoint(spaceId, environmentId, firstSection(), Keyset.START, 0);
+    } else if (!spaceId.equals(position.spaceId)
+        || !environmentId.equals(position.environmentId)) {
+      throw new IllegalStateException(
+          "Checkpoint '" + checkpoint + "' belongs to the export of environment '"
+              + position.environmentId + "' in space '" + position.spaceId + "'.");
+    } else if (position.compressed != compressed || !sections.equals(position.sections)) {
+      throw new IllegalStateException(
+          "Checkpoint '" + checkpoint + "' belongs to an export of sections "
+              + position.sections + (position.compressed ? ", compressed." : ", uncompressed."));
+    }
+
+    if (position.section == null) {
+      Files.deleteIfExists(checkpoint);
+      return 0;
+    }
+
+    // a shorter output would be padded with zeros up to the checkpoint.
+    final long existing = Files.exists(output) ? Files.size(output) : 0;
+    if (existing < position.bytes) {
+      throw new IllegalStateException(
+          "Checkpoint '" + checkpoint + "' expects " + position.bytes + " bytes in '" + output
+              + "', but it has " + existing + ".");
+    }
+
+    long written = 0;
+    try (FileChannel channel = FileChannel.open(
+        output,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE)) {
+      channel.truncate(position.bytes);
+      channel.position(position.bytes);
+
+      for (Section section : Section.values()) {
+        if (!sections.contains(section) || section.ordinal() < position.section.ordinal()) {
+          continue;
+        }
+
+        final Keyset start = section == position.section
+            ? new Keyset(position.createdAfter, position.skip)
+            : Keyset.START;
+        written += exportSection(spaceId, environmentId, section, start, channel, checkpoint);
+      }
+    }
+
+    Files.deleteIfExists(checkpoint);
+    return written;
+  }
+
+  private long exportSection(
+      String spaceId,
+      String environmentId,
+      Section section,
+      Keyset start,
+      FileChannel channel,
+      Path checkpoint) throws IOException {
+    final Loader loader =
+        loader(section, spaceId, environmentId);
+    if (!section.paged) {
+      final CMAArray<? extends CMAResource> page = loader.load(new HashMap<>());
+      final long written = writePage(section, page, channel);
+      writeCheckpoint(checkpoint, checkpoint(
+          spaceId, environmentId, nextSection(section), Keyset.START, channel.position()));
+      return written;
+    }
+
+    long written = 0;
+    final Iterator<Page> pages = pages(loader, start).iterator();
+    try {
+      while (pages.hasNext()) {
+        final Page page = pages.next();
+        written += writePage(section, page.array, channel);
+        writeCheckpoint(checkpoint, page.next == null
+            ? checkpoint(spaceId, environmentId, nextSection(section), Keyset.START,
+                channel.position())
+            : checkpoint(spaceId, environmentId, section, page.next, channel.position()));
+      }
+    } finally {
+      // stops loading ahead if writing failed.
+      if (pages instanceof Disposable) {
+        ((Disposable) pages).dispose();
+      }
+    }
+    return written;
+  }
+
+  /*
+   * Every page starts at the newest sys.createdAt of the previous one, skipping only the resources
+   * sharing that timestamp. Only a deletion among those few can still shift the next page. One
+   * page is loaded ahead, on the async scheduler of the client, while the current one is written.
+   */
+  private Iterable<Page> pages(final Loader loader, final Keyset start) {
+    return Flowable.<Page, Keyset>generate(
+        () -> start,
+        (keyset, emitter) -> {
+          if (keyset == null) {
+            emitter.onComplete();
+            return null;
+          }
+
+          final CMAArray<? extends CMAResource> array = loader.load(keyset.query(pageSize));
+          final Keyset next = keyset.after(array.getItems(), pageSize);
+          emitter.onNext(new Page(array, next));
+          return next;
+        })
+        .subscribeOn(scheduler)
+        .blockingIterable(1);
+  }
+
+  private Loader loader(
+      Section section,
+      String spaceId,
+      String environmentId) {
+    switch (section) {
+      case LOCALES:
+        return query -> client.locales().fetchAll(spaceId, environmentId);
+      case CONTENT_TYPES:
+        return query -> client.contentTypes().fetchAll(spaceId, environmentId, query);
+      case EDITOR_INTERFACES:
+        return query -> client.editorInterfaces().fetchAll(spaceId, environmentId);
+      case TAGS:
+        return query -> client.tags().fetchAll(spaceId, environmentId, query);
+      case ENTRIES:
+        return query -> client.entries().fetchAll(spaceId, environmentId, query);
+      case ASSETS:
+        return query -> client.assets().fetchAll(spaceId, environmentId, query);
+      default:
+        throw new IllegalArgumentException("Unknown section " + section + ".");
+    }
+  }
+
+  /*
+   * Every page is a complete gzip member or a complete set of lines, so the output can be cut
+   * back to the end of any page.
+   */
+  private long writePage(
+      Section section,
+      CMAArray<? extends CMAResource> page,
+      FileChannel channel) throws IOException {
+    final List<? extends CMAResource> items = page.getItems();
+    if (items == null || items.isEmpty()) {
+      return 0;
+    }
+
+    final OutputStream file = new FilterOutputStream(Channels.newOutputStream(channel)) {
+      @Override public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+      }
+
+      @Override public void close() throws IOException {
+        flush();
+      }
+    };
+
+    final OutputStream stream = compressed ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+    try (Writer writer = new BufferedWriter(
+        new OutputStreamWriter(stream, StandardCharsets.UTF_8),
+        BUFFER_SIZE)) {
+      final JsonWriter json = new JsonWriter(writer);
+      json.setLenient(true);
+
+      for (CMAResource item : items) {
+        json.beginObject();
+        json.name(NAME_SECTION).value(section.key);
+        json.name(NAME_ITEM);
+        gson.toJson(item, item.getClass(), json);
+        json.endObject();
+        json.flush();
+        writer.write('\n');
+      }
+    }
+
+    channel.force(false);
+    return items.size();
+  }
+
+  private Section firstSection() {
+    for (Section section : Section.values()) {
+      if (sections.contains(section)) {
+        return section;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the section following the given one, or null if it was the last one.
+   */
+  private Section nextSection(Section current) {
+    final Section[] all = Section.values();
+    for (int i = current.ordinal() + 1; i < all.length; i++) {
+      if (sections.contains(all[i])) {
+        return all[i];
+      }
+    }
+    return null;
+  }
+
+  private Checkpoint checkpoint(
+      String spaceId,
+      String environmentId,
+      Section section,
+      Keyset keyset,
+      long bytes) {
+    return new Checkpoint(spaceId, environmentId, section, keyset, bytes, compressed, sections);
+  }
+
+  private Checkpoint readCheckpoint(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    return gson.fromJson(
+        new String(Files.readAllBytes(file), StandardCharsets.UTF_8),
+        Checkpoint.class);
+  }
+
+  /*
+   * The checkpoint is replaced atomically, so an interruption leaves either the old or the new
+   * one.
+   */
+  private void writeCheckpoint(Path file, Checkpoint checkpoint) throws IOException {
+    final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(temporary, gson.toJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary, file,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Position in a paged section: the oldest {@code sys.createdAt} of the next page, and how many
+   * resources of that timestamp were written already.
+   */
+  static final class Keyset {
+    static final Keyset START = new Keyset(null, 0);
+
+    final String createdAfter;
+    final int skip;
+
+    Keyset(String createdAfter, int skip) {
+      this.createdAfter = createdAfter;
+      this.skip = skip;
+    }
+
+    /**
+     * @return the query of the page starting at this position.
+     */
+    Map<String, String> query(int pageSize) {
+      final Map<String, String> query = new HashMap<>();
+      query.put(PagedIterable.PARAMETER_SKIP, Integer.toString(skip));
+      query.put(PARAMETER_LIMIT, Integer.toString(pageSize));
+      query.put(PARAMETER_ORDER, ORDER);
+      if (createdAfter != null) {
+        query.put(PARAMETER_CREATED_AFTER, createdAfter);
+      }
+      return query;
+    }
+
+    /**
+     * @return the position after the given page, or null if it was the last one.
+     */
+    Keyset after(List<? extends CMAResource> items, int pageSize) {
+      if (items == null || items.isEmpty()) {
+        return null;
+      }
+
+      final int size = items.size();
+      final Keyset next;
+      final String last = items.get(size - 1).getSystem().getCreatedAt();
+      if (last == null || last.equals(createdAfter)) {
+        next = new Keyset(createdAfter, skip + size);
+      } else {
+        int sharing = 0;
+        for (CMAResource item : items) {
+          if (last.equals(item.getSystem().getCreatedAt())) {
+            sharing++;
+          }
+        }
+        next = new Keyset(last, sharing);
+      }
+      return size < pageSize ? null : next;
+    }
+  }
+
+  /**
+   * One loaded page, together with the position after it.
+   */
+  private static final class Page {
+    final CMAArray<? extends CMAResource> array;
+    final Keyset next;
+
+    Page(CMAArray<? extends CMAResource> array, Keyset next) {
+      this.array = array;
+      this.next = next;
+    }
+  }
+
+  /**
+   * Position of an interrupted export: the section and keyset to continue with, and the size of
+   * the output up to there. No section means all sections were written. The configuration of the
+   * export is kept, so a resumed export writes the same format.
+   */
+  static class Checkpoint {
+    final String spaceId;
+    final String environmentId;
+    final Section section;
+    final String createdAfter;
+    final int skip;
+    final long bytes;
+    final boolean compressed;
+    final Set<Section> sections;
+
+    Checkpoint(
+        String spaceId,
+        String environmentId,
+        Section section,
+        Keyset keyset,
+        long bytes,
+        boolean compressed,
+        Set<Section> sections) {
+      this.spaceId = spaceId;
+      this.environmentId = environmentId;
+      this.section = section;
+      this.createdAfter = keyset.createdAfter;
+      this.skip = keyset.skip;
+      this.bytes = bytes;
+      this.compressed = compressed;
+      this.sections = sections;
+    }
+  }
+
+  /**
+   * Configures an {@link EnvironmentExporter}.
+   */
+  public static class Builder {
+    Set<Section> sections = EnumSet.allOf(Section.class);
+    int pageSize = DEFAULT_PAGE_SIZE;
+    boolean compressed;
+
+    /**
+     * @param sections the kinds of resources to export. Defaults to all.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if sections is null or empty.
+     */
+    public Builder setSections(Section... sections) {
+      if (sections == null || sections.length == 0) {
+        throw new IllegalArgumentException("sections may not be null or empty.");
+      }
+      this.sections = EnumSet.copyOf(Arrays.asList(sections));
+      return this;
+    }
+
+    /**
+     * @param pageSize the number of resources requested per page. Defaults to 100.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if pageSize is not between 1 and {@link #MAX_PAGE_SIZE}.
+     */
+    public Builder setPageSize(int pageSize) {
+      if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+        throw new IllegalArgumentException(
+            "pageSize needs to be between 1 and " + MAX_PAGE_SIZE + ".");
+      }
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * @param compressed whether the output is gzip compressed. Defaults to false.
+     * @return this builder for chaining.
+     */
+    public Builder setCompressed(boolean compressed) {
+      this.compressed = compressed;
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new exporter using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public EnvironmentExporter build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new EnvironmentExporter(this, client);
+    }
+  }
+}
@@ -0,0 +1,521 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAResource;
+import com.contentful.java.cma.model.CMAType;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Flowable;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Streams the changes of entries and assets of an environment since the last sync.
+ * <p>
+ * The first sync of an environment reports every entry and asset as added. Every following sync
+ * only requests the resources updated since then, ordered by {@code sys.updatedAt}, and compares
+ * their {@code sys.version} with the one seen last, so a sync costs requests in the order of
+ * the changes, not of the size of the environment.
+ * <pre>{@code
+ * EnvironmentSync sync = new EnvironmentSync.Builder()
+ *     .setStore(new EnvironmentSync.FileStore(Paths.get("sync")))
+ *     .build(client);
+ * sync.sync(spaceId, "master").blockingForEach(change -> index.apply(change));
+ * }</pre>
+ * Deleted resources cannot be requested. They are found by their absence: if the environment
+ * holds fewer resources than were seen, the ids of all resources are listed once and every
+ * missing one is reported as {@link Change.Kind#DELETED}.
+ * <p>
+ * The state of a sync is stored after all changes of a type were emitted. A sync that fails or is
+ * cancelled reports the same changes again the next time.
+ */
+public class EnvironmentSync {
+  static final String PARAMETER_UPDATED_AFTER = "sys.updatedAt[gte]";
+  static final String PARAMETER_SELECT = "select";
+
+  static final String ORDER = "sys.updatedAt,sys.id";
+  static final String SELECT_ID = "sys.id";
+  static final String SELECT_KEYSET = "sys.id,sys.createdAt";
+
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final CMAType[] TYPES = {CMAType.Entry, CMAType.Asset};
+
+  /**
+   * Loads one page of a type.
+   */
+  private interface Loader {
+    CMAArray<? extends CMAResource> load(Map<String, String> query);
+  }
+
+  private final CMAClient client;
+  private final Store store;
+  private final Gson gson;
+  private final int pageSize;
+  private final boolean detectDeletions;
+
+  EnvironmentSync(Builder builder, CMAClient client) {
+    this.client = client;
+    this.store = builder.store;
+    this.gson = new Gson();
+    this.pageSize = builder.pageSize;
+    this.detectDeletions = builder.detectDeletions;
+  }
+
+  /**
+   * Stream the changes of all entries and assets of an environment since its last sync.
+   * <p>
+   * Nothing is requested before the returned flowable is subscribed to, and pages are only
+   * requested when the subscriber is ready for more changes. Requests are sent on the subscribing
+   * thread.
+   *
+   * @param spaceId       the space of the environment.
+   * @param environmentId the environment to be synced.
+   * @return a flowable of all changes, first of entries, then of assets.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public Flowable<Change> sync(final String spaceId, final String environmentId) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    final String key = spaceId + "/" + environmentId;
+    return Flowable.defer(() -> {
+      final State state = readState(key);
+      return Flowable.fromArray(TYPES)
+          .concatMap(type -> {
+            final Cursor cursor = state.cursor(type);
+            final Loader loader = loader(type, spaceId, environmentId);
+            return changes(type, cursor, loader)
+                .concatWith(Flowable.defer(() -> deletions(type, cursor, loader)))
+                .concatWith(Flowable.defer(() -> {
+                  store.save(key, gson.toJson(state));
+                  return Flowable.<Change>empty();
+                }));
+          });
+    });
+  }
+
+  /*
+   * Pages are requested by keyset: every page starts at the newest sys.updatedAt of the previous
+   * one, skipping only the resources sharing that timestamp. A resource updated while paging
+   * moves to the end and is requested again, instead of shifting the following pages.
+   */
+  private Flowable<Change> changes(final CMAType type, final Cursor cursor, final Loader loader) {
+    return Flowable.<List<Change>, Pass>generate(
+        () -> new Pass(cursor.watermark),
+        (pass, emitter) -> {
+          if (pass.done) {
+            emitter.onComplete();
+            return pass;
+          }
+
+          final Map<String, String> query = new HashMap<>();
+          query.put(PagedIterable.PARAMETER_SKIP, Integer.toString(pass.offset));
+          query.put(EnvironmentExporter.PARAMETER_LIMIT, Integer.toString(pageSize));
+          query.put(EnvironmentExporter.PARAMETER_ORDER, ORDER);
+          if (pass.watermark != null) {
+            query.put(PARAMETER_UPDATED_AFTER, pass.watermark);
+          }
+
+          final List<? extends CMAResource> items = loader.load(query).getItems();
+          final List<Change> changes = new ArrayList<>();
+          if (items == null || items.isEmpty()) {
+            pass.done = true;
+            emitter.onNext(changes);
+            return pass;
+          }
+
+          for (CMAResource item : items) {
+            final Change change = cursor.apply(type, item);
+            if (change != null) {
+              changes.add(change);
+            }
+          }
+
+          final String last = items.get(items.size() - 1).getSystem().getUpdatedAt();
+          if (last == null || last.equals(pass.watermark)) {
+            pass.offset += items.size();
+          } else {
+            pass.watermark = last;
+            pass.offset = 0;
+            for (CMAResource item : items) {
+              if (last.equals(item.getSystem().getUpdatedAt())) {
+                pass.offset++;
+              }
+            }
+          }
+          pass.done = items.size() < pageSize;
+          emitter.onNext(changes);
+          return pass;
+        })
+        .concatMapIterable(changes -> changes, 1);
+  }
+
+  /*
+   * Counting all resources takes one request. Only if fewer exist than were seen, all ids are
+   * listed to find the missing ones, by sys.createdAt keyset like the exporter does: a deletion
+   * during the listing cannot shift a live resource out of the pages and report it deleted.
+   */
+  private Flowable<Change> deletions(CMAType type, Cursor cursor, Loader loader) {
+    if (!detectDeletions || cursor.versions.isEmpty()) {
+      return Flowable.empty();
+    }
+
+    final Map<String, String> count = new HashMap<>();
+    count.put(EnvironmentExporter.PARAMETER_LIMIT, "1");
+    count.put(PARAMETER_SELECT, SELECT_ID);
+    if (loader.load(count).getTotal() >= cursor.versions.size()) {
+      return Flowable.empty();
+    }
+
+    final Set<String> present = new HashSet<>();
+    EnvironmentExporter.Keyset keyset = EnvironmentExporter.Keyset.START;
+    while (keyset != null) {
+      final Map<String, String> query = keyset.query(pageSize);
+      query.put(PARAMETER_SELECT, SELECT_KEYSET);
+      final List<? extends CMAResource> items = loader.load(query).getItems();
+      if (items != null) {
+        for (CMAResource item : items) {
+          present.add(item.getId());
+        }
+      }
+      keyset = keyset.after(items, pageSize);
+    }
+
+    final List<Change> changes = new ArrayList<>();
+    final Iterator<Map.Entry<String, Integer>> known = cursor.versions.entrySet().iterator();
+    while (known.hasNext()) {
+      final Map.Entry<String, Integer> entry = known.next();
+      if (!present.contains(entry.getKey())) {
+        changes.add(new Change(Change.Kind.DELETED, type, entry.getKey(), entry.getValue(), null));
+        known.remove();
+      }
+    }
+    return Flowable.fromIterable(changes);
+  }
+
+  private Loader loader(CMAType type, String spaceId, String environmentId) {
+    switch (type) {
+      case Entry:
+        return query -> client.entries().fetchAll(spaceId, environmentId, query);
+      case Asset:
+        return query -> client.assets().fetchAll(spaceId, environmentId, query);
+      default:
+        throw new IllegalArgumentException("Cannot sync resources of type " + type + ".");
+    }
+  }
+
+  private State readState(String key) throws IOException {
+    final String json = store.load(key);
+    if (json == null) {
+      return new State();
+    }
+    final State state = gson.fromJson(json, State.class);
+    return state == null || state.cursors == null ? new State() : state;
+  }
+
+  /**
+   * A change of one resource since the last sync.
+   */
+  public static final class Change {
+    /**
+     * How a resource changed.
+     */
+    public enum Kind {
+      /**
+       * The resource was not seen before.
+       */
+      ADDED,
+      /**
+       * The resource was seen before, with a lower version.
+       */
+      CHANGED,
+      /**
+       * The resource was seen before and does not exist anymore.
+       */
+      DELETED
+    }
+
+    private final Kind kind;
+    private final CMAType type;
+    private final String id;
+    private final Integer version;
+    private final CMAResource resource;
+
+    Change(Kind kind, CMAType type, String id, Integer version, CMAResource resource) {
+      this.kind = kind;
+      this.type = type;
+      this.id = id;
+      this.version = version;
+      this.resource = resource;
+    }
+
+    /**
+     * @return how the resource changed.
+     */
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * @return the type of the resource, {@link CMAType#Entry} or {@link CMAType#Asset}.
+     */
+    public CMAType getType() {
+      return type;
+    }
+
+    /**
+     * @return the id of the resource.
+     */
+    public String getId() {
+      return id;
+    }
+
+    /**
+     * @return the current version of the resource, or the last seen one if it was deleted.
+     */
+    public Integer getVersion() {
+      return version;
+    }
+
+    /**
+     * @return the current resource, or null if it was deleted.
+     */
+    public CMAResource getResource() {
+      return resource;
+    }
+
+    @Override public String toString() {
+      return "Change { "
+          + "kind = " + kind + ", "
+          + "type = " + type + ", "
+          + "id = " + id + ", "
+          + "version = " + version + " "
+          + "}";
+    }
+  }
+
+  /**
+   * Keeps the state of syncs between runs.
+   * <p>
+   * The state is an opaque string, which grows with the number of resources in an environment.
+   */
+  public interface Store {
+    /**
+     * @param key identifies the synced environment.
+     * @return the state last saved for the key, or null if there is none.
+     * @throws IOException if the state could not be read.
+     */
+    String load(String key) throws IOException;
+
+    /**
+     * @param key   identifies the synced environment.
+     * @param state the state to be returned by the next load of the key.
+     * @throws IOException if the state could not be written.
+     */
+    void save(String key, String state) throws IOException;
+  }
+
+  /**
+   * Keeps the state in memory, for as long as this store is used.
+   */
+  public static class MemoryStore implements Store {
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+
+    @Override public String load(String key) {
+      return states.get(key);
+    }
+
+    @Override public void save(String key, String state) {
+      states.put(key, state);
+    }
+  }
+
+  /**
+   * Keeps the state in one file per environment, below a directory.
+   */
+  public static class FileStore implements Store {
+    private static final String EXTENSION = ".json";
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory containing the state files. It is created when needed.
+     * @throws IllegalArgumentException if directory is null.
+     */
+    public FileStore(Path directory) {
+      assertNotNull(directory, "directory");
+      this.directory = directory;
+    }
+
+    @Override public String load(String key) throws IOException {
+      final Path file = file(key);
+      if (!Files.exists(file)) {
+        return null;
+      }
+      return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /*
+     * The file is replaced atomically, so an interruption leaves either the old or the new state.
+     */
+    @Override public void save(String key, String state) throws IOException {
+      final Path file = file(key);
+      Files.createDirectories(file.getParent());
+      final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.write(temporary, state.getBytes(StandardCharsets.UTF_8));
+      Files.move(temporary, file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path file(String key) {
+      return directory.resolve(key + EXTENSION);
+    }
+  }
+
+  /**
+   * Position of one sync of a type, while paging through the changes.
+   */
+  private static class Pass {
+    String watermark;
+    int offset;
+    boolean done;
+
+    Pass(String watermark) {
+      this.watermark = watermark;
+    }
+  }
+
+  /**
+   * The state of all types of one environment, as saved in the store.
+   */
+  static class State {
+    Map<CMAType, Cursor> cursors = new HashMap<>();
+
+    Cursor cursor(CMAType type) {
+      Cursor cursor = cursors.get(type);
+      if (cursor == null) {
+        cursor = new Cursor();
+        cursors.put(type, cursor);
+      }
+      return cursor;
+    }
+  }
+
+  /**
+   * The newest sys.updatedAt and the versions of all resources of one type seen so far.
+   */
+  static class Cursor {
+    String watermark;
+    Map<String, Integer> versions = new HashMap<>();
+
+    /**
+     * @return the change of the item, or null if this version was seen already.
+     */
+    Change apply(CMAType type, CMAResource item) {
+      final String id = item.getId();
+      final Integer version = item.getVersion();
+      final Integer seen = versions.get(id);
+      if (seen != null && seen.equals(version)) {
+        return null;
+      }
+
+      final String updatedAt = item.getSystem().getUpdatedAt();
+      if (watermark == null || (updatedAt != null && updatedAt.compareTo(watermark) > 0)) {
+        watermark = updatedAt;
+      }
+      versions.put(id, version);
+      return new Change(
+          seen == null ? Change.Kind.ADDED : Change.Kind.CHANGED,
+          type,
+          id,
+          version,
+          item);
+    }
+  }
+
+  /**
+   * Configures an {@link EnvironmentSync}.
+   */
+  public static class Builder {
+    Store store = new MemoryStore();
+    int pageSize = DEFAULT_PAGE_SIZE;
+    boolean detectDeletions = true;
+
+    /**
+     * @param store where the state is kept between syncs. Defaults to a {@link MemoryStore}.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if store is null.
+     */
+    public Builder setStore(Store store) {
+      assertNotNull(store, "store");
+      this.store = store;
+      return this;
+    }
+
+    /**
+     * @param pageSize the number of resources requested per page. Defaults to 100.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if pageSize is not between 1 and
+     *                                  {@link EnvironmentExporter#MAX_PAGE_SIZE}.
+     */
+    public Builder setPageSize(int pageSize) {
+      if (pageSize <= 0 || pageSize > EnvironmentExporter.MAX_PAGE_SIZE) {
+        throw new IllegalArgumentException(
+            "pageSize needs to be between 1 and " + EnvironmentExporter.MAX_PAGE_SIZE + ".");
+      }
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * @param detectDeletions whether resources are counted after every sync, to report deleted
+     *                        ones. Defaults to true.
+     * @return this builder for chaining.
+     */
+    public Builder setDetectDeletions(boolean detectDeletions) {
+      this.detectDeletions = detectDeletions;
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new sync using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public EnvironmentSync build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new EnvironmentSync(this, client);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Plumbing shared by the batch and polling helpers of this package.
+ */
+final class HelperSupport {
+  private HelperSupport() {
+    throw new UnsupportedOperationException();
+  }
+
+  static void assertNotNull(Object object, String param) {
+    if (object == null) {
+      throw new IllegalArgumentException(String.format("%s may not be null.", param));
+    }
+  }
+
+  /**
+   * Number every item of the source in order of emission, starting over for every subscriber.
+   */
+  static <T> Flowable<Indexed<T>> indexed(final Flowable<T> source) {
+    return Flowable.defer(() -> {
+      final int[] next = {0};
+      return source.map(item -> new Indexed<>(next[0]++, item));
+    });
+  }
+
+  static <T> Flowable<Indexed<T>> indexed(Iterable<T> items) {
+    return indexed(Flowable.fromIterable(items));
+  }
+
+  /**
+   * An item together with its position in the batch.
+   *
+   * @param <T> the type of the item.
+   */
+  static final class Indexed<T> {
+    final int index;
+    final T item;
+
+    Indexed(int index, T item) {
+      this.index = index;
+      this.item = item;
+    }
+  }
+
+  /**
+   * Exponential backoff between polls, in whole milliseconds.
+   */
+  static final class Backoff {
+    final long initialMillis;
+    final long maxMillis;
+
+    /**
+     * @throws IllegalArgumentException if initial is shorter than a millisecond or larger than
+     *                                  max.
+     */
+    Backoff(long initial, long max, TimeUnit unit) {
+      assertNotNull(unit, "unit");
+      this.initialMillis = unit.toMillis(initial);
+      this.maxMillis = unit.toMillis(max);
+      if (initialMillis < 1 || initial > max) {
+        throw new IllegalArgumentException(
+            "initial needs to be at least 1ms and not larger than max.");
+      }
+    }
+
+    /**
+     * @return the delay before the given poll, doubling per attempt up to the maximum.
+     */
+    long delay(int attempt) {
+      final int shift = Math.min(attempt, Long.numberOfLeadingZeros(initialMillis) - 1);
+      return Math.min(maxMillis, initialMillis << shift);
+    }
+  }
+
+  /**
+   * @return the timeout in whole milliseconds.
+   * @throws IllegalArgumentException if timeout is shorter than a millisecond.
+   */
+  static long timeoutMillis(long timeout, TimeUnit unit) {
+    assertNotNull(unit, "unit");
+    final long millis = unit.toMillis(timeout);
+    if (millis < 1) {
+      throw new IllegalArgumentException("timeout needs to be at least 1ms.");
+    }
+    return millis;
+  }
+
+  /**
+   * Configuration shared by all helpers polling for the state of the resources they send.
+   *
+   * @param <B> the type of the concrete builder, returned for chaining.
+   */
+  abstract static class PollingBuilder<B extends PollingBuilder<B>> {
+    int concurrency = BatchExecutor.DEFAULT_CONCURRENCY;
+    Backoff pollInterval;
+    Scheduler scheduler = Schedulers.computation();
+
+    PollingBuilder(Backoff pollInterval) {
+      this.pollInterval = pollInterval;
+    }
+
+    /**
+     * @param concurrency the number of operations in flight, including the ones being polled.
+     *                    Defaults to 4.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if concurrency is not positive.
+     */
+    public B setConcurrency(int concurrency) {
+      BatchExecutor.assertConcurrency(concurrency);
+      this.concurrency = concurrency;
+      return self();
+    }
+
+    /**
+     * Set the delays between polls. Every poll doubles the delay, up to the maximum.
+     *
+     * @param initial the delay before the first poll.
+     * @param max     the longest delay.
+     * @param unit    the unit of both delays.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if initial is shorter than a millisecond or larger than
+     *                                  max.
+     */
+    public B setPollInterval(long initial, long max, TimeUnit unit) {
+      this.pollInterval = new Backoff(initial, max, unit);
+      return self();
+    }
+
+    /**
+     * @param scheduler the scheduler running all polling timers. Defaults to
+     *                  {@link Schedulers#computation()}.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if scheduler is null.
+     */
+    public B setScheduler(Scheduler scheduler) {
+      assertNotNull(scheduler, "scheduler");
+      this.scheduler = scheduler;
+      return self();
+    }
+
+    @SuppressWarnings("unchecked")
+    private B self() {
+      return (B) this;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Connections and threads to be shared by many {@link CMAClient}s.
+ * <p>
+ * Every client builds its own call factories for core and upload requests, and by default each of
+ * them opens its own connection pool and dispatcher. Setting one transport on all clients with
+ * {@link CMAClient.Builder#setTransport(HttpTransport)} lets them reuse the same sockets and
+ * threads, while every client keeps its own access token and interceptors.
+ * <p>
+ * The limits of the dispatcher apply to all clients together.
+ */
+public class HttpTransport {
+  private final OkHttpClient base;
+
+  HttpTransport(Builder builder) {
+    final Dispatcher dispatcher = builder.executorService == null
+        ? new Dispatcher()
+        : new Dispatcher(builder.executorService);
+    dispatcher.setMaxRequests(builder.maxRequests);
+    dispatcher.setMaxRequestsPerHost(builder.maxRequestsPerHost);
+
+    this.base = new OkHttpClient.Builder()
+        .connectionPool(new ConnectionPool(
+            builder.maxIdleConnections,
+            builder.keepAliveMillis,
+            TimeUnit.MILLISECONDS))
+        .dispatcher(dispatcher)
+        .protocols(builder.http2
+            ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+            : Collections.singletonList(Protocol.HTTP_1_1))
+        .pingInterval(builder.pingIntervalMillis, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  /**
+   * @return a builder for a call factory using the connections and threads of this transport.
+   */
+  public OkHttpClient.Builder newCallFactoryBuilder() {
+    return base.newBuilder();
+  }
+
+  /**
+   * @return the connection pool shared by all clients of this transport.
+   */
+  public ConnectionPool getConnectionPool() {
+    return base.connectionPool();
+  }
+
+  /**
+   * @return the dispatcher shared by all clients of this transport.
+   */
+  public Dispatcher getDispatcher() {
+    return base.dispatcher();
+  }
+
+  /**
+   * Close all idle connections and stop the threads of the dispatcher.
+   * <p>
+   * Clients using this transport cannot send requests afterwards.
+   */
+  public void shutdown() {
+    base.dispatcher().executorService().shutdown();
+    base.connectionPool().evictAll();
+  }
+
+  /**
+   * Configures a {@link HttpTransport}.
+   */
+  public static class Builder {
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int DEFAULT_MAX_REQUESTS = 64;
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+
+    int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+    int maxRequests = DEFAULT_MAX_REQUESTS;
+    int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+    boolean http2 = true;
+    long pingIntervalMillis;
+    ExecutorService executorService;
+
+    /**
+     * @param maxIdleConnections how many idle connections are kept open. Defaults to 5.
+     * @param keepAlive          how long an idle connection is kept open. Defaults to 5 minutes.
+     * @param unit               the unit of keepAlive.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxIdleConnections is negative or keepAlive is not
+     *                                  positive.
+     */
+    public Builder setConnectionPool(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+      if (maxIdleConnections < 0 || keepAlive <= 0) {
+        throw new IllegalArgumentException(
+            "maxIdleConnections cannot be negative and keepAlive needs to be positive.");
+      }
+      this.maxIdleConnections = maxIdleConnections;
+      this.keepAliveMillis = unit.toMillis(keepAlive);
+      return this;
+    }
+
+    /**
+     * Limit the number of asynchronous requests executed at once.
+     * <p>
+     * Requests of all clients count against the same limits.
+     *
+     * @param maxRequests        the maximum of requests in flight. Defaults to 64.
+     * @param maxRequestsPerHost the maximum of requests in flight to one host. Defaults to 5.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if a limit is not positive.
+     */
+    public Builder setMaxRequests(int maxRequests, int maxRequestsPerHost) {
+      if (maxRequests <= 0 || maxRequestsPerHost <= 0) {
+        throw new IllegalArgumentException("Request limits need to be positive.");
+      }
+      this.maxRequests = maxRequests;
+      this.maxRequestsPerHost = maxRequestsPerHost;
+      return this;
+    }
+
+    /**
+     * @param enabled whether requests may be multiplexed over HTTP/2 connections. Otherwise only
+     *                HTTP/1.1 is used. Defaults to true.
+     * @return this builder for chaining.
+     */
+    public Builder setHttp2Enabled(boolean enabled) {
+      this.http2 = enabled;
+      return this;
+    }
+
+    /**
+     * Send pings on HTTP/2 connections, so broken connections are detected while idle.
+     *
+     * @param interval the time between two pings, or 0 to not send any. Defaults to 0.
+     * @param unit     the unit of interval.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if interval is negative.
+     */
+    public Builder setPingInterval(long interval, TimeUnit unit) {
+      if (interval < 0) {
+        throw new IllegalArgumentException("interval cannot be negative.");
+      }
+      this.pingIntervalMillis = unit.toMillis(interval);
+      return this;
+    }
+
+    /**
+     * @param executorService the threads executing asynchronous requests. Defaults to a cached
+     *                        thread pool of the dispatcher.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if executorService is null.
+     */
+    public Builder setExecutorService(ExecutorService executorService) {
+      if (executorService == null) {
+        throw new IllegalArgumentException("Cannot call setExecutorService() with null.");
+      }
+      this.executorService = executorService;
+      return this;
+    }
+
+    /**
+     * @return a new transport using this configuration.
+     */
+    public HttpTransport build() {
+      return new HttpTransport(this);
+    }
+  }
+}
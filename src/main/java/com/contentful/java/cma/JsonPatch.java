@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of JSON Patch operations, to be sent with {@code ModuleEntries.patch(entry, patch)}.
+ * <p>
+ * Paths are JSON pointers. Use {@link #fieldPath(String, String)} or {@link #pointer(String...)}
+ * to build them, so ids containing {@code ~} or {@code /} are escaped:
+ * <pre>{@code
+ * JsonPatch patch = new JsonPatch()
+ *     .setField("title", "en-US", "New title")
+ *     .removeField("subtitle", "de-DE");
+ * }</pre>
+ * Values are serialized like fields of entries, so links and rich text can be used as values.
+ *
+ * @see EntryDiff
+ * @see <a href="https://tools.ietf.org/html/rfc6902">JSON Patch RFC 6902</a>
+ */
+public class JsonPatch {
+  static final String OP = "op";
+  static final String PATH = "path";
+  static final String FROM = "from";
+  static final String VALUE = "value";
+
+  static final String ADD = "add";
+  static final String REMOVE = "remove";
+  static final String REPLACE = "replace";
+  static final String MOVE = "move";
+  static final String COPY = "copy";
+  static final String TEST = "test";
+
+  private static final String FIELDS = "fields";
+
+  private final List<Map<String, Object>> operations = new ArrayList<>();
+
+  /**
+   * Add a value, replacing the value at the path if it exists already.
+   *
+   * @param path  the pointer to the value to be added.
+   * @param value the value to be added.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public JsonPatch add(String path, Object value) {
+    return operation(ADD, path, null, value, true);
+  }
+
+  /**
+   * @param path the pointer to the value to be removed, which has to exist.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public JsonPatch remove(String path) {
+    return operation(REMOVE, path, null, null, false);
+  }
+
+  /**
+   * @param path  the pointer to the value to be replaced, which has to exist.
+   * @param value the new value.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public JsonPatch replace(String path, Object value) {
+    return operation(REPLACE, path, null, value, true);
+  }
+
+  /**
+   * @param from the pointer to the value to be moved.
+   * @param path the pointer to move the value to.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if from or path is null.
+   */
+  public JsonPatch move(String from, String path) {
+    return operation(MOVE, path, assertPath(from, FROM), null, false);
+  }
+
+  /**
+   * @param from the pointer to the value to be copied.
+   * @param path the pointer to copy the value to.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if from or path is null.
+   */
+  public JsonPatch copy(String from, String path) {
+    return operation(COPY, path, assertPath(from, FROM), null, false);
+  }
+
+  /**
+   * Let the whole patch fail, unless the value at the path equals the given value.
+   *
+   * @param path  the pointer to the value to be tested.
+   * @param value the expected value.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if path is null.
+   */
+  public JsonPatch test(String path, Object value) {
+    return operation(TEST, path, null, value, true);
+  }
+
+  /**
+   * Set the value of a field in one locale.
+   * <p>
+   * The field needs to be present on the entry in at least one locale. To set a field not present
+   * yet, add the map of all its locales with {@code add(pointer("fields", fieldId), values)}.
+   *
+   * @param fieldId the id of the field.
+   * @param locale  the locale of the value.
+   * @param value   the new value.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if fieldId or locale is null.
+   */
+  public JsonPatch setField(String fieldId, String locale, Object value) {
+    return add(fieldPath(fieldId, locale), value);
+  }
+
+  /**
+   * @param fieldId the id of the field.
+   * @param locale  the locale of the value to be removed.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if fieldId or locale is null.
+   */
+  public JsonPatch removeField(String fieldId, String locale) {
+    return remove(fieldPath(fieldId, locale));
+  }
+
+  /**
+   * Append all operations of another patch to this one.
+   *
+   * @param other the patch to be appended.
+   * @return this patch for chaining.
+   * @throws IllegalArgumentException if other is null.
+   */
+  public JsonPatch addAll(JsonPatch other) {
+    if (other == null) {
+      throw new IllegalArgumentException("other may not be null.");
+    }
+    operations.addAll(other.operations);
+    return this;
+  }
+
+  /**
+   * @return the operations of this patch, in the format expected by the api.
+   */
+  public List<Map<String, Object>> getOperations() {
+    return Collections.unmodifiableList(operations);
+  }
+
+  /**
+   * @return the number of operations.
+   */
+  public int size() {
+    return operations.size();
+  }
+
+  /**
+   * @return whether this patch does not change anything.
+   */
+  public boolean isEmpty() {
+    return operations.isEmpty();
+  }
+
+  /**
+   * @param fieldId the id of the field.
+   * @param locale  the locale of the value.
+   * @return the pointer to the value of the field in the locale.
+   * @throws IllegalArgumentException if fieldId or locale is null.
+   */
+  public static String fieldPath(String fieldId, String locale) {
+    if (fieldId == null || locale == null) {
+      throw new IllegalArgumentException("fieldId and locale may not be null.");
+    }
+    return pointer(FIELDS, fieldId, locale);
+  }
+
+  /**
+   * Create a JSON pointer, escaping {@code ~} and {@code /} in every segment.
+   *
+   * @param segments the keys and indices leading to a value.
+   * @return the pointer, or the empty string for no segments.
+   */
+  public static String pointer(String... segments) {
+    final StringBuilder builder = new StringBuilder();
+    for (String segment : segments) {
+      builder.append('/').append(escape(segment));
+    }
+    return builder.toString();
+  }
+
+  static String escape(String segment) {
+    if (segment.indexOf('~') < 0 && segment.indexOf('/') < 0) {
+      return segment;
+    }
+    return segment.replace("~", "~0").replace("/", "~1");
+  }
+
+  /**
+   * @return a human readable string, representing the object.
+   */
+  @Override public String toString() {
+    return "JsonPatch { operations = " + operations + " }";
+  }
+
+  private JsonPatch operation(String op, String path, String from, Object value, boolean hasValue) {
+    final Map<String, Object> operation = new LinkedHashMap<>();
+    operation.put(OP, op);
+    if (from != null) {
+      operation.put(FROM, from);
+    }
+    operation.put(PATH, assertPath(path, PATH));
+    if (hasValue) {
+      operation.put(VALUE, value);
+    }
+    operations.add(operation);
+    return this;
+  }
+
+  private static String assertPath(String path, String name) {
+    if (path == null) {
+      throw new IllegalArgumentException(String.format("%s may not be null.", name));
+    }
+    return path;
+  }
+}
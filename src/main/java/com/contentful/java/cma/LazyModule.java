@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds a module of the client, which is only created once it is used for the first time.
+ * <p>
+ * Creating a module creates its retrofit service, so clients using only a few modules do not pay
+ * for all the others. Concurrent first calls create the module only once.
+ *
+ * @param <M> the type of module held.
+ */
+final class LazyModule<M extends AbsModule<?>> {
+  private Supplier<M> factory;
+  private volatile M module;
+
+  LazyModule(Supplier<M> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * @return the module, created by the factory on the first call.
+   */
+  M get() {
+    M result = module;
+    if (result == null) {
+      synchronized (this) {
+        result = module;
+        if (result == null) {
+          result = factory.get();
+          module = result;
+          // the factory holds on to the client configuration, which is not needed anymore.
+          factory = null;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return whether the module was created already.
+   */
+  boolean isCreated() {
+    return module != null;
+  }
+}
@@ -25,13 +25,19 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 
+import static com.contentful.java.cma.ReactiveCalls.single;
+
 /**
  * Assets Module.
  */
 public class ModuleAssets extends AbsModule<ServiceAssets> {
   final Async async;
+  final Rx rx;
 
   /**
    * Create the assets module.
@@ -50,6 +56,7 @@ public class ModuleAssets extends AbsModule<ServiceAssets> {
       boolean environmentIdConfigured) {
     super(retrofit, callbackExecutor, spaceId, environmentId, environmentIdConfigured);
     this.async = new Async();
+    this.rx = new Rx();
   }
 
   @Override protected ServiceAssets createService(Retrofit retrofit) {
@@ -215,6 +222,43 @@ public class ModuleAssets extends AbsModule<ServiceAssets> {
     return service.fetchAll(spaceId, environmentId, enhancedQuery).blockingFirst();
   }
 
+  /**
+   * Iterate over all Assets matching the given query from the configured space and environment.
+   *
+   * @param query the criteria to filter on.
+   * @return {@link PagedIterable} over all matching assets.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public PagedIterable<CMAAsset> iterate(Map<String, String> query) {
+    return iterate(spaceId, environmentId, query);
+  }
+
+  /**
+   * Iterate over all Assets matching the given query from the given space and environment.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         Query
+   * @return {@link PagedIterable} over all matching assets.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public PagedIterable<CMAAsset> iterate(
+          final String spaceId,
+          final String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return new PagedIterable<>(
+            pageQuery -> fetchAll(spaceId, environmentId, pageQuery),
+            query,
+            asyncScheduler);
+  }
+
   /**
    * Fetch an Asset with the given {@code assetId} from the configured space and environment.
    *
@@ -260,6 +304,7 @@ public class ModuleAssets extends AbsModule<ServiceAssets> {
    */
   public Integer process(CMAAsset asset, String locale) {
     assertNotNull(asset, "asset");
+    assertNotNull(locale, "locale");
     final String assetId = getResourceIdOrThrow(asset, "asset");
     final String spaceId = getSpaceIdOrThrow(asset, "asset");
     final String environmentId = asset.getEnvironmentId();
@@ -355,6 +400,32 @@ public class ModuleAssets extends AbsModule<ServiceAssets> {
     }
   }
 
+  /**
+   * @return a module sending many asset requests concurrently, using the default concurrency.
+   */
+  public Batch batch() {
+    return new Batch(BatchExecutor.DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Send many asset requests concurrently.
+   *
+   * @param concurrency the maximum number of requests in flight.
+   * @return a module sending many asset requests concurrently.
+   * @throws IllegalArgumentException if concurrency is not positive.
+   */
+  public Batch batch(int concurrency) {
+    BatchExecutor.assertConcurrency(concurrency);
+    return new Batch(concurrency);
+  }
+
+  /**
+   * @return a module with a set of reactive methods.
+   */
+  public Rx rx() {
+    return rx;
+  }
+
   /**
    * @return a module with a set of asynchronous methods.
    */
@@ -693,4 +764,393 @@ public class ModuleAssets extends AbsModule<ServiceAssets> {
       }, callback);
     }
   }
+
+  /**
+   * Reactive module.
+   * <p>
+   * Arguments are validated when a method is called, but nothing is sent before the returned
+   * single is subscribed to. The requests are enqueued on the dispatcher of the call factory, so
+   * no thread waits for a response, and http errors are emitted as
+   * {@link com.contentful.java.cma.model.CMAHttpException}s. Call factories other than an
+   * {@link okhttp3.OkHttpClient} are called on {@link io.reactivex.schedulers.Schedulers#io()}.
+   */
+  public class Rx {
+    /**
+     * Archive an Asset.
+     *
+     * @param asset Asset
+     * @return a single emitting the archived asset.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @see ModuleAssets#archive(CMAAsset)
+     */
+    public Single<CMAAsset> archive(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+
+      return single(rxService().archive(spaceId, asset.getEnvironmentId(), assetId));
+    }
+
+    /**
+     * Create a new Asset in the configured space and environment.
+     *
+     * @param asset Asset
+     * @return a single emitting the created asset.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if asset is null.
+     * @see ModuleAssets#create(CMAAsset)
+     */
+    public Single<CMAAsset> create(CMAAsset asset) {
+      return create(spaceId, environmentId, asset);
+    }
+
+    /**
+     * Create a new Asset.
+     * <p>
+     * The system properties of the asset are removed while the request is in flight, and
+     * restored before the result is emitted.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param asset         Asset
+     * @return a single emitting the created asset.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if asset is null.
+     * @see ModuleAssets#create(String, String, CMAAsset)
+     */
+    public Single<CMAAsset> create(
+        final String spaceId,
+        final String environmentId,
+        final CMAAsset asset) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(asset, "asset");
+
+      return Single.defer(() -> {
+        final String assetId = asset.getId();
+        final CMASystem sys = asset.getSystem();
+        asset.setSystem(null);
+
+        final Flowable<CMAAsset> call = assetId == null
+            ? rxService().create(spaceId, environmentId, asset)
+            : rxService().create(spaceId, environmentId, assetId, asset);
+        return single(call)
+            .doOnEvent((result, error) -> asset.setSystem(sys))
+            .doOnDispose(() -> asset.setSystem(sys));
+      });
+    }
+
+    /**
+     * Delete an Asset.
+     *
+     * @param asset Asset
+     * @return a single emitting the response code (204) of the deletion.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @see ModuleAssets#delete(CMAAsset)
+     */
+    public Single<Integer> delete(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+
+      return single(rxService().delete(spaceId, asset.getEnvironmentId(), assetId))
+          .map(Response::code);
+    }
+
+    /**
+     * Fetch all Assets from the configured space and environment.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @return a single emitting the array of assets.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     */
+    public Single<CMAArray<CMAAsset>> fetchAll() {
+      return fetchAll(spaceId, environmentId, new HashMap<>());
+    }
+
+    /**
+     * Fetch all Assets matching the query from the configured space and environment.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @param query the criteria to filter on.
+     * @return a single emitting the array of matching assets.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     */
+    public Single<CMAArray<CMAAsset>> fetchAll(Map<String, String> query) {
+      return fetchAll(spaceId, environmentId, query);
+    }
+
+    /**
+     * Fetch all Assets from the given space and environment matching the query.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param query         Query
+     * @return a single emitting the array of matching assets.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     */
+    public Single<CMAArray<CMAAsset>> fetchAll(
+        String spaceId,
+        String environmentId,
+        Map<String, String> query) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+
+      final Map<String, String> enhancedQuery =
+          DefaultQueryParameter.putIfNotSet(query, DefaultQueryParameter.FETCH);
+      return single(rxService().fetchAll(spaceId, environmentId, enhancedQuery));
+    }
+
+    /**
+     * Fetch an Asset with the given {@code assetId} from the configured space and environment.
+     *
+     * @param assetId Asset ID
+     * @return a single emitting the asset.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if assetId is null.
+     */
+    public Single<CMAAsset> fetchOne(String assetId) {
+      return fetchOne(spaceId, environmentId, assetId);
+    }
+
+    /**
+     * Fetch an Asset with the given {@code assetId} from the given space and environment.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param assetId       Asset ID
+     * @return a single emitting the asset.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if assetId is null.
+     */
+    public Single<CMAAsset> fetchOne(String spaceId, String environmentId, String assetId) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(assetId, "assetId");
+
+      return single(rxService().fetchOne(spaceId, environmentId, assetId));
+    }
+
+    /**
+     * Process an Asset.
+     *
+     * @param asset  Asset
+     * @param locale Locale
+     * @return a single emitting the response code of the process request.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @throws IllegalArgumentException if locale is null.
+     * @see ModuleAssets#process(CMAAsset, String)
+     */
+    public Single<Integer> process(CMAAsset asset, String locale) {
+      assertNotNull(asset, "asset");
+      assertNotNull(locale, "locale");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+
+      return single(rxService().process(spaceId, asset.getEnvironmentId(), assetId, locale))
+          .map(Response::code);
+    }
+
+    /**
+     * Publish an Asset.
+     *
+     * @param asset Asset
+     * @return a single emitting the published asset.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @throws IllegalArgumentException if asset's version is null.
+     * @see ModuleAssets#publish(CMAAsset)
+     */
+    public Single<CMAAsset> publish(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+      final Integer version = getVersionOrThrow(asset, "publish");
+
+      return single(rxService().publish(version, spaceId, asset.getEnvironmentId(), assetId));
+    }
+
+    /**
+     * Un-Archive an Asset.
+     *
+     * @param asset Asset
+     * @return a single emitting the unarchived asset.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @see ModuleAssets#unArchive(CMAAsset)
+     */
+    public Single<CMAAsset> unArchive(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+
+      return single(rxService().unArchive(spaceId, asset.getEnvironmentId(), assetId));
+    }
+
+    /**
+     * Un-Publish an Asset.
+     *
+     * @param asset Asset
+     * @return a single emitting the unpublished asset.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @see ModuleAssets#unPublish(CMAAsset)
+     */
+    public Single<CMAAsset> unPublish(CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+
+      return single(rxService().unPublish(spaceId, asset.getEnvironmentId(), assetId));
+    }
+
+    /**
+     * Update an Asset.
+     * <p>
+     * The system properties of the asset are removed while the request is in flight, and
+     * restored before the result is emitted.
+     *
+     * @param asset Asset
+     * @return a single emitting the updated asset.
+     * @throws IllegalArgumentException if asset is null.
+     * @throws IllegalArgumentException if asset's id is null.
+     * @throws IllegalArgumentException if asset's space id is null.
+     * @throws IllegalArgumentException if asset's version is null.
+     * @see ModuleAssets#update(CMAAsset)
+     */
+    public Single<CMAAsset> update(final CMAAsset asset) {
+      assertNotNull(asset, "asset");
+      final String assetId = getResourceIdOrThrow(asset, "asset");
+      final String spaceId = getSpaceIdOrThrow(asset, "asset");
+      final String environmentId = asset.getEnvironmentId();
+      final Integer version = getVersionOrThrow(asset, "update");
+
+      return Single.defer(() -> {
+        final CMASystem sys = asset.getSystem();
+        asset.setSystem(null);
+
+        return single(rxService().update(version, spaceId, environmentId, assetId, asset))
+            .doOnEvent((result, error) -> asset.setSystem(sys))
+            .doOnDispose(() -> asset.setSystem(sys));
+      });
+    }
+  }
+
+  /**
+   * Batch module.
+   * <p>
+   * Every method sends one request per asset, with at most the configured number of requests in
+   * flight, and emits one {@link BatchResult} per asset as soon as its request finished. A
+   * failing asset does not end the batch. Assets are taken from the given iterable only when
+   * a request can be sent, and nothing is sent before the returned flowable is subscribed to.
+   * <p>
+   * Combine with {@link CMAClient.Builder#setRateLimiter} to stay within the rate limits.
+   */
+  public class Batch {
+    private final int concurrency;
+
+    Batch(int concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    /**
+     * Create all given assets in the configured space and environment.
+     *
+     * @param assets the assets to be created.
+     * @return a flowable of the result of every asset.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if assets is null.
+     * @see ModuleAssets#create(CMAAsset)
+     */
+    public Flowable<BatchResult<CMAAsset>> createAll(Iterable<CMAAsset> assets) {
+      return createAll(spaceId, environmentId, assets);
+    }
+
+    /**
+     * Create all given assets.
+     *
+     * @param spaceId       the space to create the assets in.
+     * @param environmentId the environment to create the assets in.
+     * @param assets        the assets to be created.
+     * @return a flowable of the result of every asset.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if assets is null.
+     * @see ModuleAssets#create(String, String, CMAAsset)
+     */
+    public Flowable<BatchResult<CMAAsset>> createAll(
+        final String spaceId,
+        final String environmentId,
+        Iterable<CMAAsset> assets) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(assets, "assets");
+
+      return BatchExecutor.execute(assets, concurrency, asyncScheduler,
+          asset -> ModuleAssets.this.create(spaceId, environmentId, asset));
+    }
+
+    /**
+     * Update all given assets.
+     *
+     * @param assets the assets to be updated, each needing an id, space id and version.
+     * @return a flowable of the result of every asset.
+     * @throws IllegalArgumentException if assets is null.
+     * @see ModuleAssets#update(CMAAsset)
+     */
+    public Flowable<BatchResult<CMAAsset>> updateAll(Iterable<CMAAsset> assets) {
+      assertNotNull(assets, "assets");
+      return BatchExecutor.execute(assets, concurrency, asyncScheduler,
+          ModuleAssets.this::update);
+    }
+
+    /**
+     * Publish all given assets.
+     *
+     * @param assets the assets to be published, each needing an id, space id and version.
+     * @return a flowable of the result of every asset.
+     * @throws IllegalArgumentException if assets is null.
+     * @see ModuleAssets#publish(CMAAsset)
+     */
+    public Flowable<BatchResult<CMAAsset>> publishAll(Iterable<CMAAsset> assets) {
+      assertNotNull(assets, "assets");
+      return BatchExecutor.execute(assets, concurrency, asyncScheduler,
+          ModuleAssets.this::publish);
+    }
+
+    /**
+     * Unpublish all given assets.
+     *
+     * @param assets the assets to be unpublished, each needing an id and space id.
+     * @return a flowable of the result of every asset.
+     * @throws IllegalArgumentException if assets is null.
+     * @see ModuleAssets#unPublish(CMAAsset)
+     */
+    public Flowable<BatchResult<CMAAsset>> unPublishAll(Iterable<CMAAsset> assets) {
+      assertNotNull(assets, "assets");
+      return BatchExecutor.execute(assets, concurrency, asyncScheduler,
+          ModuleAssets.this::unPublish);
+    }
+  }
 }
@@ -207,6 +207,43 @@ public class ModuleContentTypes extends AbsModule<ServiceContentTypes> {
     return service.fetchAll(spaceId, environmentId, enhancedQuery).blockingFirst();
   }
 
+  /**
+   * Iterate over all Content Types of the configured Space matching the query.
+   *
+   * @param query the criteria to filter on.
+   * @return {@link PagedIterable} over all matching content types.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public PagedIterable<CMAContentType> iterate(Map<String, String> query) {
+    return iterate(spaceId, environmentId, query);
+  }
+
+  /**
+   * Iterate over all Content Types of a Space matching the query.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         Query
+   * @return {@link PagedIterable} over all matching content types.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public PagedIterable<CMAContentType> iterate(
+          final String spaceId,
+          final String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return new PagedIterable<>(
+            pageQuery -> fetchAll(spaceId, environmentId, pageQuery),
+            query,
+            asyncScheduler);
+  }
+
   /**
    * Fetch a Content Type with the given {@code contentTypeId} from the configured environment and
    * space.
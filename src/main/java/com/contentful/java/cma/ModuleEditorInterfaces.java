@@ -17,6 +17,7 @@
 package com.contentful.java.cma;
 
 import com.contentful.java.cma.RxExtensions.DefFunc;
+import com.contentful.java.cma.model.CMAArray;
 import com.contentful.java.cma.model.CMAEditorInterface;
 import com.contentful.java.cma.model.CMASystem;
 
@@ -53,6 +54,39 @@ public class ModuleEditorInterfaces extends AbsModule<ServiceEditorInterfaces> {
     return retrofit.create(ServiceEditorInterfaces.class);
   }
 
+  /**
+   * Return all editor interfaces of the configured space and environment.
+   *
+   * @return the editor interfaces of all content types.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public CMAArray<CMAEditorInterface> fetchAll() {
+    return fetchAll(spaceId, environmentId);
+  }
+
+  /**
+   * Return all editor interfaces of the given space and environment.
+   * <p>
+   * This method will override the configuration specified through
+   * {@link CMAClient.Builder#setSpaceId(String)} and
+   * {@link CMAClient.Builder#setEnvironmentId(String)}.
+   *
+   * @param spaceId       the id of the space this environment is part of.
+   * @param environmentId the id of the environment the editor interfaces are valid on.
+   * @return the editor interfaces of all content types.
+   * @throws IllegalArgumentException if space id is null.
+   * @throws IllegalArgumentException if environment id is null.
+   */
+  public CMAArray<CMAEditorInterface> fetchAll(String spaceId, String environmentId) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return service.fetchAll(spaceId, environmentId).blockingFirst();
+  }
+
   /**
    * Return an editor interface by id using the configured space and environment.
    *
@@ -134,6 +168,46 @@ public class ModuleEditorInterfaces extends AbsModule<ServiceEditorInterfaces> {
    * Async module.
    */
   public class Async {
+    /**
+     * Fetch all editor interfaces of the configured space and environment.
+     *
+     * @param callback the callback to be informed about success or failure.
+     * @return the callback.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @see CMAClient.Builder#setSpaceId(String)
+     * @see CMAClient.Builder#setEnvironmentId(String)
+     */
+    public CMACallback<CMAArray<CMAEditorInterface>> fetchAll(
+        CMACallback<CMAArray<CMAEditorInterface>> callback) {
+      return defer(new DefFunc<CMAArray<CMAEditorInterface>>() {
+        @Override CMAArray<CMAEditorInterface> method() {
+          return ModuleEditorInterfaces.this.fetchAll();
+        }
+      }, callback);
+    }
+
+    /**
+     * Fetch all editor interfaces of a given space and environment.
+     *
+     * @param spaceId       the space this environment is defined on.
+     * @param environmentId the environment the editor interfaces are defined on.
+     * @param callback      the callback to be informed about success or failure.
+     * @return the callback.
+     * @throws IllegalArgumentException if space id is null.
+     * @throws IllegalArgumentException if environment id is null.
+     */
+    public CMACallback<CMAArray<CMAEditorInterface>> fetchAll(
+        final String spaceId,
+        final String environmentId,
+        CMACallback<CMAArray<CMAEditorInterface>> callback) {
+      return defer(new DefFunc<CMAArray<CMAEditorInterface>>() {
+        @Override CMAArray<CMAEditorInterface> method() {
+          return ModuleEditorInterfaces.this.fetchAll(spaceId, environmentId);
+        }
+      }, callback);
+    }
+
     /**
      * Fetch editor interface to given content type in the configured space and environment.
      *
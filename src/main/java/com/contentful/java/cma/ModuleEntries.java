@@ -25,13 +25,19 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 
+import static com.contentful.java.cma.ReactiveCalls.single;
+
 /**
  * Entries Module.
  */
 public class ModuleEntries extends AbsModule<ServiceEntries> {
   final Async async;
+  final Rx rx;
 
   /**
    * Create entries module.
@@ -50,6 +56,7 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
           boolean environmentIdConfigured) {
     super(retrofit, callbackExecutor, spaceId, environmentId, environmentIdConfigured);
     this.async = new Async();
+    this.rx = new Rx();
   }
 
   @Override protected ServiceEntries createService(Retrofit retrofit) {
@@ -238,6 +245,43 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
     return service.fetchAll(spaceId, environmentId, enhancedQuery).blockingFirst();
   }
 
+  /**
+   * Iterate over all entries from the configured space and environment matching the query.
+   *
+   * @param query the criteria to filter on.
+   * @return {@link PagedIterable} over all matching entries.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public PagedIterable<CMAEntry> iterate(Map<String, String> query) {
+    return iterate(spaceId, environmentId, query);
+  }
+
+  /**
+   * Iterate over all entries from the given space and environment matching the query.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         Query
+   * @return {@link PagedIterable} over all matching entries.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public PagedIterable<CMAEntry> iterate(
+          final String spaceId,
+          final String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return new PagedIterable<>(
+            pageQuery -> fetchAll(spaceId, environmentId, pageQuery),
+            query,
+            asyncScheduler);
+  }
+
   /**
    * Fetch an entry with the given {@code entryId} from the configured space and environment.
    *
@@ -463,6 +507,60 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
     return service.patch(version, spaceId, environmentId, entryId, operations).blockingFirst();
   }
 
+  /**
+   * Patch an Entry using a {@link JsonPatch}.
+   *
+   * @param entry Entry containing the entry ID, space ID, environment ID, and version
+   * @param patch the operations to apply
+   * @return {@link CMAEntry} result instance with updated fields
+   * @throws IllegalArgumentException if entry is null.
+   * @throws IllegalArgumentException if entry's id is null.
+   * @throws IllegalArgumentException if entry's space id is null.
+   * @throws IllegalArgumentException if entry's version is null.
+   * @throws IllegalArgumentException if patch is null.
+   * @see #patch(CMAEntry, java.util.List)
+   */
+  public CMAEntry patch(CMAEntry entry, JsonPatch patch) {
+    assertNotNull(patch, "patch");
+    return patch(entry, patch.getOperations());
+  }
+
+  /**
+   * Store the changes of an Entry, by sending only the difference to its original version.
+   * <p>
+   * Compared to {@link #update(CMAEntry)} only the changed values are uploaded, which keeps
+   * requests small for entries with many locales or long rich text fields. If nothing changed, no
+   * request is sent and the changed entry is returned as it is.
+   * <p>
+   * Example:
+   * <pre>{@code
+   * CMAEntry original = client.entries().fetchOne(entryId);
+   * CMAEntry changed = client.entries().fetchOne(entryId)
+   *     .setField("title", "en-US", "New title");
+   * CMAEntry updated = client.entries().patchChanges(original, changed);
+   * }</pre>
+   *
+   * @param original the entry as fetched, it is not modified.
+   * @param changed  the entry with the changes applied, containing the entry ID, space ID,
+   *                 environment ID, and version.
+   * @return {@link CMAEntry} result instance with updated fields
+   * @throws IllegalArgumentException if original or changed is null.
+   * @throws IllegalArgumentException if changed entry's id is null.
+   * @throws IllegalArgumentException if changed entry's space id is null.
+   * @throws IllegalArgumentException if changed entry's version is null.
+   * @see EntryDiff#diff(CMAEntry, CMAEntry)
+   */
+  public CMAEntry patchChanges(CMAEntry original, CMAEntry changed) {
+    assertNotNull(original, "original");
+    assertNotNull(changed, "changed");
+
+    final JsonPatch patch = EntryDiff.diff(original, changed);
+    if (patch.isEmpty()) {
+      return changed;
+    }
+    return patch(changed, patch);
+  }
+
   /**
    * Fetch all snapshots of an entry.
    *
@@ -579,6 +677,32 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
             locale).blockingFirst();
   }
 
+  /**
+   * @return a module sending many entry requests concurrently, using the default concurrency.
+   */
+  public Batch batch() {
+    return new Batch(BatchExecutor.DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Send many entry requests concurrently.
+   *
+   * @param concurrency the maximum number of requests in flight.
+   * @return a module sending many entry requests concurrently.
+   * @throws IllegalArgumentException if concurrency is not positive.
+   */
+  public Batch batch(int concurrency) {
+    BatchExecutor.assertConcurrency(concurrency);
+    return new Batch(concurrency);
+  }
+
+  /**
+   * @return a module with a set of reactive methods.
+   */
+  public Rx rx() {
+    return rx;
+  }
+
   /**
    * @return a module with a set of asynchronous methods.
    */
@@ -944,6 +1068,49 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
       }, callback);
     }
 
+    /**
+     * Patch an Entry using a {@link JsonPatch}.
+     *
+     * @param entry    Entry containing the entry ID, space ID, environment ID, and version
+     * @param patch    the operations to apply
+     * @param callback Callback
+     * @return the given CMACallback instance
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if patch is null.
+     * @see ModuleEntries#patch(CMAEntry, JsonPatch)
+     */
+    public CMACallback<CMAEntry> patch(
+        final CMAEntry entry,
+        final JsonPatch patch,
+        CMACallback<CMAEntry> callback) {
+      return defer(new RxExtensions.DefFunc<CMAEntry>() {
+        @Override CMAEntry method() {
+          return ModuleEntries.this.patch(entry, patch);
+        }
+      }, callback);
+    }
+
+    /**
+     * Store the changes of an Entry, by sending only the difference to its original version.
+     *
+     * @param original the entry as fetched.
+     * @param changed  the entry with the changes applied.
+     * @param callback Callback
+     * @return the given CMACallback instance
+     * @throws IllegalArgumentException if original or changed is null.
+     * @see ModuleEntries#patchChanges(CMAEntry, CMAEntry)
+     */
+    public CMACallback<CMAEntry> patchChanges(
+        final CMAEntry original,
+        final CMAEntry changed,
+        CMACallback<CMAEntry> callback) {
+      return defer(new RxExtensions.DefFunc<CMAEntry>() {
+        @Override CMAEntry method() {
+          return ModuleEntries.this.patchChanges(original, changed);
+        }
+      }, callback);
+    }
+
     /**
      * Fetch all snapshots of an entry.
      *
@@ -1052,4 +1219,385 @@ public class ModuleEntries extends AbsModule<ServiceEntries> {
       }, callback);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Reactive module.
+   * <p>
+   * Arguments are validated when a method is called, but nothing is sent before the returned
+   * single is subscribed to. The requests are enqueued on the dispatcher of the call factory, so
+   * no thread waits for a response, and http errors are emitted as
+   * {@link com.contentful.java.cma.model.CMAHttpException}s. Call factories other than an
+   * {@link okhttp3.OkHttpClient} are called on {@link io.reactivex.schedulers.Schedulers#io()}.
+   */
+  public class Rx {
+    /**
+     * Archive an Entry.
+     *
+     * @param entry Entry
+     * @return a single emitting the archived entry.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @see ModuleEntries#archive(CMAEntry)
+     */
+    public Single<CMAEntry> archive(CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      final String entryId = getResourceIdOrThrow(entry, "entry");
+      final String spaceId = getSpaceIdOrThrow(entry, "entry");
+
+      return single(rxService().archive(spaceId, entry.getEnvironmentId(), entryId));
+    }
+
+    /**
+     * Create a new Entry in the configured space and environment.
+     *
+     * @param contentTypeId Content Type ID
+     * @param entry         Entry
+     * @return a single emitting the created entry.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if entry is null.
+     * @see ModuleEntries#create(String, CMAEntry)
+     */
+    public Single<CMAEntry> create(String contentTypeId, CMAEntry entry) {
+      return create(spaceId, environmentId, contentTypeId, entry);
+    }
+
+    /**
+     * Create a new Entry.
+     * <p>
+     * The system properties of the entry are removed while the request is in flight, and
+     * restored before the result is emitted.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param contentTypeId Content Type ID
+     * @param entry         Entry
+     * @return a single emitting the created entry.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if entry is null.
+     * @see ModuleEntries#create(String, String, String, CMAEntry)
+     */
+    public Single<CMAEntry> create(
+        final String spaceId,
+        final String environmentId,
+        final String contentTypeId,
+        final CMAEntry entry) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(entry, "entry");
+
+      return Single.defer(() -> {
+        final CMASystem sys = entry.getSystem();
+        final String entryId = sys.getId();
+        entry.setSystem(null);
+
+        final Flowable<CMAEntry> call = entryId == null
+            ? rxService().create(spaceId, environmentId, contentTypeId, entry)
+            : rxService().create(spaceId, environmentId, contentTypeId, entryId, entry);
+        return single(call)
+            .doOnEvent((result, error) -> entry.setSystem(sys))
+            .doOnDispose(() -> entry.setSystem(sys));
+      });
+    }
+
+    /**
+     * Delete an Entry.
+     *
+     * @param entry Entry
+     * @return a single emitting the response code (204) of the deletion.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @throws IllegalArgumentException if entry's environment id is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @see ModuleEntries#delete(CMAEntry)
+     */
+    public Single<Integer> delete(CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      assertNotNull(entry.getSpaceId(), "spaceId");
+      assertNotNull(entry.getEnvironmentId(), "environmentId");
+      assertNotNull(entry.getId(), "entryId");
+
+      final Flowable<Response<Void>> call =
+          rxService().delete(entry.getSpaceId(), entry.getEnvironmentId(), entry.getId());
+      return single(call).map(Response::code);
+    }
+
+    /**
+     * Fetch all Entries from the configured space and environment.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @return a single emitting the array of entries.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     */
+    public Single<CMAArray<CMAEntry>> fetchAll() {
+      return fetchAll(spaceId, environmentId, new HashMap<>());
+    }
+
+    /**
+     * Fetch all entries matching the query from the configured space and environment.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @param query the criteria to filter on.
+     * @return a single emitting the array of matching entries.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     */
+    public Single<CMAArray<CMAEntry>> fetchAll(Map<String, String> query) {
+      return fetchAll(spaceId, environmentId, query);
+    }
+
+    /**
+     * Fetch all entries from the given space and environment matching the query.
+     * <p>
+     * This fetch uses the default parameter defined in {@link DefaultQueryParameter#FETCH}.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param query         Query
+     * @return a single emitting the array of matching entries.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     */
+    public Single<CMAArray<CMAEntry>> fetchAll(
+        String spaceId,
+        String environmentId,
+        Map<String, String> query) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+
+      final Map<String, String> enhancedQuery =
+          DefaultQueryParameter.putIfNotSet(query, DefaultQueryParameter.FETCH);
+      return single(rxService().fetchAll(spaceId, environmentId, enhancedQuery));
+    }
+
+    /**
+     * Fetch an entry with the given {@code entryId} from the configured space and environment.
+     *
+     * @param entryId Entry ID
+     * @return a single emitting the entry.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if entryId is null.
+     */
+    public Single<CMAEntry> fetchOne(String entryId) {
+      return fetchOne(spaceId, environmentId, entryId);
+    }
+
+    /**
+     * Fetch an entry with the given entryId from the given environment and space.
+     *
+     * @param spaceId       Space ID
+     * @param environmentId Environment ID
+     * @param entryId       Entry ID
+     * @return a single emitting the entry.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if entryId is null.
+     */
+    public Single<CMAEntry> fetchOne(String spaceId, String environmentId, String entryId) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(entryId, "entryId");
+
+      return single(rxService().fetchOne(spaceId, environmentId, entryId));
+    }
+
+    /**
+     * Publish an Entry.
+     *
+     * @param entry Entry
+     * @return a single emitting the published entry.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @throws IllegalArgumentException if entry's version is null.
+     * @see ModuleEntries#publish(CMAEntry)
+     */
+    public Single<CMAEntry> publish(CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      final String entryId = getResourceIdOrThrow(entry, "entry");
+      final String spaceId = getSpaceIdOrThrow(entry, "entry");
+      final Integer version = getVersionOrThrow(entry, "publish");
+
+      return single(rxService().publish(version, spaceId, entry.getEnvironmentId(), entryId));
+    }
+
+    /**
+     * Un-Archive an Entry.
+     *
+     * @param entry Entry
+     * @return a single emitting the unarchived entry.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @see ModuleEntries#unArchive(CMAEntry)
+     */
+    public Single<CMAEntry> unArchive(CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      final String entryId = getResourceIdOrThrow(entry, "entry");
+      final String spaceId = getSpaceIdOrThrow(entry, "entry");
+
+      return single(rxService().unArchive(spaceId, entry.getEnvironmentId(), entryId));
+    }
+
+    /**
+     * Un-Publish an Entry.
+     *
+     * @param entry Entry
+     * @return a single emitting the unpublished entry.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @see ModuleEntries#unPublish(CMAEntry)
+     */
+    public Single<CMAEntry> unPublish(CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      final String entryId = getResourceIdOrThrow(entry, "entry");
+      final String spaceId = getSpaceIdOrThrow(entry, "entry");
+
+      return single(rxService().unPublish(spaceId, entry.getEnvironmentId(), entryId));
+    }
+
+    /**
+     * Update an Entry.
+     * <p>
+     * The system properties of the entry are removed while the request is in flight, and
+     * restored before the result is emitted.
+     *
+     * @param entry Entry
+     * @return a single emitting the updated entry.
+     * @throws IllegalArgumentException if entry is null.
+     * @throws IllegalArgumentException if entry's id is null.
+     * @throws IllegalArgumentException if entry's space id is null.
+     * @throws IllegalArgumentException if entry's version is null.
+     * @see ModuleEntries#update(CMAEntry)
+     */
+    public Single<CMAEntry> update(final CMAEntry entry) {
+      assertNotNull(entry, "entry");
+      final String entryId = getResourceIdOrThrow(entry, "entry");
+      final String spaceId = getSpaceIdOrThrow(entry, "entry");
+      final String environmentId = entry.getEnvironmentId();
+      final Integer version = getVersionOrThrow(entry, "update");
+
+      return Single.defer(() -> {
+        final CMASystem sys = entry.getSystem();
+        entry.setSystem(null);
+
+        return single(rxService().update(version, spaceId, environmentId, entryId, entry))
+            .doOnEvent((result, error) -> entry.setSystem(sys))
+            .doOnDispose(() -> entry.setSystem(sys));
+      });
+    }
+  }
+
+  /**
+   * Batch module.
+   * <p>
+   * Every method sends one request per entry, with at most the configured number of requests in
+   * flight, and emits one {@link BatchResult} per entry as soon as its request finished. A
+   * failing entry does not end the batch. Entries are taken from the given iterable only when
+   * a request can be sent, and nothing is sent before the returned flowable is subscribed to.
+   * <p>
+   * Combine with {@link CMAClient.Builder#setRateLimiter} to stay within the rate limits.
+   */
+  public class Batch {
+    private final int concurrency;
+
+    Batch(int concurrency) {
+      this.concurrency = concurrency;
+    }
+
+    /**
+     * Create all given entries in the configured space and environment.
+     *
+     * @param contentTypeId the content type of all entries.
+     * @param entries       the entries to be created.
+     * @return a flowable of the result of every entry.
+     * @throws IllegalArgumentException if configured space id is null.
+     * @throws IllegalArgumentException if configured environment id is null.
+     * @throws IllegalArgumentException if contentTypeId is null.
+     * @throws IllegalArgumentException if entries is null.
+     * @see ModuleEntries#create(String, CMAEntry)
+     */
+    public Flowable<BatchResult<CMAEntry>> createAll(
+        String contentTypeId,
+        Iterable<CMAEntry> entries) {
+      return createAll(spaceId, environmentId, contentTypeId, entries);
+    }
+
+    /**
+     * Create all given entries.
+     *
+     * @param spaceId       the space to create the entries in.
+     * @param environmentId the environment to create the entries in.
+     * @param contentTypeId the content type of all entries.
+     * @param entries       the entries to be created.
+     * @return a flowable of the result of every entry.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if environmentId is null.
+     * @throws IllegalArgumentException if contentTypeId is null.
+     * @throws IllegalArgumentException if entries is null.
+     * @see ModuleEntries#create(String, String, String, CMAEntry)
+     */
+    public Flowable<BatchResult<CMAEntry>> createAll(
+        final String spaceId,
+        final String environmentId,
+        final String contentTypeId,
+        Iterable<CMAEntry> entries) {
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      assertNotNull(contentTypeId, "contentTypeId");
+      assertNotNull(entries, "entries");
+
+      return BatchExecutor.execute(entries, concurrency, asyncScheduler,
+          entry -> ModuleEntries.this.create(spaceId, environmentId, contentTypeId, entry));
+    }
+
+    /**
+     * Update all given entries.
+     *
+     * @param entries the entries to be updated, each needing an id, space id and version.
+     * @return a flowable of the result of every entry.
+     * @throws IllegalArgumentException if entries is null.
+     * @see ModuleEntries#update(CMAEntry)
+     */
+    public Flowable<BatchResult<CMAEntry>> updateAll(Iterable<CMAEntry> entries) {
+      assertNotNull(entries, "entries");
+      return BatchExecutor.execute(entries, concurrency, asyncScheduler,
+          ModuleEntries.this::update);
+    }
+
+    /**
+     * Publish all given entries.
+     *
+     * @param entries the entries to be published, each needing an id, space id and version.
+     * @return a flowable of the result of every entry.
+     * @throws IllegalArgumentException if entries is null.
+     * @see ModuleEntries#publish(CMAEntry)
+     */
+    public Flowable<BatchResult<CMAEntry>> publishAll(Iterable<CMAEntry> entries) {
+      assertNotNull(entries, "entries");
+      return BatchExecutor.execute(entries, concurrency, asyncScheduler,
+          ModuleEntries.this::publish);
+    }
+
+    /**
+     * Unpublish all given entries.
+     *
+     * @param entries the entries to be unpublished, each needing an id and space id.
+     * @return a flowable of the result of every entry.
+     * @throws IllegalArgumentException if entries is null.
+     * @see ModuleEntries#unPublish(CMAEntry)
+     */
+    public Flowable<BatchResult<CMAEntry>> unPublishAll(Iterable<CMAEntry> entries) {
+      assertNotNull(entries, "entries");
+      return BatchExecutor.execute(entries, concurrency, asyncScheduler,
+          ModuleEntries.this::unPublish);
+    }
+  }
+}
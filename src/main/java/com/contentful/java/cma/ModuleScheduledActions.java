@@ -19,6 +19,7 @@ package com.contentful.java.cma;
 import com.contentful.java.cma.model.CMAArray;
 import com.contentful.java.cma.model.CMAScheduledAction;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 import com.contentful.java.cma.model.CMASystem;
@@ -80,6 +81,52 @@ public class ModuleScheduledActions extends AbsModule<ServiceScheduledActions> {
     return service.fetchAll(spaceId, environmentId).blockingFirst();
   }
 
+  /**
+   * Fetch all scheduled actions in the given space and environment matching a query.
+   * <p>
+   * Scheduled actions are paged by cursor, follow {@link CMAArray#getPages()} to get the next
+   * page.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         the query, like {@code sys.status} or {@code entity.sys.id[in]}.
+   * @return {@link CMAArray} of scheduled actions matching the query.
+   * @throws IllegalArgumentException if spaceId or environmentId is null.
+   */
+  public CMAArray<CMAScheduledAction> fetchAll(
+          String spaceId,
+          String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    if (query == null) {
+      return service.fetchAll(spaceId, environmentId).blockingFirst();
+    }
+    return service.fetchAll(spaceId, environmentId, query).blockingFirst();
+  }
+
+  /**
+   * Iterate over all scheduled actions in the given space and environment matching a query,
+   * following the page cursors lazily.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         the query, can be null.
+   * @return an iterable loading one page at a time.
+   * @throws IllegalArgumentException if spaceId or environmentId is null.
+   */
+  public PagedIterable<CMAScheduledAction> iterate(
+          final String spaceId,
+          final String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return new PagedIterable<>(
+        q -> fetchAll(spaceId, environmentId, q), query, asyncScheduler);
+  }
+
   /**
    * Fetch a scheduled action by ID.
    *
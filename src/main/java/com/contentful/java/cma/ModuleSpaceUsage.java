@@ -48,6 +48,21 @@ public class ModuleSpaceUsage extends AbsModule<ServiceSpaceUsage> {
         }
     }
 
+    /**
+     * Iterate over all space usage matching the query.
+     *
+     * @param organizationId organization id for the request.
+     * @param query          the criteria to narrow down the search result, can be null.
+     * @return {@link PagedIterable} over all matching usages.
+     */
+    public PagedIterable<CMAUsage> iterate(
+            final String organizationId, Map<String, String> query) {
+        return new PagedIterable<>(
+                pageQuery -> fetchAll(organizationId, pageQuery),
+                query,
+                asyncScheduler);
+    }
+
     /**
      * @return a module with a set of asynchronous methods.
      */
@@ -130,6 +130,43 @@ public class ModuleTags extends AbsModule<ServiceContentTags> {
     return service.fetchAll(spaceId, environmentId, query).blockingFirst();
   }
 
+  /**
+   * Iterate over all tags of the configured space matching the query.
+   *
+   * @param query the criteria to filter on.
+   * @return {@link PagedIterable} over all matching tags.
+   * @throws IllegalArgumentException if configured space id is null.
+   * @throws IllegalArgumentException if configured environment id is null.
+   * @see CMAClient.Builder#setSpaceId(String)
+   * @see CMAClient.Builder#setEnvironmentId(String)
+   */
+  public PagedIterable<CMATag> iterate(Map<String, String> query) {
+    return iterate(spaceId, environmentId, query);
+  }
+
+  /**
+   * Iterate over all tags of the given space matching the query.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param query         Query
+   * @return {@link PagedIterable} over all matching tags.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public PagedIterable<CMATag> iterate(
+          final String spaceId,
+          final String environmentId,
+          Map<String, String> query) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    return new PagedIterable<>(
+            pageQuery -> fetchAll(spaceId, environmentId, pageQuery),
+            query,
+            asyncScheduler);
+  }
+
   /**
    * Fetch a tag with a given {@code environmentId} from the configured space.
    *
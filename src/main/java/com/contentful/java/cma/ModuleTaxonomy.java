@@ -66,6 +66,21 @@ public class ModuleTaxonomy extends AbsModule<ServiceTaxonomy> {
         return service.fetchConcepts(organizationId, query).blockingFirst();
     }
 
+    /**
+     * Iterate over all concepts of an organization matching the query.
+     *
+     * @param organizationId Organization ID
+     * @param query          Query, can be null.
+     * @return {@link PagedIterable} over all matching concepts.
+     */
+    public PagedIterable<CMAConcept> iterateConcepts(
+            final String organizationId, Map<String, String> query) {
+        return new PagedIterable<>(
+                pageQuery -> fetchConcepts(organizationId, pageQuery),
+                query,
+                asyncScheduler);
+    }
+
     public CMAArray<CMAConcept> fetchConceptDescendants(
             String organizationId, String conceptId, Map<String, String> query) {
         return service.fetchConceptDescendants(organizationId, conceptId, query).blockingFirst();
@@ -114,6 +129,21 @@ public class ModuleTaxonomy extends AbsModule<ServiceTaxonomy> {
         return service.fetchConceptSchemes(organizationId, query).blockingFirst();
     }
 
+    /**
+     * Iterate over all concept schemes of an organization matching the query.
+     *
+     * @param organizationId Organization ID
+     * @param query          Query, can be null.
+     * @return {@link PagedIterable} over all matching concept schemes.
+     */
+    public PagedIterable<CMAConceptScheme> iterateConceptSchemes(
+            final String organizationId, Map<String, String> query) {
+        return new PagedIterable<>(
+                pageQuery -> fetchConceptSchemes(organizationId, pageQuery),
+                query,
+                asyncScheduler);
+    }
+
     public CMATotalConcepts fetchTotalConceptSchemes(String organizationId) {
         return service.fetchTotalConceptSchemes(organizationId).blockingFirst();
     }
@@ -22,6 +22,8 @@ import com.contentful.java.cma.model.CMAUpload;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
@@ -162,6 +164,153 @@ public class ModuleUploads extends AbsModule<ServiceUploads> {
     return service.create(spaceId, environmentId, payload).blockingFirst();
   }
 
+  /**
+   * Create a new upload of a file on the configured space.
+   * <p>
+   * The file is streamed while the request is sent, so its size is not limited by the heap.
+   *
+   * @param file the file to be uploaded. Cannot be null.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException        if configured spaceId is null.
+   * @throws IllegalArgumentException        if file is null.
+   * @throws java.io.IOException             if the file could not be read or is empty.
+   * @throws CMANotWithEnvironmentsException if environmentId was set using
+   *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+   * @see CMAClient.Builder#setSpaceId(String)
+   */
+  public CMAUpload create(Path file) throws IOException {
+    throwIfEnvironmentIdIsSet();
+
+    return create(spaceId, environmentId, file);
+  }
+
+  /**
+   * Create a new upload of a file.
+   * <p>
+   * The file is streamed while the request is sent, so its size is not limited by the heap.
+   * <p>
+   * This method will override the configuration specified through
+   * {@link CMAClient.Builder#setSpaceId(String)} and will ignore
+   * {@link CMAClient.Builder#setEnvironmentId(String)}.
+   *
+   * @param spaceId       a nonnull id representing the space to add the upload to.
+   * @param environmentId the environment to add the upload to.
+   * @param file          the file to be uploaded. Cannot be null.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if file is null.
+   * @throws java.io.IOException      if the file could not be read or is empty.
+   */
+  public CMAUpload create(String spaceId, String environmentId, Path file) throws IOException {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(file, "file");
+
+    return create(spaceId, environmentId, UploadRequestBodies.fromPath(file));
+  }
+
+  /**
+   * Create a new upload of the remaining bytes of a channel on the configured space.
+   * <p>
+   * The bytes are transferred while the request is sent, the channel's position is not changed
+   * and it is not closed.
+   *
+   * @param channel the channel to be uploaded from its current position on. Cannot be null.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException        if configured spaceId is null.
+   * @throws IllegalArgumentException        if channel is null.
+   * @throws java.io.IOException             if the channel could not be read or has no data.
+   * @throws CMANotWithEnvironmentsException if environmentId was set using
+   *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+   * @see CMAClient.Builder#setSpaceId(String)
+   */
+  public CMAUpload create(FileChannel channel) throws IOException {
+    throwIfEnvironmentIdIsSet();
+
+    return create(spaceId, environmentId, channel);
+  }
+
+  /**
+   * Create a new upload of the remaining bytes of a channel.
+   * <p>
+   * The bytes are transferred while the request is sent, the channel's position is not changed
+   * and it is not closed.
+   * <p>
+   * This method will override the configuration specified through
+   * {@link CMAClient.Builder#setSpaceId(String)} and will ignore
+   * {@link CMAClient.Builder#setEnvironmentId(String)}.
+   *
+   * @param spaceId       a nonnull id representing the space to add the upload to.
+   * @param environmentId the environment to add the upload to.
+   * @param channel       the channel to be uploaded from its current position on. Cannot be null.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if channel is null.
+   * @throws java.io.IOException      if the channel could not be read or has no data.
+   */
+  public CMAUpload create(String spaceId, String environmentId, FileChannel channel)
+          throws IOException {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(channel, "channel");
+
+    return create(spaceId, environmentId, UploadRequestBodies.fromChannel(channel));
+  }
+
+  /**
+   * Create a new upload on the configured space, streaming the given stream.
+   * <p>
+   * In contrast to {@link #create(InputStream)} the stream is not read into memory first, but
+   * consumed and closed while the request is sent.
+   *
+   * @param stream        the actual binary representation of the upload. Cannot be null.
+   * @param contentLength the number of bytes in the stream, -1 if unknown.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException        if configured spaceId is null.
+   * @throws IllegalArgumentException        if stream is null.
+   * @throws java.io.IOException             if the stream could not be read or is empty.
+   * @throws CMANotWithEnvironmentsException if environmentId was set using
+   *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+   * @see CMAClient.Builder#setSpaceId(String)
+   */
+  public CMAUpload createFromStream(InputStream stream, long contentLength) throws IOException {
+    throwIfEnvironmentIdIsSet();
+
+    return createFromStream(spaceId, environmentId, stream, contentLength);
+  }
+
+  /**
+   * Create a new upload, streaming the given stream.
+   * <p>
+   * In contrast to {@link #create(String, String, InputStream)} the stream is not read into
+   * memory first, but consumed and closed while the request is sent.
+   * <p>
+   * This method will override the configuration specified through
+   * {@link CMAClient.Builder#setSpaceId(String)} and will ignore
+   * {@link CMAClient.Builder#setEnvironmentId(String)}.
+   *
+   * @param spaceId       a nonnull id representing the space to add the upload to.
+   * @param environmentId the environment to add the upload to.
+   * @param stream        the actual binary representation of the upload. Cannot be null.
+   * @param contentLength the number of bytes in the stream, -1 if unknown.
+   * @return the upload created, containing the id to be used further on.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if stream is null.
+   * @throws java.io.IOException      if the stream could not be read or is empty.
+   */
+  public CMAUpload createFromStream(
+          String spaceId,
+          String environmentId,
+          InputStream stream,
+          long contentLength) throws IOException {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(stream, "stream");
+
+    return create(spaceId, environmentId, UploadRequestBodies.fromStream(stream, contentLength));
+  }
+
+  private CMAUpload create(String spaceId, String environmentId, RequestBody payload) {
+    return service.create(spaceId, environmentId, payload).blockingFirst();
+  }
+
   /**
    * Get information about a given upload on the configured space.
    *
@@ -307,6 +456,177 @@ public class ModuleUploads extends AbsModule<ServiceUploads> {
       }, callback);
     }
 
+    /**
+     * Create a new upload of a file on the configured space, asynchronously.
+     *
+     * @param file     the file to be uploaded. Cannot be null.
+     * @param callback the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException        if configured spaceId is null.
+     * @throws IllegalArgumentException        if file is null.
+     * @throws IllegalStateException           if the file could not be read.
+     * @throws CMANotWithEnvironmentsException if environmentId was set using
+     *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+     * @see CMAClient.Builder#setSpaceId(String)
+     */
+    public CMACallback<CMAUpload> create(
+            final Path file,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.create(file);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
+    /**
+     * Create a new upload of a file, asynchronously.
+     *
+     * @param spaceId       a nonnull id representing the space to add the upload to.
+     * @param environmentId the environment to add the upload to.
+     * @param file          the file to be uploaded. Cannot be null.
+     * @param callback      the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if file is null.
+     * @throws IllegalStateException    if the file could not be read.
+     */
+    public CMACallback<CMAUpload> create(
+            final String spaceId,
+            final String environmentId,
+            final Path file,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.create(spaceId, environmentId, file);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
+    /**
+     * Create a new upload of the remaining bytes of a channel on the configured space,
+     * asynchronously.
+     *
+     * @param channel  the channel to be uploaded from its current position on. Cannot be null.
+     * @param callback the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException        if configured spaceId is null.
+     * @throws IllegalArgumentException        if channel is null.
+     * @throws IllegalStateException           if the channel could not be read.
+     * @throws CMANotWithEnvironmentsException if environmentId was set using
+     *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+     * @see CMAClient.Builder#setSpaceId(String)
+     */
+    public CMACallback<CMAUpload> create(
+            final FileChannel channel,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.create(channel);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
+    /**
+     * Create a new upload of the remaining bytes of a channel, asynchronously.
+     *
+     * @param spaceId       a nonnull id representing the space to add the upload to.
+     * @param environmentId the environment to add the upload to.
+     * @param channel       the channel to be uploaded from its current position on.
+     * @param callback      the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if channel is null.
+     * @throws IllegalStateException    if the channel could not be read.
+     */
+    public CMACallback<CMAUpload> create(
+            final String spaceId,
+            final String environmentId,
+            final FileChannel channel,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.create(spaceId, environmentId, channel);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
+    /**
+     * Create a new upload on the configured space, streaming the given stream, asynchronously.
+     *
+     * @param stream        the actual binary representation of the upload. Cannot be null.
+     * @param contentLength the number of bytes in the stream, -1 if unknown.
+     * @param callback      the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException        if configured spaceId is null.
+     * @throws IllegalArgumentException        if stream is null.
+     * @throws IllegalStateException           if the stream could not be read or is empty.
+     * @throws CMANotWithEnvironmentsException if environmentId was set using
+     *                                         {@link CMAClient.Builder#setEnvironmentId(String)}.
+     * @see CMAClient.Builder#setSpaceId(String)
+     */
+    public CMACallback<CMAUpload> createFromStream(
+            final InputStream stream,
+            final long contentLength,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.createFromStream(stream, contentLength);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
+    /**
+     * Create a new upload, streaming the given stream, asynchronously.
+     *
+     * @param spaceId       a nonnull id representing the space to add the upload to.
+     * @param environmentId the environment to add the upload to.
+     * @param stream        the actual binary representation of the upload. Cannot be null.
+     * @param contentLength the number of bytes in the stream, -1 if unknown.
+     * @param callback      the callback to be informed about success or failure.
+     * @return the callback passed in.
+     * @throws IllegalArgumentException if spaceId is null.
+     * @throws IllegalArgumentException if stream is null.
+     * @throws IllegalStateException    if the stream could not be read or is empty.
+     */
+    public CMACallback<CMAUpload> createFromStream(
+            final String spaceId,
+            final String environmentId,
+            final InputStream stream,
+            final long contentLength,
+            CMACallback<CMAUpload> callback) {
+      return defer(new DefFunc<CMAUpload>() {
+        @Override CMAUpload method() {
+          try {
+            return ModuleUploads.this.createFromStream(spaceId, environmentId, stream,
+                contentLength);
+          } catch (IOException e) {
+            throw new IllegalStateException("IO exception while creating upload.", e);
+          }
+        }
+      }, callback);
+    }
+
     /**
      * Get information about the given upload, asynchronously.
      *
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAPages;
+import com.contentful.java.cma.model.CMAResource;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Lazily walks all pages of a collection endpoint, one {@link CMAArray} at a time.
+ * <p>
+ * While the items of one page are consumed, the following page is already requested in the
+ * background. Only the items of the current page are retained, so previously consumed pages
+ * (including their {@code includes}) can be garbage collected.
+ * <p>
+ * Offset based endpoints are followed using {@code skip} and {@code total}, cursor based
+ * endpoints (the ones returning {@link CMAPages}) by following {@link CMAPages#getNext()}.
+ * <p>
+ * Iterables returned by the modules load their pages on the scheduler of the executor set through
+ * {@link CMAClient.Builder#setAsyncExecutor(java.util.concurrent.Executor)}, or
+ * {@link Schedulers#io()} if none was set.
+ *
+ * @param <T> the type of resource contained in the pages.
+ */
+public class PagedIterable<T extends CMAResource> implements Iterable<T> {
+  static final String PARAMETER_SKIP = "skip";
+  static final String PARAMETER_PAGE_NEXT = "pageNext";
+
+  /**
+   * Loads one page for a given query.
+   *
+   * @param <T> the type of resource contained in the page.
+   */
+  public interface PageLoader<T extends CMAResource> {
+    /**
+     * Load a page.
+     *
+     * @param query the query, including paging parameters, to be used.
+     * @return the page matching the query.
+     */
+    CMAArray<T> load(Map<String, String> query);
+  }
+
+  private final PageLoader<T> loader;
+  private final Map<String, String> query;
+  private final Scheduler scheduler;
+
+  /**
+   * Create an iterable over all pages returned by the loader.
+   *
+   * @param loader how to load a page.
+   * @param query  the initial query, can contain a {@code skip} to start from.
+   * @throws IllegalArgumentException if loader is null.
+   */
+  public PagedIterable(PageLoader<T> loader, Map<String, String> query) {
+    this(loader, query, Schedulers.io());
+  }
+
+  /**
+   * Create an iterable over all pages returned by the loader, loading pages on the scheduler.
+   *
+   * @param loader    how to load a page.
+   * @param query     the initial query, can contain a {@code skip} to start from.
+   * @param scheduler where pages are loaded.
+   * @throws IllegalArgumentException if loader or scheduler is null.
+   */
+  public PagedIterable(PageLoader<T> loader, Map<String, String> query, Scheduler scheduler) {
+    if (loader == null) {
+      throw new IllegalArgumentException("loader may not be null.");
+    }
+    if (scheduler == null) {
+      throw new IllegalArgumentException("scheduler may not be null.");
+    }
+    this.loader = loader;
+    this.query = query == null ? new HashMap<>() : new HashMap<>(query);
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * @return a new iterator, starting with the first page again.
+   */
+  @Override public Iterator<T> iterator() {
+    return new PageIterator();
+  }
+
+  /**
+   * @return a sequential stream of all items of all pages.
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * @return a flowable emitting all items of all pages, loading new pages on demand.
+   */
+  public Flowable<T> flowable() {
+    return Flowable.fromIterable(this);
+  }
+
+  /**
+   * Calculate the query for the page following the given one.
+   *
+   * @param current the query used to load the given page.
+   * @param page    the page loaded.
+   * @return the query of the next page, or null if the given page was the last one.
+   */
+  static Map<String, String> nextQuery(Map<String, String> current, CMAArray<?> page) {
+    final List<?> items = page.getItems();
+    final CMAPages pages = page.getPages();
+
+    if (pages != null) {
+      final String cursor = parseCursor(pages.getNext());
+      if (cursor == null || items == null || items.isEmpty()) {
+        return null;
+      }
+
+      final Map<String, String> next = new HashMap<>(current);
+      next.put(PARAMETER_PAGE_NEXT, cursor);
+      return next;
+    }
+
+    if (items == null || items.isEmpty()) {
+      return null;
+    }
+
+    final int nextSkip = page.getSkip() + items.size();
+    if (nextSkip >= page.getTotal()) {
+      return null;
+    }
+
+    final Map<String, String> next = new HashMap<>(current);
+    next.put(PARAMETER_SKIP, Integer.toString(nextSkip));
+    return next;
+  }
+
+  /**
+   * Extract the cursor from a {@link CMAPages#getNext()} value.
+   * <p>
+   * The value is either a cursor token or a url containing the cursor as query parameter.
+   */
+  static String parseCursor(String next) {
+    if (next == null || next.isEmpty()) {
+      return null;
+    }
+
+    final int parameterStart = next.indexOf(PARAMETER_PAGE_NEXT + "=");
+    if (parameterStart < 0) {
+      return next;
+    }
+
+    final int valueStart = parameterStart + PARAMETER_PAGE_NEXT.length() + 1;
+    final int valueEnd = next.indexOf('&', valueStart);
+    return valueEnd < 0 ? next.substring(valueStart) : next.substring(valueStart, valueEnd);
+  }
+
+  /**
+   * Iterator prefetching the following page while the current one is consumed.
+   */
+  private class PageIterator implements Iterator<T> {
+    private Iterator<T> items;
+    private Map<String, String> pendingQuery;
+    private Future<CMAArray<T>> nextPage;
+
+    PageIterator() {
+      nextPage = request(query);
+    }
+
+    @Override public boolean hasNext() {
+      while ((items == null || !items.hasNext()) && nextPage != null) {
+        final CMAArray<T> page = await(nextPage);
+        final Map<String, String> following = nextQuery(pendingQuery, page);
+
+        nextPage = following == null ? null : request(following);
+        items = page.getItems() == null ? null : page.getItems().iterator();
+      }
+
+      return items != null && items.hasNext();
+    }
+
+    @Override public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return items.next();
+    }
+
+    private Future<CMAArray<T>> request(final Map<String, String> pageQuery) {
+      pendingQuery = pageQuery;
+      return Single.fromCallable(() -> loader.load(pageQuery))
+          .subscribeOn(scheduler)
+          .toFuture();
+    }
+
+    private CMAArray<T> await(Future<CMAArray<T>> future) {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for next page.", e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new RuntimeException("Unexpected Exception", cause);
+      }
+    }
+  }
+}
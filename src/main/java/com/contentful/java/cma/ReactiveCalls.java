@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.interceptor.ErrorInterceptor;
+import com.contentful.java.cma.model.CMAHttpException;
+
+import java.io.IOException;
+import java.util.List;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+
+/**
+ * Creates services whose calls are enqueued on the dispatcher of OkHttp, instead of blocking the
+ * subscribing thread.
+ * <p>
+ * OkHttp only reports {@link IOException}s of enqueued calls to their callback, any other
+ * exception escapes on the dispatcher thread. The {@link ErrorInterceptor} throws
+ * {@link CMAHttpException}s, so it gets wrapped into an interceptor carrying that exception
+ * inside of an {@link IOException}, which is unwrapped again by {@link #single(Flowable)}.
+ * <p>
+ * Interceptors of other {@link Call.Factory}s cannot be reached, so their calls are executed
+ * synchronously on {@link Schedulers#io()} instead, where any exception reaches the subscriber.
+ */
+class ReactiveCalls {
+  private ReactiveCalls() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Copy the given retrofit, only replacing its call adapter with an asynchronous one.
+   *
+   * @param retrofit the retrofit used by the blocking modules.
+   * @return a retrofit creating services which do not block on subscription.
+   */
+  static Retrofit async(Retrofit retrofit) {
+    final Retrofit.Builder builder = retrofit.newBuilder();
+    builder.callAdapterFactories().clear();
+
+    final Call.Factory callFactory = retrofit.callFactory();
+    if (callFactory instanceof OkHttpClient) {
+      builder.addCallAdapterFactory(RxJava2CallAdapterFactory.createAsync());
+      builder.callFactory(wrapErrors((OkHttpClient) callFactory));
+    } else {
+      builder.addCallAdapterFactory(RxJava2CallAdapterFactory.createWithScheduler(
+          Schedulers.io()));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Turn the response of a call into a single, reporting http errors as
+   * {@link CMAHttpException}s.
+   *
+   * @param call the flowable returned by an asynchronous service.
+   * @param <R>  the type of response.
+   * @return a single emitting the response.
+   */
+  static <R> Single<R> single(Flowable<R> call) {
+    return call
+        .singleOrError()
+        .onErrorResumeNext(throwable -> Single.error(unwrap(throwable)));
+  }
+
+  static Throwable unwrap(Throwable throwable) {
+    if (throwable instanceof HttpFailure) {
+      return ((HttpFailure) throwable).exception;
+    }
+    return throwable;
+  }
+
+  private static OkHttpClient wrapErrors(OkHttpClient client) {
+    final OkHttpClient.Builder builder = client.newBuilder();
+    final List<Interceptor> interceptors = builder.interceptors();
+
+    for (int i = 0; i < interceptors.size(); i++) {
+      final Interceptor interceptor = interceptors.get(i);
+      if (interceptor instanceof ErrorInterceptor) {
+        interceptors.set(i, chain -> {
+          try {
+            return interceptor.intercept(chain);
+          } catch (CMAHttpException e) {
+            throw new HttpFailure(e);
+          }
+        });
+      }
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Carries an http error through the callback of an enqueued call.
+   */
+  static class HttpFailure extends IOException {
+    private static final long serialVersionUID = 2811473394738462501L;
+
+    final CMAHttpException exception;
+
+    HttpFailure(CMAHttpException exception) {
+      super(exception.getMessage(), exception);
+      this.exception = exception;
+    }
+  }
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMALink;
+import com.contentful.java.cma.model.CMAScheduledAction;
+import com.contentful.java.cma.model.CMAScheduledActionStatus;
+import com.contentful.java.cma.model.CMAScheduledFor;
+import com.contentful.java.cma.model.CMASystem;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Local index of the scheduled actions of one environment.
+ * <p>
+ * All actions are loaded once, by {@link #refresh()}. After that, a refresh only loads the
+ * actions still scheduled, since the others cannot change anymore, and fetches the ones which
+ * were scheduled before but are not anymore, to learn how they ended. Lookups by id, entity,
+ * time window and status are answered from memory:
+ * <pre>{@code
+ * ScheduledActionIndex index = new ScheduledActionIndex.Builder()
+ *     .build(client, spaceId, "master");
+ * index.refresh();
+ * List<CMAScheduledAction> thisWeek = index.find(
+ *     entryIds, monday, nextMonday, CMAScheduledActionStatus.SCHEDULED);
+ * }</pre>
+ * This index is safe to be used by multiple threads. Lookups wait while a refresh applies its
+ * changes, but not while it requests them.
+ */
+public class ScheduledActionIndex {
+  static final String PARAMETER_LIMIT = "limit";
+  static final String PARAMETER_STATUS = "sys.status";
+
+  private static final int DEFAULT_PAGE_SIZE = 100;
+  private static final int MAX_PAGE_SIZE = 500;
+
+  /*
+   * The offset is read by hand: SimpleDateFormat only knows ISO 8601 offsets from Android API 24
+   * on.
+   */
+  private static final String[] DATETIME_PATTERNS = {
+      "yyyy-MM-dd'T'HH:mm:ss.SSS",
+      "yyyy-MM-dd'T'HH:mm:ss",
+      "yyyy-MM-dd'T'HH:mm"
+  };
+  private static final String UTC = "UTC";
+  private static final int OFFSET_HOURS_LENGTH = 2;
+  private static final int OFFSET_LENGTH = 4;
+  private static final int MINUTES_PER_HOUR = 60;
+
+  /*
+   * Actions without a parsable time are sorted last, but are not part of any time window.
+   */
+  private static final Comparator<Indexed> BY_TIME = (a, b) -> {
+    final int byMillis = Long.compare(a.millis, b.millis);
+    return byMillis != 0 ? byMillis : a.id.compareTo(b.id);
+  };
+
+  private final ModuleScheduledActions scheduledActions;
+  private final String spaceId;
+  private final String environmentId;
+  private final int pageSize;
+  private final SimpleDateFormat[] formats;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Indexed> byId = new HashMap<>();
+  private final Map<String, NavigableSet<Indexed>> byEntity = new HashMap<>();
+  private final NavigableSet<Indexed> byTime = new TreeSet<>(BY_TIME);
+  private final Map<CMAScheduledActionStatus, NavigableSet<Indexed>> byStatus =
+      new EnumMap<>(CMAScheduledActionStatus.class);
+  private boolean loaded;
+
+  ScheduledActionIndex(Builder builder, CMAClient client, String spaceId, String environmentId) {
+    this.scheduledActions = client.scheduledActions();
+    this.spaceId = spaceId;
+    this.environmentId = environmentId;
+    this.pageSize = builder.pageSize;
+
+    this.formats = new SimpleDateFormat[DATETIME_PATTERNS.length];
+    for (int i = 0; i < DATETIME_PATTERNS.length; i++) {
+      formats[i] = new SimpleDateFormat(DATETIME_PATTERNS[i], Locale.US);
+      formats[i].setTimeZone(TimeZone.getTimeZone(UTC));
+      formats[i].setLenient(false);
+    }
+  }
+
+  /**
+   * Load all actions on the first call, and the ones which could have changed on every following
+   * call.
+   * <p>
+   * Concurrent refreshes are not coordinated: each of them requests the changes, and applying
+   * them twice is harmless.
+   *
+   * @return the number of actions which were added or changed.
+   */
+  public int refresh() {
+    final boolean full;
+    final List<Indexed> pending = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      full = !loaded;
+      final Set<Indexed> scheduled = byStatus.get(CMAScheduledActionStatus.SCHEDULED);
+      if (!full && scheduled != null) {
+        pending.addAll(scheduled);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    final Map<String, String> query = new HashMap<>();
+    query.put(PARAMETER_LIMIT, Integer.toString(pageSize));
+    if (!full) {
+      query.put(PARAMETER_STATUS, CMAScheduledActionStatus.SCHEDULED.getStatus());
+    }
+
+    final List<CMAScheduledAction> loadedActions = new ArrayList<>();
+    final Set<String> seen = new HashSet<>();
+    for (CMAScheduledAction action : scheduledActions.iterate(spaceId, environmentId, query)) {
+      loadedActions.add(action);
+      seen.add(action.getId());
+    }
+
+    for (Indexed previous : pending) {
+      if (!seen.contains(previous.id) && previous.entityId != null) {
+        loadedActions.add(scheduledActions.fetchOne(
+            spaceId, environmentId, previous.id, previous.entityId));
+      }
+    }
+
+    lock.writeLock().lock();
+    try {
+      int changed = 0;
+      for (CMAScheduledAction action : loadedActions) {
+        if (action.getId() != null && apply(action, false)) {
+          changed++;
+        }
+      }
+      loaded = true;
+      return changed;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add or replace an action, for example the result of a create or cancel done through this
+   * client, without waiting for the next refresh.
+   *
+   * @param action the action to be indexed.
+   * @throws IllegalArgumentException if action or its id is null.
+   */
+  public void put(CMAScheduledAction action) {
+    assertNotNull(action, "action");
+    assertNotNull(action.getId(), "action.id");
+
+    lock.writeLock().lock();
+    try {
+      apply(action, true);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param id the id of the action.
+   * @return the action, or null if it is not indexed.
+   */
+  public CMAScheduledAction get(String id) {
+    lock.readLock().lock();
+    try {
+      final Indexed indexed = byId.get(id);
+      return indexed == null ? null : indexed.action;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return the number of indexed actions.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return byId.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param entityId the id of an entry or release.
+   * @return all actions of the entity, ordered by their time.
+   */
+  public List<CMAScheduledAction> forEntity(String entityId) {
+    return find(Collections.singleton(entityId), null, null, null);
+  }
+
+  /**
+   * Find all actions matching every given criterion. Null criteria match all actions.
+   *
+   * @param entityIds the entities whose actions are returned.
+   * @param from      the earliest time of the actions returned, inclusive.
+   * @param to        the latest time of the actions returned, exclusive.
+   * @param status    the status of the actions returned.
+   * @return the matching actions, ordered by their time.
+   */
+  public List<CMAScheduledAction> find(
+      Collection<String> entityIds,
+      Date from,
+      Date to,
+      CMAScheduledActionStatus status) {
+    final boolean window = from != null || to != null;
+    final long fromMillis = from == null ? Long.MIN_VALUE : from.getTime();
+    final long toMillis = to == null ? Long.MAX_VALUE : to.getTime();
+
+    lock.readLock().lock();
+    try {
+      final Collection<Indexed> candidates;
+      if (entityIds != null) {
+        final NavigableSet<Indexed> merged = new TreeSet<>(BY_TIME);
+        for (String entityId : entityIds) {
+          final Set<Indexed> ofEntity = byEntity.get(entityId);
+          if (ofEntity != null) {
+            merged.addAll(ofEntity);
+          }
+        }
+        candidates = merged;
+      } else if (window) {
+        candidates = byTime.subSet(new Indexed(fromMillis), true, new Indexed(toMillis), false);
+      } else if (status != null) {
+        final Set<Indexed> ofStatus = byStatus.get(status);
+        candidates = ofStatus == null ? Collections.<Indexed>emptySet() : ofStatus;
+      } else {
+        candidates = byTime;
+      }
+
+      final List<CMAScheduledAction> result = new ArrayList<>();
+      for (Indexed indexed : candidates) {
+        if (window && (!indexed.timed || indexed.millis < fromMillis
+            || indexed.millis >= toMillis)) {
+          continue;
+        }
+        if (status != null && status != indexed.status) {
+          continue;
+        }
+        result.add(indexed.action);
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /*
+   * Needs the write lock. Returns whether the index changed, unless forced an action with the
+   * same keys and version is kept.
+   */
+  private boolean apply(CMAScheduledAction action, boolean force) {
+    final Indexed next = index(action);
+    final Indexed previous = byId.get(next.id);
+    if (!force && previous != null && previous.sameAs(next)) {
+      return false;
+    }
+
+    if (previous != null) {
+      remove(previous);
+    }
+    byId.put(next.id, next);
+    byTime.add(next);
+    if (next.entityId != null) {
+      byEntity.computeIfAbsent(next.entityId, key -> new TreeSet<>(BY_TIME)).add(next);
+    }
+    if (next.status != null) {
+      byStatus.computeIfAbsent(next.status, key -> new TreeSet<>(BY_TIME)).add(next);
+    }
+    return true;
+  }
+
+  private void remove(Indexed indexed) {
+    byId.remove(indexed.id);
+    byTime.remove(indexed);
+    if (indexed.entityId != null) {
+      final Set<Indexed> ofEntity = byEntity.get(indexed.entityId);
+      ofEntity.remove(indexed);
+      if (ofEntity.isEmpty()) {
+        byEntity.remove(indexed.entityId);
+      }
+    }
+    if (indexed.status != null) {
+      byStatus.get(indexed.status).remove(indexed);
+    }
+  }
+
+  private Indexed index(CMAScheduledAction action) {
+    final CMASystem system = action.getSystem();
+    final CMALink entity = action.getEntity();
+    final CMAScheduledFor scheduledFor = action.getScheduledFor();
+    final Long millis = scheduledFor == null ? null : parse(scheduledFor.getDatetime());
+
+    return new Indexed(
+        action,
+        action.getId(),
+        entity == null ? null : entity.getId(),
+        system == null ? null : system.getScheduledActionStatus(),
+        action.getVersion(),
+        millis);
+  }
+
+  /*
+   * Formats are only used while holding the write lock. The local time is read as UTC and moved
+   * by the offset, which is {@code Z}, {@code +hh:mm}, {@code +hhmm} or {@code +hh}.
+   */
+  Long parse(String datetime) {
+    if (datetime == null) {
+      return null;
+    }
+
+    final int zone = zoneStart(datetime);
+    final Long offset = zone < 0 ? null : offsetMillis(datetime.substring(zone));
+    if (offset == null) {
+      return null;
+    }
+
+    final String local = datetime.substring(0, zone);
+    for (SimpleDateFormat format : formats) {
+      final ParsePosition position = new ParsePosition(0);
+      final Date date = format.parse(local, position);
+      if (date != null && position.getIndex() == local.length()) {
+        return date.getTime() - offset;
+      }
+    }
+    return null;
+  }
+
+  private static int zoneStart(String datetime) {
+    if (datetime.endsWith("Z")) {
+      return datetime.length() - 1;
+    }
+
+    final int time = datetime.indexOf('T');
+    final int sign = Math.max(datetime.lastIndexOf('+'), datetime.lastIndexOf('-'));
+    return time < 0 || sign < time ? -1 : sign;
+  }
+
+  private static Long offsetMillis(String zone) {
+    if ("Z".equals(zone)) {
+      return 0L;
+    }
+
+    final String digits = zone.substring(1).replace(":", "");
+    if (digits.length() != OFFSET_HOURS_LENGTH && digits.length() != OFFSET_LENGTH) {
+      return null;
+    }
+    for (int i = 0; i < digits.length(); i++) {
+      if (!Character.isDigit(digits.charAt(i))) {
+        return null;
+      }
+    }
+
+    final int hours = Integer.parseInt(digits.substring(0, OFFSET_HOURS_LENGTH));
+    final int minutes = digits.length() == OFFSET_LENGTH
+        ? Integer.parseInt(digits.substring(OFFSET_HOURS_LENGTH))
+        : 0;
+    if (minutes >= MINUTES_PER_HOUR) {
+      return null;
+    }
+
+    final long millis = TimeUnit.HOURS.toMillis(hours) + TimeUnit.MINUTES.toMillis(minutes);
+    return zone.charAt(0) == '-' ? -millis : millis;
+  }
+
+  /**
+   * An action, together with the keys it is indexed by.
+   */
+  private static final class Indexed {
+    final CMAScheduledAction action;
+    final String id;
+    final String entityId;
+    final CMAScheduledActionStatus status;
+    final Integer version;
+    final long millis;
+    final boolean timed;
+
+    Indexed(
+        CMAScheduledAction action,
+        String id,
+        String entityId,
+        CMAScheduledActionStatus status,
+        Integer version,
+        Long millis) {
+      this.action = action;
+      this.id = id;
+      this.entityId = entityId;
+      this.status = status;
+      this.version = version;
+      this.millis = millis == null ? Long.MAX_VALUE : millis;
+      this.timed = millis != null;
+    }
+
+    boolean sameAs(Indexed other) {
+      return status == other.status
+          && millis == other.millis
+          && (entityId == null ? other.entityId == null : entityId.equals(other.entityId))
+          && (version == null ? other.version == null : version.equals(other.version));
+    }
+
+    /*
+     * Bound of a time window, sorted before all actions of the same time.
+     */
+    Indexed(long millis) {
+      this(null, "", null, null, null, millis);
+    }
+  }
+
+  /**
+   * Configures a {@link ScheduledActionIndex}.
+   */
+  public static class Builder {
+    int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * @param pageSize the number of actions requested per page. Defaults to 100.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if pageSize is not between 1 and 500.
+     */
+    public Builder setPageSize(int pageSize) {
+      if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+        throw new IllegalArgumentException(
+            "pageSize needs to be between 1 and " + MAX_PAGE_SIZE + ".");
+      }
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * Create an empty index, to be loaded by {@link ScheduledActionIndex#refresh()}.
+     *
+     * @param client        the client sending all requests.
+     * @param spaceId       the space of the actions.
+     * @param environmentId the environment of the actions.
+     * @return a new index using this configuration.
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public ScheduledActionIndex build(CMAClient client, String spaceId, String environmentId) {
+      assertNotNull(client, "client");
+      assertNotNull(spaceId, "spaceId");
+      assertNotNull(environmentId, "environmentId");
+      return new ScheduledActionIndex(this, client, spaceId, environmentId);
+    }
+  }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAContentType;
+import com.contentful.java.cma.model.CMAEditorInterface;
+import com.contentful.java.cma.model.CMALink;
+import com.contentful.java.cma.model.CMALocale;
+import com.contentful.java.cma.model.CMAResource;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Read-through cache for the schema of environments: content types, locales and editor
+ * interfaces.
+ * <p>
+ * Resources are kept by space, environment and id, up to a maximum number, dropping the least
+ * recently used ones. A resource older than the time to live is fetched again on its next read,
+ * replacing the cached one. Every read returns a copy of its own, so callers are free to change it.
+ * <p>
+ * Writes done through this client are not seen by the cache on their own. Pass their results to
+ * one of the {@code put} methods, which only replace a cached resource by a newer version:
+ * <pre>{@code
+ * cache.put(client.contentTypes().update(contentType));
+ * }</pre>
+ * <p>
+ * This cache is safe to be used by multiple threads. Concurrent misses of the same resource may
+ * fetch it more than once.
+ */
+public class SchemaCache {
+  private static final String CONTENT_TYPE = "content_type";
+  private static final String EDITOR_INTERFACE = "editor_interface";
+  private static final String LOCALES = "locales";
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final Type LOCALES_TYPE = new TypeToken<CMAArray<CMALocale>>() {
+  }.getType();
+
+  private final CMAClient client;
+  private final LongSupplier nanoClock;
+  private final long timeToLiveNanos;
+  private final Map<String, Cached> cache;
+  // the client's gson only writes what the server accepts, so copies are made field by field.
+  private final Gson gson = new Gson();
+
+  SchemaCache(Builder builder, CMAClient client, LongSupplier nanoClock) {
+    this.client = client;
+    this.nanoClock = nanoClock;
+    this.timeToLiveNanos = builder.timeToLiveNanos;
+
+    final int maxSize = builder.maxSize;
+    this.cache = new LinkedHashMap<String, Cached>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Return a content type, fetching it if it is not cached or expired.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param contentTypeId Content Type ID
+   * @return the content type.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   * @throws IllegalArgumentException if contentTypeId is null.
+   */
+  public CMAContentType fetchContentType(
+      final String spaceId,
+      final String environmentId,
+      final String contentTypeId) {
+    assertNotNull(contentTypeId, "contentTypeId");
+
+    return get(key(spaceId, environmentId, CONTENT_TYPE, contentTypeId), CMAContentType.class,
+        () -> client.contentTypes().fetchOne(spaceId, environmentId, contentTypeId));
+  }
+
+  /**
+   * Return the editor interface of a content type, fetching it if it is not cached or expired.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @param contentTypeId Content Type ID
+   * @return the editor interface.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   * @throws IllegalArgumentException if contentTypeId is null.
+   */
+  public CMAEditorInterface fetchEditorInterface(
+      final String spaceId,
+      final String environmentId,
+      final String contentTypeId) {
+    assertNotNull(contentTypeId, "contentTypeId");
+
+    return get(key(spaceId, environmentId, EDITOR_INTERFACE, contentTypeId),
+        CMAEditorInterface.class,
+        () -> client.editorInterfaces().fetchOne(spaceId, environmentId, contentTypeId));
+  }
+
+  /**
+   * Return all locales of an environment, fetching them if they are not cached or expired.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @return the array of locales.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public CMAArray<CMALocale> fetchLocales(final String spaceId, final String environmentId) {
+    return get(key(spaceId, environmentId, LOCALES, ""), LOCALES_TYPE,
+        () -> client.locales().fetchAll(spaceId, environmentId));
+  }
+
+  /**
+   * Load the schema of a whole environment: all content types, all editor interfaces and all
+   * locales, using one paged sweep per kind of resource.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @return the number of resources cached.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public int warmUp(String spaceId, String environmentId) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+
+    int loaded = 0;
+    for (CMAContentType contentType
+        : client.contentTypes().iterate(spaceId, environmentId, new HashMap<>())) {
+      store(key(spaceId, environmentId, CONTENT_TYPE, contentType.getId()), contentType, false);
+      loaded++;
+    }
+
+    for (CMAEditorInterface editor
+        : client.editorInterfaces().fetchAll(spaceId, environmentId).getItems()) {
+      final CMALink contentType = editor.getSystem().getContentType();
+      if (contentType != null && contentType.getId() != null) {
+        store(key(spaceId, environmentId, EDITOR_INTERFACE, contentType.getId()), editor, false);
+        loaded++;
+      }
+    }
+
+    final CMAArray<CMALocale> locales = client.locales().fetchAll(spaceId, environmentId);
+    store(key(spaceId, environmentId, LOCALES, ""), locales, false);
+    return loaded + locales.getItems().size();
+  }
+
+  /**
+   * Cache the given content type, unless a newer version is cached already.
+   *
+   * @param contentType the content type returned by a write.
+   * @return the given content type.
+   * @throws IllegalArgumentException if contentType is null.
+   * @throws IllegalArgumentException if contentType has no id, space id or environment id.
+   */
+  public CMAContentType put(CMAContentType contentType) {
+    assertNotNull(contentType, "contentType");
+    assertNotNull(contentType.getId(), "contentType.id");
+
+    store(key(contentType.getSpaceId(), contentType.getEnvironmentId(), CONTENT_TYPE,
+        contentType.getId()), contentType, true);
+    return contentType;
+  }
+
+  /**
+   * Cache the given editor interface, unless a newer version is cached already.
+   *
+   * @param editor the editor interface returned by a write.
+   * @return the given editor interface.
+   * @throws IllegalArgumentException if editor is null.
+   * @throws IllegalArgumentException if editor has no content type, space id or environment id.
+   */
+  public CMAEditorInterface put(CMAEditorInterface editor) {
+    assertNotNull(editor, "editor");
+    final CMALink contentType = editor.getSystem().getContentType();
+    assertNotNull(contentType, "editor.contentType");
+    assertNotNull(contentType.getId(), "editor.contentType.id");
+
+    store(key(editor.getSpaceId(), editor.getEnvironmentId(), EDITOR_INTERFACE,
+        contentType.getId()), editor, true);
+    return editor;
+  }
+
+  /**
+   * Drop the locales of the environment of the given locale, so they are fetched on next read.
+   *
+   * @param locale the locale returned by a write.
+   * @return the given locale.
+   * @throws IllegalArgumentException if locale is null.
+   * @throws IllegalArgumentException if locale has no space id or environment id.
+   */
+  public CMALocale put(CMALocale locale) {
+    assertNotNull(locale, "locale");
+
+    remove(key(locale.getSpaceId(), locale.getEnvironmentId(), LOCALES, ""));
+    return locale;
+  }
+
+  /**
+   * Drop a deleted content type and its editor interface.
+   *
+   * @param contentType the content type deleted.
+   * @throws IllegalArgumentException if contentType is null.
+   * @throws IllegalArgumentException if contentType has no id, space id or environment id.
+   */
+  public void remove(CMAContentType contentType) {
+    assertNotNull(contentType, "contentType");
+    assertNotNull(contentType.getId(), "contentType.id");
+
+    final String spaceId = contentType.getSpaceId();
+    final String environmentId = contentType.getEnvironmentId();
+    remove(key(spaceId, environmentId, CONTENT_TYPE, contentType.getId()));
+    remove(key(spaceId, environmentId, EDITOR_INTERFACE, contentType.getId()));
+  }
+
+  /**
+   * Drop all resources of one environment.
+   *
+   * @param spaceId       Space ID
+   * @param environmentId Environment ID
+   * @throws IllegalArgumentException if spaceId is null.
+   * @throws IllegalArgumentException if environmentId is null.
+   */
+  public void invalidate(String spaceId, String environmentId) {
+    final String prefix = prefix(spaceId, environmentId);
+    synchronized (cache) {
+      final Iterator<String> keys = cache.keySet().iterator();
+      while (keys.hasNext()) {
+        if (keys.next().startsWith(prefix)) {
+          keys.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Drop all cached resources.
+   */
+  public void invalidateAll() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * @return the number of cached resources.
+   */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private <T extends CMAResource> T get(String key, Type type, Supplier<T> loader) {
+    final Cached cached;
+    synchronized (cache) {
+      cached = cache.get(key);
+    }
+    if (cached != null && nanoClock.getAsLong() - cached.expiresAt < 0) {
+      return gson.fromJson(cached.json, type);
+    }
+
+    final T value = loader.get();
+    store(key, value, false);
+    return value;
+  }
+
+  /**
+   * Store a copy of the given value.
+   *
+   * @param keepNewer whether a cached value of the same or a newer version is kept instead, as
+   *                  done for the results of writes. Fetched values always replace the cached one,
+   *                  since a recreated resource starts over at version 1.
+   */
+  private void store(String key, CMAResource value, boolean keepNewer) {
+    final Integer version = value.getVersion();
+    final JsonElement json = gson.toJsonTree(value);
+    final long expiresAt = nanoClock.getAsLong() + timeToLiveNanos;
+
+    synchronized (cache) {
+      final Cached old = cache.get(key);
+      if (keepNewer && old != null && isNotOlder(old.version, version)) {
+        return;
+      }
+
+      cache.put(key, new Cached(json, version, expiresAt));
+    }
+  }
+
+  private static boolean isNotOlder(Integer cached, Integer version) {
+    return cached != null && version != null && cached >= version;
+  }
+
+  private void remove(String key) {
+    synchronized (cache) {
+      cache.remove(key);
+    }
+  }
+
+  private static String key(String spaceId, String environmentId, String kind, String id) {
+    return prefix(spaceId, environmentId) + kind + '/' + id;
+  }
+
+  private static String prefix(String spaceId, String environmentId) {
+    assertNotNull(spaceId, "spaceId");
+    assertNotNull(environmentId, "environmentId");
+    return spaceId + '/' + environmentId + '/';
+  }
+
+  private static class Cached {
+    final JsonElement json;
+    final Integer version;
+    final long expiresAt;
+
+    Cached(JsonElement json, Integer version, long expiresAt) {
+      this.json = json;
+      this.version = version;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Configures a {@link SchemaCache}.
+   */
+  public static class Builder {
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final long DEFAULT_TIME_TO_LIVE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    int maxSize = DEFAULT_MAX_SIZE;
+    long timeToLiveNanos = DEFAULT_TIME_TO_LIVE_NANOS;
+
+    /**
+     * @param maxSize the number of resources kept at most. Defaults to 1000.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxSize is not positive.
+     */
+    public Builder setMaxSize(int maxSize) {
+      if (maxSize <= 0) {
+        throw new IllegalArgumentException("maxSize needs to be positive.");
+      }
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * @param timeToLive how long a resource is used before it is fetched again. Defaults to five
+     *                   minutes.
+     * @param unit       the unit of timeToLive.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if timeToLive is negative.
+     */
+    public Builder setTimeToLive(long timeToLive, TimeUnit unit) {
+      if (timeToLive < 0) {
+        throw new IllegalArgumentException("timeToLive cannot be negative.");
+      }
+      this.timeToLiveNanos = unit.toNanos(timeToLive);
+      return this;
+    }
+
+    /**
+     * @param client the client fetching the resources.
+     * @return a new, empty cache using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public SchemaCache build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new SchemaCache(this, client, System::nanoTime);
+    }
+  }
+}
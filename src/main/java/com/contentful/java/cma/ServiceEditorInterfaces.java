@@ -16,6 +16,7 @@
 
 package com.contentful.java.cma;
 
+import com.contentful.java.cma.model.CMAArray;
 import com.contentful.java.cma.model.CMAEditorInterface;
 
 import io.reactivex.Flowable;
@@ -29,6 +30,12 @@ import retrofit2.http.Path;
  * Editor Interfaces Service.
  */
 interface ServiceEditorInterfaces {
+  @GET("spaces/{space}/environments/{environment}/editor_interfaces")
+  Flowable<CMAArray<CMAEditorInterface>> fetchAll(
+      @Path("space") String spaceId,
+      @Path("environment") String environmentId
+  );
+
   @GET("spaces/{space}/environments/{environment}/content_types/{contentType}/editor_interface")
   Flowable<CMAEditorInterface> fetchOne(
       @Path("space") String spaceId,
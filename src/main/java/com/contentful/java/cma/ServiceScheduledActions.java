@@ -18,6 +18,9 @@ package com.contentful.java.cma;
 
 import com.contentful.java.cma.model.CMAArray;
 import com.contentful.java.cma.model.CMAScheduledAction;
+
+import java.util.Map;
+
 import io.reactivex.Flowable;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
@@ -27,6 +30,7 @@ import retrofit2.http.POST;
 import retrofit2.http.PUT;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.QueryMap;
 
 /**
  * Scheduled actions service.
@@ -38,6 +42,13 @@ interface ServiceScheduledActions {
           @Query("environment.sys.id") String environmentId
   );
 
+  @GET("spaces/{space}/scheduled_actions")
+  Flowable<CMAArray<CMAScheduledAction>> fetchAll(
+          @Path("space") String spaceId,
+          @Query("environment.sys.id") String environmentId,
+          @QueryMap Map<String, String> query
+  );
+
   @GET("spaces/{space}/scheduled_actions/{scheduled_action_id}")
   Flowable<CMAScheduledAction> fetchOne(
           @Path("space") String spaceId,
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAConcept;
+import com.contentful.java.cma.model.CMAConceptScheme;
+import com.contentful.java.cma.model.CMALink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * All concepts and concept schemes of an organization, with their hierarchy, held in memory.
+ * <p>
+ * Every concept names its parents in {@link CMAConcept#getBroader()}, so listing all concepts
+ * once is enough to know the whole hierarchy, instead of asking for the ancestors or descendants
+ * of every concept. Concepts and concept schemes are listed in parallel, each following its page
+ * cursor.
+ * <pre>{@code
+ * TaxonomyGraph taxonomy = TaxonomyGraph.load(client, organizationId);
+ * List<CMAConcept> narrower = taxonomy.getDescendants(conceptId);
+ * }</pre>
+ * A graph does not change after it was created and is safe to be used by multiple threads. Load
+ * a new one to see later changes.
+ */
+public class TaxonomyGraph {
+  static final String PARAMETER_LIMIT = "limit";
+
+  private static final int PAGE_SIZE = 100;
+
+  private final Map<String, CMAConcept> concepts;
+  private final Map<String, CMAConceptScheme> schemes;
+  private final Map<String, List<String>> parents;
+  private final Map<String, List<String>> children;
+  private final Map<String, List<String>> schemesOfConcept;
+  private final List<String> roots;
+
+  TaxonomyGraph(Iterable<CMAConcept> concepts, Iterable<CMAConceptScheme> schemes) {
+    this.concepts = new LinkedHashMap<>();
+    this.schemes = new LinkedHashMap<>();
+    this.parents = new HashMap<>();
+    this.children = new HashMap<>();
+    this.schemesOfConcept = new HashMap<>();
+    this.roots = new ArrayList<>();
+
+    for (CMAConcept concept : concepts) {
+      this.concepts.put(concept.getId(), concept);
+    }
+
+    for (CMAConcept concept : this.concepts.values()) {
+      final List<String> broader = ids(concept.getBroader());
+      if (broader.isEmpty()) {
+        roots.add(concept.getId());
+      } else {
+        parents.put(concept.getId(), broader);
+        for (String parent : broader) {
+          add(children, parent, concept.getId());
+        }
+      }
+    }
+
+    for (CMAConceptScheme scheme : schemes) {
+      this.schemes.put(scheme.getId(), scheme);
+      final Set<String> members = new HashSet<>(ids(scheme.getTopConcepts()));
+      members.addAll(ids(scheme.getConcepts()));
+      for (String member : members) {
+        add(schemesOfConcept, member, scheme.getId());
+      }
+    }
+  }
+
+  /**
+   * Load all concepts and concept schemes of an organization.
+   *
+   * @param client         the client sending all requests.
+   * @param organizationId the organization owning the taxonomy.
+   * @return the graph of the taxonomy.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public static TaxonomyGraph load(CMAClient client, final String organizationId) {
+    assertNotNull(client, "client");
+    assertNotNull(organizationId, "organizationId");
+
+    final ModuleTaxonomy taxonomy = client.taxonomy();
+    final Map<String, String> query = new HashMap<>();
+    query.put(PARAMETER_LIMIT, Integer.toString(PAGE_SIZE));
+
+    return Single.zip(
+        Single.fromCallable(() -> list(taxonomy.iterateConcepts(organizationId, query)))
+            .subscribeOn(taxonomy.asyncScheduler),
+        Single.fromCallable(() -> list(taxonomy.iterateConceptSchemes(organizationId, query)))
+            .subscribeOn(taxonomy.asyncScheduler),
+        TaxonomyGraph::new)
+        .blockingGet();
+  }
+
+  /**
+   * Create a graph of concepts and concept schemes fetched already.
+   *
+   * @param concepts all concepts of the taxonomy.
+   * @param schemes  all concept schemes of the taxonomy.
+   * @return the graph of the taxonomy.
+   * @throws IllegalArgumentException if any argument is null.
+   */
+  public static TaxonomyGraph of(
+      Iterable<CMAConcept> concepts,
+      Iterable<CMAConceptScheme> schemes) {
+    assertNotNull(concepts, "concepts");
+    assertNotNull(schemes, "schemes");
+    return new TaxonomyGraph(concepts, schemes);
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return the concept, or null if it is not part of this graph.
+   */
+  public CMAConcept getConcept(String conceptId) {
+    return concepts.get(conceptId);
+  }
+
+  /**
+   * @return all concepts, in the order they were listed.
+   */
+  public Collection<CMAConcept> getConcepts() {
+    return Collections.unmodifiableCollection(concepts.values());
+  }
+
+  /**
+   * @param schemeId the id of a concept scheme.
+   * @return the concept scheme, or null if it is not part of this graph.
+   */
+  public CMAConceptScheme getConceptScheme(String schemeId) {
+    return schemes.get(schemeId);
+  }
+
+  /**
+   * @return all concept schemes, in the order they were listed.
+   */
+  public Collection<CMAConceptScheme> getConceptSchemes() {
+    return Collections.unmodifiableCollection(schemes.values());
+  }
+
+  /**
+   * @return all concepts without a broader concept.
+   */
+  public List<CMAConcept> getRoots() {
+    return concepts(roots);
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return the broader concepts of the concept.
+   */
+  public List<CMAConcept> getParents(String conceptId) {
+    return concepts(parents.get(conceptId));
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return the concepts naming the concept as broader one.
+   */
+  public List<CMAConcept> getChildren(String conceptId) {
+    return concepts(children.get(conceptId));
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return all broader concepts of the concept, nearest first, each once.
+   */
+  public List<CMAConcept> getAncestors(String conceptId) {
+    return concepts(walk(conceptId, parents));
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return all narrower concepts of the concept, nearest first, each once.
+   */
+  public List<CMAConcept> getDescendants(String conceptId) {
+    return concepts(walk(conceptId, children));
+  }
+
+  /**
+   * @param ancestorId the id of the possibly broader concept.
+   * @param conceptId  the id of the possibly narrower concept.
+   * @return whether the first concept is an ancestor of the second one.
+   */
+  public boolean isAncestor(String ancestorId, String conceptId) {
+    return walk(conceptId, parents).contains(ancestorId);
+  }
+
+  /**
+   * @param conceptId the id of a concept.
+   * @return the concept schemes containing the concept.
+   */
+  public List<CMAConceptScheme> getSchemesOf(String conceptId) {
+    final List<String> ids = schemesOfConcept.get(conceptId);
+    if (ids == null) {
+      return Collections.emptyList();
+    }
+
+    final List<CMAConceptScheme> result = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      result.add(schemes.get(id));
+    }
+    return result;
+  }
+
+  /**
+   * @param schemeId the id of a concept scheme.
+   * @return the concepts of the scheme which are part of this graph.
+   */
+  public List<CMAConcept> getConceptsOf(String schemeId) {
+    final CMAConceptScheme scheme = schemes.get(schemeId);
+    if (scheme == null) {
+      return Collections.emptyList();
+    }
+
+    final Set<String> members = new LinkedHashSet<>(ids(scheme.getTopConcepts()));
+    members.addAll(ids(scheme.getConcepts()));
+    return concepts(members);
+  }
+
+  /*
+   * Breadth first, so nearer concepts come first. Visited concepts are skipped, which also ends
+   * cycles.
+   */
+  private static Set<String> walk(String start, Map<String, List<String>> edges) {
+    final Set<String> visited = new LinkedHashSet<>();
+    final Deque<String> queue = new ArrayDeque<>();
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      final List<String> next = edges.get(queue.poll());
+      if (next == null) {
+        continue;
+      }
+      for (String id : next) {
+        if (!id.equals(start) && visited.add(id)) {
+          queue.add(id);
+        }
+      }
+    }
+    return visited;
+  }
+
+  /*
+   * Links to concepts outside of this graph are skipped.
+   */
+  private List<CMAConcept> concepts(Collection<String> ids) {
+    if (ids == null) {
+      return Collections.emptyList();
+    }
+
+    final List<CMAConcept> result = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      final CMAConcept concept = concepts.get(id);
+      if (concept != null) {
+        result.add(concept);
+      }
+    }
+    return result;
+  }
+
+  private static List<String> ids(List<CMALink> links) {
+    if (links == null || links.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<String> ids = new ArrayList<>(links.size());
+    for (CMALink link : links) {
+      if (link != null && link.getId() != null) {
+        ids.add(link.getId());
+      }
+    }
+    return ids;
+  }
+
+  private static <T> List<T> list(Iterable<T> iterable) {
+    final List<T> list = new ArrayList<>();
+    for (T item : iterable) {
+      list.add(item);
+    }
+    return list;
+  }
+
+  private static void add(Map<String, List<String>> edges, String from, String to) {
+    List<String> targets = edges.get(from);
+    if (targets == null) {
+      targets = new ArrayList<>();
+      edges.put(from, targets);
+    }
+    targets.add(to);
+  }
+}
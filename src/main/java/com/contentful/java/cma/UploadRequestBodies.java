@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+
+import static com.contentful.java.cma.Constants.OCTET_STREAM_CONTENT_TYPE;
+
+/**
+ * Request bodies writing an upload straight from its source into the connection.
+ * <p>
+ * None of these bodies holds the content on the heap: files and channels are copied in segments
+ * while the request is written, so arbitrarily large files can be uploaded.
+ */
+class UploadRequestBodies {
+  private static final MediaType OCTET_STREAM = MediaType.parse(OCTET_STREAM_CONTENT_TYPE);
+
+  private UploadRequestBodies() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Create a body reading the given file every time it gets written.
+   *
+   * @param file the file to be uploaded.
+   * @return a body with the file size as its content length.
+   * @throws IOException if the file cannot be accessed or is empty.
+   */
+  static RequestBody fromPath(final Path file) throws IOException {
+    final long size = assertNotEmpty(Files.size(file));
+
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return OCTET_STREAM;
+      }
+
+      @Override public long contentLength() {
+        return size;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        try (Source source = Okio.source(file)) {
+          sink.writeAll(source);
+        }
+      }
+    };
+  }
+
+  /**
+   * Create a body transferring the remaining bytes of the channel.
+   * <p>
+   * The position of the channel is not changed, so the body can be written again in case the
+   * request has to be repeated. Closing the channel is left to the caller.
+   *
+   * @param channel the channel to be uploaded from its current position on.
+   * @return a body with the remaining channel size as its content length.
+   * @throws IOException if the channel cannot be accessed or has no remaining bytes.
+   */
+  static RequestBody fromChannel(final FileChannel channel) throws IOException {
+    final long start = channel.position();
+    final long size = assertNotEmpty(channel.size() - start);
+
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return OCTET_STREAM;
+      }
+
+      @Override public long contentLength() {
+        return size;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        long transferred = 0;
+        while (transferred < size) {
+          final long count = channel.transferTo(start + transferred, size - transferred, sink);
+          if (count <= 0) {
+            throw new IOException("Channel ended after " + transferred + " of " + size + " bytes.");
+          }
+          transferred += count;
+        }
+      }
+    };
+  }
+
+  /**
+   * Create a body consuming the given stream while it is written.
+   * <p>
+   * The stream can only be read once, so the request using this body cannot be retried. The
+   * stream is closed once it was consumed.
+   *
+   * @param stream        the stream to be uploaded.
+   * @param contentLength the number of bytes in the stream, or -1 if unknown, in which case
+   *                      the upload is sent chunked.
+   * @return a one shot body.
+   * @throws IOException if the stream cannot be read or is empty, in which case it is closed.
+   */
+  static RequestBody fromStream(InputStream stream, final long contentLength)
+      throws IOException {
+    final BufferedSource source = Okio.buffer(Okio.source(stream));
+    try {
+      if (contentLength == 0 || source.exhausted()) {
+        assertNotEmpty(0);
+      }
+    } catch (IOException e) {
+      source.close();
+      throw e;
+    }
+
+    return new RequestBody() {
+      @Override public MediaType contentType() {
+        return OCTET_STREAM;
+      }
+
+      @Override public long contentLength() {
+        return contentLength;
+      }
+
+      @Override public boolean isOneShot() {
+        return true;
+      }
+
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        try {
+          sink.writeAll(source);
+        } finally {
+          source.close();
+        }
+      }
+    };
+  }
+
+  private static long assertNotEmpty(long size) throws IOException {
+    if (size <= 0) {
+      throw new IOException("Stream did not contain any data. Please provide data to upload.");
+    }
+    return size;
+  }
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAUsage;
+import com.contentful.java.cma.model.CMAUsage.UsageMetric;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+
+/**
+ * Collects the daily usage of an organization and of all its spaces into one table.
+ * <p>
+ * Organization and space usages of every metric are listed in parallel, each following its
+ * pages. The usage per day is then copied into one {@code int[]} column per metric and space,
+ * indexed by the day offset from the first day seen, next to a {@code long[]} column of running
+ * totals. Totals over any range of days therefore cost two lookups, no matter how many days or
+ * spaces the table covers.
+ * <pre>{@code
+ * UsageAggregator.Table usage = new UsageAggregator.Builder()
+ *     .setDateRange("2020-01-01", "2020-12-31")
+ *     .build(client)
+ *     .aggregate(organizationId)
+ *     .blockingGet();
+ * Map<String, Long> monthly = usage.rollup(UsageMetric.cma, null, Period.MONTH);
+ * }</pre>
+ */
+public class UsageAggregator {
+  static final String PARAMETER_METRIC = "metric[in]";
+  static final String PARAMETER_START_AT = "dateRange.startAt";
+  static final String PARAMETER_END_AT = "dateRange.endAt";
+
+  static final String DAY_PATTERN = "yyyy-MM-dd";
+
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+  private static final UsageMetric[] METRICS = UsageMetric.values();
+
+  /**
+   * Length of the periods a table can be rolled up into.
+   * <p>
+   * Days are labeled {@code yyyy-MM-dd}, and every period is labeled by the prefix its days
+   * share.
+   */
+  public enum Period {
+    DAY(DAY_PATTERN),
+    MONTH("yyyy-MM"),
+    YEAR("yyyy");
+
+    final int labelLength;
+
+    Period(String pattern) {
+      this.labelLength = pattern.length();
+    }
+  }
+
+  private final CMAClient client;
+  private final Set<UsageMetric> metrics;
+  private final String startAt;
+  private final String endAt;
+  private final int concurrency;
+  private final Scheduler scheduler;
+
+  UsageAggregator(Builder builder, CMAClient client) {
+    this.client = client;
+    this.metrics = builder.metrics;
+    this.startAt = builder.startAt;
+    this.endAt = builder.endAt;
+    this.concurrency = builder.concurrency;
+    this.scheduler = client.organizationUsage().asyncScheduler;
+  }
+
+  /**
+   * Fetch the usage of an organization and of all its spaces.
+   * <p>
+   * Nothing is requested before the result is subscribed to.
+   *
+   * @param organizationId the organization to be aggregated.
+   * @return the table of all usages.
+   * @throws IllegalArgumentException if organizationId is null.
+   */
+  public Single<Table> aggregate(String organizationId) {
+    assertNotNull(organizationId, "organizationId");
+
+    final List<Fetch> fetches = new ArrayList<>(metrics.size() * 2);
+    for (UsageMetric metric : metrics) {
+      final Map<String, String> query = query(metric);
+      fetches.add(new Fetch(false,
+          () -> client.organizationUsage().iterate(organizationId, query)));
+      fetches.add(new Fetch(true,
+          () -> client.spaceUsage().iterate(organizationId, query)));
+    }
+
+    return Flowable.fromIterable(fetches)
+        .flatMapSingle(
+            fetch -> Single.fromCallable(fetch::load).subscribeOn(scheduler),
+            false,
+            concurrency)
+        .toList()
+        .map(Table::new);
+  }
+
+  private Map<String, String> query(UsageMetric metric) {
+    final Map<String, String> query = new HashMap<>();
+    query.put(PARAMETER_METRIC, metric.name());
+    if (startAt != null) {
+      query.put(PARAMETER_START_AT, startAt);
+    }
+    if (endAt != null) {
+      query.put(PARAMETER_END_AT, endAt);
+    }
+    return query;
+  }
+
+  /**
+   * The daily usage of an organization and its spaces, by metric.
+   * <p>
+   * Days run from {@link #getFirstDay()} to {@link #getLastDay()} without gaps, days without
+   * usage counting as zero. Wherever a space id is asked for, null stands for the organization
+   * as a whole. A table does not change after it was created and is safe to be used by multiple
+   * threads.
+   */
+  public static class Table {
+    private final String[] days;
+    private final List<String> spaceIds;
+    private final Map<String, Integer> spaceIndex;
+    private final int[][] daily;
+    private final long[][] cumulative;
+
+    Table(List<Fetched> fetched) {
+      final SimpleDateFormat format = dayFormat();
+      final Map<String, Long> epochDays = new HashMap<>();
+      final Set<String> spaces = new TreeSet<>();
+      long first = Long.MAX_VALUE;
+      long last = Long.MIN_VALUE;
+
+      for (Fetched batch : fetched) {
+        for (CMAUsage usage : batch.usages) {
+          if (!counts(usage, batch.perSpace)) {
+            continue;
+          }
+          if (batch.perSpace) {
+            spaces.add(usage.getSpaceId());
+          }
+          for (String day : usage.getUsagePerDay().keySet()) {
+            final long epochDay = epochDay(format, epochDays, day);
+            first = Math.min(first, epochDay);
+            last = Math.max(last, epochDay);
+          }
+        }
+      }
+
+      final int length = first > last ? 0 : (int) (last - first + 1);
+      this.days = new String[length];
+      for (int i = 0; i < length; ++i) {
+        days[i] = format.format(new Date((first + i) * MILLIS_PER_DAY));
+      }
+
+      this.spaceIds = Collections.unmodifiableList(new ArrayList<>(spaces));
+      this.spaceIndex = new HashMap<>();
+      for (int i = 0; i < spaceIds.size(); ++i) {
+        spaceIndex.put(spaceIds.get(i), i);
+      }
+
+      this.daily = new int[METRICS.length * (spaceIds.size() + 1)][];
+      for (Fetched batch : fetched) {
+        for (CMAUsage usage : batch.usages) {
+          if (!counts(usage, batch.perSpace)) {
+            continue;
+          }
+          final int row = row(usage.getMetric(), batch.perSpace ? usage.getSpaceId() : null);
+          if (daily[row] == null) {
+            daily[row] = new int[length];
+          }
+          for (Map.Entry<String, Integer> entry : usage.getUsagePerDay().entrySet()) {
+            if (entry.getValue() != null) {
+              final int offset = (int) (epochDays.get(entry.getKey()) - first);
+              daily[row][offset] += entry.getValue();
+            }
+          }
+        }
+      }
+
+      this.cumulative = new long[daily.length][];
+      for (int row = 0; row < daily.length; ++row) {
+        if (daily[row] != null) {
+          final long[] sums = new long[length + 1];
+          for (int i = 0; i < length; ++i) {
+            sums[i + 1] = sums[i] + daily[row][i];
+          }
+          cumulative[row] = sums;
+        }
+      }
+    }
+
+    /**
+     * @return the number of days covered.
+     */
+    public int getDayCount() {
+      return days.length;
+    }
+
+    /**
+     * @return the first day covered, as {@code yyyy-MM-dd}, or null if no usage was found.
+     */
+    public String getFirstDay() {
+      return days.length == 0 ? null : days[0];
+    }
+
+    /**
+     * @return the last day covered, as {@code yyyy-MM-dd}, or null if no usage was found.
+     */
+    public String getLastDay() {
+      return days.length == 0 ? null : days[days.length - 1];
+    }
+
+    /**
+     * @return the ids of all spaces with usage, sorted.
+     */
+    public List<String> getSpaceIds() {
+      return spaceIds;
+    }
+
+    /**
+     * @param metric  the metric to be looked at.
+     * @param spaceId the space to be looked at, or null for the organization.
+     * @return a copy of the usage per day, starting at {@link #getFirstDay()}.
+     */
+    public int[] getDaily(UsageMetric metric, String spaceId) {
+      final int[] column = column(metric, spaceId);
+      return column == null ? new int[days.length] : column.clone();
+    }
+
+    /**
+     * @param metric  the metric to be summed up.
+     * @param spaceId the space to be summed up, or null for the organization.
+     * @return the usage over all days.
+     */
+    public long total(UsageMetric metric, String spaceId) {
+      return total(metric, spaceId, null, null);
+    }
+
+    /**
+     * @param metric  the metric to be summed up.
+     * @param spaceId the space to be summed up, or null for the organization.
+     * @param from    the first day to be included, as {@code yyyy-MM-dd}, or null to start at
+     *                the first day.
+     * @param to      the last day to be included, as {@code yyyy-MM-dd}, or null to end at the
+     *                last day.
+     * @return the usage over the given days.
+     */
+    public long total(UsageMetric metric, String spaceId, String from, String to) {
+      assertNotNull(metric, "metric");
+      final long[] sums = sums(metric, spaceId);
+      if (sums == null) {
+        return 0;
+      }
+
+      final int start = from == null ? 0 : lowerBound(from);
+      final int end = to == null ? days.length : upperBound(to);
+      return start < end ? sums[end] - sums[start] : 0;
+    }
+
+    /**
+     * @param metric the metric to be summed up.
+     * @param from   the first day to be included, or null to start at the first day.
+     * @param to     the last day to be included, or null to end at the last day.
+     * @return the usage over the given days of every space, in the order of
+     * {@link #getSpaceIds()}.
+     */
+    public long[] totalsBySpace(UsageMetric metric, String from, String to) {
+      final long[] totals = new long[spaceIds.size()];
+      for (int i = 0; i < totals.length; ++i) {
+        totals[i] = total(metric, spaceIds.get(i), from, to);
+      }
+      return totals;
+    }
+
+    /**
+     * @param metric  the metric to be summed up.
+     * @param spaceId the space to be summed up, or null for the organization.
+     * @param period  the length of every sum.
+     * @return the usage of every period, labeled like {@code 2020-02} for months, in order.
+     */
+    public Map<String, Long> rollup(UsageMetric metric, String spaceId, Period period) {
+      assertNotNull(metric, "metric");
+      assertNotNull(period, "period");
+
+      final Map<String, Long> result = new LinkedHashMap<>();
+      final long[] sums = sums(metric, spaceId);
+      int start = 0;
+      while (start < days.length) {
+        final String label = days[start].substring(0, period.labelLength);
+        int end = start + 1;
+        while (end < days.length && days[end].startsWith(label)) {
+          ++end;
+        }
+        result.put(label, sums == null ? 0L : sums[end] - sums[start]);
+        start = end;
+      }
+      return result;
+    }
+
+    /**
+     * Write every day with usage as one line of comma separated values.
+     * <p>
+     * The first line names the columns {@code day,metric,space,usage}. Lines of the
+     * organization leave the space empty. Lines are ordered by metric, then space, then day.
+     * The writer is flushed, but not closed.
+     *
+     * @param writer the writer to receive all lines.
+     * @return the number of lines written, not counting the header.
+     * @throws IOException              if the writer fails.
+     * @throws IllegalArgumentException if writer is null.
+     */
+    public long writeCsv(Writer writer) throws IOException {
+      assertNotNull(writer, "writer");
+
+      writer.write("day,metric,space,usage\n");
+      long lines = 0;
+      for (UsageMetric metric : METRICS) {
+        for (int space = -1; space < spaceIds.size(); ++space) {
+          final String spaceId = space < 0 ? null : spaceIds.get(space);
+          final int[] column = column(metric, spaceId);
+          if (column == null) {
+            continue;
+          }
+
+          final String prefix = "," + metric.name() + "," + (spaceId == null ? "" : csv(spaceId))
+              + ",";
+          for (int day = 0; day < column.length; ++day) {
+            if (column[day] != 0) {
+              writer.write(days[day] + prefix + column[day] + "\n");
+              ++lines;
+            }
+          }
+        }
+      }
+      writer.flush();
+      return lines;
+    }
+
+    private int[] column(UsageMetric metric, String spaceId) {
+      final int row = row(metric, spaceId);
+      return row < 0 ? null : daily[row];
+    }
+
+    private long[] sums(UsageMetric metric, String spaceId) {
+      final int row = row(metric, spaceId);
+      return row < 0 ? null : cumulative[row];
+    }
+
+    /*
+     * Every metric gets one row for the organization, followed by one row per space.
+     */
+    private int row(UsageMetric metric, String spaceId) {
+      if (spaceId == null) {
+        return metric.ordinal() * (spaceIds.size() + 1);
+      }
+
+      final Integer space = spaceIndex.get(spaceId);
+      return space == null ? -1 : metric.ordinal() * (spaceIds.size() + 1) + space + 1;
+    }
+
+    /*
+     * Labels of days sort like the days themselves, so no dates need to be parsed for lookups.
+     */
+    private int lowerBound(String day) {
+      final int index = Arrays.binarySearch(days, day);
+      return index < 0 ? -index - 1 : index;
+    }
+
+    private int upperBound(String day) {
+      final int index = Arrays.binarySearch(days, day);
+      return index < 0 ? -index - 1 : index + 1;
+    }
+
+    /*
+     * Usages without metric or days, and space usages without space, cannot be placed.
+     */
+    private static boolean counts(CMAUsage usage, boolean perSpace) {
+      return usage != null
+          && usage.getMetric() != null
+          && usage.getUsagePerDay() != null
+          && (!perSpace || usage.getSpaceId() != null);
+    }
+
+    private static long epochDay(SimpleDateFormat format, Map<String, Long> cache, String day) {
+      Long epochDay = cache.get(day);
+      if (epochDay == null) {
+        try {
+          epochDay = format.parse(day).getTime() / MILLIS_PER_DAY;
+        } catch (ParseException e) {
+          throw new IllegalArgumentException(String.format("Invalid day '%s'.", day), e);
+        }
+        cache.put(day, epochDay);
+      }
+      return epochDay;
+    }
+
+    private static String csv(String value) {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+  }
+
+  static SimpleDateFormat dayFormat() {
+    final SimpleDateFormat format = new SimpleDateFormat(DAY_PATTERN, Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    format.setLenient(false);
+    return format;
+  }
+
+  /*
+   * One listing of usages, remembering whether the usages belong to spaces or the organization.
+   */
+  private static class Fetch {
+    final boolean perSpace;
+    final Callable<Iterable<CMAUsage>> iterable;
+
+    Fetch(boolean perSpace, Callable<Iterable<CMAUsage>> iterable) {
+      this.perSpace = perSpace;
+      this.iterable = iterable;
+    }
+
+    Fetched load() throws Exception {
+      final List<CMAUsage> usages = new ArrayList<>();
+      for (CMAUsage usage : iterable.call()) {
+        usages.add(usage);
+      }
+      return new Fetched(perSpace, usages);
+    }
+  }
+
+  static class Fetched {
+    final boolean perSpace;
+    final List<CMAUsage> usages;
+
+    Fetched(boolean perSpace, List<CMAUsage> usages) {
+      this.perSpace = perSpace;
+      this.usages = usages;
+    }
+  }
+
+  /**
+   * Builder of {@link UsageAggregator}s.
+   */
+  public static class Builder {
+    private Set<UsageMetric> metrics = EnumSet.allOf(UsageMetric.class);
+    private String startAt;
+    private String endAt;
+    private int concurrency = BatchExecutor.DEFAULT_CONCURRENCY;
+
+    /**
+     * @param metrics the metrics to be fetched, all by default.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if no metric is given.
+     */
+    public Builder setMetrics(UsageMetric... metrics) {
+      if (metrics == null || metrics.length == 0) {
+        throw new IllegalArgumentException("metrics may not be empty.");
+      }
+      final Set<UsageMetric> set = EnumSet.noneOf(UsageMetric.class);
+      for (UsageMetric metric : metrics) {
+        assertNotNull(metric, "metric");
+        set.add(metric);
+      }
+      this.metrics = set;
+      return this;
+    }
+
+    /**
+     * @param startAt the first day to be fetched, as {@code yyyy-MM-dd}, or null for the
+     *                default of the server.
+     * @param endAt   the last day to be fetched, as {@code yyyy-MM-dd}, or null for the
+     *                default of the server.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if a day is not formatted as {@code yyyy-MM-dd}.
+     */
+    public Builder setDateRange(String startAt, String endAt) {
+      assertDay(startAt, "startAt");
+      assertDay(endAt, "endAt");
+      this.startAt = startAt;
+      this.endAt = endAt;
+      return this;
+    }
+
+    /**
+     * @param concurrency how many listings may run at the same time.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if concurrency is not positive.
+     */
+    public Builder setConcurrency(int concurrency) {
+      BatchExecutor.assertConcurrency(concurrency);
+      this.concurrency = concurrency;
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new aggregator.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public UsageAggregator build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new UsageAggregator(this, client);
+    }
+
+    private static void assertDay(String day, String param) {
+      if (day == null) {
+        return;
+      }
+      // parse(String) ignores trailing text and accepts single digit months and days.
+      final ParsePosition position = new ParsePosition(0);
+      if (day.length() != DAY_PATTERN.length()
+          || dayFormat().parse(day, position) == null
+          || position.getIndex() != day.length()) {
+        throw new IllegalArgumentException(
+            String.format("%s must be formatted as %s.", param, DAY_PATTERN));
+      }
+    }
+  }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma;
+
+import com.contentful.java.cma.model.CMAArray;
+import com.contentful.java.cma.model.CMAResource;
+import com.contentful.java.cma.model.CMAWebhook;
+import com.contentful.java.cma.model.CMAWebhookCall;
+import com.contentful.java.cma.model.CMAWebhookCallDetail;
+import com.contentful.java.cma.model.CMAWebhookHealth;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+
+import static com.contentful.java.cma.HelperSupport.assertNotNull;
+import static com.contentful.java.cma.ReactiveCalls.single;
+
+/**
+ * Collects the recent calls of all webhooks of a space, together with their details.
+ * <p>
+ * Webhooks are listed once, then the health and calls of every webhook and the details of every
+ * call are requested in parallel. All pages of webhooks and of calls are followed. Calls are
+ * filtered before their details are requested, so only the calls of interest cost a request.
+ * <pre>{@code
+ * WebhookHarvester harvester = new WebhookHarvester.Builder()
+ *     .setFilter(WebhookHarvester.failed())
+ *     .build(client);
+ * WebhookHarvester.Report report = harvester.report(spaceId).blockingGet();
+ * }</pre>
+ * Combine with {@link CMAClient.Builder#setRateLimiter} to stay within the rate limits.
+ */
+public class WebhookHarvester {
+  private static final int FIRST_ERROR_STATUS = 400;
+  private static final int LAST_STATUS = 599;
+
+  private static final String NAME_WEBHOOK = "webhook";
+  private static final String NAME_CALL = "call";
+
+  /**
+   * Loads one page of a list.
+   */
+  private interface Pager<T extends CMAResource> {
+    Flowable<CMAArray<T>> load(Map<String, String> query);
+  }
+
+  /**
+   * Decides which calls are harvested.
+   */
+  public interface Filter {
+    /**
+     * @param call the overview of a call, as listed for its webhook.
+     * @return whether the details of the call are requested and emitted.
+     */
+    boolean accept(CMAWebhookCall call);
+  }
+
+  private final ModuleWebhooks webhooks;
+  private final Gson gson;
+  private final Filter filter;
+  private final Map<String, String> callsQuery;
+  private final int concurrency;
+
+  WebhookHarvester(Builder builder, CMAClient client) {
+    this.webhooks = client.webhooks();
+    this.gson = CMAClient.createGson();
+    this.filter = builder.filter;
+    this.callsQuery = builder.callsQuery;
+    this.concurrency = builder.concurrency;
+  }
+
+  /**
+   * Harvest the calls of all webhooks of a space.
+   * <p>
+   * Nothing is sent before the returned flowable is subscribed to. Up to the configured
+   * concurrency, webhooks are harvested and call details are requested at once. The health and
+   * the calls of a webhook are requested together, so at most three times that many requests are
+   * in flight.
+   *
+   * @param spaceId the space of the webhooks.
+   * @return a flowable of every accepted call, in order of completion.
+   * @throws IllegalArgumentException if spaceId is null.
+   */
+  public Flowable<Delivery> harvest(final String spaceId) {
+    assertNotNull(spaceId, "spaceId");
+
+    final Pager<CMAWebhook> definitions = query -> webhooks.rxService().fetchAll(spaceId, query);
+    return items(new HashMap<>(), definitions)
+        .flatMapSingle(webhook -> Single.zip(
+            single(webhooks.rxService().health(spaceId, webhook.getId())),
+            items(callsQuery, query -> webhooks.rxService().calls(spaceId, webhook.getId(), query))
+                .filter(filter::accept)
+                .toList(),
+            (health, calls) -> pending(webhook, health, calls)),
+            false,
+            concurrency)
+        .concatMapIterable(pending -> pending)
+        .flatMapSingle(pending -> single(webhooks.rxService()
+                .callDetails(spaceId, pending.webhook.getId(), pending.call.getId()))
+                .map(detail -> new Delivery(pending.webhook, pending.health, detail)),
+            false,
+            concurrency);
+  }
+
+  /**
+   * Harvest the calls of all webhooks of a space into one summary.
+   *
+   * @param spaceId the space of the webhooks.
+   * @return a single emitting the report once all calls were harvested.
+   * @throws IllegalArgumentException if spaceId is null.
+   * @see #harvest(String)
+   */
+  public Single<Report> report(String spaceId) {
+    return harvest(spaceId).collect(Report::new, Report::add);
+  }
+
+  /**
+   * Harvest the calls of all webhooks of a space as newline delimited JSON.
+   * <p>
+   * Every line holds the id of the webhook and the details of one call:
+   * <pre>{@code
+   * {"webhook":"hook-id","call":{"statusCode":500,"errors":[],...}}
+   * }</pre>
+   * Lines are written as soon as the details of their call arrive. The writer is flushed, but
+   * not closed.
+   *
+   * @param spaceId the space of the webhooks.
+   * @param writer  the sink of all lines.
+   * @return the number of lines written.
+   * @throws IllegalArgumentException if any argument is null.
+   * @throws IOException              if the writer failed.
+   */
+  public long write(String spaceId, Writer writer) throws IOException {
+    assertNotNull(writer, "writer");
+
+    final JsonWriter json = new JsonWriter(writer);
+    json.setLenient(true);
+
+    long written = 0;
+    for (Delivery delivery : harvest(spaceId).blockingIterable()) {
+      json.beginObject();
+      json.name(NAME_WEBHOOK).value(delivery.webhook.getId());
+      json.name(NAME_CALL);
+      gson.toJson(delivery.detail, CMAWebhookCallDetail.class, json);
+      json.endObject();
+      json.flush();
+      writer.write('\n');
+      written++;
+    }
+    writer.flush();
+    return written;
+  }
+
+  /**
+   * @param min the lowest status code accepted.
+   * @param max the highest status code accepted.
+   * @return a filter accepting calls answered with a status code between min and max.
+   */
+  public static Filter statusCodes(final int min, final int max) {
+    return call -> call.getStatusCode() != null
+        && call.getStatusCode() >= min
+        && call.getStatusCode() <= max;
+  }
+
+  /**
+   * @return a filter accepting calls reporting errors or answered with an error status code.
+   */
+  public static Filter failed() {
+    final Filter errorStatus = statusCodes(FIRST_ERROR_STATUS, LAST_STATUS);
+    return call -> (call.getErrors() != null && !call.getErrors().isEmpty())
+        || errorStatus.accept(call);
+  }
+
+  private static List<Pending> pending(
+      CMAWebhook webhook,
+      CMAWebhookHealth health,
+      List<CMAWebhookCall> calls) {
+    final List<Pending> pending = new ArrayList<>(calls.size());
+    for (CMAWebhookCall call : calls) {
+      pending.add(new Pending(webhook, health, call));
+    }
+    return pending;
+  }
+
+  /*
+   * Pages are requested one after the other, each once the previous one was emitted.
+   */
+  private static <T extends CMAResource> Flowable<T> items(
+      final Map<String, String> query,
+      final Pager<T> pager) {
+    return single(pager.load(query))
+        .toFlowable()
+        .concatMap(page -> {
+          final Flowable<T> items = page.getItems() == null
+              ? Flowable.<T>empty()
+              : Flowable.fromIterable(page.getItems());
+          final Map<String, String> next = PagedIterable.nextQuery(query, page);
+          return next == null ? items : items.concatWith(items(next, pager));
+        });
+  }
+
+  /**
+   * An accepted call of a webhook, before its details are requested.
+   */
+  private static final class Pending {
+    final CMAWebhook webhook;
+    final CMAWebhookHealth health;
+    final CMAWebhookCall call;
+
+    Pending(CMAWebhook webhook, CMAWebhookHealth health, CMAWebhookCall call) {
+      this.webhook = webhook;
+      this.health = health;
+      this.call = call;
+    }
+  }
+
+  /**
+   * One harvested call, with the webhook making it.
+   */
+  public static final class Delivery {
+    private final CMAWebhook webhook;
+    private final CMAWebhookHealth health;
+    private final CMAWebhookCallDetail detail;
+
+    Delivery(CMAWebhook webhook, CMAWebhookHealth health, CMAWebhookCallDetail detail) {
+      this.webhook = webhook;
+      this.health = health;
+      this.detail = detail;
+    }
+
+    /**
+     * @return the webhook which made the call.
+     */
+    public CMAWebhook getWebhook() {
+      return webhook;
+    }
+
+    /**
+     * @return the health of the webhook, as of the harvest.
+     */
+    public CMAWebhookHealth getHealth() {
+      return health;
+    }
+
+    /**
+     * @return the details of the call, including request and response.
+     */
+    public CMAWebhookCallDetail getDetail() {
+      return detail;
+    }
+  }
+
+  /**
+   * Summary of all harvested calls.
+   */
+  public static final class Report {
+    private final Map<String, CMAWebhookHealth> health = new TreeMap<>();
+    private final Map<String, Integer> callsByWebhook = new TreeMap<>();
+    private final Map<Integer, Integer> callsByStatusCode = new TreeMap<>();
+    private final Map<String, Integer> callsByError = new TreeMap<>();
+    private int calls;
+
+    void add(Delivery delivery) {
+      final String webhookId = delivery.webhook.getId();
+      final CMAWebhookCallDetail detail = delivery.detail;
+
+      calls++;
+      health.put(webhookId, delivery.health);
+      increment(callsByWebhook, webhookId);
+      if (detail.getStatusCode() != null) {
+        increment(callsByStatusCode, detail.getStatusCode());
+      }
+      if (detail.getErrors() != null) {
+        for (String error : detail.getErrors()) {
+          increment(callsByError, error);
+        }
+      }
+    }
+
+    private static <K> void increment(Map<K, Integer> counts, K key) {
+      final Integer count = counts.get(key);
+      counts.put(key, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * @return the number of harvested calls.
+     */
+    public int getCalls() {
+      return calls;
+    }
+
+    /**
+     * @return the health of every webhook with harvested calls, by webhook id.
+     */
+    public Map<String, CMAWebhookHealth> getHealth() {
+      return Collections.unmodifiableMap(health);
+    }
+
+    /**
+     * @return the number of harvested calls by webhook id.
+     */
+    public Map<String, Integer> getCallsByWebhook() {
+      return Collections.unmodifiableMap(callsByWebhook);
+    }
+
+    /**
+     * @return the number of harvested calls by status code. Calls without response are missing.
+     */
+    public Map<Integer, Integer> getCallsByStatusCode() {
+      return Collections.unmodifiableMap(callsByStatusCode);
+    }
+
+    /**
+     * @return the number of harvested calls by error, like {@code NameResolutionError}.
+     */
+    public Map<String, Integer> getCallsByError() {
+      return Collections.unmodifiableMap(callsByError);
+    }
+
+    @Override public String toString() {
+      return "Report { "
+          + "calls = " + calls + ", "
+          + "callsByWebhook = " + callsByWebhook + ", "
+          + "callsByStatusCode = " + callsByStatusCode + ", "
+          + "callsByError = " + callsByError + " "
+          + "}";
+    }
+  }
+
+  /**
+   * Configures a {@link WebhookHarvester}.
+   */
+  public static class Builder {
+    Filter filter = call -> true;
+    Map<String, String> callsQuery = new HashMap<>();
+    int concurrency = BatchExecutor.DEFAULT_CONCURRENCY;
+
+    /**
+     * @param filter decides which calls are harvested. Defaults to all calls.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if filter is null.
+     * @see WebhookHarvester#statusCodes(int, int)
+     * @see WebhookHarvester#failed()
+     */
+    public Builder setFilter(Filter filter) {
+      assertNotNull(filter, "filter");
+      this.filter = filter;
+      return this;
+    }
+
+    /**
+     * @param callsQuery the query listing the calls of every webhook, like a {@code limit} per
+     *                   page. All pages are followed. Defaults to no query.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if callsQuery is null.
+     */
+    public Builder setCallsQuery(Map<String, String> callsQuery) {
+      assertNotNull(callsQuery, "callsQuery");
+      this.callsQuery = new HashMap<>(callsQuery);
+      return this;
+    }
+
+    /**
+     * @param concurrency the number of webhooks harvested and of call details requested at once.
+     *                    Defaults to 4.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if concurrency is not positive.
+     */
+    public Builder setConcurrency(int concurrency) {
+      BatchExecutor.assertConcurrency(concurrency);
+      this.concurrency = concurrency;
+      return this;
+    }
+
+    /**
+     * @param client the client sending all requests.
+     * @return a new harvester using this configuration.
+     * @throws IllegalArgumentException if client is null.
+     */
+    public WebhookHarvester build(CMAClient client) {
+      assertNotNull(client, "client");
+      return new WebhookHarvester(this, client);
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.contentful.java.cma.gson;
+
+import com.contentful.java.cma.model.CMABulkStatus;
+import com.contentful.java.cma.model.CMALink;
+import com.contentful.java.cma.model.CMAScheduledActionStatus;
+import com.contentful.java.cma.model.CMASystem;
+import com.contentful.java.cma.model.CMAType;
+import com.contentful.java.cma.model.CMAVisibility;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates a streaming reader for {@link CMASystem}s.
+ * <p>
+ * Every resource in every response carries a {@code sys} object, so it is read in one pass
+ * straight from the {@link JsonReader}. The ids of links, which repeat throughout a response
+ * (spaces, environments, content types, users), share one string instance. Writing is delegated
+ * to the reflective adapter.
+ * <p>
+ * The pool of link ids belongs to the adapter, so it lives as long as the {@link Gson} instance
+ * using this factory. It holds at most {@value SystemTypeAdapter#POOL_CAPACITY} ids, which is a
+ * few hundred kilobytes at most; ids seen after the pool is full are kept as read, not pooled.
+ */
+public class CMASystemTypeAdapterFactory implements TypeAdapterFactory {
+  /**
+   * Create an adapter for the given type.
+   *
+   * @param gson the gson instance requesting the adapter.
+   * @param type the type to be adapted.
+   * @param <T>  the type to be adapted.
+   * @return an adapter if the type is a system, null otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (type.getRawType() != CMASystem.class) {
+      return null;
+    }
+
+    final TypeAdapter<CMASystem> writer = gson.getDelegateAdapter(this, TypeToken.get(
+        CMASystem.class));
+    return (TypeAdapter<T>) new SystemTypeAdapter(gson, writer);
+  }
+
+  /**
+   * Interns strings up to a fixed number of distinct values.
+   * <p>
+   * Pooled values are never evicted: once the capacity is reached, further values are returned
+   * unchanged, so the pool never grows beyond its capacity.
+   */
+  static class StringPool {
+    private final int capacity;
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    StringPool(int capacity) {
+      this.capacity = capacity;
+    }
+
+    String intern(String value) {
+      if (value == null) {
+        return null;
+      }
+
+      final String pooled = pool.get(value);
+      if (pooled != null) {
+        return pooled;
+      }
+
+      if (pool.size() >= capacity) {
+        return value;
+      }
+
+      final String previous = pool.putIfAbsent(value, value);
+      return previous == null ? value : previous;
+    }
+  }
+
+  /**
+   * The adapter reading a system token by token.
+   */
+  static class SystemTypeAdapter extends TypeAdapter<CMASystem> {
+    static final int POOL_CAPACITY = 4096;
+
+    private final TypeAdapter<CMASystem> writer;
+    private final Gson gson;
+    private final TypeAdapter<CMAType> typeAdapter;
+    private final TypeAdapter<CMAVisibility> visibilityAdapter;
+    private final StringPool linkIds = new StringPool(POOL_CAPACITY);
+
+    // links contain a system themselves, so their adapter can only be looked up lazily.
+    private TypeAdapter<CMALink> linkAdapter;
+
+    SystemTypeAdapter(Gson gson, TypeAdapter<CMASystem> writer) {
+      this.gson = gson;
+      this.writer = writer;
+      this.typeAdapter = gson.getAdapter(CMAType.class);
+      this.visibilityAdapter = gson.getAdapter(CMAVisibility.class);
+    }
+
+    @Override public void write(JsonWriter out, CMASystem value) throws IOException {
+      writer.write(out, value);
+    }
+
+    @Override public CMASystem read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final CMASystem system = new CMASystem();
+      in.beginObject();
+      while (in.hasNext()) {
+        final String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+
+        switch (name) {
+          case "id":
+            system.setId(in.nextString());
+            break;
+          case "type":
+            system.setType(typeAdapter.read(in));
+            break;
+          case "linkType":
+            system.setLinkType(typeAdapter.read(in));
+            break;
+          case "version":
+            system.setVersion(in.nextInt());
+            break;
+          case "createdAt":
+            system.setCreatedAt(in.nextString());
+            break;
+          case "updatedAt":
+            system.setUpdatedAt(in.nextString());
+            break;
+          case "publishedAt":
+            system.setPublishedAt(in.nextString());
+            break;
+          case "firstPublishedAt":
+            system.setFirstPublishedAt(in.nextString());
+            break;
+          case "publishedCounter":
+            system.setPublishedCounter(in.nextInt());
+            break;
+          case "publishedVersion":
+            system.setPublishedVersion(in.nextInt());
+            break;
+          case "archivedVersion":
+            system.setArchivedVersion(in.nextInt());
+            break;
+          case "urn":
+            system.setUrn(in.nextString());
+            break;
+          case "visibility":
+            system.setVisibility(visibilityAdapter.read(in));
+            break;
+          case "space":
+            system.setSpace(readLink(in));
+            break;
+          case "environment":
+            system.setEnvironment(readLink(in));
+            break;
+          case "contentType":
+            system.setContentType(readLink(in));
+            break;
+          case "createdBy":
+            system.setCreatedBy(readLink(in));
+            break;
+          case "updatedBy":
+            system.setUpdatedBy(readLink(in));
+            break;
+          case "publishedBy":
+            system.setPublishedBy(readLink(in));
+            break;
+          case "organization":
+            system.setOrganization(readLink(in));
+            break;
+          case "status":
+            readStatus(in, system);
+            break;
+          default:
+            in.skipValue();
+            break;
+        }
+      }
+      in.endObject();
+
+      if (system.getType() == CMAType.Link) {
+        system.setId(linkIds.intern(system.getId()));
+      }
+      return system;
+    }
+
+    private CMALink readLink(JsonReader in) throws IOException {
+      if (linkAdapter == null) {
+        linkAdapter = gson.getAdapter(CMALink.class);
+      }
+      return linkAdapter.read(in);
+    }
+
+    /*
+     * The status of environments is a link, scheduled and bulk actions use a plain string. Like
+     * the tree based CMASystemDeserializer, other primitives are matched by their string value
+     * and arrays are ignored.
+     */
+    private void readStatus(JsonReader in, CMASystem system) throws IOException {
+      if (in.peek() == JsonToken.BEGIN_OBJECT) {
+        system.setEnvironmentalStatus(readLink(in));
+        return;
+      }
+
+      if (in.peek() == JsonToken.BEGIN_ARRAY) {
+        in.skipValue();
+        return;
+      }
+
+      final String status = in.peek() == JsonToken.BOOLEAN
+          ? String.valueOf(in.nextBoolean())
+          : in.nextString();
+      // both kinds of actions share "succeeded" and "failed", so every matching status is set.
+      final CMAScheduledActionStatus scheduledActionStatus = CMAScheduledActionStatus.from(status);
+      final CMABulkStatus bulkStatus = CMABulkStatus.from(status);
+      if (scheduledActionStatus == null && bulkStatus == null) {
+        throw new IllegalArgumentException("Unknown status: " + status);
+      }
+
+      if (scheduledActionStatus != null) {
+        system.setScheduledActionStatus(scheduledActionStatus);
+      }
+      if (bulkStatus != null) {
+        system.setBulkActionStatus(bulkStatus);
+      }
+    }
+  }
+}
@@ -9,8 +9,8 @@ import com.contentful.java.cma.model.CMAType;
 import com.contentful.java.cma.model.rich.CMARichBlock;
 import com.contentful.java.cma.model.rich.CMARichHyperLink;
 import com.contentful.java.cma.model.rich.CMARichNode;
-import com.contentful.java.cma.model.rich.RichTextFactory;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -28,7 +28,7 @@ import java.util.Map;
 import static com.contentful.java.cma.model.CMAType.Link;
 
 /**
- * Serialize an entry from Contentful
+ * Serializes entries. Reading entries is done by {@link EntryTypeAdapterFactory}.
  */
 public class EntrySerializer implements JsonSerializer<CMAEntry>, JsonDeserializer<CMAEntry> {
 
@@ -72,12 +72,31 @@ public class EntrySerializer implements JsonSerializer<CMAEntry>, JsonDeserializ
     return result;
   }
 
+  /**
+   * Read an entry, including its rich text fields.
+   *
+   * @param json    the json to be read.
+   * @param type    the type to be read.
+   * @param context the deserialization context.
+   * @return the entry read.
+   * @throws JsonParseException if the json is not an entry.
+   * @deprecated register {@link EntryTypeAdapterFactory} to read entries instead.
+   */
+  @Deprecated
   @Override
   public CMAEntry deserialize(JsonElement json, Type type, JsonDeserializationContext context)
       throws JsonParseException {
-    final CMAEntry entry = new Gson().fromJson(json, CMAEntry.class); // default deserialization
-    RichTextFactory.resolveRichTextField(entry);
-    return entry;
+    return ReaderHolder.GSON.fromJson(json, CMAEntry.class);
+  }
+
+  /**
+   * Gson reading entries with {@link EntryTypeAdapterFactory}, created on first use.
+   */
+  private static class ReaderHolder {
+    static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(new CMASystemTypeAdapterFactory())
+        .registerTypeAdapterFactory(new EntryTypeAdapterFactory())
+        .create();
   }
 
   private JsonObject serializeField(JsonSerializationContext context,
@@ -0,0 +1,136 @@
+package com.contentful.java.cma.gson;
+
+import com.contentful.java.cma.model.CMAEntry;
+import com.contentful.java.cma.model.CMAMetadata;
+import com.contentful.java.cma.model.CMASystem;
+import com.contentful.java.cma.model.rich.RichTextFactory;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+/**
+ * Creates a streaming reader for {@link CMAEntry}s.
+ * <p>
+ * Entries are read straight from the {@link JsonReader}, without building an intermediate json
+ * tree. Rich text values are resolved as soon as their locale value has been read. Writing is
+ * delegated to the next adapter registered for entries, normally {@link EntrySerializer}, so
+ * this factory has to be registered <b>after</b> it.
+ */
+public class EntryTypeAdapterFactory implements TypeAdapterFactory {
+  private static final String ATTR_SYS = "sys";
+  private static final String ATTR_FIELDS = "fields";
+  private static final String ATTR_METADATA = "metadata";
+
+  /**
+   * Create an adapter for the given type.
+   *
+   * @param gson the gson instance requesting the adapter.
+   * @param type the type to be adapted.
+   * @param <T>  the type to be adapted.
+   * @return an adapter if the type is an entry, null otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (type.getRawType() != CMAEntry.class) {
+      return null;
+    }
+
+    final TypeAdapter<CMAEntry> writer = gson.getDelegateAdapter(this, TypeToken.get(
+        CMAEntry.class));
+    return (TypeAdapter<T>) new EntryTypeAdapter(gson, writer);
+  }
+
+  /**
+   * The adapter reading entries token by token.
+   */
+  static class EntryTypeAdapter extends TypeAdapter<CMAEntry> {
+    private final TypeAdapter<CMAEntry> writer;
+    private final TypeAdapter<CMASystem> systemAdapter;
+    private final TypeAdapter<CMAMetadata> metadataAdapter;
+    private final TypeAdapter<Object> valueAdapter;
+
+    EntryTypeAdapter(Gson gson, TypeAdapter<CMAEntry> writer) {
+      this.writer = writer;
+      this.systemAdapter = gson.getAdapter(CMASystem.class);
+      this.metadataAdapter = gson.getAdapter(CMAMetadata.class);
+      this.valueAdapter = gson.getAdapter(Object.class);
+    }
+
+    @Override public void write(JsonWriter out, CMAEntry value) throws IOException {
+      writer.write(out, value);
+    }
+
+    @Override public CMAEntry read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final CMAEntry entry = new CMAEntry();
+      in.beginObject();
+      while (in.hasNext()) {
+        final String name = in.nextName();
+        switch (name) {
+          case ATTR_SYS:
+            entry.setSystem(systemAdapter.read(in));
+            break;
+          case ATTR_FIELDS:
+            entry.setFields(readFields(in));
+            break;
+          case ATTR_METADATA:
+            entry.setMetadata(metadataAdapter.read(in));
+            break;
+          default:
+            in.skipValue();
+            break;
+        }
+      }
+      in.endObject();
+      return entry;
+    }
+
+    private LinkedHashMap<String, LinkedHashMap<String, Object>> readFields(JsonReader in)
+        throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final LinkedHashMap<String, LinkedHashMap<String, Object>> fields = new LinkedHashMap<>();
+      in.beginObject();
+      while (in.hasNext()) {
+        final String fieldId = in.nextName();
+        if (fields.put(fieldId, readLocalizedValues(in)) != null) {
+          throw new JsonParseException("duplicate field: " + fieldId);
+        }
+      }
+      in.endObject();
+      return fields;
+    }
+
+    private LinkedHashMap<String, Object> readLocalizedValues(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+      in.beginObject();
+      while (in.hasNext()) {
+        final String locale = in.nextName();
+        final Object value = RichTextFactory.resolveRichTextValue(valueAdapter.read(in));
+        values.put(locale, value);
+      }
+      in.endObject();
+      return values;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package com.contentful.java.cma.interceptor;
+
+import com.contentful.java.cma.model.RateLimits;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Paces outgoing requests, so the rate limits of Contentful are not exceeded.
+ * <p>
+ * This is a token bucket, refilled with the number of requests allowed per second. Every request
+ * takes one token, waiting until one is available if the bucket is empty. The bucket starts with
+ * the given rate and is adjusted with the rate limit headers of every response:
+ * <ul>
+ * <li>{@link RateLimits#getSecondLimit()} sets the rate and the size of the bucket,</li>
+ * <li>{@link RateLimits#getSecondRemaining()} lowers the tokens left, if other clients use the
+ * same limits,</li>
+ * <li>a response with status 429, or one without remaining requests for this hour, pauses all
+ * requests for {@link RateLimits#getReset()} seconds.</li>
+ * </ul>
+ * <p>
+ * One instance should be shared by all call factories using the same access token, it is safe to
+ * be used by multiple threads.
+ */
+public class AdaptiveRateLimiter implements Interceptor {
+  /**
+   * Requests allowed per second by default for the Content Management API.
+   */
+  public static final int DEFAULT_REQUESTS_PER_SECOND = 7;
+
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final LongSupplier nanoClock;
+  private final RateLimits.Parser parser = new RateLimits.DefaultParser();
+
+  private double requestsPerSecond;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * Create a limiter allowing {@link #DEFAULT_REQUESTS_PER_SECOND} until the first response
+   * arrives.
+   */
+  public AdaptiveRateLimiter() {
+    this(DEFAULT_REQUESTS_PER_SECOND);
+  }
+
+  /**
+   * Create a limiter with a given rate until the first response arrives.
+   *
+   * @param requestsPerSecond how many requests to allow per second initially.
+   * @throws IllegalArgumentException if requestsPerSecond is not positive.
+   */
+  public AdaptiveRateLimiter(int requestsPerSecond) {
+    this(requestsPerSecond, System::nanoTime);
+  }
+
+  AdaptiveRateLimiter(int requestsPerSecond, LongSupplier nanoClock) {
+    if (requestsPerSecond <= 0) {
+      throw new IllegalArgumentException("requestsPerSecond needs to be positive.");
+    }
+
+    this.nanoClock = nanoClock;
+    this.requestsPerSecond = requestsPerSecond;
+    this.tokens = requestsPerSecond;
+    this.lastRefill = nanoClock.getAsLong();
+  }
+
+  /**
+   * Wait for a token, send the request and update the limits from the response.
+   *
+   * @param chain the current chain of calls.
+   * @return the response of this call.
+   * @throws IOException            if the request failed.
+   * @throws InterruptedIOException if the thread got interrupted while waiting.
+   */
+  @Override public Response intercept(Chain chain) throws IOException {
+    acquire();
+
+    final Response response = chain.proceed(chain.request());
+    update(parser.parse(response.headers().toMultimap()),
+        response.code() == HTTP_TOO_MANY_REQUESTS);
+
+    return response;
+  }
+
+  /**
+   * Take one token, waiting until it is available.
+   *
+   * @throws InterruptedIOException if the thread got interrupted while waiting.
+   */
+  public void acquire() throws InterruptedIOException {
+    final long wait = reserve();
+    if (wait <= 0) {
+      return;
+    }
+
+    try {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for rate limit.");
+    }
+  }
+
+  /**
+   * Adjust the limiter to the limits reported by the server.
+   *
+   * @param limits         the limits of the last response.
+   * @param limitsExceeded whether the last request was rejected as too many requests.
+   */
+  public synchronized void update(RateLimits limits, boolean limitsExceeded) {
+    refill();
+
+    final int secondLimit = limits.getSecondLimit();
+    if (secondLimit > 0) {
+      if (secondLimit != requestsPerSecond) {
+        requestsPerSecond = secondLimit;
+        tokens = Math.min(tokens, secondLimit);
+      }
+      tokens = Math.min(tokens, Math.max(0, limits.getSecondRemaining()));
+    }
+
+    final boolean hourExhausted = limits.getHourLimit() > 0 && limits.getHourRemaining() <= 0;
+    if (limitsExceeded || hourExhausted) {
+      pause(Math.max(1, limits.getReset()));
+    }
+  }
+
+  /**
+   * @return the number of requests currently allowed per second.
+   */
+  public synchronized double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  /**
+   * Take one token.
+   *
+   * @return the nanoseconds to wait until the taken token is available.
+   */
+  synchronized long reserve() {
+    refill();
+
+    tokens -= 1;
+    return tokens >= 0 ? 0 : (long) (-tokens / requestsPerSecond * NANOS_PER_SECOND);
+  }
+
+  private void pause(int seconds) {
+    // the next token is available after the given seconds, including all ones already reserved.
+    tokens = Math.min(tokens, -seconds * requestsPerSecond);
+  }
+
+  private void refill() {
+    final long now = nanoClock.getAsLong();
+    final double elapsedSeconds = (double) (now - lastRefill) / NANOS_PER_SECOND;
+
+    tokens = Math.min(requestsPerSecond, tokens + elapsedSeconds * requestsPerSecond);
+    lastRefill = now;
+  }
+}
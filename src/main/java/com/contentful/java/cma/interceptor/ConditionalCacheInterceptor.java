@@ -0,0 +1,519 @@
+package com.contentful.java.cma.interceptor;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * Revalidates repeated {@code GET} requests, instead of transferring unchanged bodies again.
+ * <p>
+ * Every successful {@code GET} response carrying an {@code ETag} or {@code Last-Modified} header
+ * is stored by its url and a hash of its {@code Authorization} header, in memory and optionally in
+ * a directory on disk. The next request to the same url with the same token is sent with
+ * {@code If-None-Match} or {@code If-Modified-Since}, and if the server answers with
+ * {@code 304 Not Modified}, the stored body is returned as a {@code 200} response.
+ * <p>
+ * Cached bodies are never returned without asking the server, so changes made by other clients
+ * are always seen. Any other request to a url drops the body stored for it and its token.
+ * <p>
+ * This interceptor needs to see responses before the {@link ErrorInterceptor} turns them into
+ * errors, so it has to be added after it. One instance can be shared by multiple clients, it is
+ * safe to be used by multiple threads.
+ */
+public class ConditionalCacheInterceptor implements Interceptor {
+  static final String HEADER_ETAG = "ETag";
+  static final String HEADER_LAST_MODIFIED = "Last-Modified";
+  static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+  static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+  static final String HEADER_CACHE_CONTROL = "Cache-Control";
+  static final String HEADER_CONTENT_TYPE = "Content-Type";
+
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_NOT_MODIFIED = 304;
+  private static final String NO_STORE = "no-store";
+  private static final String FILE_SUFFIX = ".cache";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private final int maxEntries;
+  private final long maxBodySize;
+  private final Path directory;
+  private final long maxDirectorySize;
+  private final Object directoryLock = new Object();
+  private final LinkedHashMap<String, Entry> entries;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  ConditionalCacheInterceptor(Builder builder) {
+    this.maxEntries = builder.maxEntries;
+    this.maxBodySize = builder.maxBodySize;
+    this.directory = builder.directory;
+    this.maxDirectorySize = builder.maxDirectorySize;
+    this.entries = new LinkedHashMap<String, Entry>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+      @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > ConditionalCacheInterceptor.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Send the request conditionally if a body of its url and token is stored, and replay that body
+   * if the server reports it unchanged.
+   *
+   * @param chain the current chain of calls.
+   * @return the response of the server, or the stored response if nothing changed.
+   * @throws IOException if the request failed.
+   */
+  @Override public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    final String key = key(request);
+
+    if (!"GET".equals(request.method())) {
+      remove(key);
+      return chain.proceed(request);
+    }
+
+    if (request.header(HEADER_IF_NONE_MATCH) != null
+        || request.header(HEADER_IF_MODIFIED_SINCE) != null) {
+      // the caller revalidates on its own.
+      return chain.proceed(request);
+    }
+
+    final Entry cached = get(key);
+    final Response response = chain.proceed(
+        cached == null ? request : conditional(request, cached));
+
+    if (cached != null && response.code() == HTTP_NOT_MODIFIED) {
+      hitCount.incrementAndGet();
+      return replay(response, cached, key);
+    }
+
+    missCount.incrementAndGet();
+    return store(response, key);
+  }
+
+  /**
+   * @return how many responses were served from the cache after a {@code 304}.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * @return how many {@code GET} responses had to be transferred in full.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return the number of bodies currently held in memory.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Drop all stored bodies, from memory and from disk.
+   *
+   * @throws IOException if a file of the cache directory could not be deleted.
+   */
+  public void clear() throws IOException {
+    synchronized (this) {
+      entries.clear();
+    }
+
+    if (directory != null && Files.isDirectory(directory)) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+        for (Path file : files) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  /*
+   * The token is hashed, so it is neither kept in memory nor written to disk. Urls never contain
+   * a space, so the key stays unambiguous.
+   */
+  private static String key(Request request) {
+    final String url = request.url().toString();
+    final String authorization = request.header(AuthorizationHeaderInterceptor.HEADER_NAME);
+    return authorization == null
+        ? url
+        : url + ' ' + ByteString.encodeUtf8(authorization).sha256().hex();
+  }
+
+  private Request conditional(Request request, Entry cached) {
+    final Request.Builder builder = request.newBuilder();
+    if (cached.etag != null) {
+      builder.header(HEADER_IF_NONE_MATCH, cached.etag);
+    }
+    if (cached.lastModified != null) {
+      builder.header(HEADER_IF_MODIFIED_SINCE, cached.lastModified);
+    }
+    return builder.build();
+  }
+
+  private Response replay(Response notModified, Entry cached, String key) {
+    notModified.close();
+
+    // validators may be refreshed by the 304, the body stays the same.
+    final Entry refreshed = cached.refresh(
+        notModified.header(HEADER_ETAG),
+        notModified.header(HEADER_LAST_MODIFIED));
+    if (refreshed != cached) {
+      put(key, refreshed);
+    } else {
+      touch(key);
+    }
+
+    final MediaType contentType = cached.contentType == null
+        ? null
+        : MediaType.parse(cached.contentType);
+
+    final Response.Builder builder = notModified.newBuilder()
+        .code(HTTP_OK)
+        .message("OK")
+        .body(ResponseBody.create(cached.body, contentType));
+    if (cached.contentType != null) {
+      builder.header(HEADER_CONTENT_TYPE, cached.contentType);
+    }
+    return builder.build();
+  }
+
+  private Response store(Response response, String key) throws IOException {
+    final String etag = response.header(HEADER_ETAG);
+    final String lastModified = response.header(HEADER_LAST_MODIFIED);
+    final ResponseBody body = response.body();
+
+    if (response.code() != HTTP_OK
+        || (etag == null && lastModified == null)
+        || isNoStore(response)
+        || body == null
+        || body.contentLength() > maxBodySize) {
+      remove(key);
+      return response;
+    }
+
+    final BufferedSource source = body.source();
+    if (source.request(maxBodySize + 1)) {
+      // larger than announced: pass the body on untouched, without keeping it.
+      remove(key);
+      return response;
+    }
+
+    final ByteString bytes;
+    try (ResponseBody ignored = body) {
+      bytes = source.readByteString();
+    }
+
+    final MediaType contentType = body.contentType();
+    put(key, new Entry(
+        etag,
+        lastModified,
+        contentType == null ? null : contentType.toString(),
+        bytes));
+
+    return response.newBuilder()
+        .body(ResponseBody.create(bytes, contentType))
+        .build();
+  }
+
+  private static boolean isNoStore(Response response) {
+    final String cacheControl = response.header(HEADER_CACHE_CONTROL);
+    return cacheControl != null && cacheControl.contains(NO_STORE);
+  }
+
+  private Entry get(String key) {
+    synchronized (this) {
+      final Entry entry = entries.get(key);
+      if (entry != null) {
+        return entry;
+      }
+    }
+
+    final Entry loaded = read(key);
+    if (loaded != null) {
+      synchronized (this) {
+        entries.put(key, loaded);
+      }
+    }
+    return loaded;
+  }
+
+  private void put(String key, Entry entry) {
+    synchronized (this) {
+      entries.put(key, entry);
+    }
+    write(key, entry);
+  }
+
+  private void remove(String key) {
+    final boolean removed;
+    synchronized (this) {
+      removed = entries.remove(key) != null;
+    }
+
+    if (directory != null && (removed || Files.exists(file(key)))) {
+      try {
+        Files.deleteIfExists(file(key));
+      } catch (IOException ignored) {
+        // a stale file will be revalidated and replaced on the next request.
+      }
+    }
+  }
+
+  /*
+   * A cache file holds the url, both validators and the content type on one line each, followed
+   * by the body. Missing values are stored as empty lines.
+   */
+  private Entry read(String key) {
+    if (directory == null) {
+      return null;
+    }
+
+    final Path file = file(key);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+      if (!key.equals(source.readUtf8LineStrict())) {
+        return null;
+      }
+
+      return new Entry(
+          emptyToNull(source.readUtf8LineStrict()),
+          emptyToNull(source.readUtf8LineStrict()),
+          emptyToNull(source.readUtf8LineStrict()),
+          source.readByteString());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void write(String key, Entry entry) {
+    if (directory == null) {
+      return;
+    }
+
+    // every write gets a temp file of its own, so concurrent writers of a key never interleave.
+    final Path file = file(key);
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, file.getFileName().toString(), TEMP_SUFFIX);
+      try (BufferedSink sink = Okio.buffer(Okio.sink(temp))) {
+        sink.writeUtf8(key).writeByte('\n')
+            .writeUtf8(nullToEmpty(entry.etag)).writeByte('\n')
+            .writeUtf8(nullToEmpty(entry.lastModified)).writeByte('\n')
+            .writeUtf8(nullToEmpty(entry.contentType)).writeByte('\n')
+            .write(entry.body);
+      }
+      Files.move(temp, file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      trim();
+    } catch (IOException e) {
+      // the disk is only a second level, the entry is still held in memory.
+      try {
+        if (temp != null) {
+          Files.deleteIfExists(temp);
+        }
+      } catch (IOException ignored) {
+        // nothing left to clean up.
+      }
+    }
+  }
+
+  /*
+   * Mark the file of a replayed entry as recently used, so trimming keeps it.
+   */
+  private void touch(String key) {
+    if (directory == null) {
+      return;
+    }
+
+    try {
+      Files.setLastModifiedTime(file(key), FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException ignored) {
+      // the file was trimmed or never written, the entry is still held in memory.
+    }
+  }
+
+  /*
+   * Delete the least recently used files until the directory fits into its limit again.
+   */
+  private void trim() throws IOException {
+    synchronized (directoryLock) {
+      final Map<Path, BasicFileAttributes> files = new HashMap<>();
+      long size = 0;
+      try (DirectoryStream<Path> stream =
+               Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+        for (Path file : stream) {
+          final BasicFileAttributes attributes =
+              Files.readAttributes(file, BasicFileAttributes.class);
+          files.put(file, attributes);
+          size += attributes.size();
+        }
+      }
+
+      if (size <= maxDirectorySize) {
+        return;
+      }
+
+      final List<Path> leastRecentlyUsed = new ArrayList<>(files.keySet());
+      leastRecentlyUsed.sort(Comparator.comparing(file -> files.get(file).lastModifiedTime()));
+      for (Path file : leastRecentlyUsed) {
+        if (size <= maxDirectorySize) {
+          break;
+        }
+        Files.deleteIfExists(file);
+        size -= files.get(file).size();
+      }
+    }
+  }
+
+  private Path file(String key) {
+    return directory.resolve(ByteString.encodeUtf8(key).sha256().hex() + FILE_SUFFIX);
+  }
+
+  private static String emptyToNull(String value) {
+    return value.isEmpty() ? null : value;
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+
+  static class Entry {
+    final String etag;
+    final String lastModified;
+    final String contentType;
+    final ByteString body;
+
+    Entry(String etag, String lastModified, String contentType, ByteString body) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    Entry refresh(String etag, String lastModified) {
+      final String newEtag = etag == null ? this.etag : etag;
+      final String newLastModified = lastModified == null ? this.lastModified : lastModified;
+      if (equal(newEtag, this.etag) && equal(newLastModified, this.lastModified)) {
+        return this;
+      }
+      return new Entry(newEtag, newLastModified, contentType, body);
+    }
+
+    private static boolean equal(String a, String b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+
+  /**
+   * Configures a {@link ConditionalCacheInterceptor}.
+   */
+  public static class Builder {
+    private static final int DEFAULT_MAX_ENTRIES = 500;
+    private static final long DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+    private static final long DEFAULT_MAX_DIRECTORY_SIZE = 50 * 1024 * 1024;
+
+    int maxEntries = DEFAULT_MAX_ENTRIES;
+    long maxBodySize = DEFAULT_MAX_BODY_SIZE;
+    Path directory;
+    long maxDirectorySize = DEFAULT_MAX_DIRECTORY_SIZE;
+
+    /**
+     * @param maxEntries how many bodies are held in memory at most, the least recently used ones
+     *                   are dropped first. Defaults to 500.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     */
+    public Builder setMaxEntries(int maxEntries) {
+      if (maxEntries <= 0) {
+        throw new IllegalArgumentException("maxEntries needs to be positive.");
+      }
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    /**
+     * @param maxBodySize the size in bytes of the largest body to be stored, larger ones are
+     *                    always transferred. Defaults to 1MiB.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxBodySize is not positive.
+     */
+    public Builder setMaxBodySize(long maxBodySize) {
+      if (maxBodySize <= 0) {
+        throw new IllegalArgumentException("maxBodySize needs to be positive.");
+      }
+      this.maxBodySize = maxBodySize;
+      return this;
+    }
+
+    /**
+     * Keep all stored bodies in the given directory as well, so they survive the memory limit and
+     * restarts of the application. The directory is trimmed to {@link #setMaxDirectorySize(long)},
+     * use {@link ConditionalCacheInterceptor#clear()} to empty it.
+     *
+     * @param directory the directory to store the bodies in, created if missing.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if directory is null.
+     */
+    public Builder setDirectory(Path directory) {
+      if (directory == null) {
+        throw new IllegalArgumentException("Cannot call setDirectory() with null.");
+      }
+      this.directory = directory;
+      return this;
+    }
+
+    /**
+     * @param maxDirectorySize the size in bytes of all files in the cache directory, the least
+     *                         recently used ones are deleted first. Defaults to 50MiB.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxDirectorySize is not positive.
+     */
+    public Builder setMaxDirectorySize(long maxDirectorySize) {
+      if (maxDirectorySize <= 0) {
+        throw new IllegalArgumentException("maxDirectorySize needs to be positive.");
+      }
+      this.maxDirectorySize = maxDirectorySize;
+      return this;
+    }
+
+    /**
+     * @return a new interceptor using this configuration.
+     */
+    public ConditionalCacheInterceptor build() {
+      return new ConditionalCacheInterceptor(this);
+    }
+  }
+}
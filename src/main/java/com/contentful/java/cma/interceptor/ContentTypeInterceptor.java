@@ -7,7 +7,7 @@ import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okio.Buffer;
+import okio.BufferedSink;
 
 /**
  * Interceptor to add content type header to requests
@@ -50,7 +50,7 @@ public class ContentTypeInterceptor implements Interceptor {
     final Request.Builder builder = request.newBuilder()
         .addHeader(HEADER_NAME, contentType);
 
-    if (requestBody != null) {
+    if (requestBody != null && bodyMediaType == null) {
       rewriteBodyWithCustomContentType(request, builder);
     }
 
@@ -58,13 +58,29 @@ public class ContentTypeInterceptor implements Interceptor {
     return chain.proceed(contentTypeRequest);
   }
 
-  private void rewriteBodyWithCustomContentType(Request request, Request.Builder builder)
-      throws IOException {
-    final Buffer sink = new Buffer();
-    request.body().writeTo(sink);
+  /*
+   * Only the content type changes, so the body is forwarded instead of copied: uploads can be
+   * arbitrarily large and have to be streamed.
+   */
+  private void rewriteBodyWithCustomContentType(Request request, Request.Builder builder) {
+    final RequestBody original = request.body();
+    final RequestBody body = new RequestBody() {
+      @Override public MediaType contentType() {
+        return mediaType;
+      }
+
+      @Override public long contentLength() throws IOException {
+        return original.contentLength();
+      }
+
+      @Override public boolean isOneShot() {
+        return original.isOneShot();
+      }
 
-    final byte[] content = sink.readByteArray();
-    final RequestBody body = RequestBody.create(mediaType, content);
+      @Override public void writeTo(BufferedSink sink) throws IOException {
+        original.writeTo(sink);
+      }
+    };
 
     final String method = request.method();
     if ("POST".equals(method)) {
@@ -0,0 +1,123 @@
+package com.contentful.java.cma.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets of logarithmically growing width, without taking locks.
+ * <p>
+ * Every power of two is split into {@value #SUB_BUCKETS} buckets of equal width, so every recorded
+ * value is reported with an error below 1/{@value #SUB_BUCKETS}, from nanoseconds up to hours in
+ * a fixed array of counters. Recording is one atomic increment.
+ */
+public class LatencyHistogram {
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int VALUE_BITS = 63;
+  private static final int BUCKET_COUNT = (VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+  private static final double PERCENT = 100.0;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param nanos the duration to be counted, negative ones are counted as 0.
+   */
+  public void record(long nanos) {
+    final long value = Math.max(0, nanos);
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+
+    long current;
+    do {
+      current = max.get();
+    } while (value > current && !max.compareAndSet(current, value));
+  }
+
+  /**
+   * @return the number of recorded durations.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return the longest recorded duration in nanoseconds.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return the average of all recorded durations in nanoseconds, or 0 if none was recorded.
+   */
+  public double getMean() {
+    final long total = count.sum();
+    return total == 0 ? 0 : (double) sum.sum() / total;
+  }
+
+  /**
+   * Find the duration not exceeded by the given share of all recorded durations.
+   * <p>
+   * Durations recorded while this is calculated may or may not be included.
+   *
+   * @param percentile the share in percent, like 99.9.
+   * @return the upper bound of the bucket holding the percentile in nanoseconds, never above
+   * {@link #getMax()}, or 0 if none was recorded.
+   * @throws IllegalArgumentException if percentile is not between 0 and 100.
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > PERCENT) {
+      throw new IllegalArgumentException("percentile needs to be between 0 and 100.");
+    }
+
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    final long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /*
+   * Values below SUB_BUCKETS get a bucket each. Larger values are split into their magnitude,
+   * selecting a group of SUB_BUCKETS buckets, and their highest bits below the leading one,
+   * selecting the bucket inside the group.
+   */
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    final int magnitude = VALUE_BITS - Long.numberOfLeadingZeros(value);
+    final int shift = magnitude - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    final int shift = index / SUB_BUCKETS - 1;
+    final long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,229 @@
+package com.contentful.java.cma.interceptor;
+
+import com.contentful.java.cma.model.CMAHttpException;
+import com.contentful.java.cma.model.RateLimits;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Invocation;
+
+/**
+ * Measures every call and reports it to a {@link MetricsListener}.
+ * <p>
+ * This interceptor has to be the first one of the chain, so it sees all failures. Its
+ * {@link #attemptInterceptor()} has to be added after the {@link RetryInterceptor}, where it sees
+ * every attempt before it may become an error. The client builder takes care of both, if a
+ * listener is set with {@code CMAClient.Builder#setMetricsListener}.
+ * <p>
+ * A call is reported once its response body was closed or read completely, so the duration
+ * includes reading and parsing the body. The operation is derived from the retrofit service method
+ * called: {@code ServiceEntries.publish} gets reported as {@code entries.publish}.
+ */
+public class MetricsInterceptor implements Interceptor {
+  /**
+   * The operation of requests not sent by a module of the client.
+   */
+  public static final String OPERATION_UNKNOWN = "unknown";
+
+  private static final String SERVICE_PREFIX = "Service";
+
+  private final MetricsListener listener;
+  private final Interceptor attemptInterceptor = new AttemptInterceptor();
+  private final ConcurrentHashMap<Method, String> operations = new ConcurrentHashMap<>();
+
+  LongSupplier nanoClock = System::nanoTime;
+
+  /**
+   * Create a new metrics interceptor.
+   *
+   * @param listener an object to be informed about every finished call.
+   * @throws IllegalArgumentException if listener is null.
+   */
+  public MetricsInterceptor(MetricsListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener cannot be null!");
+    }
+    this.listener = listener;
+  }
+
+  /**
+   * @return the interceptor counting attempts, bytes sent and reading the status and rate limits
+   * of every response.
+   */
+  public Interceptor attemptInterceptor() {
+    return attemptInterceptor;
+  }
+
+  /**
+   * Time the call and report it once its body was read.
+   *
+   * @param chain the current chain of calls.
+   * @return the response, with a body reporting the call once closed.
+   * @throws IOException if the request failed, after reporting it.
+   */
+  @Override public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    final CallState call = new CallState(request, nanoClock.getAsLong());
+
+    final Response response;
+    try {
+      response = chain.proceed(request.newBuilder().tag(CallState.class, call).build());
+    } catch (IOException | RuntimeException e) {
+      final int statusCode = e instanceof CMAHttpException
+          ? ((CMAHttpException) e).responseCode()
+          : call.statusCode;
+      report(call, statusCode, e);
+      throw e;
+    }
+
+    final ResponseBody body = response.body();
+    if (body == null) {
+      report(call, response.code(), null);
+      return response;
+    }
+
+    return response.newBuilder()
+        .body(new CountingBody(body, call, response.code()))
+        .build();
+  }
+
+  private void report(CallState call, int statusCode, Throwable error) {
+    if (!call.reported.compareAndSet(false, true)) {
+      return;
+    }
+
+    listener.onRequest(new RequestMetrics(
+        operation(call.request),
+        call,
+        statusCode,
+        nanoClock.getAsLong() - call.startNanos,
+        error));
+  }
+
+  String operation(Request request) {
+    final Invocation invocation = request.tag(Invocation.class);
+    if (invocation == null) {
+      return OPERATION_UNKNOWN;
+    }
+
+    return operations.computeIfAbsent(invocation.method(), MetricsInterceptor::operation);
+  }
+
+  /*
+   * ServiceEntries.publish becomes entries.publish, matching the accessor of the module.
+   */
+  private static String operation(Method method) {
+    String service = method.getDeclaringClass().getSimpleName();
+    if (service.startsWith(SERVICE_PREFIX) && service.length() > SERVICE_PREFIX.length()) {
+      service = service.substring(SERVICE_PREFIX.length());
+    }
+
+    return Character.toLowerCase(service.charAt(0)) + service.substring(1)
+        + "." + method.getName();
+  }
+
+  /**
+   * What is collected for one call, carried from the first to the last interceptor as a tag.
+   */
+  static final class CallState {
+    final Request request;
+    final long startNanos;
+    final AtomicBoolean reported = new AtomicBoolean();
+
+    volatile int attempts;
+    volatile long bytesSent;
+    volatile long bytesReceived;
+    volatile int statusCode;
+    volatile RateLimits rateLimits;
+
+    CallState(Request request, long startNanos) {
+      this.request = request;
+      this.startNanos = startNanos;
+    }
+  }
+
+  private static final class AttemptInterceptor implements Interceptor {
+    private final RateLimits.Parser parser = new RateLimits.DefaultParser();
+
+    @Override public Response intercept(Chain chain) throws IOException {
+      final Request request = chain.request();
+      final CallState call = request.tag(CallState.class);
+      if (call == null) {
+        return chain.proceed(request);
+      }
+
+      // attempts of one call run one after the other, never concurrently.
+      call.attempts++;
+      final RequestBody body = request.body();
+      if (body != null && body.contentLength() > 0) {
+        call.bytesSent += body.contentLength();
+      }
+
+      final Response response = chain.proceed(request);
+      call.statusCode = response.code();
+      call.rateLimits = parser.parse(response.headers().toMultimap());
+      return response;
+    }
+  }
+
+  /**
+   * Counts the bytes read from the delegate, and reports the call once it is exhausted or closed.
+   */
+  private final class CountingBody extends ResponseBody {
+    private final ResponseBody delegate;
+    private final BufferedSource source;
+
+    CountingBody(ResponseBody delegate, final CallState call, final int statusCode) {
+      this.delegate = delegate;
+      this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+        @Override public long read(Buffer sink, long byteCount) throws IOException {
+          final long read;
+          try {
+            read = super.read(sink, byteCount);
+          } catch (IOException e) {
+            report(call, statusCode, e);
+            throw e;
+          }
+
+          if (read < 0) {
+            report(call, statusCode, null);
+          } else {
+            call.bytesReceived += read;
+          }
+          return read;
+        }
+
+        @Override public void close() throws IOException {
+          report(call, statusCode, null);
+          super.close();
+        }
+      });
+    }
+
+    @Override public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override public long contentLength() {
+      return delegate.contentLength();
+    }
+
+    @Override public BufferedSource source() {
+      return source;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.contentful.java.cma.interceptor;
+
+/**
+ * Interface to get informed about every finished request, in order to export metrics.
+ * <p>
+ * Implementations are called by the threads executing the requests, so they need to be fast and
+ * safe to be used by multiple threads. {@link MetricsRecorder} aggregates the metrics in memory.
+ *
+ * @see MetricsInterceptor
+ */
+public interface MetricsListener {
+  /**
+   * Called once per call, after its response was read or it failed.
+   *
+   * @param metrics what was measured for the call.
+   */
+  void onRequest(RequestMetrics metrics);
+}
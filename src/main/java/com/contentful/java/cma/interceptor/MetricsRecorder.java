@@ -0,0 +1,140 @@
+package com.contentful.java.cma.interceptor;
+
+import com.contentful.java.cma.model.RateLimits;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the metrics of all calls per operation, to be read by an exporter.
+ * <p>
+ * All counters are updated without locks, reading them while calls are reported gives values
+ * which may be slightly apart from each other, but never lost.
+ */
+public class MetricsRecorder implements MetricsListener {
+  private static final int HTTP_BAD_REQUEST = 400;
+
+  private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+  private volatile int secondRemaining = -1;
+  private volatile int hourRemaining = -1;
+
+  /**
+   * Add the metrics of one call to its operation.
+   *
+   * @param metrics what was measured for the call.
+   */
+  @Override public void onRequest(RequestMetrics metrics) {
+    OperationMetrics operation = operations.get(metrics.getOperation());
+    if (operation == null) {
+      operation = operations.computeIfAbsent(metrics.getOperation(), key -> new OperationMetrics());
+    }
+    operation.add(metrics);
+
+    final RateLimits limits = metrics.getRateLimits();
+    if (limits != null && limits.getSecondLimit() > 0) {
+      secondRemaining = limits.getSecondRemaining();
+    }
+    if (limits != null && limits.getHourLimit() > 0) {
+      hourRemaining = limits.getHourRemaining();
+    }
+  }
+
+  /**
+   * @return a live view of all operations called so far, by their name.
+   */
+  public Map<String, OperationMetrics> getOperations() {
+    return Collections.unmodifiableMap(operations);
+  }
+
+  /**
+   * @param operation the name of the operation, like {@code entries.publish}.
+   * @return the metrics of the operation, or null if it was not called yet.
+   */
+  public OperationMetrics getOperation(String operation) {
+    return operations.get(operation);
+  }
+
+  /**
+   * @return the requests left in the current second, as reported by the last response carrying
+   * rate limits, or -1 if none was received.
+   */
+  public int getSecondRemaining() {
+    return secondRemaining;
+  }
+
+  /**
+   * @return the requests left in the current hour, as reported by the last response carrying
+   * rate limits, or -1 if none was received.
+   */
+  public int getHourRemaining() {
+    return hourRemaining;
+  }
+
+  /**
+   * The counters of one operation.
+   */
+  public static class OperationMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    void add(RequestMetrics metrics) {
+      calls.increment();
+      if (metrics.getError() != null || metrics.getStatusCode() >= HTTP_BAD_REQUEST) {
+        errors.increment();
+      }
+      retries.add(metrics.getRetries());
+      bytesSent.add(metrics.getBytesSent());
+      bytesReceived.add(metrics.getBytesReceived());
+      latency.record(metrics.getDurationNanos());
+    }
+
+    /**
+     * @return the number of calls.
+     */
+    public long getCalls() {
+      return calls.sum();
+    }
+
+    /**
+     * @return the number of calls which failed or returned an error status.
+     */
+    public long getErrors() {
+      return errors.sum();
+    }
+
+    /**
+     * @return the number of retries of all calls.
+     */
+    public long getRetries() {
+      return retries.sum();
+    }
+
+    /**
+     * @return the bytes sent by all calls.
+     */
+    public long getBytesSent() {
+      return bytesSent.sum();
+    }
+
+    /**
+     * @return the bytes received by all calls.
+     */
+    public long getBytesReceived() {
+      return bytesReceived.sum();
+    }
+
+    /**
+     * @return the durations of all calls.
+     */
+    public LatencyHistogram getLatency() {
+      return latency;
+    }
+  }
+}
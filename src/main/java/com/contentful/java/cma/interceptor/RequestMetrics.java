@@ -0,0 +1,125 @@
+package com.contentful.java.cma.interceptor;
+
+import com.contentful.java.cma.model.RateLimits;
+
+/**
+ * What was measured for one call, including all of its retries.
+ */
+public class RequestMetrics {
+  private final String operation;
+  private final String method;
+  private final String path;
+  private final int statusCode;
+  private final long durationNanos;
+  private final long bytesSent;
+  private final long bytesReceived;
+  private final int retries;
+  private final RateLimits rateLimits;
+  private final Throwable error;
+
+  RequestMetrics(
+      String operation,
+      MetricsInterceptor.CallState call,
+      int statusCode,
+      long durationNanos,
+      Throwable error) {
+    this.operation = operation;
+    this.method = call.request.method();
+    this.path = call.request.url().encodedPath();
+    this.statusCode = statusCode;
+    this.durationNanos = durationNanos;
+    this.bytesSent = call.bytesSent;
+    this.bytesReceived = call.bytesReceived;
+    this.retries = Math.max(0, call.attempts - 1);
+    this.rateLimits = call.rateLimits;
+    this.error = error;
+  }
+
+  /**
+   * @return the module and method called, like {@code entries.publish}, or
+   * {@value MetricsInterceptor#OPERATION_UNKNOWN} for requests not sent by a module.
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * @return the http method of the request.
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * @return the path of the request url, without its query.
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * @return the status code of the last response, or 0 if none was received.
+   */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * @return the nanoseconds from sending the request until its response was read completely,
+   * including all retries.
+   */
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * @return the bytes of all request bodies sent, not counting bodies of unknown length.
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * @return the bytes of the response body read by the caller.
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * @return how often the request was repeated.
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  /**
+   * @return the rate limits reported with the last response, or null if none was received.
+   */
+  public RateLimits getRateLimits() {
+    return rateLimits;
+  }
+
+  /**
+   * @return the exception the call failed with, or null if it succeeded.
+   */
+  public Throwable getError() {
+    return error;
+  }
+
+  /**
+   * @return a human readable string, representing the object.
+   */
+  @Override public String toString() {
+    return "RequestMetrics { "
+        + "operation = " + getOperation() + ", "
+        + "method = " + getMethod() + ", "
+        + "path = " + getPath() + ", "
+        + "statusCode = " + getStatusCode() + ", "
+        + "durationNanos = " + getDurationNanos() + ", "
+        + "bytesSent = " + getBytesSent() + ", "
+        + "bytesReceived = " + getBytesReceived() + ", "
+        + "retries = " + getRetries() + " "
+        + "}";
+  }
+}
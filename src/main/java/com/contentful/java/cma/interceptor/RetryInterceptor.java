@@ -0,0 +1,292 @@
+package com.contentful.java.cma.interceptor;
+
+import com.contentful.java.cma.model.RateLimits;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Retries requests failing for temporary reasons.
+ * <p>
+ * A response with status 429 is retried once the period given by {@link RateLimits#getReset()}
+ * has passed, since the request was not processed. Server errors (5xx) and failed connections are
+ * retried with jittered exponential backoff, but only for requests which can be repeated safely:
+ * {@code GET}, {@code HEAD} and {@code OPTIONS}, as well as {@code PUT}s carrying an
+ * {@value #HEADER_VERSION} header, which the server will reject once the first attempt succeeded.
+ * <p>
+ * All retries are paid from a budget, which is filled by a fraction of the requests sent. During
+ * an outage the retries stop once the budget is spent, instead of multiplying the load.
+ */
+public class RetryInterceptor implements Interceptor {
+  public static final String HEADER_VERSION = "X-Contentful-Version";
+
+  static final int HTTP_TOO_MANY_REQUESTS = 429;
+  static final int HTTP_SERVER_ERROR = 500;
+  private static final long BUDGET_UNIT = 1000;
+  private static final int MAX_BACKOFF_SHIFT = 30;
+
+  /**
+   * Waits between attempts.
+   */
+  interface Sleeper {
+    void sleep(long millis) throws InterruptedException;
+  }
+
+  private final int maxRetries;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final long maxResetMillis;
+  private final long budgetPerRequest;
+  private final long maxBudget;
+  private final AtomicLong budget;
+  private final RateLimits.Parser parser = new RateLimits.DefaultParser();
+
+  Sleeper sleeper = Thread::sleep;
+
+  RetryInterceptor(Builder builder) {
+    this.maxRetries = builder.maxRetries;
+    this.baseDelayMillis = builder.baseDelayMillis;
+    this.maxDelayMillis = builder.maxDelayMillis;
+    this.maxResetMillis = builder.maxResetMillis;
+    this.budgetPerRequest = (long) (builder.budgetRatio * BUDGET_UNIT);
+    this.maxBudget = builder.budgetCapacity * BUDGET_UNIT;
+    this.budget = new AtomicLong(maxBudget);
+  }
+
+  /**
+   * Send the request, repeating it as long as it failed temporarily and retries are left.
+   *
+   * @param chain the current chain of calls.
+   * @return the first response not to be retried.
+   * @throws IOException            if the last attempt failed.
+   * @throws InterruptedIOException if the thread got interrupted while waiting.
+   */
+  @Override public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    deposit();
+
+    for (int attempt = 0; ; attempt++) {
+      final Response response;
+      try {
+        response = chain.proceed(request);
+      } catch (IOException e) {
+        if (Thread.currentThread().isInterrupted()
+            || attempt >= maxRetries
+            || !isRepeatable(request)
+            || !withdraw()) {
+          throw e;
+        }
+        sleep(backoff(attempt));
+        continue;
+      }
+
+      final long delay = retryDelay(request, response, attempt);
+      if (delay < 0 || !withdraw()) {
+        return response;
+      }
+
+      response.close();
+      sleep(delay);
+    }
+  }
+
+  /**
+   * @return the number of retries currently left in the budget.
+   */
+  public long getRemainingBudget() {
+    return budget.get() / BUDGET_UNIT;
+  }
+
+  /**
+   * Find out how long to wait until the request is sent again.
+   *
+   * @return the delay in milliseconds, or -1 if the response should be returned.
+   */
+  long retryDelay(Request request, Response response, int attempt) {
+    if (attempt >= maxRetries) {
+      return -1;
+    }
+
+    final int code = response.code();
+    if (code == HTTP_TOO_MANY_REQUESTS && !isOneShot(request)) {
+      final int reset = parser.parse(response.headers().toMultimap()).getReset();
+      if (reset <= 0) {
+        return backoff(attempt);
+      }
+
+      final long resetMillis = TimeUnit.SECONDS.toMillis(reset);
+      return resetMillis > maxResetMillis ? -1 : resetMillis;
+    }
+
+    if (code >= HTTP_SERVER_ERROR && isRepeatable(request)) {
+      return backoff(attempt);
+    }
+
+    return -1;
+  }
+
+  /**
+   * @return a random delay up to the exponentially growing maximum of the given attempt.
+   */
+  long backoff(int attempt) {
+    final long exponential = baseDelayMillis << Math.min(attempt, MAX_BACKOFF_SHIFT);
+    final long ceiling = Math.min(maxDelayMillis, exponential);
+    return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+  }
+
+  static boolean isRepeatable(Request request) {
+    if (isOneShot(request)) {
+      return false;
+    }
+
+    switch (request.method()) {
+      case "GET":
+      case "HEAD":
+      case "OPTIONS":
+        return true;
+      case "PUT":
+        return request.header(HEADER_VERSION) != null;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isOneShot(Request request) {
+    final RequestBody body = request.body();
+    return body != null && body.isOneShot();
+  }
+
+  private void deposit() {
+    long current;
+    do {
+      current = budget.get();
+      if (current >= maxBudget) {
+        return;
+      }
+    } while (!budget.compareAndSet(current, Math.min(maxBudget, current + budgetPerRequest)));
+  }
+
+  private boolean withdraw() {
+    long current;
+    do {
+      current = budget.get();
+      if (current < BUDGET_UNIT) {
+        return false;
+      }
+    } while (!budget.compareAndSet(current, current - BUDGET_UNIT));
+    return true;
+  }
+
+  private void sleep(long millis) throws InterruptedIOException {
+    try {
+      sleeper.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for retry.");
+    }
+  }
+
+  /**
+   * Configures a {@link RetryInterceptor}.
+   */
+  public static class Builder {
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_BASE_DELAY_MILLIS = 200;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 10_000;
+    private static final long DEFAULT_MAX_RESET_MILLIS = 60_000;
+    private static final int DEFAULT_BUDGET_CAPACITY = 10;
+    private static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+    int maxRetries = DEFAULT_MAX_RETRIES;
+    long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+    long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    long maxResetMillis = DEFAULT_MAX_RESET_MILLIS;
+    int budgetCapacity = DEFAULT_BUDGET_CAPACITY;
+    double budgetRatio = DEFAULT_BUDGET_RATIO;
+
+    /**
+     * @param maxRetries how often one request is repeated at most. Defaults to 3.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if maxRetries is negative.
+     */
+    public Builder setMaxRetries(int maxRetries) {
+      if (maxRetries < 0) {
+        throw new IllegalArgumentException("maxRetries cannot be negative.");
+      }
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * Set the delays of the exponential backoff.
+     * <p>
+     * The n-th retry waits between half and all of {@code base * 2^n}, never longer than max.
+     *
+     * @param base the delay of the first retry. Defaults to 200ms.
+     * @param max  the longest delay. Defaults to 10s.
+     * @param unit the unit of both delays.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if base is shorter than a millisecond or larger than max.
+     */
+    public Builder setBackoff(long base, long max, TimeUnit unit) {
+      final long baseMillis = unit.toMillis(base);
+      if (baseMillis < 1 || base > max) {
+        throw new IllegalArgumentException(
+            "base needs to be at least 1ms and not larger than max.");
+      }
+      this.baseDelayMillis = baseMillis;
+      this.maxDelayMillis = unit.toMillis(max);
+      return this;
+    }
+
+    /**
+     * @param max  the longest reset to wait for after a 429, longer ones are not retried.
+     *             Defaults to one minute.
+     * @param unit the unit of max.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if max is negative.
+     */
+    public Builder setMaxRateLimitReset(long max, TimeUnit unit) {
+      if (max < 0) {
+        throw new IllegalArgumentException("max cannot be negative.");
+      }
+      this.maxResetMillis = unit.toMillis(max);
+      return this;
+    }
+
+    /**
+     * Set the retry budget.
+     * <p>
+     * Every request adds {@code ratio} retries to the budget, every retry takes one. The budget
+     * starts full. Defaults to 10 retries, refilled by 10% of all requests.
+     *
+     * @param capacity the number of retries the budget holds at most.
+     * @param ratio    the fraction of requests which can be retried.
+     * @return this builder for chaining.
+     * @throws IllegalArgumentException if capacity or ratio is negative.
+     */
+    public Builder setBudget(int capacity, double ratio) {
+      if (capacity < 0 || ratio < 0) {
+        throw new IllegalArgumentException("Budget cannot be negative.");
+      }
+      this.budgetCapacity = capacity;
+      this.budgetRatio = ratio;
+      return this;
+    }
+
+    /**
+     * @return a new interceptor using this configuration.
+     */
+    public RetryInterceptor build() {
+      return new RetryInterceptor(this);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package com.contentful.java.cma.model;
+
+/**
+ * Failure of one resource of a bulk action.
+ */
+public class CMABulkActionException extends RuntimeException {
+  private static final long serialVersionUID = -3790146468930465391L;
+
+  private final transient CMABulkAction bulkAction;
+  private final transient CMAError error;
+
+  /**
+   * Create a failure of one resource.
+   *
+   * @param bulkAction the failed bulk action.
+   * @param error      the error of the resource, or of the whole action if none was reported for
+   *                   the resource.
+   */
+  public CMABulkActionException(CMABulkAction bulkAction, CMAError error) {
+    super(describe(error));
+    this.bulkAction = bulkAction;
+    this.error = error;
+  }
+
+  /**
+   * @return the failed bulk action.
+   */
+  public CMABulkAction getBulkAction() {
+    return bulkAction;
+  }
+
+  /**
+   * @return the error reported, null if the server did not send one.
+   */
+  public CMAError getError() {
+    return error;
+  }
+
+  private static String describe(CMAError error) {
+    if (error == null) {
+      return "Bulk action failed.";
+    }
+    return error.getMessage() == null ? error.getId() : error.getId() + ": " + error.getMessage();
+  }
+}
@@ -0,0 +1,28 @@
+package com.contentful.java.cma.model;
+
+/**
+ * Failure of an environment to become ready, after it was created or cloned.
+ */
+public class CMAEnvironmentException extends RuntimeException {
+  private static final long serialVersionUID = 6412085384412393120L;
+
+  private final transient CMAEnvironment environment;
+
+  /**
+   * Create a failure of an environment.
+   *
+   * @param environment the environment as last fetched, reporting
+   *                    {@link CMAEnvironmentStatus#Failed}.
+   */
+  public CMAEnvironmentException(CMAEnvironment environment) {
+    super("Environment '" + environment.getId() + "' failed to become ready.");
+    this.environment = environment;
+  }
+
+  /**
+   * @return the failed environment.
+   */
+  public CMAEnvironment getEnvironment() {
+    return environment;
+  }
+}
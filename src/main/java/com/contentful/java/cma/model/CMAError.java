@@ -1,7 +1,74 @@
 package com.contentful.java.cma.model;
 
+import java.util.List;
+
+/**
+ * Error reported inside of a resource, like a failed {@link CMABulkAction}.
+ */
 public class CMAError extends CMAResource {
+  String message;
+  Details details;
+
   public CMAError() {
     super(CMAType.Error);
   }
-}
\ No newline at end of file
+
+  /**
+   * @return a human readable description of this error, or null if none was sent.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * @return the details of this error, or null if none were sent.
+   */
+  public Details getDetails() {
+    return details;
+  }
+
+  /**
+   * @return a human readable string, representing the object.
+   */
+  @Override public String toString() {
+    return "CMAError { " + super.toString() + " "
+        + "message = " + getMessage() + " "
+        + "}";
+  }
+
+  /**
+   * Details of an error, listing the errors of single entities.
+   */
+  public static class Details {
+    List<EntityError> errors;
+
+    /**
+     * @return the errors of single entities, or null if none were sent.
+     */
+    public List<EntityError> getErrors() {
+      return errors;
+    }
+  }
+
+  /**
+   * Error of one entity of a bulk action.
+   */
+  public static class EntityError {
+    CMAError error;
+    CMALink entity;
+
+    /**
+     * @return what went wrong.
+     */
+    public CMAError getError() {
+      return error;
+    }
+
+    /**
+     * @return the link to the failing entity.
+     */
+    public CMALink getEntity() {
+      return entity;
+    }
+  }
+}
@@ -223,23 +223,31 @@ public class RichTextFactory {
         final String fieldId = field.getKey();
         for (final String locale : field.getValue().keySet()) {
           final Object value = field.getValue().get(locale);
-          if (value instanceof Map && ((Map) value).containsKey("nodeType")) {
-            String nodeType = (String) ((Map) value).get("nodeType");
-            entry.setField(
-                fieldId,
-                locale,
-                RESOLVER_MAP
-                    .getOrDefault(nodeType, RESOLVER_MAP.get("document"))
-                    .resolve(
-                        (Map<String, Object>) value
-                    )
-            );
+          final Object resolved = resolveRichTextValue(value);
+          if (resolved != value) {
+            entry.setField(fieldId, locale, resolved);
           }
         }
       }
     }
   }
 
+  /**
+   * Resolve one localized field value.
+   *
+   * @param value the raw value, as parsed from the json response.
+   * @return the {@link CMARichNode} if the value represents rich text, the value otherwise.
+   */
+  public static Object resolveRichTextValue(Object value) {
+    if (value instanceof Map && ((Map) value).containsKey("nodeType")) {
+      final String nodeType = (String) ((Map) value).get("nodeType");
+      return RESOLVER_MAP
+          .getOrDefault(nodeType, RESOLVER_MAP.get("document"))
+          .resolve((Map<String, Object>) value);
+    }
+    return value;
+  }
+
   /**
    * Specific method for resolving rich text marks.
    *
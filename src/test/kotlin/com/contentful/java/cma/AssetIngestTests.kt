@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMAAsset
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class AssetIngestTests {
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private lateinit var file: Path
+    private val polls = ConcurrentHashMap<String, AtomicInteger>()
+    private val created = AtomicInteger()
+    private var pollsUntilProcessed = 2
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+
+        file = Files.createTempFile("ingest", ".png")
+        Files.write(file, ByteArray(64) { it.toByte() })
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        Files.deleteIfExists(file)
+    }
+
+    @test
+    fun testIngestUploadsCreatesProcessesAndPublishes() {
+        val items = (0 until 3).map {
+            AssetIngest.Item(CMAAsset().apply { fields.setTitle("en-US", "asset $it") })
+                    .addFile("en-US", file, "image/png")
+                    .addFile("de-DE", file, "image/png")
+        }
+
+        val results = AssetIngest.Builder()
+                .setConcurrency(2)
+                .setPollInterval(1, 4, TimeUnit.MILLISECONDS)
+                .build(client)
+                .ingest("spaceid", "master", items)
+                .toList()
+                .blockingGet()
+
+        assertEquals(listOf(0, 1, 2), results.map { it.index }.sorted())
+        results.forEach {
+            assertTrue(it.isSuccessful, "failed with ${it.error}")
+            assertTrue(it.result.isPublished)
+            assertEquals("upload_id", it.item.fields.getFile("de-DE").uploadFrom.id)
+        }
+        assertEquals(3, created.get())
+        polls.values.forEach { assertEquals(pollsUntilProcessed, it.get()) }
+    }
+
+    @test
+    fun testIngestReportsProcessingTimeout() {
+        pollsUntilProcessed = Int.MAX_VALUE
+        val item = AssetIngest.Item(CMAAsset()).addFile("en-US", file, "image/png")
+
+        val result = AssetIngest.Builder()
+                .setPublish(false)
+                .setPollInterval(1, 4, TimeUnit.MILLISECONDS)
+                .setProcessingTimeout(50, TimeUnit.MILLISECONDS)
+                .build(client)
+                .ingest("spaceid", "master", listOf(item))
+                .blockingSingle()
+
+        assertTrue(result.error is TimeoutException)
+    }
+
+    @test
+    fun testPollDelayBacksOff() {
+        val ingest = AssetIngest.Builder()
+                .setPollInterval(100, 1000, TimeUnit.MILLISECONDS)
+                .build(client)
+
+        assertEquals(listOf(100L, 200L, 400L, 800L, 1000L, 1000L),
+                (0 until 6).map { ingest.pollDelay(it) })
+        assertEquals(1000L, ingest.pollDelay(Int.MAX_VALUE))
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testSubMillisecondProcessingTimeoutThrows() {
+        AssetIngest.Builder().setProcessingTimeout(500, TimeUnit.MICROSECONDS)
+    }
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val path = request.path!!
+        val assets = "/spaces/spaceid/environments/master/assets"
+        return when {
+            path.endsWith("/uploads") -> MockResponse()
+                    .setResponseCode(201)
+                    .setBody(TestUtils.fileToString("upload_post_response.json"))
+            request.method == "POST" && path == assets -> {
+                val id = "asset${created.incrementAndGet()}"
+                polls[id] = AtomicInteger()
+                MockResponse().setResponseCode(201).setBody(asset(id, 1, false, false))
+            }
+            path.endsWith("/process") -> MockResponse().setResponseCode(204)
+            path.endsWith("/published") -> {
+                val id = path.removePrefix("$assets/").removeSuffix("/published")
+                MockResponse().setBody(asset(id, 3, true, true))
+            }
+            request.method == "GET" -> {
+                val id = path.removePrefix("$assets/")
+                val processed = polls[id]!!.incrementAndGet() >= pollsUntilProcessed
+                MockResponse().setBody(asset(id, 2, processed, false))
+            }
+            else -> MockResponse().setResponseCode(404)
+        }
+    }
+
+    private fun asset(id: String, version: Int, processed: Boolean, published: Boolean): String {
+        val url = if (processed) """, "url": "//images.example.com/$id.png"""" else ""
+        val file = """{"fileName": "a.png", "contentType": "image/png"$url}"""
+        val publishedVersion = if (published) """, "publishedVersion": $version""" else ""
+        return """
+            {
+              "fields": {"file": {"en-US": $file, "de-DE": $file}},
+              "sys": {
+                "id": "$id",
+                "type": "Asset",
+                "version": $version$publishedVersion,
+                "space": ${FakeServer.link("Space", "spaceid")},
+                "environment": ${FakeServer.link("Environment", "master")}
+              }
+            }
+            """.trimIndent()
+    }
+}
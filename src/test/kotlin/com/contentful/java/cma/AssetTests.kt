@@ -662,4 +662,51 @@ class AssetTests {
             throw e
         }
     }
-}
\ No newline at end of file
+
+    @test
+    fun testBatchPublishAll() {
+        val responseBody = TestUtils.fileToString("asset_publish_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val assets = listOf("a", "b").map {
+            CMAAsset().setId(it).setSpaceId("spaceid").setVersion(1)
+        }
+
+        val results = client!!.assets().batch(1).publishAll(assets).toList().blockingGet()
+
+        assertEquals(listOf(0, 1), results.map { it.index })
+        assertTrue(results.all { it.isSuccessful && it.result.isPublished })
+
+        // Request
+        assertEquals("/spaces/spaceid/environments/master/assets/a/published",
+                server!!.takeRequest().path)
+        assertEquals("/spaces/spaceid/environments/master/assets/b/published",
+                server!!.takeRequest().path)
+    }
+
+    @test
+    fun testRxProcess() {
+        server!!.enqueue(MockResponse().setResponseCode(204))
+
+        val asset = CMAAsset()
+                .setId("assetid")
+                .setSpaceId("spaceid")
+
+        val code = client!!.assets().rx().process(asset, "locale").blockingGet()
+
+        assertEquals(204, code)
+        assertEquals(
+                "/spaces/spaceid/environments/master/assets/assetid/files/locale/process",
+                server!!.takeRequest().path)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testRxProcessWithoutLocaleThrows() {
+        val asset = CMAAsset()
+                .setId("assetid")
+                .setSpaceId("spaceid")
+
+        client!!.assets().rx().process(asset, null)
+    }
+}
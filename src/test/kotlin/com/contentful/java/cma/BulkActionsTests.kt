@@ -17,17 +17,27 @@
 package com.contentful.java.cma;
 import com.contentful.java.cma.lib.TestCallback
 import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMABulkActionException
+import com.contentful.java.cma.model.CMABulkStatus
 import com.contentful.java.cma.model.CMAEntities
+import com.contentful.java.cma.model.CMAEntry
 import com.contentful.java.cma.model.CMAPayload
 import com.google.gson.Gson
+import okhttp3.mockwebserver.Dispatcher
 import okhttp3.mockwebserver.MockResponse
 import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
 import org.junit.After
 import org.junit.Before
 import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.logging.LogManager
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
 
 class BulkActionsTests {
     private lateinit var server: MockWebServer
@@ -136,4 +146,123 @@ class BulkActionsTests {
         assertEquals("POST", recordedRequest.method)
         assertEquals("/spaces/configuredSpaceId/environments/configuredEnvironmentId/bulk_actions/validate", recordedRequest.path)
     }
+
+    @Test
+    fun testBulkPublisherChunksAndTracksActions() {
+        val payloads = Collections.synchronizedList(mutableListOf<String>())
+        val polls = ConcurrentHashMap<String, AtomicInteger>()
+        val created = AtomicInteger()
+
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                val path = request.path!!
+                if (request.method == "POST") {
+                    val body = request.body.readUtf8()
+                    payloads.add(body)
+                    val id = "action${created.incrementAndGet()}"
+                    polls[id] = AtomicInteger()
+                    val failing = if (body.contains("\"e3\"")) "e3" else null
+                    return MockResponse().setBody(bulkAction(id, "created", null))
+                            .also { if (failing != null) failingActions.add(id) }
+                }
+                val id = path.substringAfterLast("/")
+                val status = when {
+                    polls[id]!!.incrementAndGet() < 2 -> "inProgress"
+                    failingActions.contains(id) -> "failed"
+                    else -> "succeeded"
+                }
+                val error = if (status == "failed") "e3" else null
+                return MockResponse().setBody(bulkAction(id, status, error))
+            }
+        }
+
+        val entries = (0 until 5).map { CMAEntry().setId("e$it").setVersion(it + 1) }
+        val results = BulkPublisher.Builder()
+                .setChunkSize(2)
+                .setConcurrency(2)
+                .setPollInterval(1, 4, TimeUnit.MILLISECONDS)
+                .setTimeout(10, TimeUnit.SECONDS)
+                .build(client)
+                .publish("spaceid", "master", entries)
+                .toList()
+                .blockingGet()
+                .sortedBy { it.index }
+
+        assertEquals(3, payloads.size)
+        assertTrue(payloads.any {
+            it.contains("\"linkType\":\"Entry\"") && it.contains("\"version\":5")
+        })
+
+        assertEquals((0 until 5).toList(), results.map { it.index })
+        assertEquals(listOf(true, true, false, false, true), results.map { it.isSuccessful })
+
+        val entityError = results[3].error as CMABulkActionException
+        assertEquals("NotFound", entityError.error.id)
+        val actionError = results[2].error as CMABulkActionException
+        assertEquals("BulkActionFailed", actionError.error.id)
+        assertEquals(CMABulkStatus.FAILED, actionError.bulkAction.system.bulkActionStatus)
+    }
+
+    @Test
+    fun testBulkPublisherFailsUnlinkableResourcesOnTheirOwn() {
+        val payloads = Collections.synchronizedList(mutableListOf<String>())
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                payloads.add(request.body.readUtf8())
+                return MockResponse().setBody(bulkAction("action", "succeeded", null))
+            }
+        }
+
+        val entries = listOf(CMAEntry().setId("e0"), CMAEntry(), null, CMAEntry().setId("e3"))
+        val results = BulkPublisher.Builder()
+                .setChunkSize(2)
+                .build(client)
+                .publish("spaceid", "master", entries)
+                .toList()
+                .blockingGet()
+                .sortedBy { it.index }
+
+        assertEquals(listOf(true, false, false, true), results.map { it.isSuccessful })
+        assertTrue(results[1].error is IllegalArgumentException)
+        assertTrue(results[2].error is IllegalArgumentException)
+        assertEquals(2, payloads.size)
+        assertTrue(payloads.none { it.contains("null") })
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testBulkPublisherRejectsOversizedChunks() {
+        BulkPublisher.Builder().setChunkSize(BulkPublisher.MAX_CHUNK_SIZE + 1)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testBulkPublisherRejectsSubMillisecondPolls() {
+        BulkPublisher.Builder().setPollInterval(500, 1000, TimeUnit.MICROSECONDS)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testBulkPublisherRejectsSubMillisecondTimeout() {
+        BulkPublisher.Builder().setTimeout(500, TimeUnit.MICROSECONDS)
+    }
+
+    private val failingActions = Collections.synchronizedSet(mutableSetOf<String>())
+
+    private fun bulkAction(id: String, status: String, failedEntity: String?): String {
+        val error = if (failedEntity == null) "" else """,
+            "error": {
+              "sys": {"type": "Error", "id": "BulkActionFailed"},
+              "message": "Not all entities could be published.",
+              "details": {
+                "errors": [{
+                  "error": {"sys": {"type": "Error", "id": "NotFound"}, "message": "missing"},
+                  "entity": {"sys": {"type": "Link", "linkType": "Entry", "id": "$failedEntity"}}
+                }]
+              }
+            }"""
+        return """
+            {
+              "sys": {"id": "$id", "type": "BulkAction", "status": "$status"},
+              "action": "publish"$error
+            }
+            """.trimIndent()
+    }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.contentful.java.cma.interceptor.AuthorizationHeaderInterceptor
 import com.contentful.java.cma.lib.TestCallback
 import com.contentful.java.cma.lib.TestUtils
 import com.contentful.java.cma.model.CMAArray
+import com.contentful.java.cma.model.CMAHttpException
 import com.contentful.java.cma.model.CMASpace
 import com.contentful.java.cma.model.CMAUpload
 import com.google.gson.Gson
@@ -31,7 +32,10 @@ import org.junit.After
 import org.junit.Before
 import java.io.IOException
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.logging.LogManager
 import kotlin.test.*
 import org.junit.Test as test
@@ -403,4 +407,119 @@ class ClientTests{
 
         assertNull(cb.error)
     }
+
+    @test
+    fun testFutureRunsOnAsyncExecutor() {
+        val responseBody = TestUtils.fileToString("space_fetch_one_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val executor = Executors.newSingleThreadExecutor { Thread(it, "cma-async") }
+        try {
+            val client = CMAClient.Builder()
+                    .setAccessToken("token")
+                    .setCoreEndpoint(server!!.url("/").toString())
+                    .setAsyncExecutor(executor)
+                    .build()
+
+            val (thread, space) = client
+                    .future { Thread.currentThread().name to it.spaces().fetchOne("spaceid") }
+                    .get(5, TimeUnit.SECONDS)
+
+            assertEquals("cma-async", thread)
+            assertEquals("id1", space.id)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @test
+    fun testFutureCompletesExceptionallyOnHttpError() {
+        server!!.enqueue(MockResponse().setResponseCode(404).setBody("{}"))
+
+        val future = client!!.future { it.spaces().fetchOne("spaceid") }
+
+        try {
+            future.get(5, TimeUnit.SECONDS)
+            fail("Expected an exception.")
+        } catch (e: ExecutionException) {
+            assertTrue(e.cause is CMAHttpException)
+        }
+    }
+
+    @test
+    fun testAsyncModulesUseAsyncExecutor() {
+        val responseBody = TestUtils.fileToString("space_fetch_one_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val executed = AtomicInteger()
+        val client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server!!.url("/").toString())
+                .setAsyncExecutor { executed.incrementAndGet(); Thread(it).start() }
+                .setCallbackExecutor { it.run() }
+                .build()
+
+        val cb = TestCallback<CMASpace>()
+        client.spaces().async().fetchOne("spaceid", cb)
+        cb.await()
+
+        assertNull(cb.error)
+        assertEquals("id1", cb.value!!.id)
+        assertEquals(1, executed.get())
+    }
+
+    @test
+    fun testIterateLoadsPagesOnAsyncExecutor() {
+        server!!.enqueue(MockResponse().setResponseCode(200)
+                .setBody(TestUtils.fileToString("entry_iterate_page_1.json")))
+        server!!.enqueue(MockResponse().setResponseCode(200)
+                .setBody(TestUtils.fileToString("entry_iterate_page_2.json")))
+
+        val executed = AtomicInteger()
+        val client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server!!.url("/").toString())
+                .setAsyncExecutor { executed.incrementAndGet(); Thread(it).start() }
+                .build()
+
+        val ids = client.entries()
+                .iterate("spaceid", "master", hashMapOf("limit" to "2"))
+                .map { it.id }
+
+        assertEquals(listOf("entry1", "entry2", "entry3"), ids)
+        assertEquals(2, executed.get())
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun failsSetNullAsyncExecutor() {
+        CMAClient.Builder().setAsyncExecutor(null)
+    }
+
+    @test
+    fun testModulesAreCreatedOnFirstUse() {
+        val calls = AtomicInteger()
+        val module = LazyModule {
+            calls.incrementAndGet()
+            client!!.spaces()
+        }
+
+        assertFalse(module.isCreated)
+
+        val pool = Executors.newFixedThreadPool(8)
+        val start = CountDownLatch(1)
+        val results = (0 until 8).map { pool.submit<ModuleSpaces> { start.await(); module.get() } }
+        start.countDown()
+        val modules = results.map { it.get(5, TimeUnit.SECONDS) }
+        pool.shutdown()
+
+        assertTrue(module.isCreated)
+        assertEquals(1, calls.get())
+        modules.forEach { assertSame(modules[0], it) }
+    }
+
+    @test
+    fun testModuleAccessorsReturnSameInstance() {
+        assertSame(client!!.entries(), client!!.entries())
+        assertSame(client!!.uploads(), client!!.uploads())
+    }
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.model.CMAEntry
+import com.contentful.java.cma.model.CMALink
+import com.contentful.java.cma.model.CMAType
+import com.contentful.java.cma.model.rich.CMARichDocument
+import com.contentful.java.cma.model.rich.CMARichEmbeddedLink
+import com.contentful.java.cma.model.rich.CMARichHyperLink
+import com.contentful.java.cma.model.rich.CMARichParagraph
+import com.contentful.java.cma.model.rich.CMARichText
+import com.google.gson.JsonParser
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class EntryDiffTests {
+    private lateinit var server: MockWebServer
+    private val gson = CMAClient.createGson()
+
+    @Before fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test fun testEqualEntriesGiveEmptyPatch() {
+        val entry = entry("""{"title": {"en-US": "a", "de-DE": "b"}}""")
+
+        assertTrue(EntryDiff.diff(entry, entry("""{"title": {"de-DE": "b", "en-US": "a"}}""")).isEmpty)
+    }
+
+    @Test fun testLocalesAndFields() {
+        val from = entry("""{
+            "title": {"en-US": "old", "de-DE": "alt"},
+            "removed": {"en-US": 1}
+        }""")
+        val to = entry("""{
+            "title": {"en-US": "new", "fr-FR": "nouveau"},
+            "added": {"en-US": true}
+        }""")
+
+        assertEquals(
+                """[
+                    {"op": "remove", "path": "/fields/removed"},
+                    {"op": "remove", "path": "/fields/title/de-DE"},
+                    {"op": "replace", "path": "/fields/title/en-US", "value": "new"},
+                    {"op": "add", "path": "/fields/title/fr-FR", "value": "nouveau"},
+                    {"op": "add", "path": "/fields/added", "value": {"en-US": true}}
+                ]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from, to).operations))
+    }
+
+    @Test fun testRichTextChangesOnlyTheChangedNode() {
+        val paragraphs = (1..20).joinToString(",") { paragraph("paragraph $it") }
+        val changed = paragraphs.replace(paragraph("paragraph 7"), paragraph("changed"))
+        val from = entry("""{"body": {"en-US": {"nodeType": "document", "content": [$paragraphs]}}}""")
+        val to = entry("""{"body": {"en-US": {"nodeType": "document", "content": [$changed]}}}""")
+
+        val operations = EntryDiff.diff(from, to).operations
+
+        assertEquals(1, operations.size)
+        assertEquals("replace", operations[0]["op"])
+        assertEquals("/fields/body/en-US/content/6/content/0/value", operations[0]["path"])
+        assertEquals("changed", gson.toJsonTree(operations[0]["value"]).asString)
+    }
+
+    @Test fun testLinkedResourcesAreComparedAsLinks() {
+        val from = entry("""{"author": {"en-US": ${link("Entry", "e1")}}}""")
+        val embedded = CMAEntry().setId("e1").setField("name", "en-US", "embedded")
+
+        assertTrue(EntryDiff.diff(from, entry("""{"author": {"en-US": ${link("Entry", "e1")}}}""")
+                .setField("author", "en-US", embedded)).isEmpty)
+        assertEquals(
+                """[{"op": "replace", "path": "/fields/author/en-US/sys/id", "value": "e2"}]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from, entry("{}")
+                        .setField("author", "en-US", embedded.setId("e2"))).operations))
+    }
+
+    @Test fun testRichTextLinksAreComparedAsSent() {
+        val from = entry("""{"body": {"en-US": {"nodeType": "document", "content": [
+            {"nodeType": "paragraph", "content": [{
+                "nodeType": "hyperlink",
+                "data": {"uri": "https://example.com/a"},
+                "content": [{"nodeType": "text", "value": "link", "marks": []}]
+            }]},
+            {"nodeType": "embedded-entry-block", "data": {"target": ${link("Entry", "e1")}},
+                "content": []}
+        ]}}}""")
+
+        fun document(uri: String) = CMARichDocument().addContent(
+                CMARichParagraph().addContent(CMARichHyperLink(uri).addContent(CMARichText("link"))),
+                CMARichEmbeddedLink(CMALink(CMAType.Entry).setId("e1")))
+
+        assertTrue(EntryDiff.diff(from, entry("{}")
+                .setField("body", "en-US", document("https://example.com/a"))).isEmpty)
+        assertEquals(
+                """[{
+                    "op": "replace",
+                    "path": "/fields/body/en-US/content/0/content/0/data/uri",
+                    "value": "https://example.com/b"
+                }]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from, entry("{}")
+                        .setField("body", "en-US", document("https://example.com/b"))).operations))
+    }
+
+    @Test fun testArrayInsertionsAndRemovals() {
+        val long = "x".repeat(100)
+        val from = entry("""{"tags": {"en-US": ["$long-a", "b", "c", "$long-d"]}}""")
+
+        assertEquals(
+                """[{"op": "add", "path": "/fields/tags/en-US/2", "value": "x"}]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from, entry(
+                        """{"tags": {"en-US": ["$long-a", "b", "x", "c", "$long-d"]}}""")
+                ).operations))
+        assertEquals(
+                """[
+                    {"op": "remove", "path": "/fields/tags/en-US/1"},
+                    {"op": "remove", "path": "/fields/tags/en-US/1"}
+                ]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from, entry(
+                        """{"tags": {"en-US": ["$long-a", "$long-d"]}}""")).operations))
+        assertEquals(
+                """[{"op": "replace", "path": "/fields/tags/en-US", "value": ["d", "c"]}]""".json(),
+                gson.toJsonTree(EntryDiff.diff(from,
+                        entry("""{"tags": {"en-US": ["d", "c"]}}""")).operations))
+    }
+
+    @Test fun testSmallValuesAreReplacedAsWhole() {
+        val patch = EntryDiff.diff(
+                entry("""{"tags": {"en-US": ["a", "b", "c", "d"]}}"""),
+                entry("""{"tags": {"en-US": ["a", "d"]}}"""))
+
+        assertEquals(
+                """[{"op": "replace", "path": "/fields/tags/en-US", "value": ["a", "d"]}]""".json(),
+                gson.toJsonTree(patch.operations))
+    }
+
+    @Test fun testPointersAreEscaped() {
+        assertEquals("/fields/a~1b/en~0US", JsonPatch.fieldPath("a/b", "en~US"))
+
+        val patch = EntryDiff.diff(
+                entry("""{"x": {"en-US": {"a/b": 1, "long": "${"x".repeat(100)}"}}}"""),
+                entry("""{"x": {"en-US": {"a/b": 2, "long": "${"x".repeat(100)}", "c": 3}}}"""))
+
+        assertEquals(
+                listOf("/fields/x/en-US/a~1b", "/fields/x/en-US/c"),
+                patch.operations.map { it["path"] })
+    }
+
+    @Test fun testPatchChangesSendsDifference() {
+        server.enqueue(MockResponse().setBody(
+                """{"sys": {"id": "entryid", "type": "Entry", "version": 2}}"""))
+        val original = entry("""{"title": {"en-US": "old"}, "body": {"en-US": "unchanged"}}""")
+        val changed = entry("""{"title": {"en-US": "old"}, "body": {"en-US": "unchanged"}}""")
+                .setField("title", "en-US", "new")
+
+        val result = client().entries().patchChanges(original, changed)
+
+        assertEquals(2, result.system.version)
+        val request = server.takeRequest()
+        assertEquals("PATCH", request.method)
+        assertEquals("/spaces/spaceid/environments/master/entries/entryid", request.path)
+        assertEquals("1", request.getHeader("X-Contentful-Version"))
+        assertEquals(
+                """[{"op": "replace", "path": "/fields/title/en-US", "value": "new"}]""".json(),
+                JsonParser.parseString(request.body.readUtf8()))
+    }
+
+    @Test fun testPatchChangesWithoutChangesSendsNothing() {
+        val original = entry("""{"title": {"en-US": "same"}}""")
+        val changed = entry("""{"title": {"en-US": "same"}}""")
+
+        assertSame(changed, client().entries().patchChanges(original, changed))
+        assertEquals(0, server.requestCount)
+    }
+
+    @Test fun testPatchWithJsonPatch() {
+        server.enqueue(MockResponse().setBody("""{"sys": {"id": "entryid", "type": "Entry"}}"""))
+
+        client().entries().patch(entry("{}"), JsonPatch()
+                .setField("title", "en-US", "value")
+                .removeField("title", "de-DE")
+                .move("/fields/a", "/fields/b"))
+
+        assertEquals(
+                """[
+                    {"op": "add", "path": "/fields/title/en-US", "value": "value"},
+                    {"op": "remove", "path": "/fields/title/de-DE"},
+                    {"op": "move", "from": "/fields/a", "path": "/fields/b"}
+                ]""".json(),
+                JsonParser.parseString(server.takeRequest().body.readUtf8()))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testDiffWithNullThrows() {
+        EntryDiff.diff(entry("{}"), null)
+    }
+
+    private fun client() = CMAClient.Builder()
+            .setAccessToken("token")
+            .setCoreEndpoint(server.url("/").toString())
+            .build()
+
+    private fun entry(fields: String): CMAEntry = gson.fromJson("""{
+        "sys": {
+            "id": "entryid",
+            "type": "Entry",
+            "version": 1,
+            "space": {"sys": {"type": "Link", "linkType": "Space", "id": "spaceid"}},
+            "environment": {"sys": {"type": "Link", "linkType": "Environment", "id": "master"}}
+        },
+        "fields": $fields
+    }""", CMAEntry::class.java)
+
+    private fun link(type: String, id: String) =
+            """{"sys": {"type": "Link", "linkType": "$type", "id": "$id"}}"""
+
+    private fun paragraph(text: String) = """{
+        "nodeType": "paragraph",
+        "content": [{"nodeType": "text", "value": "$text", "marks": []}]
+    }"""
+
+    private fun String.json() = JsonParser.parseString(this)
+}
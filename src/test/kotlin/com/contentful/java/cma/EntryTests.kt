@@ -19,19 +19,25 @@ package com.contentful.java.cma
 import com.contentful.java.cma.lib.ModuleTestUtils
 import com.contentful.java.cma.lib.TestCallback
 import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMAArray
 import com.contentful.java.cma.model.CMAEntry
 import com.contentful.java.cma.model.CMAHttpException
 import com.contentful.java.cma.model.CMAMetadata
+import com.contentful.java.cma.model.CMAPages
 import com.contentful.java.cma.model.CMATag
 import com.contentful.java.cma.model.CMAType
 import com.google.gson.Gson
 import okhttp3.HttpUrl
+import okhttp3.mockwebserver.Dispatcher
 import okhttp3.mockwebserver.MockResponse
 import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
 import org.junit.After
 import org.junit.Before
 import java.io.IOException
 import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.logging.LogManager
 import kotlin.test.*
 import org.junit.Test as test
@@ -776,4 +782,192 @@ class EntryTests {
                 .setSpaceId("spaceid"),
             null)
     }
-}
\ No newline at end of file
+
+    @test
+    fun testIterateFollowsSkipAndTotal() {
+        server!!.enqueue(MockResponse().setResponseCode(200)
+            .setBody(TestUtils.fileToString("entry_iterate_page_1.json")))
+        server!!.enqueue(MockResponse().setResponseCode(200)
+            .setBody(TestUtils.fileToString("entry_iterate_page_2.json")))
+
+        val ids = client!!.entries()
+            .iterate("spaceid", "master", hashMapOf("limit" to "2"))
+            .map { it.id }
+
+        assertEquals(listOf("entry1", "entry2", "entry3"), ids)
+        assertEquals(2, server!!.requestCount)
+
+        val first = server!!.takeRequest()
+        assertEquals("/spaces/spaceid/environments/master/entries?limit=2", first.path)
+        val second = server!!.takeRequest()
+        assertEquals("2", second.requestUrl!!.queryParameter("skip"))
+        assertEquals("2", second.requestUrl!!.queryParameter("limit"))
+    }
+
+    @test
+    fun testIterateFollowsCursor() {
+        val page = CMAArray<CMAEntry>()
+        page.pages = CMAPages()
+        page.pages.next = "/organizations/org/taxonomy/concepts?pageNext=cursor&limit=2"
+
+        val next = PagedIterable.nextQuery(hashMapOf("limit" to "2"), page)
+        assertNull(next)
+
+        val withItems = gson!!.fromJson(
+            TestUtils.fileToString("entry_iterate_page_1.json"),
+            CMAArray::class.java)
+        withItems.pages = page.pages
+
+        val cursorQuery = PagedIterable.nextQuery(hashMapOf("limit" to "2"), withItems)!!
+        assertEquals("cursor", cursorQuery["pageNext"])
+        assertEquals("2", cursorQuery["limit"])
+        assertNull(cursorQuery["skip"])
+    }
+
+    @test
+    fun testBatchCreateAllReportsEveryEntry() {
+        val responseBody = TestUtils.fileToString("entry_create_response.json")
+        val inFlight = AtomicInteger()
+        val maxInFlight = AtomicInteger()
+        server!!.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max)
+                Thread.sleep(50)
+                inFlight.decrementAndGet()
+                return if (request.path!!.endsWith("/entry3")) {
+                    MockResponse().setResponseCode(422).setBody("{}")
+                } else {
+                    MockResponse().setResponseCode(200).setBody(responseBody)
+                }
+            }
+        }
+
+        val entries = (0 until 8).map {
+            CMAEntry().setId("entry$it").setField("fid1", "en-US", "value$it")
+        }
+
+        val results = client!!.entries().batch(3)
+                .createAll("spaceid", "master", "ctid", entries)
+                .toList()
+                .blockingGet()
+                .sortedBy { it.index }
+
+        assertEquals(8, results.size)
+        assertEquals(8, server!!.requestCount)
+        assertTrue(maxInFlight.get() in 2..3, "max in flight was ${maxInFlight.get()}")
+
+        assertFalse(results[3].isSuccessful)
+        assertEquals("entry3", results[3].item.id)
+        assertEquals(422, (results[3].error as CMAHttpException).responseCode())
+
+        results.filter { it.index != 3 }.forEach {
+            assertTrue(it.isSuccessful)
+            assertEquals("entry${it.index}", it.item.id)
+            assertNotNull(it.result)
+        }
+    }
+
+    @test
+    fun testBatchRunsOnAsyncExecutor() {
+        server!!.enqueue(MockResponse().setBody(TestUtils.fileToString("entry_create_response.json")))
+        val executed = AtomicInteger()
+        val asyncClient = CMAClient.Builder()
+            .setAccessToken("token")
+            .setCoreEndpoint(server!!.url("/").toString())
+            .setAsyncExecutor { executed.incrementAndGet(); Thread(it).start() }
+            .build()
+
+        val results = asyncClient.entries().batch(1)
+                .updateAll(listOf(CMAEntry().setId("entry").setSpaceId("spaceid")
+                        .setEnvironmentId("master").setVersion(1)))
+                .toList()
+                .blockingGet()
+
+        assertEquals(1, results.size)
+        assertEquals(1, executed.get())
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testBatchWithoutConcurrencyThrows() {
+        client!!.entries().batch(0)
+    }
+
+    @test
+    fun testRxFetchAllDoesNotBlock() {
+        val responseBody = TestUtils.fileToString("entry_fetch_all_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val observer = client!!.entries().rx()
+            .fetchAll()
+            .map { Thread.currentThread().name to it }
+            .test()
+
+        observer.awaitTerminalEvent()
+        observer.assertNoErrors()
+        val (thread, result) = observer.values()[0]
+        assertTrue(thread.startsWith("OkHttp"), "emitted on $thread")
+        assertEquals(1, result.items.size)
+
+        val request = server!!.takeRequest()
+        assertEquals(
+            "/spaces/configuredSpaceId/environments/configuredEnvironmentId/entries?limit=100",
+            request.path)
+    }
+
+    @test
+    fun testRxCreateRestoresSystem() {
+        val requestBody = TestUtils.fileToString("entry_create_request.json")
+        val responseBody = TestUtils.fileToString("entry_create_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val entry = CMAEntry()
+            .setId("entryid")
+            .setField("fid1", "en-US", "value1")
+            .setField("fid2", "en-US", "value2")
+
+        val single = client!!.entries().rx().create("spaceid", "master", "ctid", entry)
+        assertEquals(0, server!!.requestCount)
+
+        val result = single.blockingGet()
+        assertEquals(2, result.fields.size)
+        assertEquals("entryid", entry.id)
+
+        val recordedRequest = server!!.takeRequest()
+        assertEquals("PUT", recordedRequest.method)
+        assertEquals("/spaces/spaceid/environments/master/entries/entryid", recordedRequest.path)
+        assertEqualJsons(requestBody, recordedRequest.body.readUtf8(), false)
+    }
+
+    @test
+    fun testRxReportsHttpException() {
+        server!!.enqueue(MockResponse().setResponseCode(404).setBody("{}"))
+
+        val observer = client!!.entries().rx().fetchOne("entryid").test()
+
+        observer.awaitTerminalEvent()
+        observer.assertError { it is CMAHttpException && it.responseCode() == 404 }
+    }
+
+    @test
+    fun testRxReportsHttpExceptionWithCustomCallFactory() {
+        server!!.enqueue(MockResponse().setResponseCode(404).setBody("{}"))
+        val okHttp = CMAClient.Builder().defaultCoreCallFactoryBuilder().build()
+        val client = CMAClient.Builder()
+            .setAccessToken("token")
+            .setCoreEndpoint(server!!.url("/").toString())
+            .setSpaceId("spaceid")
+            .setEnvironmentId("master")
+            .setCoreCallFactory { okHttp.newCall(it) }
+            .build()
+
+        val observer = client.entries().rx().fetchOne("entryid").test()
+
+        assertTrue(observer.awaitTerminalEvent(5, TimeUnit.SECONDS))
+        observer.assertError { it is CMAHttpException && it.responseCode() == 404 }
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testRxValidatesOnCall() {
+        client!!.entries().rx().fetchOne("spaceid", "master", null)
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.model.CMAEnvironment
+import com.contentful.java.cma.model.CMAEnvironmentException
+import com.contentful.java.cma.model.CMAEnvironmentStatus
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import kotlin.test.fail
+import org.junit.Test as test
+
+class EnvironmentClonerTests {
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val polls = ConcurrentHashMap<String, AtomicInteger>()
+    private val inFlight = AtomicInteger()
+    private val maxInFlight = AtomicInteger()
+    private var pollsUntilReady = 2
+    private var finalStatus = "ready"
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testCloneAndAwaitPollsUntilReady() {
+        val ready = cloner()
+                .cloneAndAwait("spaceid", "master", CMAEnvironment().setId("pr-1").setName("PR 1"))
+                .blockingGet()
+
+        assertEquals("pr-1", ready.id)
+        assertEquals(CMAEnvironmentStatus.Ready, ready.status)
+        assertEquals(pollsUntilReady, polls["pr-1"]!!.get())
+
+        val clone = server.takeRequest()
+        assertEquals("PUT", clone.method)
+        assertEquals("/spaces/spaceid/environments/pr-1", clone.path)
+        assertEquals("master", clone.getHeader("X-Contentful-Source-Environment"))
+        assertEquals("""{"name":"PR 1"}""", clone.body.readUtf8())
+    }
+
+    @test
+    fun testCloneAllIsBoundedAndReportsEveryEnvironment() {
+        val environments = (0 until 6).map { CMAEnvironment().setId("pr-$it").setName("PR $it") }
+
+        val results = cloner()
+                .setConcurrency(2)
+                .build(client)
+                .cloneAll("spaceid", "master", environments)
+                .toList()
+                .blockingGet()
+
+        assertEquals((0 until 6).toList(), results.map { it.index }.sorted())
+        results.forEach {
+            assertTrue(it.isSuccessful, "failed with ${it.error}")
+            assertEquals(it.item.id, it.result.id)
+        }
+        assertTrue(maxInFlight.get() <= 2, "max in flight was ${maxInFlight.get()}")
+    }
+
+    @test
+    fun testFailedEnvironmentIsReported() {
+        finalStatus = "failed"
+
+        try {
+            cloner().cloneAndAwait("spaceid", "master", CMAEnvironment().setId("pr-1"))
+                    .blockingGet()
+            fail("Expected an exception.")
+        } catch (e: CMAEnvironmentException) {
+            assertEquals("pr-1", e.environment.id)
+            assertEquals(CMAEnvironmentStatus.Failed, e.environment.status)
+        }
+    }
+
+    @test
+    fun testCloneReportsTimeout() {
+        pollsUntilReady = Int.MAX_VALUE
+
+        val result = cloner()
+                .setTimeout(50, TimeUnit.MILLISECONDS)
+                .build(client)
+                .cloneAll("spaceid", "master", listOf(CMAEnvironment().setId("pr-1")))
+                .blockingSingle()
+
+        assertNull(result.result)
+        assertTrue(result.error is TimeoutException)
+    }
+
+    @test
+    fun testAwaitExistingEnvironment() {
+        val queued = client.environments().fetchOne("spaceid", "pr-1")
+        polls.clear()
+
+        val ready = cloner().build(client).await(queued).blockingGet()
+
+        assertEquals(CMAEnvironmentStatus.Ready, ready.status)
+    }
+
+    @test
+    fun testPollDelayBacksOff() {
+        val cloner = EnvironmentCloner.Builder()
+                .setPollInterval(100, 1000, TimeUnit.MILLISECONDS)
+                .build(client)
+
+        assertEquals(listOf(100L, 200L, 400L, 800L, 1000L, 1000L),
+                (0 until 6).map { cloner.pollDelay(it) })
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testCloneWithoutSourceThrows() {
+        cloner().build(client).cloneAndAwait("spaceid", null, CMAEnvironment())
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testSubMillisecondTimeoutThrows() {
+        EnvironmentCloner.Builder().setTimeout(500, TimeUnit.MICROSECONDS)
+    }
+
+    private fun cloner() = EnvironmentCloner.Builder()
+            .setPollInterval(1, 4, TimeUnit.MILLISECONDS)
+
+    private fun EnvironmentCloner.Builder.cloneAndAwait(
+            spaceId: String,
+            source: String,
+            environment: CMAEnvironment) = build(client).cloneAndAwait(spaceId, source, environment)
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val id = request.path!!.substringAfterLast('/')
+        return when (request.method) {
+            "PUT" -> {
+                inFlight.incrementAndGet().also { current ->
+                    maxInFlight.accumulateAndGet(current) { a, b -> Math.max(a, b) }
+                }
+                polls[id] = AtomicInteger()
+                environment(id, "queued")
+            }
+            "GET" -> {
+                val count = polls.getOrPut(id) { AtomicInteger() }.incrementAndGet()
+                when {
+                    count < pollsUntilReady -> environment(id, "creating")
+                    else -> {
+                        inFlight.decrementAndGet()
+                        environment(id, finalStatus)
+                    }
+                }
+            }
+            else -> MockResponse().setResponseCode(404)
+        }
+    }
+
+    private fun environment(id: String, status: String) = MockResponse().setBody("""{
+        "name": "$id",
+        "sys": {
+            "type": "Environment",
+            "id": "$id",
+            "version": 1,
+            "space": ${FakeServer.link("Space", "spaceid")},
+            "status": ${FakeServer.link("Status", status)}
+        }
+    }""")
+}
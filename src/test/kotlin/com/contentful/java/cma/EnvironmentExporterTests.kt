@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.model.CMAHttpException
+import com.google.gson.JsonParser
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.Collections
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.GZIPInputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+import kotlin.test.fail
+import org.junit.Test as test
+
+class EnvironmentExporterTests {
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private lateinit var directory: Path
+    private val requests = server.requests
+    private val failEntriesAt = AtomicBoolean()
+    private val entryCount = 250
+    private val entries = Collections.synchronizedList((0 until entryCount).toMutableList())
+    private var afterFirstEntryPage: () -> Unit = {}
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+
+        directory = Files.createTempDirectory("export")
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        directory.toFile().deleteRecursively()
+    }
+
+    @test
+    fun testExportWritesAllSectionsInOrder() {
+        val output = directory.resolve("export.ndjson")
+        val checkpoint = directory.resolve("checkpoint.json")
+
+        val written = exporter().build(client).export("spaceid", "master", output, checkpoint)
+
+        val lines = Files.readAllLines(output).map { JsonParser.parseString(it).asJsonObject }
+        assertEquals(written, lines.size.toLong())
+        assertEquals(1 + 2 + 2 + 1 + entryCount + 3, lines.size)
+        assertEquals(
+                listOf("locales", "contentTypes", "editorInterfaces", "tags", "entries", "assets"),
+                lines.map { it["section"].asString }.distinct())
+        assertEquals(
+                (0 until entryCount).map { "entry$it" },
+                lines.filter { it["section"].asString == "entries" }
+                        .map { it["item"].asJsonObject["sys"].asJsonObject["id"].asString })
+        assertEquals("en-US", lines[0]["item"].asJsonObject["code"].asString)
+        assertFalse(Files.exists(checkpoint))
+
+        val entryRequests = requests.filter { it.contains("/entries") }
+        assertEquals(3, entryRequests.size)
+        assertTrue(entryRequests.all { it.contains("order=sys.createdAt%2Csys.id") })
+        assertEquals(
+                listOf(null, createdAt(99), createdAt(199)),
+                entryRequests.map { server.url(it).queryParameter("sys.createdAt[gte]") })
+    }
+
+    @test
+    fun testDeletionDuringExportSkipsNothing() {
+        val output = directory.resolve("export.ndjson")
+        afterFirstEntryPage = { entries.remove(5) }
+
+        exporter()
+                .setSections(EnvironmentExporter.Section.ENTRIES)
+                .build(client)
+                .export("spaceid", "master", output, directory.resolve("checkpoint.json"))
+
+        assertEquals(
+                (0 until entryCount).map { "entry$it" },
+                Files.readAllLines(output).map {
+                    JsonParser.parseString(it).asJsonObject["item"]
+                            .asJsonObject["sys"].asJsonObject["id"].asString
+                })
+    }
+
+    @test
+    fun testExportCompressed() {
+        val output = directory.resolve("export.ndjson.gz")
+
+        exporter()
+                .setCompressed(true)
+                .setSections(EnvironmentExporter.Section.ENTRIES)
+                .build(client)
+                .export("spaceid", "master", output, directory.resolve("checkpoint.json"))
+
+        val lines = GZIPInputStream(Files.newInputStream(output)).bufferedReader().readLines()
+        assertEquals(entryCount, lines.size)
+        assertEquals("entry249",
+                JsonParser.parseString(lines.last()).asJsonObject["item"]
+                        .asJsonObject["sys"].asJsonObject["id"].asString)
+    }
+
+    @test
+    fun testExportResumesFromCheckpoint() {
+        val output = directory.resolve("export.ndjson.gz")
+        val checkpoint = directory.resolve("checkpoint.json")
+        val exporter = exporter()
+                .setCompressed(true)
+                .build(client)
+        failEntriesAt.set(true)
+
+        try {
+            exporter.export("spaceid", "master", output, checkpoint)
+            fail("Expected an exception.")
+        } catch (e: CMAHttpException) {
+            assertEquals(500, e.responseCode())
+        }
+        assertTrue(Files.exists(checkpoint))
+        val saved = String(Files.readAllBytes(checkpoint))
+        assertTrue(saved.contains("\"createdAfter\":\"${createdAt(199)}\""))
+        assertTrue(saved.contains("\"skip\":2"))
+
+        requests.clear()
+        val written = exporter.export("spaceid", "master", output, checkpoint)
+
+        assertEquals(50L + 3, written)
+        assertEquals(listOf("2" to createdAt(199)), requests.filter { it.contains("/entries") }
+                .map { server.url(it) }
+                .map { it.queryParameter("skip") to it.queryParameter("sys.createdAt[gte]") })
+        val lines = GZIPInputStream(Files.newInputStream(output)).bufferedReader().readLines()
+        assertEquals(lines.distinct(), lines)
+        assertEquals(1 + 2 + 2 + 1 + entryCount + 3, lines.size)
+        assertFalse(Files.exists(checkpoint))
+    }
+
+    @test(expected = IllegalStateException::class)
+    fun testOutputShorterThanCheckpointThrows() {
+        val output = directory.resolve("export.ndjson")
+        val checkpoint = directory.resolve("checkpoint.json")
+        failEntriesAt.set(true)
+        try {
+            exporter().build(client).export("spaceid", "master", output, checkpoint)
+            fail("Expected an exception.")
+        } catch (e: CMAHttpException) {
+            assertTrue(Files.exists(checkpoint))
+        }
+
+        Files.write(output, ByteArray(1))
+        exporter().build(client).export("spaceid", "master", output, checkpoint)
+    }
+
+    @test
+    fun testPagesAreLoadedOnAsyncExecutor() {
+        val executed = AtomicInteger()
+        val asyncClient = server.client {
+            setAsyncExecutor { executed.incrementAndGet(); Thread(it).start() }
+        }
+
+        exporter().build(asyncClient).export("spaceid", "master",
+                directory.resolve("export.ndjson"), directory.resolve("checkpoint.json"))
+
+        assertTrue(executed.get() > 0)
+    }
+
+    @test(expected = IllegalStateException::class)
+    fun testCheckpointOfOtherEnvironmentThrows() {
+        val checkpoint = directory.resolve("checkpoint.json")
+        Files.write(checkpoint,
+                """{"spaceId":"spaceid","environmentId":"other","section":"ENTRIES","skip":100}"""
+                        .toByteArray())
+
+        exporter().build(client)
+                .export("spaceid", "master", directory.resolve("export.ndjson"), checkpoint)
+    }
+
+    @test(expected = IllegalStateException::class)
+    fun testCheckpointOfOtherCompressionThrows() {
+        val output = directory.resolve("export.ndjson")
+        val checkpoint = directory.resolve("checkpoint.json")
+        failEntriesAt.set(true)
+        try {
+            exporter().build(client).export("spaceid", "master", output, checkpoint)
+            fail("Expected an exception.")
+        } catch (e: CMAHttpException) {
+            assertTrue(Files.exists(checkpoint))
+        }
+
+        exporter().setCompressed(true).build(client)
+                .export("spaceid", "master", output, checkpoint)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testPageSizeAboveMaximumThrows() {
+        EnvironmentExporter.Builder().setPageSize(EnvironmentExporter.MAX_PAGE_SIZE + 1)
+    }
+
+    private fun exporter() = EnvironmentExporter.Builder().setPageSize(100)
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val path = request.path!!
+        val url = request.requestUrl!!
+        val skip = url.queryParameter("skip")?.toInt() ?: 0
+        val limit = url.queryParameter("limit")?.toInt() ?: 100
+
+        return when (url.pathSegments.last()) {
+            "locales" -> page(1, 0, 1) {
+                """{"name": "English", "code": "en-US", "sys": {"id": "locale$it", "type": "Locale"}}"""
+            }
+            "content_types" -> page(2, skip, limit) {
+                resource("contentType$it", "ContentType", "[]")
+            }
+            "editor_interfaces" -> page(2, 0, 2) {
+                resource("editorInterface$it", "EditorInterface")
+            }
+            "tags" -> page(1, skip, limit) { resource("tag$it", "Tag") }
+            "entries" -> entries(url.queryParameter("sys.createdAt[gte]"), skip, limit)
+            "assets" -> page(3, skip, limit) { resource("asset$it", "Asset") }
+            else -> MockResponse().setResponseCode(404)
+        }
+    }
+
+    /*
+     * Every three entries share a creation time, ordered by id, like sys.createdAt,sys.id.
+     */
+    private fun entries(createdAfter: String?, skip: Int, limit: Int): MockResponse {
+        val matching = synchronized(entries) {
+            entries.filter { createdAfter == null || createdAt(it) >= createdAfter }
+        }
+        val items = matching.drop(skip).take(limit)
+        if (items.firstOrNull() == 200 && failEntriesAt.getAndSet(false)) {
+            return MockResponse().setResponseCode(500).setBody("{}")
+        }
+        if (createdAfter == null) {
+            afterFirstEntryPage()
+        }
+
+        val json = items.map {
+            """{"fields": {}, "sys": {"id": "entry$it", "type": "Entry",
+                "createdAt": "${createdAt(it)}"}}"""
+        }
+        return MockResponse().setBody(FakeServer.array(json, matching.size, skip, limit))
+    }
+
+    private fun createdAt(entry: Int) =
+            "2020-01-01T00:%02d:%02d.000Z".format(entry / 3 / 60, entry / 3 % 60)
+
+    private fun resource(id: String, type: String, fields: String = "{}") =
+            """{"fields": $fields, "sys": {"id": "$id", "type": "$type"}}"""
+
+    private fun page(total: Int, skip: Int, limit: Int, item: (Int) -> String): MockResponse {
+        val items = (skip until minOf(total, skip + limit)).map(item)
+        return MockResponse().setBody(FakeServer.array(items, total, skip, limit))
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.EnvironmentSync.Change.Kind
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.model.CMAType
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.nio.file.Files
+import java.util.TreeMap
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class EnvironmentSyncTests {
+    private class Resource(
+            val id: String,
+            var version: Int,
+            var updatedAt: String,
+            val createdAt: String = updatedAt)
+
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val requests = server.requests
+    private val entries = TreeMap<String, Resource>()
+    private val assets = TreeMap<String, Resource>()
+    private var clock = 0
+    private var onRequest: (RecordedRequest) -> Unit = {}
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+
+        (0 until 25).forEach { create(entries, "entry$it") }
+        (0 until 3).forEach { create(assets, "asset$it") }
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testFirstSyncAddsEverything() {
+        val changes = sync().build(client).sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals(25 + 3, changes.size)
+        assertTrue(changes.all { it.kind == Kind.ADDED })
+        assertEquals((0 until 25).map { "entry$it" }.sorted(),
+                changes.filter { it.type == CMAType.Entry }.map { it.id }.sorted())
+        assertEquals(listOf("asset0", "asset1", "asset2"),
+                changes.filter { it.type == CMAType.Asset }.map { it.id })
+        assertTrue(requests.filter { it.contains("skip=") }
+                .all { it.contains("order=sys.updatedAt%2Csys.id") })
+    }
+
+    @test
+    fun testUnchangedEnvironmentCostsOnePagePerType() {
+        val sync = sync().build(client)
+        sync.sync("spaceid", "master").blockingSubscribe()
+        requests.clear()
+
+        val changes = sync.sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals(emptyList(), changes)
+        assertEquals(2, requests.count { it.contains("sys.updatedAt%5Bgte%5D=") })
+        assertEquals(2, requests.count { it.contains("limit=1&") || it.endsWith("limit=1") })
+        assertEquals(4, requests.size)
+    }
+
+    @test
+    fun testChangesAreReportedOnce() {
+        val sync = sync().build(client)
+        sync.sync("spaceid", "master").blockingSubscribe()
+
+        update(entries, "entry3")
+        update(entries, "entry3")
+        create(entries, "entry99")
+        update(assets, "asset1")
+        val changes = sync.sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals(
+                listOf(Kind.CHANGED to "entry3", Kind.ADDED to "entry99", Kind.CHANGED to "asset1"),
+                changes.map { it.kind to it.id })
+        assertEquals(3, changes[0].version)
+        assertEquals("entry3", changes[0].resource.id)
+        assertEquals(emptyList(), sync.sync("spaceid", "master").toList().blockingGet())
+    }
+
+    @test
+    fun testDeletedResourcesAreReportedByAbsence() {
+        val sync = sync().build(client)
+        sync.sync("spaceid", "master").blockingSubscribe()
+
+        entries.remove("entry7")
+        assets.remove("asset0")
+        val changes = sync.sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals(listOf(Kind.DELETED to "entry7", Kind.DELETED to "asset0"),
+                changes.map { it.kind to it.id })
+        assertNull(changes[0].resource)
+        assertEquals(1, changes[0].version)
+        assertEquals(emptyList(), sync.sync("spaceid", "master").toList().blockingGet())
+    }
+
+    @test
+    fun testDeletionWhileListingKeepsLiveResources() {
+        val sync = sync().build(client)
+        sync.sync("spaceid", "master").blockingSubscribe()
+
+        entries.remove("entry7")
+        var listed = 0
+        onRequest = {
+            val url = it.requestUrl!!
+            if (url.queryParameter("select") != null && url.queryParameter("limit") != "1"
+                    && ++listed == 2) {
+                entries.remove("entry0")
+            }
+        }
+        val changes = sync.sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals(listOf(Kind.DELETED to "entry7"), changes.map { it.kind to it.id })
+    }
+
+    @test
+    fun testChangesWithoutUpdatedAtAreNotRepeated() {
+        entries.clear()
+        assets.clear()
+        (0 until 7).forEach { entries["entry$it"] = Resource("entry$it", 1, "", timestamp(it)) }
+
+        val changes = sync().build(client).sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals((0 until 7).map { "entry$it" }, changes.map { it.id })
+    }
+
+    @test
+    fun testPagesSharingOneTimestampAreNotSkipped() {
+        entries.clear()
+        assets.clear()
+        (0 until 12).forEach { entries["entry$it"] = Resource("entry$it", 1, timestamp(1)) }
+        (12 until 15).forEach { entries["entry$it"] = Resource("entry$it", 1, timestamp(2)) }
+
+        val changes = sync().build(client).sync("spaceid", "master").toList().blockingGet()
+
+        assertEquals((0 until 15).map { "entry$it" }.sorted(), changes.map { it.id }.sorted())
+    }
+
+    @test
+    fun testFileStoreKeepsStateBetweenInstances() {
+        val directory = Files.createTempDirectory("sync")
+        try {
+            val store = EnvironmentSync.FileStore(directory)
+            sync().setStore(store).build(client).sync("spaceid", "master").blockingSubscribe()
+            assertTrue(Files.exists(directory.resolve("spaceid/master.json")))
+
+            update(entries, "entry1")
+            val changes = sync()
+                    .setStore(EnvironmentSync.FileStore(directory))
+                    .build(client)
+                    .sync("spaceid", "master")
+                    .toList()
+                    .blockingGet()
+
+            assertEquals(listOf(Kind.CHANGED to "entry1"), changes.map { it.kind to it.id })
+        } finally {
+            directory.toFile().deleteRecursively()
+        }
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testSyncWithoutEnvironmentThrows() {
+        sync().build(client).sync("spaceid", null)
+    }
+
+    private fun sync() = EnvironmentSync.Builder().setPageSize(5)
+
+    private fun timestamp(tick: Int) =
+            String.format("2026-01-01T00:%02d:%02d.000Z", tick / 60, tick % 60)
+
+    private fun create(resources: MutableMap<String, Resource>, id: String) {
+        resources[id] = Resource(id, 1, timestamp(++clock))
+    }
+
+    private fun update(resources: MutableMap<String, Resource>, id: String) {
+        resources[id]!!.apply {
+            version++
+            updatedAt = timestamp(++clock)
+        }
+    }
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        onRequest(request)
+        val url = request.requestUrl!!
+        val (resources, type) = when (url.pathSegments.last()) {
+            "entries" -> entries to "Entry"
+            "assets" -> assets to "Asset"
+            else -> return MockResponse().setResponseCode(404)
+        }
+
+        val after = url.queryParameter("sys.updatedAt[gte]")
+        val createdAfter = url.queryParameter("sys.createdAt[gte]")
+        val byCreation = url.queryParameter("order") == "sys.createdAt,sys.id"
+        val matching = resources.values
+                .filter { after == null || it.updatedAt >= after }
+                .filter { createdAfter == null || it.createdAt >= createdAfter }
+                .sortedWith(if (byCreation) compareBy({ it.createdAt }, { it.id })
+                else compareBy({ it.updatedAt }, { it.id }))
+        val skip = url.queryParameter("skip")?.toInt() ?: 0
+        val limit = url.queryParameter("limit")?.toInt() ?: 100
+        val items = matching.drop(skip).take(limit).map {
+            val updatedAt = if (it.updatedAt.isEmpty()) "" else """, "updatedAt": "${it.updatedAt}""""
+            """{"fields": {}, "sys": {"id": "${it.id}", "type": "$type",
+                "version": ${it.version}, "createdAt": "${it.createdAt}"$updatedAt}}"""
+        }
+        return MockResponse().setBody(FakeServer.array(items, matching.size, skip, limit))
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.TestUtils
+import okhttp3.Protocol
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import java.util.concurrent.TimeUnit
+import java.util.logging.LogManager
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import org.junit.Test as test
+
+class HttpTransportTests {
+    private lateinit var server: MockWebServer
+    private lateinit var transport: HttpTransport
+
+    @Before
+    fun setUp() {
+        LogManager.getLogManager().reset()
+        server = MockWebServer()
+        server.start()
+
+        transport = HttpTransport.Builder()
+                .setMaxRequests(16, 2)
+                .build()
+    }
+
+    @After
+    fun tearDown() {
+        transport.shutdown()
+        server.shutdown()
+    }
+
+    @test
+    fun testCallFactoriesSharePoolAndDispatcher() {
+        val first = builder("token1").defaultCoreCallFactoryBuilder().build()
+        val second = builder("token2").defaultUploadCallFactoryBuilder().build()
+
+        assertSame(first.connectionPool, second.connectionPool)
+        assertSame(first.dispatcher, second.dispatcher)
+        assertSame(transport.dispatcher, first.dispatcher)
+        assertEquals(2, first.dispatcher.maxRequestsPerHost)
+        assertEquals(16, first.dispatcher.maxRequests)
+    }
+
+    @test
+    fun testClientsWithoutTransportDoNotShare() {
+        val first = CMAClient.Builder().setAccessToken("token")
+                .defaultCoreCallFactoryBuilder().build()
+        val second = CMAClient.Builder().setAccessToken("token")
+                .defaultCoreCallFactoryBuilder().build()
+
+        assertNotSame(first.connectionPool, second.connectionPool)
+    }
+
+    @test
+    fun testClientsReuseConnectionButKeepTheirToken() {
+        val body = TestUtils.fileToString("space_fetch_one_response.json")
+        server.enqueue(MockResponse().setBody(body))
+        server.enqueue(MockResponse().setBody(body))
+
+        builder("token1").build().spaces().fetchOne("spaceid")
+        builder("token2").build().spaces().fetchOne("spaceid")
+
+        val first = server.takeRequest()
+        val second = server.takeRequest()
+
+        assertEquals("Bearer token1", first.getHeader("Authorization"))
+        assertEquals("Bearer token2", second.getHeader("Authorization"))
+        assertEquals(0, first.sequenceNumber)
+        assertEquals(1, second.sequenceNumber)
+        assertEquals(1, transport.connectionPool.connectionCount())
+    }
+
+    @test
+    fun testHttp2CanBeDisabled() {
+        val http1 = HttpTransport.Builder()
+                .setHttp2Enabled(false)
+                .build()
+                .newCallFactoryBuilder()
+                .build()
+
+        assertEquals(listOf(Protocol.HTTP_1_1), http1.protocols)
+        assertEquals(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1),
+                transport.newCallFactoryBuilder().build().protocols)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testNonPositiveKeepAliveThrows() {
+        HttpTransport.Builder().setConnectionPool(5, 0, TimeUnit.SECONDS)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testNullTransportThrows() {
+        CMAClient.Builder().setTransport(null)
+    }
+
+    private fun builder(token: String) = CMAClient.Builder()
+            .setAccessToken(token)
+            .setCoreEndpoint(server.url("/").toString())
+            .setUploadEndpoint(server.url("/").toString())
+            .setTransport(transport)
+}
@@ -16,8 +16,10 @@
 
 package com.contentful.java.cma
 
+import com.contentful.java.cma.gson.CMASystemDeserializer
 import com.contentful.java.cma.model.*
 import com.google.gson.Gson
+import com.google.gson.GsonBuilder
 import okhttp3.Protocol
 import okhttp3.Request
 import okhttp3.Response
@@ -26,6 +28,7 @@ import org.junit.After
 import org.junit.Before
 import java.util.logging.LogManager
 import kotlin.test.assertEquals
+import kotlin.test.assertSame
 import org.junit.Test as test
 
 class ModelTests {
@@ -309,4 +312,51 @@ class ModelTests {
                 + "previewApiKey = null }",
                 CMAApiKey().setName("foo").setDescription("bar").toString())
     }
-}
\ No newline at end of file
+
+    @test
+    fun testCMASystemReadsStatusAndSharesLinkIds() {
+        val json = """[
+            {"type": "Environment", "id": "master", "version": 3,
+             "space": {"sys": {"type": "Link", "linkType": "Space", "id": "spaceid"}},
+             "status": {"sys": {"type": "Link", "linkType": "Status", "id": "ready"}}},
+            {"type": "BulkAction", "id": "bulk", "status": "inProgress",
+             "space": {"sys": {"type": "Link", "linkType": "Space", "id": "spaceid"}}},
+            {"type": "ScheduledAction", "id": "action", "status": "scheduled",
+             "unknown": {"nested": [1, 2]}}
+        ]"""
+
+        val systems = gson!!.fromJson(json, Array<CMASystem>::class.java)
+
+        assertEquals(CMAType.Environment, systems[0].type)
+        assertEquals(3, systems[0].version)
+        assertEquals("ready", systems[0].environmentalStatus.id)
+        assertEquals(CMABulkStatus.IN_PROGRESS, systems[1].bulkActionStatus)
+        assertEquals(CMAScheduledActionStatus.SCHEDULED, systems[2].scheduledActionStatus)
+        assertEquals("action", systems[2].id)
+        assertSame(systems[0].space.id, systems[1].space.id)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testCMASystemThrowsOnUnknownStatus() {
+        gson!!.fromJson("""{"type": "BulkAction", "status": "nope"}""", CMASystem::class.java)
+    }
+
+    @test
+    @Suppress("DEPRECATION")
+    fun testCMASystemDeserializerDelegatesToAdapter() {
+        val treeGson = GsonBuilder()
+                .registerTypeAdapter(CMASystem::class.java,
+                        CMASystemDeserializer())
+                .create()
+
+        val system = treeGson.fromJson("""{"type": "ScheduledAction", "id": "action",
+            "status": "scheduled", "version": 2,
+            "space": {"sys": {"type": "Link", "linkType": "Space", "id": "spaceid"}}}""",
+                CMASystem::class.java)
+
+        assertEquals(CMAType.ScheduledAction, system.type)
+        assertEquals(2, system.version)
+        assertEquals("spaceid", system.space.id)
+        assertEquals(CMAScheduledActionStatus.SCHEDULED, system.scheduledActionStatus)
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.contentful.java.cma
 
+import com.contentful.java.cma.gson.EntrySerializer
 import com.contentful.java.cma.lib.TestCallback
 import com.contentful.java.cma.lib.TestUtils
 import com.contentful.java.cma.model.CMAEntry
@@ -23,6 +24,8 @@ import com.contentful.java.cma.model.CMALink
 import com.contentful.java.cma.model.CMAType
 import com.contentful.java.cma.model.rich.*
 import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import com.google.gson.JsonParser
 import okhttp3.mockwebserver.MockResponse
 import okhttp3.mockwebserver.MockWebServer
 import org.junit.After
@@ -900,4 +903,21 @@ class RichFieldTests {
         assertTrue(inlineEmbeddedEntryLink is CMARichEmbeddedLink)
         assertEquals("embedded-entry-inline", inlineEmbeddedEntryLink.nodeType)
     }
-}
\ No newline at end of file
+
+    @test
+    @Suppress("DEPRECATION")
+    fun testEntrySerializerStillDeserializes() {
+        val gson = GsonBuilder()
+                .registerTypeAdapter(CMAEntry::class.java,
+                        EntrySerializer())
+                .create()
+        val json = JsonParser.parseString(
+                TestUtils.fileToString("rich_text_get_one.json"))
+                .asJsonObject["items"].asJsonArray[0]
+
+        val entry = gson.fromJson(json, CMAEntry::class.java)
+
+        assertEquals("6VkkamQ5zO4qWIugKkWowK", entry.id)
+        assertTrue(entry.getField<Any?>("rich", "en-US") is CMARichDocument)
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.model.CMAScheduledActionStatus
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.util.Date
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class ScheduledActionIndexTests {
+    private class Action(
+            val id: String,
+            val entityId: String,
+            val datetime: String,
+            var status: String = "scheduled")
+
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val requests = server.requests
+    private val actions = mutableListOf<Action>()
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+
+        (0 until 10).forEach {
+            val datetime = "2022-01-%02dT12:00:00.000Z".format(it + 1)
+            val status = if (it < 3) "succeeded" else "scheduled"
+            actions.add(Action("action$it", "entry${it % 4}", datetime, status))
+        }
+        actions.add(Action("offset", "entry0", "2022-01-05T12:30:00.000+01:00"))
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testRefreshLoadsAllPages() {
+        val index = index()
+
+        assertEquals(11, index.refresh())
+
+        assertEquals(11, index.size())
+        assertEquals(3, requests.size)
+        assertTrue(requests.all { it.contains("environment.sys.id=master") })
+        assertEquals("entry1", index.get("action5").entity.id)
+    }
+
+    @test
+    fun testFindByEntityIsOrderedByTime() {
+        val index = index().apply { refresh() }
+
+        assertEquals(listOf("action0", "offset", "action4", "action8"),
+                index.forEntity("entry0").map { it.id })
+        assertEquals(listOf("action1", "action2", "action5", "action6", "action9"),
+                index.find(listOf("entry1", "entry2"), null, null, null).map { it.id })
+        assertEquals(emptyList(), index.forEntity("unknown"))
+    }
+
+    @test
+    fun testFindByWindowAndStatus() {
+        val index = index().apply { refresh() }
+
+        assertEquals(listOf("action2", "action3", "offset", "action4"),
+                index.find(null, date("2022-01-03T00:00:00.000Z"),
+                        date("2022-01-06T00:00:00.000Z"), null).map { it.id })
+        assertEquals(listOf("action3", "offset", "action4"),
+                index.find(null, date("2022-01-03T00:00:00.000Z"),
+                        date("2022-01-06T00:00:00.000Z"), CMAScheduledActionStatus.SCHEDULED)
+                        .map { it.id })
+        assertEquals(listOf("action0", "offset"),
+                index.find(listOf("entry0"), null, date("2022-01-05T11:45:00.000Z"), null)
+                        .map { it.id })
+        assertEquals(listOf("action0", "action1", "action2"),
+                index.find(null, null, null, CMAScheduledActionStatus.SUCCEEDED).map { it.id })
+    }
+
+    @test
+    fun testIncrementalRefreshOnlyLoadsScheduledActions() {
+        val index = index().apply { refresh() }
+        requests.clear()
+
+        actions.single { it.id == "action3" }.status = "succeeded"
+        actions.single { it.id == "action7" }.status = "canceled"
+        actions.add(Action("action10", "entry3", "2022-02-01T12:00:00.000Z"))
+
+        assertEquals(3, index.refresh())
+
+        assertTrue(requests.filter { !it.contains("/scheduled_actions/") }
+                .all { it.contains("sys.status=scheduled") })
+        assertEquals(2, requests.count { it.contains("/scheduled_actions/") })
+        assertEquals(12, index.size())
+        assertEquals(listOf("action0", "action1", "action2", "action3"),
+                index.find(null, null, null, CMAScheduledActionStatus.SUCCEEDED).map { it.id })
+        assertEquals(listOf("action7"),
+                index.find(null, null, null, CMAScheduledActionStatus.CANCELED).map { it.id })
+        assertEquals(listOf("action3", "action7", "action10"),
+                index.forEntity("entry3").map { it.id })
+        assertEquals(0, index.refresh())
+    }
+
+    @test
+    fun testPutReplacesAction() {
+        val index = index().apply { refresh() }
+        actions.single { it.id == "action5" }.status = "canceled"
+        val canceled = client.scheduledActions().fetchOne("spaceid", "master", "action5", "entry1")
+
+        index.put(canceled)
+
+        assertEquals(11, index.size())
+        assertEquals(CMAScheduledActionStatus.CANCELED,
+                index.get("action5").system.scheduledActionStatus)
+        assertEquals(listOf("action5"),
+                index.find(null, null, null, CMAScheduledActionStatus.CANCELED).map { it.id })
+        assertTrue(index.find(null, null, null, CMAScheduledActionStatus.SCHEDULED)
+                .none { it.id == "action5" })
+    }
+
+    @test
+    fun testParseIsoOffsets() {
+        val index = index()
+        val noon = date("2022-01-05T12:00:00.000Z").time
+
+        assertEquals(noon, index.parse("2022-01-05T12:00:00.000Z"))
+        assertEquals(noon, index.parse("2022-01-05T12:00Z"))
+        assertEquals(noon, index.parse("2022-01-05T13:00:00+01:00"))
+        assertEquals(noon, index.parse("2022-01-05T13:00:00.000+0100"))
+        assertEquals(noon, index.parse("2022-01-05T06:30:00.000-05:30"))
+        assertEquals(noon, index.parse("2022-01-05T14:00+02"))
+        assertNull(index.parse("2022-01-05T12:00:00.000"))
+        assertNull(index.parse("2022-01-05T12:00:00.000+01:75"))
+        assertNull(index.parse("2022-01-05T12:00:00.000xZ"))
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testPageSizeAboveMaximumThrows() {
+        ScheduledActionIndex.Builder().setPageSize(501)
+    }
+
+    private fun index() = ScheduledActionIndex.Builder()
+            .setPageSize(5)
+            .build(client, "spaceid", "master")
+
+    private fun date(iso: String) = Date(java.time.Instant.parse(iso).toEpochMilli())
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val url = request.requestUrl!!
+        val segments = url.pathSegments
+
+        if (segments.last() != "scheduled_actions") {
+            val action = actions.single { it.id == segments.last() }
+            assertEquals(action.entityId, url.queryParameter("entity.sys.id"))
+            return MockResponse().setBody(json(action))
+        }
+
+        val status = url.queryParameter("sys.status")
+        val matching = actions.filter { status == null || it.status == status }
+        val skip = url.queryParameter("pageNext")?.toInt() ?: 0
+        val limit = url.queryParameter("limit")!!.toInt()
+        val items = matching.drop(skip).take(limit)
+        val next = if (skip + limit < matching.size) {
+            "/spaces/spaceid/scheduled_actions?pageNext=${skip + limit}"
+        } else {
+            null
+        }
+        return MockResponse().setBody(FakeServer.cursorArray(items.map { json(it) }, limit, next))
+    }
+
+    private fun json(action: Action) = """{
+        "sys": {"id": "${action.id}", "type": "ScheduledAction", "status": "${action.status}"},
+        "action": "publish",
+        "entity": ${FakeServer.link("Entry", action.entityId)},
+        "scheduledFor": {"datetime": "${action.datetime}", "timezone": "Europe/Berlin"}
+    }"""
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMAContentType
+import com.contentful.java.cma.model.CMALocale
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.util.concurrent.TimeUnit
+import java.util.logging.LogManager
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
+import org.junit.Test as test
+
+class SchemaCacheTests {
+    private lateinit var server: MockWebServer
+    private lateinit var client: CMAClient
+    private var now = 0L
+
+    @Before
+    fun setUp() {
+        LogManager.getLogManager().reset()
+        server = MockWebServer()
+        server.start()
+
+        client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server.url("/").toString())
+                .build()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testReadsThroughOnce() {
+        server.enqueue(MockResponse().setBody(contentType(1)))
+
+        val cache = cache()
+        val first = cache.fetchContentType("spaceid", "master", "ct")
+        val second = cache.fetchContentType("spaceid", "master", "ct")
+
+        assertNotSame(first, second)
+        assertEquals(first.name, second.name)
+        assertEquals(1, server.requestCount)
+        assertEquals("/spaces/spaceid/environments/master/content_types/ct",
+                server.takeRequest().path)
+    }
+
+    @test
+    fun testRefetchesAfterTimeToLive() {
+        server.enqueue(MockResponse().setBody(contentType(1)))
+        server.enqueue(MockResponse().setBody(contentType(1)))
+        server.enqueue(MockResponse().setBody(contentType(2)))
+
+        val cache = cache()
+        val first = cache.fetchContentType("spaceid", "master", "ct")
+
+        now += TimeUnit.MINUTES.toNanos(2)
+        assertEquals(first.version, cache.fetchContentType("spaceid", "master", "ct").version)
+
+        now += TimeUnit.MINUTES.toNanos(2)
+        val updated = cache.fetchContentType("spaceid", "master", "ct")
+        assertEquals(2, updated.version)
+        assertEquals(3, server.requestCount)
+    }
+
+    @test
+    fun testPutKeepsNewestVersion() {
+        server.enqueue(MockResponse().setBody(contentType(3)))
+
+        val cache = cache()
+        val cached = cache.fetchContentType("spaceid", "master", "ct")
+
+        cache.put(parse(contentType(2)))
+        assertEquals(cached.version, cache.fetchContentType("spaceid", "master", "ct").version)
+
+        cache.put(parse(contentType(4)))
+        assertEquals(4, cache.fetchContentType("spaceid", "master", "ct").version)
+        assertEquals(1, server.requestCount)
+    }
+
+    @test
+    fun testFetchReplacesRecreatedContentType() {
+        server.enqueue(MockResponse().setBody(contentType(3)))
+        server.enqueue(MockResponse().setBody(contentType(1)))
+
+        val cache = cache()
+        cache.fetchContentType("spaceid", "master", "ct")
+
+        now += TimeUnit.MINUTES.toNanos(2)
+        assertEquals(1, cache.fetchContentType("spaceid", "master", "ct").version)
+        assertEquals(1, cache.fetchContentType("spaceid", "master", "ct").version)
+        assertEquals(2, server.requestCount)
+    }
+
+    @test
+    fun testReadsAreCopies() {
+        server.enqueue(MockResponse().setBody(contentType(1)))
+        server.enqueue(MockResponse().setBody(TestUtils.fileToString("locales_get_all.json")))
+
+        val cache = cache()
+        cache.fetchContentType("spaceid", "master", "ct").setName("changed")
+        cache.fetchLocales("spaceid", "master").items.clear()
+
+        assertEquals("version 1", cache.fetchContentType("spaceid", "master", "ct").name)
+        val locales = cache.fetchLocales("spaceid", "master")
+        assertEquals(2, locales.items.size)
+        assertEquals("en-US", locales.items[0].code)
+        assertNotNull(locales.items[0].id)
+        assertEquals(2, server.requestCount)
+    }
+
+    @test
+    fun testEvictsLeastRecentlyUsed() {
+        repeat(4) { server.enqueue(MockResponse().setBody(contentType(1))) }
+
+        val cache = SchemaCache(SchemaCache.Builder().setMaxSize(2), client) { now }
+        cache.fetchContentType("spaceid", "master", "a")
+        cache.fetchContentType("spaceid", "master", "b")
+        cache.fetchContentType("spaceid", "master", "a")
+        cache.fetchContentType("spaceid", "master", "c")
+
+        assertEquals(2, cache.size())
+        assertEquals(3, server.requestCount)
+
+        cache.fetchContentType("spaceid", "master", "b")
+        assertEquals(4, server.requestCount)
+    }
+
+    @test
+    fun testWarmUpLoadsEnvironment() {
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                val file = when {
+                    request.path!!.contains("/content_types") -> "content_type_fetch_all_response.json"
+                    request.path!!.contains("/editor_interfaces") -> "editor_interfaces_get_all.json"
+                    request.path!!.contains("/locales") -> "locales_get_all.json"
+                    else -> return MockResponse().setResponseCode(404)
+                }
+                return MockResponse().setBody(TestUtils.fileToString(file))
+            }
+        }
+
+        val cache = cache()
+        val loaded = cache.warmUp("spaceid", "master")
+
+        assertEquals(6, loaded)
+        assertEquals(3, server.requestCount)
+
+        assertEquals(4, cache.fetchContentType("spaceid", "master", "blog-post").version)
+        assertEquals(3, cache.fetchEditorInterface("spaceid", "master", "blog-post").version)
+        assertEquals(2, cache.fetchLocales("spaceid", "master").items.size)
+        assertEquals(3, server.requestCount)
+
+        cache.invalidate("spaceid", "master")
+        assertEquals(0, cache.size())
+    }
+
+    @test
+    fun testLocaleWriteDropsLocales() {
+        val locales = TestUtils.fileToString("locales_get_all.json")
+        server.enqueue(MockResponse().setBody(locales))
+        server.enqueue(MockResponse().setBody(locales))
+
+        val cache = cache()
+        val first = cache.fetchLocales("spaceid", "master")
+        cache.put(first.items[0].setSpaceId("spaceid").setEnvironmentId<CMALocale>("master"))
+
+        assertNotSame(first, cache.fetchLocales("spaceid", "master"))
+        assertEquals(2, server.requestCount)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testNullContentTypeIdThrows() {
+        cache().fetchContentType("spaceid", "master", null)
+    }
+
+    private fun cache() = SchemaCache(
+            SchemaCache.Builder().setTimeToLive(1, TimeUnit.MINUTES),
+            client) { now }
+
+    private fun parse(json: String) =
+            CMAClient.createGson().fromJson(json, CMAContentType::class.java)
+
+    private fun contentType(version: Int) = """
+        {
+          "name": "version $version",
+          "fields": [],
+          "sys": {
+            "id": "ct",
+            "type": "ContentType",
+            "version": $version,
+            "space": {"sys": {"type": "Link", "linkType": "Space", "id": "spaceid"}},
+            "environment": {"sys": {"type": "Link", "linkType": "Environment", "id": "master"}}
+          }
+        }
+        """.trimIndent()
+}
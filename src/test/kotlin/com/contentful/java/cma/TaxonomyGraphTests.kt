@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.util.Collections
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class TaxonomyGraphTests {
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val requests = server.requests
+
+    /* Broader concepts of every concept: a -> b, c -> d -> e, and f on its own. */
+    private val broader = linkedMapOf(
+            "a" to listOf(),
+            "b" to listOf("a"),
+            "c" to listOf("a"),
+            "d" to listOf("b", "c"),
+            "e" to listOf("d"),
+            "f" to listOf())
+
+    /* Top concepts and concepts of every scheme. */
+    private val schemes = linkedMapOf(
+            "s1" to (listOf("a") to listOf("a", "b", "c", "d", "e")),
+            "s2" to (listOf("f") to listOf("f", "d")))
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testLoadFollowsPageCursors() {
+        val graph = TaxonomyGraph.load(client, "orgid")
+
+        assertEquals(broader.keys.toList(), graph.concepts.map { it.id })
+        assertEquals(listOf("s1", "s2"), graph.conceptSchemes.map { it.id })
+        assertEquals(3, requests.count { it.contains("/taxonomy/concepts") })
+        assertEquals(1, requests.count { it.contains("pageNext=2") && it.contains("/concepts") })
+    }
+
+    @test
+    fun testHierarchyQueries() {
+        val graph = TaxonomyGraph.load(client, "orgid")
+
+        assertEquals(listOf("a", "f"), graph.roots.map { it.id })
+        assertEquals(listOf("b", "c"), graph.getParents("d").map { it.id })
+        assertEquals(listOf("b", "c"), graph.getChildren("a").map { it.id })
+        assertEquals(listOf("d", "b", "c", "a"), graph.getAncestors("e").map { it.id })
+        assertEquals(listOf("b", "c", "d", "e"), graph.getDescendants("a").map { it.id })
+        assertTrue(graph.isAncestor("a", "e"))
+        assertFalse(graph.isAncestor("e", "a"))
+        assertFalse(graph.isAncestor("f", "e"))
+        assertEquals(emptyList(), graph.getDescendants("unknown"))
+        assertNull(graph.getConcept("unknown"))
+    }
+
+    @test
+    fun testSchemeQueries() {
+        val graph = TaxonomyGraph.load(client, "orgid")
+
+        assertEquals(listOf("s1", "s2"), graph.getSchemesOf("d").map { it.id })
+        assertEquals(listOf("s2"), graph.getSchemesOf("f").map { it.id })
+        assertEquals(listOf("f", "d"), graph.getConceptsOf("s2").map { it.id })
+        assertEquals(emptyList(), graph.getConceptsOf("unknown"))
+    }
+
+    @test
+    fun testCyclesEndTheWalk() {
+        broader["a"] = listOf("e")
+        val graph = TaxonomyGraph.load(client, "orgid")
+
+        assertEquals(listOf("b", "c", "d", "e"), graph.getDescendants("a").map { it.id })
+        assertEquals(listOf("e", "d", "b", "c"), graph.getAncestors("a").map { it.id })
+        assertEquals(listOf("f"), graph.roots.map { it.id })
+    }
+
+    @test
+    fun testLoadRunsOnAsyncExecutor() {
+        val threads = Collections.synchronizedSet(mutableSetOf<String>())
+        val asyncClient = server.client {
+            setAsyncExecutor {
+                threads.add(Thread.currentThread().name)
+                Thread(it, "taxonomy-async").start()
+            }
+        }
+
+        TaxonomyGraph.load(asyncClient, "orgid")
+
+        assertTrue(threads.contains(Thread.currentThread().name))
+        assertTrue(threads.all { it == Thread.currentThread().name || it == "taxonomy-async" })
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testLoadWithoutOrganizationThrows() {
+        TaxonomyGraph.load(client, null)
+    }
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val url = request.requestUrl!!
+        val cursor = url.queryParameter("pageNext")?.toInt() ?: 0
+        return when (url.pathSegments.last()) {
+            "concepts" -> page(broader.entries.toList(), cursor, 2) { (id, parents) ->
+                """{"sys": {"id": "$id", "type": "TaxonomyConcept"},
+                    "prefLabel": {"en-US": "$id"}, "broader": ${links(parents)}}"""
+            }
+            "concept-schemes" -> page(schemes.entries.toList(), cursor, 2) { (id, members) ->
+                """{"sys": {"id": "$id", "type": "TaxonomyConceptScheme"},
+                    "topConcepts": ${links(members.first)}, "concepts": ${links(members.second)},
+                    "totalConcepts": ${members.second.size}}"""
+            }
+            else -> MockResponse().setResponseCode(404)
+        }
+    }
+
+    private fun links(ids: List<String>) =
+            ids.joinToString(",", "[", "]") { FakeServer.link("TaxonomyConcept", it) }
+
+    private fun <T> page(all: List<T>, cursor: Int, size: Int, item: (T) -> String)
+            : MockResponse {
+        val next = if (cursor + size < all.size) {
+            "/organizations/orgid/taxonomy?pageNext=${cursor + size}"
+        } else {
+            null
+        }
+        return MockResponse().setBody(
+                FakeServer.cursorArray(all.drop(cursor).take(size).map(item), size, next))
+    }
+}
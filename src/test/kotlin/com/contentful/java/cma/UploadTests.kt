@@ -22,11 +22,22 @@ import com.contentful.java.cma.model.CMAType
 import com.contentful.java.cma.model.CMAUpload
 import com.google.gson.Gson
 import junit.framework.TestCase.assertEquals
+import junit.framework.TestCase.assertTrue
 import okhttp3.mockwebserver.MockResponse
 import okhttp3.mockwebserver.MockWebServer
 import org.junit.After
+import org.junit.Assume.assumeTrue
 import org.junit.Before
+import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.lang.management.ManagementFactory
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.Arrays
 import java.util.logging.LogManager
+import kotlin.test.fail
 import org.junit.Test as test
 
 class UploadTests {
@@ -141,4 +152,120 @@ class UploadTests {
         assertEquals("/spaces/space_id/environments/environmentId/uploads/upload_id", recordedRequest.path)
         assertEquals(204, result)
     }
+
+    @test
+    fun testPostFileToUpload() {
+        val responseBody = TestUtils.fileToString("upload_post_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val file = Paths.get(javaClass.classLoader.getResource("upload_post_payload.jpg")!!.toURI())
+
+        val result = assertTestCallback(client!!.uploads().async()
+                .create("space_id", "environmentId", file, TestCallback()) as TestCallback)!!
+
+        // Request
+        val recordedRequest = server!!.takeRequest()
+        assertEquals("POST", recordedRequest.method)
+        assertEquals("/spaces/space_id/environments/environmentId/uploads", recordedRequest.path)
+        assertEquals("application/octet-stream", recordedRequest.getHeader("Content-Type"))
+        assertEquals(Files.size(file).toString(), recordedRequest.getHeader("Content-Length"))
+        assertTrue(Arrays.equals(Files.readAllBytes(file), recordedRequest.body.readByteArray()))
+        assertEquals("upload_id", result.id)
+    }
+
+    @test
+    fun testPostChannelToUpload() {
+        val responseBody = TestUtils.fileToString("upload_post_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val file = Paths.get(javaClass.classLoader.getResource("upload_post_payload.jpg")!!.toURI())
+        FileChannel.open(file).use { channel ->
+            channel.position(10)
+            client!!.uploads().create("space_id", "environmentId", channel)
+
+            assertEquals(10L, channel.position())
+        }
+
+        // Request
+        val recordedRequest = server!!.takeRequest()
+        assertEquals((Files.size(file) - 10).toString(), recordedRequest.getHeader("Content-Length"))
+        val expected = Files.readAllBytes(file).copyOfRange(10, Files.size(file).toInt())
+        assertTrue(Arrays.equals(expected, recordedRequest.body.readByteArray()))
+    }
+
+    @test
+    fun testPostStreamToUploadWithoutLength() {
+        val responseBody = TestUtils.fileToString("upload_post_response.json")
+        server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+        val content = ByteArray(100_000) { it.toByte() }
+        val result = client!!.uploads()
+                .createFromStream("space_id", "environmentId", ByteArrayInputStream(content), -1)
+
+        // Request
+        val recordedRequest = server!!.takeRequest()
+        assertEquals("chunked", recordedRequest.getHeader("Transfer-Encoding"))
+        assertEquals("application/octet-stream", recordedRequest.getHeader("Content-Type"))
+        assertTrue(Arrays.equals(content, recordedRequest.body.readByteArray()))
+        assertEquals("upload_id", result.id)
+    }
+
+    @test
+    fun testPostEmptyStreamThrowsAndClosesStream() {
+        var closed = false
+        val stream = object : ByteArrayInputStream(ByteArray(0)) {
+            override fun close() {
+                closed = true
+            }
+        }
+
+        try {
+            client!!.uploads().createFromStream("space_id", "environmentId", stream, -1)
+            fail("Expected an exception.")
+        } catch (e: IOException) {
+        }
+        assertTrue(closed)
+        assertEquals(0, server!!.requestCount)
+    }
+
+    @test(expected = IOException::class)
+    fun testPostEmptyFileThrows() {
+        val file = Files.createTempFile("upload", ".bin")
+        try {
+            client!!.uploads().create("space_id", "environmentId", file)
+        } finally {
+            Files.delete(file)
+        }
+    }
+
+    @test
+    fun testPostLargeFileDoesNotBufferOnHeap() {
+        val threads = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        assumeTrue(threads.isThreadAllocatedMemorySupported)
+
+        val size = 32L * 1024 * 1024
+        val file = Files.createTempFile("upload", ".bin")
+        try {
+            RandomAccessFile(file.toFile(), "rw").use { it.setLength(size) }
+
+            val responseBody = TestUtils.fileToString("upload_post_response.json")
+            server!!.bodyLimit = 0
+            server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+            server!!.enqueue(MockResponse().setResponseCode(200).setBody(responseBody))
+
+            // warm up the connection and client before measuring.
+            client!!.uploads().create("space_id", "environmentId", file)
+
+            val thread = Thread.currentThread().id
+            val before = threads.getThreadAllocatedBytes(thread)
+            client!!.uploads().create("space_id", "environmentId", file)
+            val allocated = threads.getThreadAllocatedBytes(thread) - before
+
+            assertTrue("allocated $allocated bytes for a $size bytes upload", allocated < size / 4)
+            server!!.takeRequest()
+            assertEquals(size, server!!.takeRequest().bodySize)
+        } finally {
+            Files.delete(file)
+        }
+    }
 }
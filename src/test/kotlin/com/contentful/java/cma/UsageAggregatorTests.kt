@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.UsageAggregator.Period
+import com.contentful.java.cma.lib.FakeServer
+import com.contentful.java.cma.model.CMAUsage.UsageMetric
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.io.StringWriter
+import java.util.Collections
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class UsageAggregatorTests {
+    private class Usage(val metric: String, val spaceId: String?, val days: Map<String, Int>)
+
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val requests = server.requests
+
+    private val organization = listOf(
+            Usage("cma", null, linkedMapOf("2020-01-30" to 1, "2020-01-31" to 2,
+                    "2020-02-01" to 3)),
+            Usage("cda", null, linkedMapOf("2020-02-02" to 10)))
+
+    private val spaces = listOf(
+            Usage("cma", "space2", linkedMapOf("2020-01-31" to 2, "2020-02-01" to 1)),
+            Usage("cma", "space1", linkedMapOf("2020-01-30" to 1, "2020-02-01" to 2)),
+            Usage("cma", "space3", linkedMapOf("2020-01-30" to 0)),
+            Usage("cda", "space1", linkedMapOf("2020-02-02" to 10)))
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testAggregateFetchesEveryMetricAndPage() {
+        val table = aggregate()
+
+        assertEquals(4, table.dayCount)
+        assertEquals("2020-01-30", table.firstDay)
+        assertEquals("2020-02-02", table.lastDay)
+        assertEquals(listOf("space1", "space2", "space3"), table.spaceIds)
+        assertEquals(UsageMetric.values().size * 2,
+                requests.count { !it.contains("skip=") })
+        assertEquals(1, requests.count { it.contains("space_periodic") && it.contains("skip=2") })
+        assertTrue(requests.all { it.contains("dateRange.startAt=2020-01-01") })
+        assertEquals(listOf(1, 2, 3, 0), table.getDaily(UsageMetric.cma, null).toList())
+        assertEquals(listOf(0, 2, 1, 0), table.getDaily(UsageMetric.cma, "space2").toList())
+    }
+
+    @test
+    fun testTotals() {
+        val table = aggregate()
+
+        assertEquals(6L, table.total(UsageMetric.cma, null))
+        assertEquals(3L, table.total(UsageMetric.cma, "space1"))
+        assertEquals(5L, table.total(UsageMetric.cma, null, "2020-01-31", null))
+        assertEquals(3L, table.total(UsageMetric.cma, null, "2019-12-01", "2020-01-31"))
+        assertEquals(0L, table.total(UsageMetric.cma, null, "2020-02-01", "2020-01-31"))
+        assertEquals(0L, table.total(UsageMetric.gql1, null))
+        assertEquals(0L, table.total(UsageMetric.cma, "unknown"))
+        assertEquals(listOf(2L, 1L, 0L),
+                table.totalsBySpace(UsageMetric.cma, "2020-02-01", "2020-02-28").toList())
+    }
+
+    @test
+    fun testRollupByPeriod() {
+        val table = aggregate()
+
+        assertEquals(linkedMapOf("2020-01" to 3L, "2020-02" to 3L),
+                table.rollup(UsageMetric.cma, null, Period.MONTH))
+        assertEquals(linkedMapOf("2020-01" to 0L, "2020-02" to 10L),
+                table.rollup(UsageMetric.cda, "space1", Period.MONTH))
+        assertEquals(linkedMapOf("2020" to 3L),
+                table.rollup(UsageMetric.cma, "space2", Period.YEAR))
+        assertEquals(listOf(1L, 0L, 2L, 0L),
+                table.rollup(UsageMetric.cma, "space1", Period.DAY).values.toList())
+    }
+
+    @test
+    fun testWriteCsv() {
+        val writer = StringWriter()
+
+        val lines = aggregate().writeCsv(writer)
+
+        assertEquals(9L, lines)
+        assertEquals("""
+            day,metric,space,usage
+            2020-02-02,cda,,10
+            2020-02-02,cda,space1,10
+            2020-01-30,cma,,1
+            2020-01-31,cma,,2
+            2020-02-01,cma,,3
+            2020-01-30,cma,space1,1
+            2020-02-01,cma,space1,2
+            2020-01-31,cma,space2,2
+            2020-02-01,cma,space2,1
+            """.trimIndent() + "\n", writer.toString())
+    }
+
+    @test
+    fun testSelectedMetricsOnly() {
+        val table = UsageAggregator.Builder()
+                .setMetrics(UsageMetric.cda)
+                .build(client)
+                .aggregate("orgid")
+                .blockingGet()
+
+        assertTrue(requests.all {
+            server.url(it).queryParameter("metric[in]") == "cda"
+        })
+        assertEquals("2020-02-02", table.firstDay)
+        assertEquals(10L, table.total(UsageMetric.cda, null))
+    }
+
+    @test
+    fun testEmptyTable() {
+        organization.forEach { (it.days as MutableMap).clear() }
+        spaces.forEach { (it.days as MutableMap).clear() }
+
+        val table = aggregate()
+
+        assertEquals(0, table.dayCount)
+        assertNull(table.firstDay)
+        assertEquals(emptyMap(), table.rollup(UsageMetric.cma, null, Period.MONTH))
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testInvalidDateRangeThrows() {
+        UsageAggregator.Builder().setDateRange("2020-13-01", null)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testTrailingTextInDateRangeThrows() {
+        UsageAggregator.Builder().setDateRange("2020-01-01junk", null)
+    }
+
+    @test
+    fun testAggregateRunsOnAsyncExecutor() {
+        val threads = Collections.synchronizedSet(mutableSetOf<String>())
+        val asyncClient = server.client {
+            setAsyncExecutor {
+                threads.add(Thread.currentThread().name)
+                Thread(it, "usage-async").start()
+            }
+        }
+
+        UsageAggregator.Builder().build(asyncClient).aggregate("orgid").blockingGet()
+
+        assertTrue(threads.contains(Thread.currentThread().name))
+        assertTrue(threads.all { it == Thread.currentThread().name || it == "usage-async" })
+    }
+
+    private fun aggregate() = UsageAggregator.Builder()
+            .setDateRange("2020-01-01", "2020-03-01")
+            .setConcurrency(3)
+            .build(client)
+            .aggregate("orgid")
+            .blockingGet()
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val url = request.requestUrl!!
+        val metric = url.queryParameter("metric[in]")
+        val (type, usages) = when (url.pathSegments.last()) {
+            "organization_periodic_usages" -> "OrganizationPeriodicUsage" to organization
+            "space_periodic_usages" -> "SpacePeriodicUsage" to spaces
+            else -> return MockResponse().setResponseCode(404)
+        }
+        val matching = usages.filter { it.metric == metric }
+
+        val skip = url.queryParameter("skip")?.toInt() ?: 0
+        val items = matching.drop(skip).take(2).map { usage ->
+            val space = usage.spaceId
+                    ?.let { """, "space": ${FakeServer.link("Space", it)}""" } ?: ""
+            val days = usage.days.entries.joinToString(",") { """"${it.key}": ${it.value}""" }
+            """{"sys": {"id": "${usage.metric}-${usage.spaceId}", "type": "$type"$space},
+                "metric": "${usage.metric}", "usage": ${usage.days.values.sum()},
+                "unitOfMeasure": "apiRequests", "usagePerDay": {$days},
+                "dateRange": {"startAt": "2020-01-01", "endAt": "2020-03-01"}}"""
+        }
+        return MockResponse().setBody(FakeServer.array(items, matching.size, skip, 2))
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma
+
+import com.contentful.java.cma.lib.FakeServer
+import com.google.gson.JsonParser
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import java.io.StringWriter
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class WebhookHarvesterTests {
+    private val server = FakeServer { respond(it) }
+    private lateinit var client: CMAClient
+    private val requests = server.requests
+    private val inFlight = AtomicInteger()
+    private val maxInFlight = AtomicInteger()
+
+    /* Status codes of the calls of every webhook, null for calls without response. */
+    private val calls = mapOf(
+            "hook0" to listOf(200, 500, null),
+            "hook1" to listOf(200, 200, 404, 201),
+            "hook2" to listOf<Int?>())
+
+    @Before
+    fun setUp() {
+        server.start()
+        client = server.client()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @test
+    fun testHarvestAllCalls() {
+        val deliveries = WebhookHarvester.Builder()
+                .setConcurrency(2)
+                .build(client)
+                .harvest("spaceid")
+                .toList()
+                .blockingGet()
+
+        assertEquals(7, deliveries.size)
+        assertEquals(listOf("hook0-call0", "hook0-call1", "hook0-call2", "hook1-call0",
+                "hook1-call1", "hook1-call2", "hook1-call3"),
+                deliveries.map { it.detail.id }.sorted())
+        deliveries.forEach {
+            assertEquals(it.webhook.id, it.detail.id.substringBefore('-'))
+            assertEquals(calls[it.webhook.id]!!.size, it.health.calls.total)
+        }
+        assertEquals(3, requests.count { it.endsWith("/health") })
+        assertTrue(maxInFlight.get() <= 3 * 2, "max in flight was ${maxInFlight.get()}")
+    }
+
+    @test
+    fun testHarvestFollowsPagesOfCalls() {
+        val deliveries = WebhookHarvester.Builder()
+                .setCallsQuery(mapOf("limit" to "2"))
+                .build(client)
+                .harvest("spaceid")
+                .toList()
+                .blockingGet()
+
+        assertEquals(7, deliveries.size)
+        assertEquals(listOf("skip=0", "skip=2"), requests
+                .filter { it.contains("/hook1/calls?") }
+                .map { Regex("skip=\\d+").find(it)?.value ?: "skip=0" }
+                .sorted())
+        assertTrue(requests.filter { it.endsWith("/calls") || it.contains("/calls?") }
+                .all { it.contains("limit=2") })
+    }
+
+    @test
+    fun testFilteredCallsAreNotRequested() {
+        val deliveries = WebhookHarvester.Builder()
+                .setFilter(WebhookHarvester.failed())
+                .build(client)
+                .harvest("spaceid")
+                .toList()
+                .blockingGet()
+
+        assertEquals(listOf("hook0-call1", "hook0-call2", "hook1-call2"),
+                deliveries.map { it.detail.id }.sorted())
+        assertEquals(3, requests.count { it.contains("/calls/") })
+    }
+
+    @test
+    fun testReportAggregatesCalls() {
+        val report = WebhookHarvester.Builder()
+                .setFilter(WebhookHarvester.statusCodes(200, 299))
+                .build(client)
+                .report("spaceid")
+                .blockingGet()
+
+        assertEquals(4, report.calls)
+        assertEquals(mapOf(200 to 3, 201 to 1), report.callsByStatusCode)
+        assertEquals(mapOf("hook0" to 1, "hook1" to 3), report.callsByWebhook)
+        assertEquals(emptyMap(), report.callsByError)
+        assertEquals(setOf("hook0", "hook1"), report.health.keys)
+    }
+
+    @test
+    fun testWriteNdjson() {
+        val writer = StringWriter()
+
+        val written = WebhookHarvester.Builder()
+                .setFilter(WebhookHarvester.failed())
+                .build(client)
+                .write("spaceid", writer)
+
+        val lines = writer.toString().lines().filter { it.isNotEmpty() }
+                .map { JsonParser.parseString(it).asJsonObject }
+        assertEquals(3L, written)
+        assertEquals(3, lines.size)
+        val noResponse = lines.single { it["call"].asJsonObject["statusCode"] == null }
+        assertEquals("hook0", noResponse["webhook"].asString)
+        assertEquals("NameResolutionError",
+                noResponse["call"].asJsonObject["errors"].asJsonArray[0].asString)
+    }
+
+    @test(expected = IllegalArgumentException::class)
+    fun testHarvestWithoutSpaceThrows() {
+        WebhookHarvester.Builder().build(client).harvest(null)
+    }
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val segments = request.requestUrl!!.pathSegments
+        val current = inFlight.incrementAndGet()
+        maxInFlight.accumulateAndGet(current) { a, b -> Math.max(a, b) }
+        try {
+            Thread.sleep(10)
+            return when {
+                segments.last() == "webhook_definitions" -> {
+                    val items = calls.keys.map {
+                        """{"name": "$it", "url": "https://example.com/$it",
+                            "sys": {"id": "$it", "type": "WebhookDefinition"}}"""
+                    }
+                    MockResponse().setBody(FakeServer.array(items, calls.size))
+                }
+                segments.last() == "health" -> {
+                    val id = segments[segments.size - 2]
+                    MockResponse().setBody("""{"sys": {"id": "$id", "type": "Webhook"},
+                        "calls": {"total": ${calls[id]!!.size}, "healthy": 0}}""")
+                }
+                segments.last() == "calls" -> {
+                    val id = segments[segments.size - 2]
+                    val url = request.requestUrl!!
+                    val skip = url.queryParameter("skip")?.toInt() ?: 0
+                    val limit = url.queryParameter("limit")?.toInt() ?: 100
+                    val items = calls[id]!!.withIndex().drop(skip).take(limit)
+                            .map { (index, status) -> call(id, index, status, "WebhookCallOverview") }
+                    val total = calls[id]!!.size
+                    MockResponse().setBody(FakeServer.array(items, total, skip, limit))
+                }
+                segments[segments.size - 2] == "calls" -> {
+                    val id = segments[segments.size - 3]
+                    val index = segments.last().substringAfter("call").toInt()
+                    MockResponse().setBody(
+                            call(id, index, calls[id]!![index], "WebhookCallDetails"))
+                }
+                else -> MockResponse().setResponseCode(404)
+            }
+        } finally {
+            inFlight.decrementAndGet()
+        }
+    }
+
+    private fun call(webhookId: String, index: Int, status: Int?, type: String): String {
+        val errors = if (status == null) """["NameResolutionError"]""" else "[]"
+        return """{"sys": {"id": "$webhookId-call$index", "type": "$type"},
+            "statusCode": $status, "errors": $errors, "eventType": "publish",
+            "url": "https://example.com/$webhookId", "requestAt": "2019-01-01T00:00:00.000Z"}"""
+    }
+}
@@ -0,0 +1,119 @@
+package com.contentful.java.cma.interceptor
+
+import com.contentful.java.cma.model.RateLimits
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class AdaptiveRateLimiterTests {
+    private lateinit var server: MockWebServer
+    private var now = 0L
+
+    @Before fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test fun testBurstUpToRateThenWait() {
+        val limiter = AdaptiveRateLimiter(2) { now }
+
+        assertEquals(0, limiter.reserve())
+        assertEquals(0, limiter.reserve())
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve())
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), limiter.reserve())
+
+        now += TimeUnit.SECONDS.toNanos(2)
+        assertEquals(0, limiter.reserve())
+    }
+
+    @Test fun testSecondLimitChangesRate() {
+        val limiter = AdaptiveRateLimiter(7) { now }
+
+        limiter.update(limits(secondLimit = 2, secondRemaining = 2), false)
+
+        assertEquals(2.0, limiter.requestsPerSecond)
+        assertEquals(0, limiter.reserve())
+        assertEquals(0, limiter.reserve())
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve())
+    }
+
+    @Test fun testSecondRemainingLowersTokens() {
+        val limiter = AdaptiveRateLimiter(10) { now }
+
+        limiter.update(limits(secondLimit = 10, secondRemaining = 1), false)
+
+        assertEquals(0, limiter.reserve())
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve())
+    }
+
+    @Test fun testTooManyRequestsPausesForReset() {
+        val limiter = AdaptiveRateLimiter(10) { now }
+
+        limiter.update(limits(secondLimit = 10, reset = 3), true)
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3100), limiter.reserve())
+    }
+
+    @Test fun testExhaustedHourPausesForReset() {
+        val limiter = AdaptiveRateLimiter(10) { now }
+
+        limiter.update(limits(hourLimit = 36000, hourRemaining = 0, reset = 60), false)
+
+        assertTrue(limiter.reserve() >= TimeUnit.SECONDS.toNanos(60))
+    }
+
+    @Test fun testMissingHeadersKeepRate() {
+        val limiter = AdaptiveRateLimiter(3) { now }
+
+        limiter.update(RateLimits.DefaultParser().parse(emptyMap()), false)
+
+        assertEquals(3.0, limiter.requestsPerSecond)
+        assertEquals(0, limiter.reserve())
+    }
+
+    @Test fun testInterceptorReadsResponseHeaders() {
+        val limiter = AdaptiveRateLimiter(7) { now }
+        val client = OkHttpClient.Builder().addInterceptor(limiter).build()
+
+        server.enqueue(MockResponse()
+                .setResponseCode(429)
+                .addHeader(RateLimits.Parser.HEADER_SECOND_LIMIT, "4")
+                .addHeader(RateLimits.Parser.HEADER_SECOND_REMAINING, "0")
+                .addHeader(RateLimits.Parser.HEADER_RESET, "2"))
+
+        client.newCall(Request.Builder().url(server.url("/")).build()).execute().close()
+
+        assertEquals(4.0, limiter.requestsPerSecond)
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2250), limiter.reserve())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testNonPositiveRateThrows() {
+        AdaptiveRateLimiter(0)
+    }
+
+    private fun limits(
+            hourLimit: Int = 0,
+            hourRemaining: Int = 0,
+            secondLimit: Int = 0,
+            secondRemaining: Int = 0,
+            reset: Int = 0
+    ): RateLimits = RateLimits.DefaultParser().parse(mapOf(
+            RateLimits.Parser.HEADER_HOUR_LIMIT to listOf(hourLimit.toString()),
+            RateLimits.Parser.HEADER_HOUR_REMAINING to listOf(hourRemaining.toString()),
+            RateLimits.Parser.HEADER_SECOND_LIMIT to listOf(secondLimit.toString()),
+            RateLimits.Parser.HEADER_SECOND_REMAINING to listOf(secondRemaining.toString()),
+            RateLimits.Parser.HEADER_RESET to listOf(reset.toString())
+    ))
+}
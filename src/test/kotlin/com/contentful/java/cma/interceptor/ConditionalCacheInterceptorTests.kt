@@ -0,0 +1,245 @@
+package com.contentful.java.cma.interceptor
+
+import com.contentful.java.cma.CMAClient
+import com.contentful.java.cma.lib.TestUtils
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ConditionalCacheInterceptorTests {
+    private lateinit var server: MockWebServer
+    private lateinit var directory: Path
+
+    @Before fun setUp() {
+        server = MockWebServer()
+        server.start()
+        directory = Files.createTempDirectory("cma-cache")
+    }
+
+    @After fun tearDown() {
+        server.shutdown()
+        directory.toFile().deleteRecursively()
+    }
+
+    @Test fun testRevalidatesWithEtag() {
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        val cache = ConditionalCacheInterceptor.Builder().build()
+
+        assertEquals(200 to "first", get(cache))
+        assertEquals(200 to "first", get(cache))
+
+        assertNull(server.takeRequest().getHeader("If-None-Match"))
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"))
+        assertEquals(1, cache.hitCount)
+        assertEquals(1, cache.missCount)
+    }
+
+    @Test fun testChangedResponseReplacesEntry() {
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setBody("second").addHeader("ETag", "\"v2\""))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        val cache = ConditionalCacheInterceptor.Builder().build()
+
+        assertEquals(200 to "first", get(cache))
+        assertEquals(200 to "second", get(cache))
+        assertEquals(200 to "second", get(cache))
+
+        server.takeRequest()
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"))
+        assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"))
+    }
+
+    @Test fun testRevalidatesWithLastModified() {
+        val date = "Wed, 21 Oct 2015 07:28:00 GMT"
+        server.enqueue(MockResponse().setBody("first").addHeader("Last-Modified", date))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        val cache = ConditionalCacheInterceptor.Builder().build()
+        get(cache)
+
+        assertEquals(200 to "first", get(cache))
+        server.takeRequest()
+        assertEquals(date, server.takeRequest().getHeader("If-Modified-Since"))
+    }
+
+    @Test fun testDoesNotStoreWithoutValidators() {
+        server.enqueue(MockResponse().setBody("first"))
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\"")
+                .addHeader("Cache-Control", "no-store"))
+        server.enqueue(MockResponse().setBody("large").addHeader("ETag", "\"v1\""))
+
+        val cache = ConditionalCacheInterceptor.Builder().setMaxBodySize(4).build()
+        repeat(3) { get(cache) }
+
+        assertEquals(0, cache.size())
+    }
+
+    @Test fun testOtherMethodsDropEntry() {
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setBody("{}"))
+        server.enqueue(MockResponse().setBody("second"))
+
+        val cache = ConditionalCacheInterceptor.Builder().setDirectory(directory).build()
+        get(cache)
+        assertEquals(1, cache.size())
+
+        client(cache).newCall(Request.Builder()
+                .url(server.url("/"))
+                .put("{}".toRequestBody("application/json".toMediaType()))
+                .build()).execute().close()
+        assertEquals(0, cache.size())
+
+        get(cache)
+        server.takeRequest()
+        server.takeRequest()
+        assertNull(server.takeRequest().getHeader("If-None-Match"))
+    }
+
+    @Test fun testDirectorySurvivesNewInstance() {
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\"")
+                .addHeader("Content-Type", "application/json"))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        get(ConditionalCacheInterceptor.Builder().setDirectory(directory).build())
+        val restarted = ConditionalCacheInterceptor.Builder().setDirectory(directory).build()
+
+        client(restarted).newCall(Request.Builder().url(server.url("/")).build()).execute().use {
+            assertEquals(200, it.code)
+            assertEquals("first", it.body!!.string())
+            assertEquals("application/json", it.header("Content-Type"))
+        }
+        assertEquals(1, restarted.hitCount)
+
+        restarted.clear()
+        assertEquals(0, Files.list(directory).use { it.count() })
+    }
+
+    @Test fun testTokensDoNotShareEntries() {
+        server.enqueue(MockResponse().setBody("first").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setBody("other").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        val cache = ConditionalCacheInterceptor.Builder().setDirectory(directory).build()
+
+        assertEquals(200 to "first", get(cache, "Bearer one"))
+        assertEquals(200 to "other", get(cache, "Bearer two"))
+        assertEquals(200 to "first", get(cache, "Bearer one"))
+
+        server.takeRequest()
+        assertNull(server.takeRequest().getHeader("If-None-Match"))
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"))
+        assertEquals(2, cache.size())
+        Files.list(directory).use { files ->
+            assertTrue(files.noneMatch { String(Files.readAllBytes(it)).contains("Bearer") })
+        }
+    }
+
+    @Test fun testDirectoryIsTrimmed() {
+        repeat(3) {
+            server.enqueue(MockResponse().setBody("body$it").addHeader("ETag", "\"v$it\""))
+        }
+
+        val cache = ConditionalCacheInterceptor.Builder()
+                .setDirectory(directory)
+                .setMaxDirectorySize(50)
+                .build()
+        repeat(3) { get(cache, path = "/$it") }
+
+        val sizes = Files.list(directory).use { files ->
+            files.iterator().asSequence().map { Files.size(it) }.toList()
+        }
+        assertEquals(1, sizes.size)
+        assertTrue(sizes[0] <= 50)
+        assertEquals(3, cache.size())
+    }
+
+    @Test fun testConcurrentWritesOfOneKeyDoNotInterleave() {
+        val version = AtomicInteger()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                val next = version.incrementAndGet()
+                return MockResponse()
+                        .setBody("body$next".repeat(1000))
+                        .addHeader("ETag", "\"$next\"")
+            }
+        }
+
+        val cache = ConditionalCacheInterceptor.Builder().setDirectory(directory).build()
+        val executor = Executors.newFixedThreadPool(8)
+        repeat(40) { executor.execute { get(cache) } }
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS))
+
+        val files = Files.list(directory).use { it.iterator().asSequence().toList() }
+        assertEquals(listOf(".cache"), files.map { it.fileName.toString().takeLast(6) })
+
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest) = MockResponse().setResponseCode(304)
+        }
+        val restarted = ConditionalCacheInterceptor.Builder().setDirectory(directory).build()
+        val (code, body) = get(restarted)
+        assertEquals(200, code)
+        assertEquals(1, restarted.hitCount)
+        assertEquals(body.substring(0, body.length / 1000).repeat(1000), body)
+    }
+
+    @Test fun testClientParsesCachedResponse() {
+        val body = TestUtils.fileToString("space_fetch_one_response.json")
+        server.enqueue(MockResponse().setBody(body).addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        val cache = ConditionalCacheInterceptor.Builder().build()
+        val client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server.url("/").toString())
+                .setResponseCache(cache)
+                .build()
+
+        val first = client.spaces().fetchOne("spaceid")
+        val second = client.spaces().fetchOne("spaceid")
+
+        assertEquals(first.id, second.id)
+        assertEquals(first.name, second.name)
+        assertEquals(1, cache.hitCount)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testNonPositiveMaxEntriesThrows() {
+        ConditionalCacheInterceptor.Builder().setMaxEntries(0)
+    }
+
+    private fun client(cache: ConditionalCacheInterceptor) = OkHttpClient.Builder()
+            .addInterceptor(cache)
+            .build()
+
+    private fun get(
+        cache: ConditionalCacheInterceptor,
+        authorization: String? = null,
+        path: String = "/"
+    ): Pair<Int, String> {
+        val request = Request.Builder().url(server.url(path))
+        authorization?.let { request.header("Authorization", it) }
+        return client(cache).newCall(request.build()).execute().use {
+            it.code to it.body!!.string()
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.contentful.java.cma.interceptor
+
+import com.contentful.java.cma.CMAClient
+import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMAHttpException
+import com.contentful.java.cma.model.CMASpace
+import com.contentful.java.cma.model.RateLimits
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.Collections
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import kotlin.test.fail
+
+class MetricsInterceptorTests {
+    private lateinit var server: MockWebServer
+    private val reported = Collections.synchronizedList(mutableListOf<RequestMetrics>())
+    private val recorder = MetricsRecorder()
+
+    @Before fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test fun testReportsOperationBytesAndRateLimits() {
+        val body = TestUtils.fileToString("space_fetch_one_response.json")
+        server.enqueue(MockResponse()
+                .setBody(body)
+                .addHeader(RateLimits.Parser.HEADER_SECOND_LIMIT, "10")
+                .addHeader(RateLimits.Parser.HEADER_SECOND_REMAINING, "7"))
+
+        client().spaces().fetchOne("spaceid")
+
+        val metrics = reported.single()
+        assertEquals("spaces.fetchOne", metrics.operation)
+        assertEquals("GET", metrics.method)
+        assertEquals("/spaces/spaceid", metrics.path)
+        assertEquals(200, metrics.statusCode)
+        assertEquals(body.toByteArray().size.toLong(), metrics.bytesReceived)
+        assertEquals(0, metrics.retries)
+        assertNull(metrics.error)
+        assertTrue(metrics.durationNanos > 0)
+
+        assertEquals(7, recorder.secondRemaining)
+        assertEquals(-1, recorder.hourRemaining)
+        val operation = recorder.getOperation("spaces.fetchOne")
+        assertEquals(1, operation.calls)
+        assertEquals(0, operation.errors)
+        assertEquals(1, operation.latency.count)
+    }
+
+    @Test fun testCountsRetriesAndBytesSent() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setBody(
+                TestUtils.fileToString("space_fetch_one_response.json")))
+
+        val retry = RetryInterceptor.Builder().build()
+                .also { it.sleeper = RetryInterceptor.Sleeper { } }
+        val client = client { it.setRetryInterceptor(retry) }
+
+        client.spaces().fetchOne("spaceid")
+        server.enqueue(MockResponse().setBody(
+                TestUtils.fileToString("space_create_response.json")))
+        client.spaces().create(CMASpace().setName("name"))
+
+        val fetch = reported.first { it.operation == "spaces.fetchOne" }
+        assertEquals(1, fetch.retries)
+        assertEquals(200, fetch.statusCode)
+
+        val create = reported.first { it.operation == "spaces.create" }
+        assertEquals("POST", create.method)
+        repeat(2) { server.takeRequest() }
+        assertEquals(server.takeRequest().bodySize, create.bytesSent)
+        assertEquals(1, recorder.getOperation("spaces.fetchOne").retries)
+    }
+
+    @Test fun testReportsErrors() {
+        server.enqueue(MockResponse().setResponseCode(404).setBody("{}"))
+
+        try {
+            client().spaces().fetchOne("spaceid")
+            fail("Expected an exception.")
+        } catch (e: CMAHttpException) {
+            assertEquals(404, e.responseCode())
+        }
+
+        val metrics = reported.single()
+        assertEquals(404, metrics.statusCode)
+        assertTrue(metrics.error is CMAHttpException)
+        assertEquals(1, recorder.getOperation("spaces.fetchOne").errors)
+    }
+
+    @Test fun testNoInterceptorsWithoutListener() {
+        val interceptors = CMAClient.Builder()
+                .setAccessToken("token")
+                .defaultCoreCallFactoryBuilder()
+                .interceptors()
+
+        assertFalse(interceptors.any { it is MetricsInterceptor })
+    }
+
+    @Test fun testHistogramBucketsAreContinuous() {
+        val buckets = (64 - LatencyHistogram.SUB_BUCKET_BITS) * LatencyHistogram.SUB_BUCKETS
+        var previous = -1L
+        for (index in 0 until buckets) {
+            val upper = LatencyHistogram.upperBound(index)
+            assertEquals(index, LatencyHistogram.index(upper))
+            assertEquals(index, LatencyHistogram.index(previous + 1))
+            previous = upper
+        }
+        assertEquals(Long.MAX_VALUE, previous)
+    }
+
+    @Test fun testHistogramPercentiles() {
+        val histogram = LatencyHistogram()
+        (1..1000L).forEach { histogram.record(it * 1_000_000) }
+
+        assertEquals(1000, histogram.count)
+        assertEquals(1_000_000_000, histogram.max)
+        assertEquals(500_500_000.0, histogram.mean)
+
+        val p50 = histogram.getPercentile(50.0)
+        val p99 = histogram.getPercentile(99.0)
+        assertTrue(p50 in 500_000_000..(500_000_000 + 500_000_000 / LatencyHistogram.SUB_BUCKETS),
+                "p50 was $p50")
+        assertTrue(p99 in 990_000_000..1_000_000_000, "p99 was $p99")
+        assertEquals(histogram.max, histogram.getPercentile(100.0))
+        assertEquals(0, LatencyHistogram().getPercentile(99.0))
+    }
+
+    private fun client(configure: (CMAClient.Builder) -> Unit = {}): CMAClient {
+        val builder = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server.url("/").toString())
+                .setMetricsListener(MetricsListener {
+                    reported.add(it)
+                    recorder.onRequest(it)
+                })
+        configure(builder)
+        return builder.build()
+    }
+}
@@ -0,0 +1,195 @@
+package com.contentful.java.cma.interceptor
+
+import com.contentful.java.cma.CMAClient
+import com.contentful.java.cma.lib.TestUtils
+import com.contentful.java.cma.model.CMAHttpException
+import com.contentful.java.cma.model.RateLimits
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import kotlin.test.fail
+
+class RetryInterceptorTests {
+    private lateinit var server: MockWebServer
+    private val sleeps = mutableListOf<Long>()
+
+    @Before fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test fun testRetriesServerErrorOfGet() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(MockResponse().setResponseCode(200).setBody("ok"))
+
+        val response = execute(interceptor(), request("GET"))
+
+        assertEquals(200, response)
+        assertEquals(3, server.requestCount)
+        assertEquals(2, sleeps.size)
+        assertTrue(sleeps[0] in 50L..100L, "first delay was ${sleeps[0]}")
+        assertTrue(sleeps[1] in 100L..200L, "second delay was ${sleeps[1]}")
+    }
+
+    @Test fun testDoesNotRetryServerErrorOfPost() {
+        server.enqueue(MockResponse().setResponseCode(500))
+
+        val response = execute(interceptor(), request("POST"))
+
+        assertEquals(500, response)
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test fun testRetriesServerErrorOfVersionedPutOnly() {
+        server.enqueue(MockResponse().setResponseCode(502))
+        server.enqueue(MockResponse().setResponseCode(200))
+        server.enqueue(MockResponse().setResponseCode(502))
+
+        val retry = interceptor()
+        val versioned = request("PUT").newBuilder()
+                .header(RetryInterceptor.HEADER_VERSION, "3")
+                .build()
+
+        assertEquals(200, execute(retry, versioned))
+        assertEquals(502, execute(retry, request("PUT")))
+        assertEquals(3, server.requestCount)
+    }
+
+    @Test fun testRetriesTooManyRequestsAfterReset() {
+        server.enqueue(MockResponse()
+                .setResponseCode(429)
+                .addHeader(RateLimits.Parser.HEADER_RESET, "2"))
+        server.enqueue(MockResponse().setResponseCode(201))
+
+        val response = execute(interceptor(), request("POST"))
+
+        assertEquals(201, response)
+        assertEquals(listOf(2000L), sleeps)
+    }
+
+    @Test fun testDoesNotWaitForLongResets() {
+        server.enqueue(MockResponse()
+                .setResponseCode(429)
+                .addHeader(RateLimits.Parser.HEADER_RESET, "3600"))
+
+        val response = execute(interceptor(), request("GET"))
+
+        assertEquals(429, response)
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test fun testStopsAfterMaxRetries() {
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(500)) }
+
+        val retry = RetryInterceptor.Builder()
+                .setMaxRetries(2)
+                .setBackoff(100, 1000, TimeUnit.MILLISECONDS)
+                .build()
+
+        assertEquals(500, execute(retry, request("GET")))
+        assertEquals(3, server.requestCount)
+    }
+
+    @Test fun testBudgetLimitsRetries() {
+        repeat(4) { server.enqueue(MockResponse().setResponseCode(500)) }
+
+        val retry = RetryInterceptor.Builder()
+                .setBudget(1, 0.0)
+                .build()
+
+        assertEquals(500, execute(retry, request("GET")))
+        assertEquals(500, execute(retry, request("GET")))
+        assertEquals(3, server.requestCount)
+        assertEquals(0, retry.remainingBudget)
+    }
+
+    @Test fun testRetriesFailedConnection() {
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START))
+        server.enqueue(MockResponse().setResponseCode(200))
+
+        val response = execute(interceptor(), request("GET"))
+
+        assertEquals(200, response)
+        assertEquals(1, sleeps.size)
+    }
+
+    @Test fun testClientRetriesBeforeThrowing() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setResponseCode(200)
+                .setBody(TestUtils.fileToString("space_fetch_one_response.json")))
+
+        val client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server.url("/").toString())
+                .setRetryInterceptor(interceptor())
+                .build()
+
+        val space = client.spaces().fetchOne("spaceid")
+
+        assertEquals("id1", space.id)
+        assertEquals(2, server.requestCount)
+    }
+
+    @Test fun testClientThrowsOnceRetriesAreExhausted() {
+        repeat(2) { server.enqueue(MockResponse().setResponseCode(503)) }
+
+        val client = CMAClient.Builder()
+                .setAccessToken("token")
+                .setCoreEndpoint(server.url("/").toString())
+                .setRetryInterceptor(RetryInterceptor.Builder().setMaxRetries(1).build()
+                        .also { it.sleeper = RetryInterceptor.Sleeper { sleeps.add(it) } })
+                .build()
+
+        try {
+            client.spaces().fetchOne("spaceid")
+            fail("Expected an exception.")
+        } catch (e: CMAHttpException) {
+            assertEquals(503, e.responseCode())
+        }
+        assertEquals(2, server.requestCount)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testSubMillisecondBackoffThrows() {
+        RetryInterceptor.Builder().setBackoff(500, 1000, TimeUnit.MICROSECONDS)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testNegativeMaxRateLimitResetThrows() {
+        RetryInterceptor.Builder().setMaxRateLimitReset(-1, TimeUnit.SECONDS)
+    }
+
+    private fun interceptor() = RetryInterceptor.Builder()
+            .setBackoff(100, 1000, TimeUnit.MILLISECONDS)
+            .build()
+            .also { it.sleeper = RetryInterceptor.Sleeper { millis -> sleeps.add(millis) } }
+
+    private fun request(method: String): Request {
+        val body = if (method == "GET") null else "{}".toRequestBody("application/json".toMediaType())
+        return Request.Builder().url(server.url("/")).method(method, body).build()
+    }
+
+    private fun execute(interceptor: RetryInterceptor, request: Request): Int {
+        val client = OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .retryOnConnectionFailure(false)
+                .build()
+
+        client.newCall(request).execute().use { return it.code }
+    }
+}
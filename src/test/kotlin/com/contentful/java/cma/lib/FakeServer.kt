@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019 Contentful GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.contentful.java.cma.lib
+
+import com.contentful.java.cma.CMAClient
+import okhttp3.HttpUrl
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import java.util.Collections
+import java.util.logging.LogManager
+
+/**
+ * A mock server answering from the state of a test, for helpers whose requests depend on earlier
+ * responses or run concurrently, so their responses cannot be enqueued in order.
+ */
+class FakeServer(private val respond: (RecordedRequest) -> MockResponse) {
+    private val server = MockWebServer()
+
+    /** Paths of all requests received, in order of arrival. */
+    val requests: MutableList<String> = Collections.synchronizedList(mutableListOf<String>())
+
+    fun start(): FakeServer {
+        LogManager.getLogManager().reset()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse {
+                requests.add(request.path!!)
+                return respond(request)
+            }
+        }
+        server.start()
+        return this
+    }
+
+    fun shutdown() = server.shutdown()
+
+    fun url(path: String): HttpUrl = server.url(path)
+
+    fun takeRequest(): RecordedRequest = server.takeRequest()
+
+    /**
+     * @return a client sending all its requests, uploads included, to this server.
+     */
+    fun client(configure: CMAClient.Builder.() -> Unit = {}): CMAClient = CMAClient.Builder()
+            .setAccessToken("token")
+            .setCoreEndpoint(url("/").toString())
+            .setUploadEndpoint(url("/").toString())
+            .apply(configure)
+            .build()
+
+    companion object {
+        fun link(linkType: String, id: String) =
+                """{"sys": {"id": "$id", "type": "Link", "linkType": "$linkType"}}"""
+
+        /**
+         * @return an array paged by skip and limit.
+         */
+        fun array(items: List<String>, total: Int, skip: Int = 0, limit: Int = 100) =
+                """{"sys": {"type": "Array"}, "total": $total, "skip": $skip, "limit": $limit,
+                    "items": [${items.joinToString(",")}]}"""
+
+        /**
+         * @return an array paged by cursor, linking to the next page if there is one.
+         */
+        fun cursorArray(items: List<String>, limit: Int, next: String?): String {
+            val pages = if (next == null) "" else """"next": "$next""""
+            return """{"sys": {"type": "Array"}, "limit": $limit,
+                "items": [${items.joinToString(",")}], "pages": {$pages}}"""
+        }
+    }
+}